@@ -0,0 +1,26 @@
+package org.example.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks named as arguments, or all of them
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) {
+        List<String> names = Arrays.asList(args);
+        if (names.isEmpty() || names.contains("engine")) {
+            EngineBenchmark.run();
+        }
+        if (names.isEmpty() || names.contains("exact")) {
+            ExactBenchmark.run();
+        }
+        if (names.isEmpty() || names.contains("watcher")) {
+            WatcherBenchmark.run();
+        }
+    }
+}
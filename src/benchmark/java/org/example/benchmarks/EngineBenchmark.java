@@ -0,0 +1,56 @@
+package org.example.benchmarks;
+
+import org.example.calculator.AssignmentCalculator;
+import org.example.calculator.Calculator;
+import org.example.calculator.ExpressionCache;
+import org.example.engine.EngineType;
+
+import java.util.List;
+
+/**
+ * Compares the closure engine with the AST interpreter on the request workloads
+ * <p>
+ * With the expression cache, as the app runs, lines are compiled once and the time is
+ * evaluation; without it every line is parsed and compiled on every request.
+ */
+final class EngineBenchmark {
+    private static final EngineType[] ENGINES = {EngineType.INTERPRETER, EngineType.CLOSURE};
+
+    private EngineBenchmark() {
+    }
+
+    static void run() {
+        System.out.println("Engines, ns per request (median)");
+        System.out.printf("%-28s %-9s %12s %12s %8s%n", "workload", "cache", "interpreter", "closure", "speedup");
+        measure("sample input", Workloads.sampleInput());
+        measure("random, up to 8 lines", Workloads.random(500, 8));
+        measure("random, up to 64 lines", Workloads.random(100, 64));
+    }
+
+    private static void measure(String workload, List<List<String>> requests) {
+        for (boolean cached : new boolean[]{true, false}) {
+            double[] nanos = new double[ENGINES.length];
+            String expected = null;
+            for (int i = 0; i < ENGINES.length; i++) {
+                Calculator calculator = create(ENGINES[i], cached);
+                String result = String.valueOf(Workloads.processAll(calculator, requests));
+                if (expected != null && !expected.equals(result)) {
+                    throw new IllegalStateException(ENGINES[i] + " gives other results on " + workload);
+                }
+                expected = result;
+                nanos[i] = Measurement.nanosPerItem(() -> Workloads.processAll(calculator, requests), requests.size());
+            }
+            System.out.printf("%-28s %-9s %12.0f %12.0f %7.2fx%n", workload, cached ? "cached" : "uncached",
+                    nanos[0], nanos[1], nanos[0] / nanos[1]);
+        }
+    }
+
+    private static Calculator create(EngineType engine, boolean cached) {
+        Calculator calculator = new AssignmentCalculator();
+        calculator.setEngineType(engine);
+        if (cached) {
+            calculator.setExpressionCache(new ExpressionCache());
+        }
+        return calculator;
+    }
+}
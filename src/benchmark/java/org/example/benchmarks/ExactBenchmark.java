@@ -0,0 +1,40 @@
+package org.example.benchmarks;
+
+import org.example.calculator.AssignmentCalculator;
+import org.example.calculator.Calculator;
+import org.example.calculator.ExactCalculator;
+import org.example.calculator.ExpressionCache;
+
+import java.util.List;
+
+/**
+ * Compares the exact calculator with the int one, on small values where it stays on
+ * longs and on values it has to promote to BigInteger
+ */
+final class ExactBenchmark {
+    private static final List<String> SMALL =
+            List.of("a = 12 + 30", "b = a * 7 - 5", "c = b / 3 + a", "a += c * 2", "b = a++ - --c");
+    private static final List<String> WIDE =
+            List.of("a = 65536 * 65536", "b = a * a * a", "c = b / 3 + a", "a += c * 2", "b = a++ - --c");
+
+    private ExactBenchmark() {
+    }
+
+    static void run() {
+        Calculator assignment = new AssignmentCalculator();
+        assignment.setExpressionCache(new ExpressionCache()); // The exact calculator caches compiled lines too
+        Calculator exact = new ExactCalculator();
+        if (!assignment.processExpressions(SMALL).equals(exact.processExpressions(SMALL))) {
+            throw new IllegalStateException("The exact calculator gives another result on small values");
+        }
+
+        System.out.println("Exact arithmetic, ns per request (median)");
+        System.out.printf("%-28s %12.0f%n", "int, small values", nanosPerRequest(assignment, SMALL));
+        System.out.printf("%-28s %12.0f%n", "exact, small values", nanosPerRequest(exact, SMALL));
+        System.out.printf("%-28s %12.0f%n", "exact, promoted values", nanosPerRequest(exact, WIDE));
+    }
+
+    private static double nanosPerRequest(Calculator calculator, List<String> request) {
+        return Measurement.nanosPerItem(() -> calculator.processExpressions(request).length(), 1);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.benchmarks;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+/**
+ * Times an operation in rounds after a warmup and reports the median round
+ * A plain loop rather than a harness such as JMH, so the benchmarks need no extra
+ * dependencies; results are meant for comparisons within one run on one machine.
+ */
+final class Measurement {
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 15;
+    private static final long MIN_ROUND_NANOS = 50_000_000L;
+
+    // Consumes results, so the JIT cannot drop the measured work
+    private static volatile int sink;
+
+    private Measurement() {
+    }
+
+    /**
+     * @param operation   the operation, returning a value derived from its result
+     * @param itemsPerRun the number of items, such as requests, one run of the operation handles
+     * @return the median time per item, in nanoseconds
+     */
+    static double nanosPerItem(IntSupplier operation, int itemsPerRun) {
+        // Repeat the operation within a round until a round takes long enough to time
+        int runsPerRound = 1;
+        while (timeRound(operation, runsPerRound) < MIN_ROUND_NANOS) {
+            runsPerRound *= 2;
+        }
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            timeRound(operation, runsPerRound);
+        }
+        double[] rounds = new double[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            rounds[i] = (double) timeRound(operation, runsPerRound) / runsPerRound / itemsPerRun;
+        }
+        Arrays.sort(rounds);
+        return rounds[MEASURED_ROUNDS / 2];
+    }
+
+    private static long timeRound(IntSupplier operation, int runs) {
+        int result = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            result += operation.getAsInt();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += result;
+        return elapsed;
+    }
+}
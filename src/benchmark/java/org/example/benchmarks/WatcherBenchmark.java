@@ -0,0 +1,77 @@
+package org.example.benchmarks;
+
+import org.example.App;
+import org.example.io.InputWatcher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Times continuous file mode from appending a request to the input to its result line
+ * Before each append the app idles long enough for its poll interval to reach the limit,
+ * the case the 100 ms latency target is about.
+ */
+final class WatcherBenchmark {
+    private static final long TARGET_LATENCY_MILLIS = 100;
+    private static final int SAMPLES = 10;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private WatcherBenchmark() {
+    }
+
+    static void run() {
+        try {
+            measure();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void measure() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("watcher-benchmark");
+        Path input = Files.writeString(dir.resolve("input.txt"), "x = 0\n\n");
+        Path output = dir.resolve("output.txt");
+        Thread app = new Thread(() -> {
+            try {
+                App.runApp(new String[]{"file", "assignment", input.toString(), output.toString()});
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        app.start();
+        awaitOutput(output, "Request 1 ");
+
+        double[] millis = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            Thread.sleep(InputWatcher.MAX_POLL_MILLIS + 200);
+            long start = System.nanoTime();
+            Files.writeString(input, "x = " + (i + 1) + "\n\n", StandardOpenOption.APPEND);
+            awaitOutput(output, "Request " + (i + 2) + " Result: (x=" + (i + 1) + ")");
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Files.writeString(input, "exit\n", StandardOpenOption.APPEND);
+        app.join(TIMEOUT_MILLIS);
+        Arrays.sort(millis);
+
+        System.out.println("Continuous file mode, ms from append to result (target "
+                + TARGET_LATENCY_MILLIS + " ms)");
+        System.out.printf("%-28s %12.1f%n", "median", millis[SAMPLES / 2]);
+        System.out.printf("%-28s %12.1f%n", "max", millis[SAMPLES - 1]);
+    }
+
+    private static void awaitOutput(Path output, String text) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!(Files.exists(output) && Files.readString(output).contains(text))) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("No output " + text);
+            }
+            Thread.sleep(1);
+        }
+    }
+}
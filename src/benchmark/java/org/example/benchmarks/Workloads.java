@@ -0,0 +1,78 @@
+package org.example.benchmarks;
+
+import org.example.calculator.Calculator;
+import org.example.tests.RequestGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Request workloads shared by the benchmarks: the sample input, and requests from the
+ * generator of the differential tests
+ */
+final class Workloads {
+    private static final String SAMPLE_INPUT = "sample_input.txt";
+
+    private Workloads() {
+    }
+
+    /**
+     * @return the requests of the sample input file, split at blank lines
+     */
+    static List<List<String>> sampleInput() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(Paths.get(SAMPLE_INPUT));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<List<String>> requests = new ArrayList<>();
+        List<String> request = new ArrayList<>();
+        for (String line : lines) {
+            if (!line.trim().isEmpty()) {
+                request.add(line.trim());
+            } else if (!request.isEmpty()) {
+                requests.add(request);
+                request = new ArrayList<>();
+            }
+        }
+        if (!request.isEmpty()) {
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /**
+     * @return random requests of up to maxLines lines, the same for every run
+     */
+    static List<List<String>> random(int count, int maxLines) {
+        Random random = new Random(42);
+        List<List<String>> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(RequestGenerator.randomRequest(random, maxLines));
+        }
+        return requests;
+    }
+
+    /**
+     * Process every request, as the service does; failing requests count too
+     *
+     * @return a value derived from all results
+     */
+    static int processAll(Calculator calculator, List<? extends List<String>> requests) {
+        int hash = 0;
+        for (List<String> request : requests) {
+            try {
+                hash += calculator.processExpressions(request).hashCode();
+            } catch (RuntimeException e) {
+                hash += e.getMessage().hashCode();
+            }
+        }
+        return hash;
+    }
+}
@@ -3,10 +3,14 @@ package org.example;
 import org.example.calculator.*;
 import org.example.io.*;
 import org.example.errors.ErrorMessages;
+import org.example.engine.EngineType;
+import org.example.lexer.LexerMode;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Main application class for the text-based calculator
@@ -53,13 +57,14 @@ public class App {
 
         // Create IO handler
         IOHandler ioHandler = null;
-        if (args.length >= 4) {
+        if (args.length >= 5) {
+            ioHandler = IOFactory.createIOHandler(ioType, args[2], args[3], args[4]);
+        } else if (args.length >= 4) {
             ioHandler = IOFactory.createIOHandler(ioType, args[2], args[3]);
         } else {
             ioHandler = IOFactory.createIOHandler(ioType);
         }
-        // Create concurrent calculator service with auto-configured thread pool
-        ConcurrentCalculatorService concurrentService = new ConcurrentCalculatorService(calculatorType);
+        ConcurrentCalculatorService concurrentService = createService(calculatorType, ioHandler);
 
         try {
             runCalculatorConcurrently(concurrentService, ioHandler);
@@ -69,6 +74,29 @@ public class App {
         }
     }
 
+    /**
+     * Create the concurrent calculator service with auto-configured thread pool
+     * Repeated requests reuse their results, and requests that differ only in their numbers
+     * are evaluated together. Those caches key on Strings, so lines a handler reads in place
+     * are lexed where they are instead. Without an expression cache every line is compiled
+     * for one use, so the compiled and tiered types then run on closures rather than
+     * defining classes per line or counting calls that never repeat.
+     */
+    private static ConcurrentCalculatorService createService(CalculatorType calculatorType, IOHandler ioHandler) {
+        if (ioHandler.readsInPlace()) {
+            ConcurrentCalculatorService service = new ConcurrentCalculatorService(calculatorType, null);
+            service.setLexerMode(LexerMode.STREAMING);
+            if (calculatorType == CalculatorType.COMPILED || calculatorType == CalculatorType.TIERED) {
+                service.setEngineType(EngineType.CLOSURE);
+            }
+            return service;
+        }
+        ConcurrentCalculatorService service = new ConcurrentCalculatorService(calculatorType, new ExpressionCache(),
+                new RequestResultCache(), new PrefixStateCache());
+        service.setTemplateBatchingEnabled(true);
+        return service;
+    }
+
     private static void runCalculatorConcurrently(ConcurrentCalculatorService concurrentService, IOHandler ioHandler) {
         try {
             runContinuousMode(concurrentService, ioHandler);
@@ -80,10 +108,11 @@ public class App {
 
     private static void runContinuousMode(ConcurrentCalculatorService concurrentService, IOHandler ioHandler) {
         int requestNumber = 1;
-        List<List<String>> processedRequests = new ArrayList<>();
+        // Only needed for handlers that cannot follow their input and are reread from the beginning
+        Set<List<CharSequence>> processedRequests = new HashSet<>();
 
         // Process initial requests immediately when starting
-        List<List<String>> initialRequests = readAllRequests(ioHandler);
+        List<List<CharSequence>> initialRequests = readInitialRequests(ioHandler);
 
         // Check for exit command in initial requests
         if (initialRequests == null) {
@@ -105,25 +134,22 @@ public class App {
             processedRequests.addAll(initialRequests);
         }
 
+        // A handler may return a large input in batches; the next batch is read without waiting
+        boolean moreToRead = !initialRequests.isEmpty();
+
         // Now start continuous monitoring for new requests
         while (true) {
             try {
                 // Check if there's new content available
-                if (ioHandler.hasNewContent()) {
-                    // Reset reader to start from beginning (useful for file mode)
-                    ioHandler.resetReader();
-
-                    // Read all requests from the current input
-                    List<List<String>> allRequests = readAllRequests(ioHandler);
+                if (moreToRead || ioHandler.hasNewContent()) {
+                    // Read only the requests that haven't been processed
+                    List<List<CharSequence>> newRequests = readNewRequests(ioHandler, processedRequests);
 
                     // Check for exit command
-                    if (allRequests == null) {
+                    if (newRequests == null) {
                         return; // Exit the method
                     }
 
-                    // Find only the new requests that haven't been processed
-                    List<List<String>> newRequests = findNewRequests(allRequests, processedRequests);
-
                     if (!newRequests.isEmpty()) {
                         // Queue the new requests with correct sequential numbering
                         for (int i = 0; i < newRequests.size(); i++) {
@@ -133,15 +159,16 @@ public class App {
                         // Calculate the starting request number for this batch
                         int startingRequestNumber = requestNumber - newRequests.size();
                         processRequestsInParallel(concurrentService, ioHandler, newRequests, startingRequestNumber);
-
-                        // Add the new requests to the processed list
-                        processedRequests.addAll(newRequests);
                     }
+                    moreToRead = !newRequests.isEmpty();
+                }
+                if (moreToRead) {
+                    continue;
                 }
 
-                // Wait a bit before checking again (only for continuous monitoring handlers)
+                // Wait for the input to change before checking again (only for continuous monitoring handlers)
                 if (ioHandler.supportsContinuousMonitoring()) {
-                    Thread.sleep(1000);
+                    ioHandler.awaitNewContent();
                 } else {
                     break;
                 }
@@ -157,7 +184,7 @@ public class App {
 
         // For non-continuous handlers (like console), read all requests at once after breaking from the loop
         if (!ioHandler.supportsContinuousMonitoring()) {
-            List<List<String>> allRequests = readAllRequests(ioHandler);
+            List<List<CharSequence>> allRequests = readAllRequests(ioHandler);
 
             // Check for exit command
             if (allRequests == null) {
@@ -173,56 +200,78 @@ public class App {
     }
 
     /**
-     * Find new requests that haven't been processed before
-     * Uses content-based comparison to identify new requests
+     * Read the requests present when the app starts
+     *
+     * @return the requests, or null on an exit command
      */
-    private static List<List<String>> findNewRequests(List<List<String>> allRequests, List<List<String>> processedRequests) {
-        List<List<String>> newRequests = new ArrayList<>();
-
-        for (List<String> request : allRequests) {
-            if (!isRequestAlreadyProcessed(request, processedRequests)) {
-                newRequests.add(request);
-            }
+    private static List<List<CharSequence>> readInitialRequests(IOHandler ioHandler) {
+        List<List<CharSequence>> requests = ioHandler.readNewRequests();
+        if (requests == null) {
+            return readAllRequests(ioHandler);
         }
-
-        return newRequests;
+        return containsExitCommand(requests) ? null : requests;
     }
 
     /**
-     * Check if a request has already been processed by comparing its content
+     * Read the requests added since the last read
+     * Handlers that follow their input return only the appended requests. Other handlers
+     * are reread from the beginning, and requests processed before are skipped.
+     *
+     * @return the new requests, or null on an exit command
      */
-    private static boolean isRequestAlreadyProcessed(List<String> request, List<List<String>> processedRequests) {
-        for (List<String> processed : processedRequests) {
-            if (areRequestsEqual(request, processed)) {
-                return true;
-            }
+    private static List<List<CharSequence>> readNewRequests(IOHandler ioHandler,
+                                                            Set<List<CharSequence>> processedRequests) {
+        List<List<CharSequence>> newRequests = ioHandler.readNewRequests();
+        if (newRequests != null) {
+            return containsExitCommand(newRequests) ? null : newRequests;
         }
-        return false;
+
+        // Reset reader to start from beginning
+        ioHandler.resetReader();
+        List<List<CharSequence>> allRequests = readAllRequests(ioHandler);
+        if (allRequests == null) {
+            return null;
+        }
+        newRequests = findNewRequests(allRequests, processedRequests);
+        processedRequests.addAll(newRequests);
+        return newRequests;
     }
 
     /**
-     * Compare two requests for equality by comparing their expressions
+     * Find new requests that haven't been processed before
+     * Uses content-based comparison to identify new requests
      */
-    private static boolean areRequestsEqual(List<String> request1, List<String> request2) {
-        if (request1.size() != request2.size()) {
-            return false;
-        }
+    private static List<List<CharSequence>> findNewRequests(List<List<CharSequence>> allRequests,
+                                                            Set<List<CharSequence>> processedRequests) {
+        List<List<CharSequence>> newRequests = new ArrayList<>();
 
-        for (int i = 0; i < request1.size(); i++) {
-            if (!request1.get(i).equals(request2.get(i))) {
-                return false;
+        for (List<CharSequence> request : allRequests) {
+            if (!processedRequests.contains(request)) {
+                newRequests.add(request);
             }
         }
 
-        return true;
+        return newRequests;
+    }
+
+    private static boolean containsExitCommand(List<List<CharSequence>> requests) {
+        for (List<CharSequence> request : requests) {
+            for (CharSequence line : request) {
+                // Checks the length first, so lines read in place are not copied
+                if (line.length() == EXIT_COMMAND.length() && line.toString().equalsIgnoreCase(EXIT_COMMAND)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
-    private static List<List<String>> readAllRequests(IOHandler ioHandler) {
-        List<List<String>> allRequests = new ArrayList<>();
+    private static List<List<CharSequence>> readAllRequests(IOHandler ioHandler) {
+        List<List<CharSequence>> allRequests = new ArrayList<>();
         int requestNumber = 1;
 
         while (true) {
-            List<String> expressions = readSingleRequest(ioHandler);
+            List<CharSequence> expressions = readSingleRequest(ioHandler);
 
             // Check for exit command
             if (expressions == null) {
@@ -240,8 +289,8 @@ public class App {
         return allRequests;
     }
 
-    private static List<String> readSingleRequest(IOHandler ioHandler) {
-        List<String> expressions = new ArrayList<>();
+    private static List<CharSequence> readSingleRequest(IOHandler ioHandler) {
+        List<CharSequence> expressions = new ArrayList<>();
         String line;
 
         // Read expressions until empty line, EOF, or exit command
@@ -267,7 +316,7 @@ public class App {
 
     private static void processRequestsInParallel(ConcurrentCalculatorService concurrentService,
                                                   IOHandler ioHandler,
-                                                  List<List<String>> allRequests,
+                                                  List<List<CharSequence>> allRequests,
                                                   int startingRequestNumber) {
         long startTime = System.currentTimeMillis();
 
@@ -278,6 +327,8 @@ public class App {
         long processingTime = endTime - startTime;
 
         displayResults(ioHandler, results, processingTime, startingRequestNumber);
+        // Every result of the batch is written before the next batch is read
+        ioHandler.flush();
     }
 
 
@@ -287,13 +338,18 @@ public class App {
                                        int startingRequestNumber) {
         ioHandler.writeLine("Results:");
 
+        // One buffer for all lines, so no line is built as an intermediate String
+        StringBuilder line = new StringBuilder();
         for (int i = 0; i < results.size(); i++) {
             var result = results.get(i);
+            line.setLength(0);
+            line.append("Request ").append(startingRequestNumber + i);
             if (result.hasError()) {
-                ioHandler.writeLine("Request " + (startingRequestNumber + i) + " Error: " + result.getError());
+                line.append(" Error: ").append(result.getError());
             } else {
-                ioHandler.writeLine("Request " + (startingRequestNumber + i) + " Result: " + result.getResult());
+                line.append(" Result: ").append(result.getResult());
             }
+            ioHandler.writeLine(line);
         }
     }
 }
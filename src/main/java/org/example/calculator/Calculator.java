@@ -1,22 +1,52 @@
 package org.example.calculator;
 
+import org.example.engine.*;
 import org.example.lexer.*;
 import org.example.parser.*;
 import org.example.operations.*;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 // Main Calculator class - Abstract base class for all calculator types
 public abstract class Calculator {
+    /**
+     * Requests with fewer lines are always evaluated in order on the calling thread
+     */
+    public static final int MIN_PARALLEL_LINES = 2_048;
+
+    private SymbolTable symbols;
     private VariableStore variableStore;
 
     protected OperatorRegistry operatorRegistry;
     protected FactorParserRegistry factorParserRegistry;
     protected OperationRegistry operationRegistry;
     protected FactorParserConfigurator factorParserConfigurator;
+    protected OperatorTable operatorTable;
+    private ExpressionCache expressionCache;
+    private PrefixStateCache prefixStateCache;
+    private EngineType engineType = EngineType.INTERPRETER;
+    private ExpressionCompiler expressionCompiler;
+    private ExpressionCompiler requestCompiler;
+    private ASTOptimizer optimizer;
+    private boolean optimizationEnabled = true;
+    private CommonSubexpressionEliminator subexpressionEliminator;
+    private boolean subexpressionEliminationEnabled;
+    private DeadStoreEliminator deadStoreEliminator;
+    private boolean deadStoreEliminationEnabled;
+    private ParallelEvaluator parallelEvaluator;
+    private ColumnarCompiler columnarCompiler;
+    private StackProgram stackProgram;
+    private StackMachine stackMachine;
+
+    private LexerMode lexerMode = LexerMode.TOKEN_LIST;
+    private TokenScanner tokenScanner;
+    private TokenBuffer tokenBuffer;
+    private StreamingTokenSource streamingTokenSource;
 
     public Calculator() {
-        this.variableStore = new VariableStore();
+        this.symbols = new SymbolTable();
+        this.variableStore = new VariableStore(symbols);
 
         // Initialize instance-based registries
         this.operatorRegistry = new OperatorRegistry();
@@ -28,6 +58,15 @@ public abstract class Calculator {
         configureParsers();
         configureOperators();
         configureOperations();
+
+        operatorRegistry.build();
+        factorParserRegistry.build();
+        operatorTable = OperatorTable.build(operatorRegistry, operationRegistry);
+        expressionCompiler = EngineFactory.createCompiler(engineType, operatorTable);
+        requestCompiler = createRequestCompiler(engineType);
+        optimizer = new ASTOptimizer(operatorTable);
+        subexpressionEliminator = new CommonSubexpressionEliminator(operatorTable);
+        deadStoreEliminator = new DeadStoreEliminator(operatorTable);
     }
 
     /**
@@ -51,24 +90,450 @@ public abstract class Calculator {
         // Default: no additional functions beyond basic arithmetic
     }
 
-    public String processExpressions(List<String> expressions) {
-        for (String expr : expressions) {
-            processExpression(expr.trim());
+    /**
+     * Share a parsed-expression cache with this calculator
+     * The cache must only be shared between calculators of the same type, engine and
+     * optimization setting, since the cached expressions depend on all of them.
+     *
+     * @param expressionCache the cache to use, or null to always parse
+     */
+    public void setExpressionCache(ExpressionCache expressionCache) {
+        this.expressionCache = expressionCache;
+    }
+
+    public ExpressionCache getExpressionCache() {
+        return expressionCache;
+    }
+
+    /**
+     * Share a cache of variable snapshots after common request prefixes with this calculator
+     * Requests that start with the same lines as an earlier request resume from its
+     * snapshot. Like the expression cache, it must only be shared between calculators
+     * of the same type. Used when no request-level optimization or STACK_VM is selected.
+     *
+     * @param prefixStateCache the cache to use, or null to evaluate every line
+     */
+    public void setPrefixStateCache(PrefixStateCache prefixStateCache) {
+        this.prefixStateCache = prefixStateCache;
+    }
+
+    public PrefixStateCache getPrefixStateCache() {
+        return prefixStateCache;
+    }
+
+    /**
+     * Select how expression text is tokenized
+     * PRIMITIVE_BUFFER and STREAMING reuse this calculator's token storage for every expression,
+     * so a calculator must stay confined to one thread (as in ConcurrentCalculatorService).
+     */
+    public void setLexerMode(LexerMode lexerMode) {
+        this.lexerMode = lexerMode;
+        if (lexerMode == LexerMode.PRIMITIVE_BUFFER && tokenBuffer == null) {
+            this.tokenScanner = new TokenScanner(operatorRegistry);
+            this.tokenBuffer = new TokenBuffer();
+        }
+        if (lexerMode == LexerMode.STREAMING && streamingTokenSource == null) {
+            this.streamingTokenSource = new StreamingTokenSource(operatorRegistry);
         }
-        String res = variableStore.getFormattedOutput();
-        variableStore.clear(); // Clear state after processing
-        return res;
     }
 
-    private void processExpression(String expression) {
-        if (expression.isEmpty()) return;
+    public LexerMode getLexerMode() {
+        return lexerMode;
+    }
+
+    /**
+     * Select the engine that executes parsed expressions
+     * STACK_VM runs each request as one program on a stack machine owned by this
+     * calculator, so the calculator must then stay confined to one thread.
+     */
+    public void setEngineType(EngineType engineType) {
+        this.engineType = engineType;
+        this.expressionCompiler = EngineFactory.createCompiler(engineType, operatorTable);
+        this.requestCompiler = createRequestCompiler(engineType);
+    }
+
+    /**
+     * Compiler for lines that are compiled per request: those of request-level optimizations,
+     * and every line when no expression cache keeps compiled lines
+     * BYTECODE defines a class per expression, and TIERED does once an expression is hot,
+     * so for them each request would define classes that are used only once; their lines
+     * are compiled to closures instead.
+     */
+    private ExpressionCompiler createRequestCompiler(EngineType engineType) {
+        if (engineType == EngineType.BYTECODE || engineType == EngineType.TIERED) {
+            return EngineFactory.createCompiler(EngineType.CLOSURE, operatorTable);
+        }
+        return expressionCompiler;
+    }
+
+    public EngineType getEngineType() {
+        return engineType;
+    }
+
+    /**
+     * Enable or disable constant folding and algebraic simplification of parsed expressions
+     * Results and errors are the same either way; enabled by default.
+     */
+    public void setOptimizationEnabled(boolean optimizationEnabled) {
+        this.optimizationEnabled = optimizationEnabled;
+    }
+
+    public boolean isOptimizationEnabled() {
+        return optimizationEnabled;
+    }
+
+    /**
+     * Enable or disable computing repeated subexpressions of a request only once
+     * The analysis spans all lines of a request, so lines are compiled per request and
+     * the expression cache is not used; on the BYTECODE and TIERED engines they are
+     * compiled to closures. Best suited to long requests with heavy repetition. Disabled by default.
+     */
+    public void setSubexpressionEliminationEnabled(boolean subexpressionEliminationEnabled) {
+        this.subexpressionEliminationEnabled = subexpressionEliminationEnabled;
+    }
+
+    public boolean isSubexpressionEliminationEnabled() {
+        return subexpressionEliminationEnabled;
+    }
+
+    /**
+     * Enable or disable skipping stores that are overwritten before being read, and
+     * lines without effect on the output; errors are still raised as before.
+     * Like subexpression elimination this analyzes whole requests. Disabled by default.
+     */
+    public void setDeadStoreEliminationEnabled(boolean deadStoreEliminationEnabled) {
+        this.deadStoreEliminationEnabled = deadStoreEliminationEnabled;
+    }
 
-        Lexer lexer = new Lexer(expression, operatorRegistry);
-        List<Token> tokens = lexer.tokenize();
+    public boolean isDeadStoreEliminationEnabled() {
+        return deadStoreEliminationEnabled;
+    }
+
+    /**
+     * Enable or disable evaluating independent lines of large requests in parallel
+     * Requests of at least MIN_PARALLEL_LINES lines are parsed in parallel (with the
+     * TOKEN_LIST lexer) and their lines run on the common fork-join pool as the
+     * dependencies between them allow. Results, and the error reported when several lines
+     * fail, are the same as in order. Like subexpression elimination this analyzes whole
+     * requests, so the expression cache is not used for them, and they are compiled as
+     * with subexpression elimination. Disabled by default.
+     */
+    public void setParallelEvaluationEnabled(boolean parallelEvaluationEnabled) {
+        this.parallelEvaluator = parallelEvaluationEnabled ? new ParallelEvaluator() : null;
+    }
 
-        Parser parser = new Parser(tokens, factorParserRegistry);
-        ASTNode ast = parser.parseAssignment();
+    public boolean isParallelEvaluationEnabled() {
+        return parallelEvaluator != null;
+    }
+
+    /**
+     * Resolve variables against a table shared with other calculators
+     * Calculators that share an ExpressionCache or PrefixStateCache must share their table
+     * too, or the caches keep dropping each other's entries. Each calculator starts with a
+     * table of its own.
+     */
+    public void setSymbolTable(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.variableStore = new VariableStore(symbols);
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+    /**
+     * Switch to the successor of the SymbolTable once it is full, see {@link SymbolTable#latest()}
+     * Called at the start of every request, so a request resolves all its lines
+     * against one table. The variable store is recreated for the new table.
+     *
+     * @return whether the table changed, invalidating slots resolved before
+     */
+    protected boolean bindSymbolTable() {
+        SymbolTable latest = symbols.latest();
+        if (latest == symbols) {
+            return false;
+        }
+        setSymbolTable(latest);
+        return true;
+    }
+
+    /**
+     * Evaluate one request, one expression per line
+     * Lines may be any CharSequence, such as ASCII views of a memory-mapped file: with the
+     * PRIMITIVE_BUFFER or STREAMING lexer and no expression cache, plain requests are lexed
+     * in place. Lines are copied to Strings where they are cached or analyzed together.
+     *
+     * @return the variables of the request, sorted by name
+     */
+    public String processExpressions(List<? extends CharSequence> expressions) {
+        bindSymbolTable();
+        try {
+            if (subexpressionEliminationEnabled || deadStoreEliminationEnabled
+                    || (parallelEvaluator != null && expressions.size() >= MIN_PARALLEL_LINES)) {
+                processRequest(expressions);
+            } else if (engineType == EngineType.STACK_VM) {
+                processProgram(expressions);
+            } else if (prefixStateCache != null) {
+                processWithPrefixes(expressions);
+            } else {
+                for (CharSequence expr : expressions) {
+                    processExpression(trim(expr));
+                }
+            }
+            return variableStore.getFormattedOutput();
+        } finally {
+            variableStore.clear(); // Clear state after processing, also when a line fails
+        }
+    }
 
-        ast.evaluate(variableStore, operationRegistry);
+    private void processExpression(CharSequence expression) {
+        if (expression.length() == 0) return;
+
+        compileExpression(expression).evaluate(variableStore, operationRegistry);
+    }
+
+    private CompiledExpression compileExpression(CharSequence expression) {
+        if (expressionCache == null || !expressionCache.isEnabled()) {
+            return requestCompiler.compile(parseAndOptimize(expression));
+        }
+        String text = expression.toString();
+        CompiledExpression compiled = expressionCache.get(text, symbols);
+        if (compiled == null) {
+            compiled = expressionCompiler.compile(parseAndOptimize(text));
+            expressionCache.put(text, compiled, symbols);
+        }
+        return compiled;
+    }
+
+    /**
+     * @return the expression without leading and trailing whitespace, like String.trim
+     */
+    protected static CharSequence trim(CharSequence expression) {
+        if (expression instanceof String) {
+            return ((String) expression).trim();
+        }
+        if (expression instanceof AsciiByteSequence) {
+            return ((AsciiByteSequence) expression).trim();
+        }
+        return expression.toString().trim();
+    }
+
+    /**
+     * Evaluate requests that share a template together, one lane per request
+     * The template is parsed and compiled once and every operation runs over all lanes,
+     * so each request gets the result or error it would get from processExpressions.
+     *
+     * @param requests requests with the same {@link RequestTemplate#getShape() shape}
+     * @return the outcome of each request, or null if the template does not parse
+     */
+    public RequestResultCache.Outcome[] processTemplate(List<RequestTemplate> requests) {
+        bindSymbolTable();
+        RequestTemplate template = requests.get(0);
+        List<ASTNode> lines = new ArrayList<>(template.getLines().size());
+        try {
+            for (String line : template.getLines()) {
+                // Unoptimized, so each number node is still one literal of the text
+                lines.add(parseExpression(line));
+            }
+        } catch (RuntimeException e) {
+            // Parse error messages depend on positions, which differ between requests
+            return null;
+        }
+        if (columnarCompiler == null) {
+            columnarCompiler = new ColumnarCompiler(operatorTable);
+        }
+        ColumnarProgram program = columnarCompiler.compile(lines);
+        if (program.getLiteralCount() != template.getLiteralCount()) {
+            return null;
+        }
+
+        int laneCount = requests.size();
+        int[][] literals = new int[template.getLiteralCount()][laneCount];
+        for (int lane = 0; lane < laneCount; lane++) {
+            RequestTemplate request = requests.get(lane);
+            for (int literal = 0; literal < literals.length; literal++) {
+                literals[literal][lane] = request.getLiteral(literal);
+            }
+        }
+
+        ColumnarProgram.Lanes lanes = program.execute(literals, laneCount);
+        RequestResultCache.Outcome[] outcomes = new RequestResultCache.Outcome[laneCount];
+        for (int lane = 0; lane < laneCount; lane++) {
+            RuntimeException error = lanes.getError(lane);
+            if (error != null) {
+                outcomes[lane] = new RequestResultCache.Outcome(error);
+                continue;
+            }
+            try {
+                lanes.copyTo(lane, variableStore);
+                outcomes[lane] = new RequestResultCache.Outcome(variableStore.getFormattedOutput(), null);
+            } finally {
+                variableStore.clear();
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Evaluate a request from the snapshot after its longest cached prefix
+     * When the request follows recorded paths past that snapshot, the variables at the
+     * end of the shared part are snapshotted too, so the next request sharing it resumes
+     * later. Snapshots are only taken after lines that succeeded.
+     */
+    private void processWithPrefixes(List<? extends CharSequence> expressions) {
+        List<String> lines = new ArrayList<>(expressions.size());
+        for (CharSequence expr : expressions) {
+            String expression = trim(expr).toString();
+            if (!expression.isEmpty()) {
+                lines.add(expression);
+            }
+        }
+
+        PrefixStateCache.Resume resume = prefixStateCache.findResume(lines, symbols);
+        int start = resume.getSnapshotDepth();
+        int sharedDepth = resume.getSharedDepth();
+        if (resume.getSnapshot() != null) {
+            variableStore.restore(resume.getSnapshot());
+        }
+
+        VariableSnapshot snapshot = null;
+        try {
+            for (int i = start; i < lines.size(); i++) {
+                compileExpression(lines.get(i)).evaluate(variableStore, operationRegistry);
+                if (i + 1 == sharedDepth && sharedDepth > start) {
+                    snapshot = variableStore.snapshot();
+                }
+            }
+        } finally {
+            prefixStateCache.record(lines, sharedDepth, snapshot, symbols);
+        }
+    }
+
+    /**
+     * Evaluate a whole request as one stack machine program
+     * Each line's instructions come from the expression cache; a line that fails to
+     * parse ends the program with a THROW, after the lines before it.
+     */
+    private void processProgram(List<? extends CharSequence> expressions) {
+        if (stackProgram == null) {
+            stackProgram = new StackProgram();
+            stackMachine = new StackMachine();
+        }
+        stackProgram.reset();
+        for (CharSequence expr : expressions) {
+            String expression = trim(expr).toString();
+            if (expression.isEmpty()) continue;
+            try {
+                stackProgram.append((StackCode) compileExpression(expression));
+            } catch (RuntimeException e) {
+                stackProgram.appendThrow(e);
+                break;
+            }
+        }
+        stackProgram.execute(stackMachine, variableStore);
+    }
+
+    /**
+     * Evaluate a whole request after the request-level optimizations
+     */
+    private void processRequest(List<? extends CharSequence> expressions) {
+        List<String> trimmed = new ArrayList<>(expressions.size());
+        for (CharSequence expr : expressions) {
+            String expression = trim(expr).toString();
+            if (!expression.isEmpty()) {
+                trimmed.add(expression);
+            }
+        }
+
+        ASTNode[] parsed = new ASTNode[trimmed.size()];
+        RuntimeException[] parseErrors = new RuntimeException[trimmed.size()];
+        if (parallelEvaluator != null && lexerMode == LexerMode.TOKEN_LIST && trimmed.size() >= MIN_PARALLEL_LINES) {
+            // Each line gets its own lexer and parser in this mode, so lines can be parsed concurrently
+            IntStream.range(0, trimmed.size()).parallel().forEach(i -> parseLine(trimmed, i, parsed, parseErrors));
+        } else {
+            for (int i = 0; i < trimmed.size() && (i == 0 || parseErrors[i - 1] == null); i++) {
+                parseLine(trimmed, i, parsed, parseErrors);
+            }
+        }
+
+        List<ASTNode> lines = new ArrayList<>(parsed.length);
+        RuntimeException parseError = null;
+        for (int i = 0; i < parsed.length; i++) {
+            if (parseErrors[i] != null) {
+                // Lines before the failing one still run first, so their errors take precedence
+                parseError = parseErrors[i];
+                break;
+            }
+            lines.add(parsed[i]);
+        }
+
+        if (deadStoreEliminationEnabled) {
+            lines = deadStoreEliminator.eliminate(lines);
+        }
+        if (subexpressionEliminationEnabled) {
+            lines = subexpressionEliminator.eliminate(lines, symbols);
+        }
+        evaluateLines(lines);
+        if (parseError != null) {
+            throw parseError;
+        }
+    }
+
+    private void parseLine(List<String> expressions, int index, ASTNode[] parsed, RuntimeException[] parseErrors) {
+        try {
+            parsed[index] = parseAndOptimize(expressions.get(index));
+        } catch (RuntimeException e) {
+            parseErrors[index] = e;
+        }
+    }
+
+    private void evaluateLines(List<ASTNode> lines) {
+        if (parallelEvaluator != null && lines.size() >= MIN_PARALLEL_LINES) {
+            DependencyGraph graph = DependencyGraph.build(lines);
+            // A request that is mostly one chain gains nothing from the pool
+            if (graph.getCriticalPathLength() * 2 <= graph.size()) {
+                parallelEvaluator.evaluate(lines, graph, requestCompiler, variableStore, operationRegistry);
+                return;
+            }
+        }
+        for (ASTNode line : lines) {
+            requestCompiler.compile(line).evaluate(variableStore, operationRegistry);
+        }
+    }
+
+    private ASTNode parseAndOptimize(CharSequence expression) {
+        ASTNode ast = parseExpression(expression);
+        return optimizationEnabled ? optimizer.optimize(ast) : ast;
+    }
+
+    /**
+     * Lex and parse one trimmed line with the selected lexer, without optimization
+     */
+    protected ASTNode parseExpression(CharSequence expression) {
+        if (lexerMode == LexerMode.PRIMITIVE_BUFFER) {
+            tokenBuffer.fill(tokenScanner, expression);
+            return new Parser(new BufferTokenSource(tokenBuffer), factorParserRegistry, operatorTable, symbols).parseAssignment();
+        }
+        if (lexerMode == LexerMode.STREAMING) {
+            return parseStreaming(expression);
+        }
+
+        Lexer lexer = new Lexer(expression.toString(), operatorRegistry);
+        Parser parser = new Parser(lexer.tokenSource(), factorParserRegistry, operatorTable, symbols);
+        return parser.parseAssignment();
+    }
+
+    private ASTNode parseStreaming(CharSequence expression) {
+        streamingTokenSource.reset(expression);
+        ASTNode ast;
+        try {
+            ast = new Parser(streamingTokenSource, factorParserRegistry, operatorTable, symbols).parseAssignment();
+        } catch (RuntimeException e) {
+            // A lexing error later in the line takes precedence, as with the token-list lexer
+            streamingTokenSource.drain();
+            throw e;
+        }
+        streamingTokenSource.drain();
+        return ast;
     }
 }
@@ -6,7 +6,6 @@ import static org.example.lexer.TokenTypes.BasicTokenType;
 import static org.example.lexer.TokenTypes.AssignTokenType;
 
 import org.example.operations.*;
-import org.example.errors.ErrorMessages;
 
 /**
  * Abstract base class for configuring different types of calculators.
@@ -29,14 +28,11 @@ public abstract class CalculatorConfiguration {
      * Configure basic arithmetic operations that are common to all calculators
      */
     protected static void configureBasicOperations(OperationRegistry operationRegistry) {
-        operationRegistry.registerBinaryOperation(BasicTokenType.PLUS, (left, right) -> left + right);
-        operationRegistry.registerBinaryOperation(BasicTokenType.MINUS, (left, right) -> left - right);
-        operationRegistry.registerBinaryOperation(BasicTokenType.MULTIPLY, (left, right) -> left * right);
-        operationRegistry.registerBinaryOperation(BasicTokenType.DIVIDE, (left, right) -> {
-            if (right == 0) throw new RuntimeException(ErrorMessages.DIVISION_BY_ZERO.getMessage());
-            return left / right;
-        });
-        operationRegistry.registerAssignmentOperation(BasicTokenType.ASSIGN, (current, value) -> value);
+        operationRegistry.registerBinaryOperation(BasicTokenType.PLUS, DefaultOperations.ADD);
+        operationRegistry.registerBinaryOperation(BasicTokenType.MINUS, DefaultOperations.SUBTRACT);
+        operationRegistry.registerBinaryOperation(BasicTokenType.MULTIPLY, DefaultOperations.MULTIPLY);
+        operationRegistry.registerBinaryOperation(BasicTokenType.DIVIDE, DefaultOperations.DIVIDE);
+        operationRegistry.registerAssignmentOperation(BasicTokenType.ASSIGN, DefaultOperations.ASSIGN);
     }
 
     /**
@@ -57,12 +53,9 @@ public abstract class CalculatorConfiguration {
      * Configure assignment operations
      */
     protected static void configureAssignmentOperations(OperationRegistry operationRegistry) {
-        operationRegistry.registerAssignmentOperation(AssignTokenType.PLUS_ASSIGN, (current, value) -> current + value);
-        operationRegistry.registerAssignmentOperation(AssignTokenType.MINUS_ASSIGN, (current, value) -> current - value);
-        operationRegistry.registerAssignmentOperation(AssignTokenType.MULTIPLY_ASSIGN, (current, value) -> current * value);
-        operationRegistry.registerAssignmentOperation(AssignTokenType.DIVIDE_ASSIGN, (current, value) -> {
-            if (value == 0) throw new RuntimeException(ErrorMessages.DIVISION_BY_ZERO.getMessage());
-            return current / value;
-        });
+        operationRegistry.registerAssignmentOperation(AssignTokenType.PLUS_ASSIGN, DefaultOperations.ADD_ASSIGN);
+        operationRegistry.registerAssignmentOperation(AssignTokenType.MINUS_ASSIGN, DefaultOperations.SUBTRACT_ASSIGN);
+        operationRegistry.registerAssignmentOperation(AssignTokenType.MULTIPLY_ASSIGN, DefaultOperations.MULTIPLY_ASSIGN);
+        operationRegistry.registerAssignmentOperation(AssignTokenType.DIVIDE_ASSIGN, DefaultOperations.DIVIDE_ASSIGN);
     }
 }
@@ -9,6 +9,13 @@ public class CalculatorFactory {
      */
     public static Calculator createCalculator(CalculatorType type) {
         switch (type) {
+            case TIERED:
+                return new TieredCalculator();
+            case EXACT:
+                return new ExactCalculator();
+            case COMPILED:
+                return new CompiledCalculator();
+            case ASSIGNMENT:
             default:
                 return new AssignmentCalculator();
         }
@@ -4,7 +4,10 @@ import org.example.errors.ErrorMessages;
 
 // Enum defining different calculator types
 public enum CalculatorType {
-    ASSIGNMENT("Assignment Calculator");
+    ASSIGNMENT("Assignment Calculator"),
+    COMPILED("Compiled Calculator"),
+    TIERED("Tiered Calculator"),
+    EXACT("Exact Calculator");
 
     private final String displayName;
 
@@ -23,6 +26,14 @@ public enum CalculatorType {
         }
 
         switch (type.toLowerCase()) {
+            case "compiled":
+            case "bytecode":
+                return COMPILED;
+            case "tiered":
+                return TIERED;
+            case "exact":
+            case "bigint":
+                return EXACT;
             case "assignment":
             case "assign":
             default:
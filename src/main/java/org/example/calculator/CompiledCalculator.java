@@ -0,0 +1,15 @@
+package org.example.calculator;
+
+import org.example.engine.EngineType;
+
+/**
+ * Compiled Calculator - same language as the Assignment Calculator, but every
+ * expression is compiled to a JVM hidden class instead of walking the AST
+ */
+public class CompiledCalculator extends AssignmentCalculator {
+
+    public CompiledCalculator() {
+        super();
+        setEngineType(EngineType.BYTECODE);
+    }
+}
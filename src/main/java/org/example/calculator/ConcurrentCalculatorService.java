@@ -1,8 +1,16 @@
 package org.example.calculator;
 
+import org.example.engine.EngineType;
+import org.example.engine.TierMetrics;
+import org.example.engine.TieredCompiler;
 import org.example.errors.ErrorMessages;
+import org.example.lexer.LexerMode;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -11,9 +19,23 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Each thread gets its own calculator instance for complete isolation
  */
 public class ConcurrentCalculatorService {
+    /**
+     * Smallest and largest number of requests evaluated together as one template
+     */
+    public static final int MIN_TEMPLATE_LANES = 8;
+    public static final int MAX_TEMPLATE_LANES = 1_024;
+
     private final ExecutorService executorService;
     private final ThreadLocal<Calculator> calculatorThreadLocal;
     private final AtomicInteger requestIdCounter = new AtomicInteger(0);
+    private final ExpressionCache expressionCache;
+    private final RequestResultCache resultCache;
+    private final PrefixStateCache prefixStateCache;
+    // Shared by the workers, since they share the caches
+    private final SymbolTable symbols = new SymbolTable();
+    private volatile boolean templateBatchingEnabled;
+    private volatile LexerMode lexerMode = LexerMode.TOKEN_LIST;
+    private volatile EngineType engineType;
 
     /**
      * Create a concurrent calculator service with auto-configured thread pool
@@ -21,6 +43,45 @@ public class ConcurrentCalculatorService {
      * @param calculatorType the type of calculator to use for all requests
      */
     public ConcurrentCalculatorService(CalculatorType calculatorType) {
+        this(calculatorType, new ExpressionCache());
+    }
+
+    /**
+     * Create a concurrent calculator service with auto-configured thread pool
+     *
+     * @param calculatorType  the type of calculator to use for all requests
+     * @param expressionCache parsed-expression cache shared by all worker calculators
+     */
+    public ConcurrentCalculatorService(CalculatorType calculatorType, ExpressionCache expressionCache) {
+        this(calculatorType, expressionCache, null);
+    }
+
+    /**
+     * Create a concurrent calculator service with auto-configured thread pool
+     *
+     * @param calculatorType  the type of calculator to use for all requests
+     * @param expressionCache parsed-expression cache shared by all worker calculators
+     * @param resultCache     memo of whole-request results, or null to evaluate every request
+     */
+    public ConcurrentCalculatorService(CalculatorType calculatorType, ExpressionCache expressionCache,
+                                       RequestResultCache resultCache) {
+        this(calculatorType, expressionCache, resultCache, null);
+    }
+
+    /**
+     * Create a concurrent calculator service with auto-configured thread pool
+     *
+     * @param calculatorType   the type of calculator to use for all requests
+     * @param expressionCache  parsed-expression cache shared by all worker calculators
+     * @param resultCache      memo of whole-request results, or null to evaluate every request
+     * @param prefixStateCache snapshots after shared request prefixes, or null to evaluate every line
+     */
+    public ConcurrentCalculatorService(CalculatorType calculatorType, ExpressionCache expressionCache,
+                                       RequestResultCache resultCache, PrefixStateCache prefixStateCache) {
+        this.expressionCache = expressionCache;
+        this.resultCache = resultCache;
+        this.prefixStateCache = prefixStateCache;
+
         // Auto-configure thread pool based on available processors
         int processors = Runtime.getRuntime().availableProcessors();
         int corePoolSize = Math.max(2, processors);
@@ -38,10 +99,96 @@ public class ConcurrentCalculatorService {
         // ThreadLocal calculator factory - each thread gets its own calculator instance
         this.calculatorThreadLocal = ThreadLocal.withInitial(() -> {
             System.out.println("Creating new calculator instance for thread: " + Thread.currentThread().getName());
-            return CalculatorFactory.createCalculator(calculatorType);
+            Calculator calculator = CalculatorFactory.createCalculator(calculatorType);
+            calculator.setSymbolTable(symbols);
+            calculator.setExpressionCache(expressionCache);
+            calculator.setPrefixStateCache(prefixStateCache);
+            calculator.setLexerMode(lexerMode);
+            if (engineType != null) {
+                calculator.setEngineType(engineType);
+            }
+            return calculator;
         });
     }
 
+    /**
+     * Get the table the worker calculators resolve variables against; once full, they move on to its successor
+     */
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+    /**
+     * Get the parsed-expression cache shared by the worker calculators
+     */
+    public ExpressionCache getExpressionCache() {
+        return expressionCache;
+    }
+
+    /**
+     * Get the whole-request result memo, or null if requests are always evaluated
+     */
+    public RequestResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Get the shared-prefix snapshot cache used by the worker calculators, or null if there is none
+     */
+    public PrefixStateCache getPrefixStateCache() {
+        return prefixStateCache;
+    }
+
+    /**
+     * Enable or disable evaluating requests that differ only in their numeric literals together
+     * Such requests in one call to processRequestsConcurrently are grouped by their
+     * RequestTemplate and each group is evaluated column-wise on one worker; results and
+     * errors are the same as evaluating them one by one. Disabled by default.
+     */
+    public void setTemplateBatchingEnabled(boolean templateBatchingEnabled) {
+        this.templateBatchingEnabled = templateBatchingEnabled;
+    }
+
+    public boolean isTemplateBatchingEnabled() {
+        return templateBatchingEnabled;
+    }
+
+    /**
+     * Set the lexer of the worker calculators; takes effect for workers created after the call
+     * With STREAMING or PRIMITIVE_BUFFER and no caches, lines that are views of a mapped
+     * file are lexed in place.
+     */
+    public void setLexerMode(LexerMode lexerMode) {
+        this.lexerMode = lexerMode;
+    }
+
+    public LexerMode getLexerMode() {
+        return lexerMode;
+    }
+
+    /**
+     * Override the engine the calculator type selects; takes effect for workers created after the call
+     *
+     * @param engineType the engine of the worker calculators, or null for the calculator type's own
+     */
+    public void setEngineType(EngineType engineType) {
+        this.engineType = engineType;
+    }
+
+    /**
+     * @return the engine override of the worker calculators, or null if there is none
+     */
+    public EngineType getEngineType() {
+        return engineType;
+    }
+
+    /**
+     * Get the promotion thresholds and tier counts of tiered calculators
+     */
+    public TierMetrics getTierMetrics() {
+        return TieredCompiler.getSharedMetrics();
+    }
+
     /**
      * Process a single request concurrently
      *
@@ -51,28 +198,72 @@ public class ConcurrentCalculatorService {
     public CompletableFuture<CalculatorResult> processRequestAsync(List<String> expressions) {
         int requestId = requestIdCounter.incrementAndGet();
 
+        if (resultCache != null) {
+            // A repeated request completes on the caller's thread with the memoized outcome
+            RequestResultCache.Outcome outcome = resultCache.get(expressions);
+            if (outcome != null) {
+                return CompletableFuture.completedFuture(
+                        new CalculatorResult(requestId, outcome));
+            }
+        }
+
+        return evaluateAsync(requestId, expressions);
+    }
+
+    private CompletableFuture<CalculatorResult> evaluateAsync(int requestId, List<? extends CharSequence> expressions) {
         return CompletableFuture.supplyAsync(() -> {
-            try {
-                Calculator calculator = calculatorThreadLocal.get();
-                String result = calculator.processExpressions(expressions);
+            RequestResultCache.Outcome outcome = evaluate(calculatorThreadLocal.get(), expressions);
+            return new CalculatorResult(requestId, outcome);
+        }, executorService);
+    }
 
-                return new CalculatorResult(requestId, result, null);
-            } catch (Exception e) {
-                return new CalculatorResult(requestId, null, e.getMessage());
+    private RequestResultCache.Outcome evaluate(Calculator calculator, List<? extends CharSequence> expressions) {
+        RequestResultCache.Outcome outcome;
+        try {
+            outcome = new RequestResultCache.Outcome(calculator.processExpressions(expressions), null);
+        } catch (RuntimeException e) {
+            // A CalculatorError formats its message only when the result is written
+            outcome = new RequestResultCache.Outcome(e);
+        }
+        if (resultCache != null) {
+            resultCache.put(toStrings(expressions), outcome);
+        }
+        return outcome;
+    }
+
+    /**
+     * @return the lines as Strings; the list itself if they are Strings already
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> toStrings(List<? extends CharSequence> lines) {
+        for (CharSequence line : lines) {
+            if (!(line instanceof String)) {
+                return lines.stream().map(CharSequence::toString).toList();
             }
-        }, executorService);
+        }
+        return (List<String>) lines;
     }
 
     /**
      * Process multiple requests concurrently and collect results
      *
+     * Lines are copied to Strings only if the result cache or template batching needs them.
+     *
      * @param requests list of expression lists (each list is one request)
      * @return list of results in the same order as requests
      */
-    public List<CalculatorResult> processRequestsConcurrently(List<List<String>> requests) {
-        List<CompletableFuture<CalculatorResult>> futures = requests.stream()
-                .map(this::processRequestAsync)
-                .toList();
+    public List<CalculatorResult> processRequestsConcurrently(List<? extends List<? extends CharSequence>> requests) {
+        List<CompletableFuture<CalculatorResult>> futures;
+        if (resultCache == null && !templateBatchingEnabled) {
+            futures = requests.stream()
+                    .map(request -> evaluateAsync(requestIdCounter.incrementAndGet(), request))
+                    .toList();
+        } else {
+            List<List<String>> lines = requests.stream().map(ConcurrentCalculatorService::toStrings).toList();
+            futures = templateBatchingEnabled
+                    ? processTemplatesAsync(lines)
+                    : lines.stream().map(this::processRequestAsync).toList();
+        }
 
         // Wait for all to complete and collect results
         CompletableFuture<Void> allFutures = CompletableFuture.allOf(
@@ -94,6 +285,79 @@ public class ConcurrentCalculatorService {
         }
     }
 
+    /**
+     * Start every request, evaluating groups of requests with the same template together
+     */
+    private List<CompletableFuture<CalculatorResult>> processTemplatesAsync(List<List<String>> requests) {
+        List<CompletableFuture<CalculatorResult>> futures = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        int[] requestIds = new int[requests.size()];
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        List<RequestTemplate> templates = new ArrayList<>(Collections.nCopies(requests.size(), null));
+
+        for (int i = 0; i < requests.size(); i++) {
+            List<String> expressions = requests.get(i);
+            requestIds[i] = requestIdCounter.incrementAndGet();
+            RequestResultCache.Outcome outcome = resultCache != null ? resultCache.get(expressions) : null;
+            if (outcome != null) {
+                futures.set(i, CompletableFuture.completedFuture(
+                        new CalculatorResult(requestIds[i], outcome)));
+                continue;
+            }
+            RequestTemplate template = RequestTemplate.of(expressions);
+            if (template != null) {
+                templates.set(i, template);
+                groups.computeIfAbsent(template.getShape(), shape -> new ArrayList<>()).add(i);
+            }
+        }
+
+        for (List<Integer> group : groups.values()) {
+            if (group.size() < MIN_TEMPLATE_LANES) {
+                continue;
+            }
+            for (int from = 0; from < group.size(); from += MAX_TEMPLATE_LANES) {
+                List<Integer> lanes = group.subList(from, Math.min(group.size(), from + MAX_TEMPLATE_LANES));
+                List<RequestTemplate> laneTemplates = new ArrayList<>(lanes.size());
+                List<List<String>> laneRequests = new ArrayList<>(lanes.size());
+                for (int index : lanes) {
+                    laneTemplates.add(templates.get(index));
+                    laneRequests.add(requests.get(index));
+                }
+                CompletableFuture<RequestResultCache.Outcome[]> batch = CompletableFuture.supplyAsync(
+                        () -> evaluateTemplate(calculatorThreadLocal.get(), laneTemplates, laneRequests), executorService);
+                for (int lane = 0; lane < lanes.size(); lane++) {
+                    int index = lanes.get(lane);
+                    int outcomeIndex = lane;
+                    futures.set(index, batch.thenApply(outcomes -> new CalculatorResult(requestIds[index],
+                            outcomes[outcomeIndex])));
+                }
+            }
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (futures.get(i) == null) {
+                futures.set(i, evaluateAsync(requestIds[i], requests.get(i)));
+            }
+        }
+        return futures;
+    }
+
+    private RequestResultCache.Outcome[] evaluateTemplate(Calculator calculator, List<RequestTemplate> templates,
+                                                          List<List<String>> requests) {
+        RequestResultCache.Outcome[] outcomes = calculator.processTemplate(templates);
+        if (outcomes == null) {
+            // The template does not parse, so each request reports its own parse error
+            outcomes = new RequestResultCache.Outcome[requests.size()];
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = evaluate(calculator, requests.get(i));
+            }
+        } else if (resultCache != null) {
+            for (int i = 0; i < outcomes.length; i++) {
+                resultCache.put(requests.get(i), outcomes[i]);
+            }
+        }
+        return outcomes;
+    }
+
     /**
      * Shutdown the service and release resources
      */
@@ -116,11 +380,23 @@ public class ConcurrentCalculatorService {
         private final int requestId;
         private final String result;
         private final String error;
+        private final RequestResultCache.Outcome outcome;
 
         public CalculatorResult(int requestId, String result, String error) {
             this.requestId = requestId;
             this.result = result;
             this.error = error;
+            this.outcome = null;
+        }
+
+        /**
+         * A result whose error message, if any, is built when it is first read
+         */
+        public CalculatorResult(int requestId, RequestResultCache.Outcome outcome) {
+            this.requestId = requestId;
+            this.result = outcome.getResult();
+            this.error = null;
+            this.outcome = outcome;
         }
 
         public int getRequestId() {
@@ -132,17 +408,17 @@ public class ConcurrentCalculatorService {
         }
 
         public String getError() {
-            return error;
+            return outcome != null ? outcome.getError() : error;
         }
 
         public boolean hasError() {
-            return error != null;
+            return getError() != null;
         }
 
         @Override
         public String toString() {
             if (hasError()) {
-                return String.format("Request %d Error: %s", requestId, error);
+                return String.format("Request %d Error: %s", requestId, getError());
             } else {
                 return String.format("Request %d Result: %s", requestId, result);
             }
@@ -0,0 +1,73 @@
+package org.example.calculator;
+
+import org.example.engine.ExactCompiler;
+import org.example.engine.ExactExpression;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact Calculator - same language as the Assignment Calculator, but results never wrap
+ * <p>
+ * Values are computed as longs with overflow checks and become BigIntegers only when
+ * they leave long range (see {@link ExactCompiler}), so requests on small numbers stay
+ * allocation-free. Literals are still limited to int range by the lexer.
+ * <p>
+ * Every line runs in order on the exact engine: the engine type, the optimizer and the
+ * request-level options of Calculator, which all compute in int, do not apply, and
+ * request templates are evaluated per request. Compiled lines are kept in a small cache
+ * of this calculator instead of the shared expression cache.
+ */
+public class ExactCalculator extends AssignmentCalculator {
+    static final int COMPILED_LINES_CACHE_SIZE = 1_024;
+
+    private ExactVariableStore exactStore = new ExactVariableStore(getSymbolTable());
+    private final ExactCompiler exactCompiler = new ExactCompiler(operatorTable);
+    private final Map<String, ExactExpression> compiledLines =
+            new LinkedHashMap<String, ExactExpression>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ExactExpression> eldest) {
+                    return size() > COMPILED_LINES_CACHE_SIZE;
+                }
+            };
+
+    public ExactCalculator() {
+        super();
+    }
+
+    @Override
+    public String processExpressions(List<? extends CharSequence> expressions) {
+        bindSymbolTable();
+        if (exactStore.getSymbolTable() != getSymbolTable()) {
+            exactStore = new ExactVariableStore(getSymbolTable());
+            compiledLines.clear();
+        }
+        try {
+            for (CharSequence expr : expressions) {
+                String expression = trim(expr).toString();
+                if (expression.isEmpty()) continue;
+                compile(expression).evaluate(exactStore);
+                exactStore.takeWideResult();
+            }
+            return exactStore.getFormattedOutput();
+        } finally {
+            exactStore.clear(); // Clear state after processing, also when a line fails
+        }
+    }
+
+    @Override
+    public RequestResultCache.Outcome[] processTemplate(List<RequestTemplate> requests) {
+        // Columnar evaluation wraps like int; have each request evaluated on its own
+        return null;
+    }
+
+    private ExactExpression compile(String expression) {
+        ExactExpression compiled = compiledLines.get(expression);
+        if (compiled == null) {
+            compiled = exactCompiler.compile(parseExpression(expression));
+            compiledLines.put(expression, compiled);
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.calculator;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Variable storage for exact arithmetic
+ * <p>
+ * Like VariableStore, values live in an array indexed by SymbolTable slot with generation
+ * stamps, but the array holds longs, and a value that does not fit in a long is kept as
+ * a BigInteger in a side array that is only allocated once some value needs it. Reading
+ * and writing long values therefore never allocates.
+ * <p>
+ * The store also carries the wide result of the expression being evaluated, see
+ * {@link org.example.engine.ExactExpression}.
+ */
+public class ExactVariableStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final SymbolTable symbols;
+
+    private long[] values = new long[INITIAL_CAPACITY];
+    private BigInteger[] wideValues;
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int generation = 1;
+
+    // Slots assigned in the current generation, for formatting the output
+    private int[] assignedSlots = new int[INITIAL_CAPACITY];
+    private int assignedCount;
+
+    // Reused for formatting, since a store is confined to one thread
+    private final StringBuilder output = new StringBuilder();
+    private int[] sortScratch = new int[INITIAL_CAPACITY];
+    private int[] sortedSlots = new int[INITIAL_CAPACITY];
+
+    private BigInteger wideResult;
+
+    public ExactVariableStore() {
+        this(new SymbolTable());
+    }
+
+    public ExactVariableStore(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+    /**
+     * @return the value of a variable if it fits in a long; otherwise 0, with the value
+     * left as the wide result
+     */
+    public long getValue(int slot) {
+        if (slot < generations.length && generations[slot] == generation) {
+            if (wideValues != null && wideValues[slot] != null) {
+                wideResult = wideValues[slot];
+                return 0;
+            }
+            return values[slot];
+        }
+        return 0;
+    }
+
+    public void assign(int slot, long value) {
+        stamp(slot);
+        values[slot] = value;
+        if (wideValues != null) {
+            wideValues[slot] = null;
+        }
+    }
+
+    /**
+     * Assign a value of any size, keeping it as a long when it fits
+     */
+    public void assign(int slot, BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            assign(slot, value.longValue());
+            return;
+        }
+        stamp(slot);
+        if (wideValues == null) {
+            wideValues = new BigInteger[values.length];
+        }
+        wideValues[slot] = value;
+    }
+
+    /**
+     * @return the exact value of a variable
+     */
+    public BigInteger getExactValue(String name) {
+        int slot = symbols.find(name);
+        long value = slot >= 0 ? getValue(slot) : 0;
+        BigInteger wide = takeWideResult();
+        return wide != null ? wide : BigInteger.valueOf(value);
+    }
+
+    private void stamp(int slot) {
+        if (slot >= values.length) {
+            grow(slot);
+        }
+        if (generations[slot] != generation) {
+            generations[slot] = generation;
+            if (assignedCount == assignedSlots.length) {
+                assignedSlots = Arrays.copyOf(assignedSlots, assignedCount * 2);
+            }
+            assignedSlots[assignedCount++] = slot;
+        }
+    }
+
+    private void grow(int slot) {
+        int capacity = Math.max(values.length * 2, slot + 1);
+        values = Arrays.copyOf(values, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        if (wideValues != null) {
+            wideValues = Arrays.copyOf(wideValues, capacity);
+        }
+    }
+
+    /**
+     * Hand over a result that does not fit in a long to the caller of the current expression
+     */
+    public void setWideResult(BigInteger value) {
+        wideResult = value;
+    }
+
+    /**
+     * @return the wide result of the expression just evaluated, or null if its value
+     * fit in a long; the result is cleared
+     */
+    public BigInteger takeWideResult() {
+        BigInteger result = wideResult;
+        wideResult = null;
+        return result;
+    }
+
+    /**
+     * @return the variables as sorted name=value pairs, e.g. "(a=1,b=2)"
+     */
+    public String getFormattedOutput() {
+        output.setLength(0);
+        formatTo(output);
+        return output.toString();
+    }
+
+    /**
+     * Append the formatted output to a buffer, without intermediate strings
+     */
+    public void formatTo(StringBuilder out) {
+        if (sortScratch.length < assignedCount) {
+            sortScratch = new int[assignedSlots.length];
+            sortedSlots = new int[assignedSlots.length];
+        }
+        int count = SlotOrder.sort(symbols, assignedSlots, assignedCount, sortScratch, sortedSlots);
+
+        out.append('(');
+        for (int i = 0; i < count; i++) {
+            int slot = sortedSlots[i];
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(symbols.nameOf(slot)).append('=');
+            if (wideValues != null && wideValues[slot] != null) {
+                out.append(wideValues[slot]);
+            } else {
+                out.append(values[slot]);
+            }
+        }
+        out.append(')');
+    }
+
+    public void clear() {
+        assignedCount = 0;
+        wideResult = null;
+        if (++generation == 0) {
+            // Stamps wrapped around; reset them so no stale slot matches
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+}
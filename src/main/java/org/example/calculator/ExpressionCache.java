@@ -0,0 +1,199 @@
+package org.example.calculator;
+
+import org.example.errors.ErrorMessages;
+import org.example.engine.CompiledExpression;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache from expression text to its compiled form
+ * Shared by all calculator instances of one calculator type, so a repeated
+ * expression is lexed, parsed and compiled only once. Cached expressions are
+ * immutable and are evaluated against the caller's own VariableStore.
+ * <p>
+ * Each entry is valid for the SymbolTable its expression was parsed against; once a
+ * newer table is in use, the entries of older ones are dropped and lookups against
+ * them miss. Eviction is size based and first-in first-out. Lookups take no lock;
+ * insertions, which follow a compilation, and clearing take the cache's lock, so the
+ * size always matches the entries.
+ */
+public class ExpressionCache {
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final int maxSize;
+    private volatile boolean enabled;
+    private volatile long symbolTableId;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpressionCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize maximum number of cached expressions; 0 disables the cache
+     */
+    public ExpressionCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_CACHE_SIZE.getMessage(maxSize));
+        }
+        this.maxSize = maxSize;
+        this.enabled = maxSize > 0;
+    }
+
+    // Slots are only meaningful together with the table they were assigned in
+    private static final class Entry {
+        final CompiledExpression compiled;
+        final long symbolTableId;
+
+        Entry(CompiledExpression compiled, long symbolTableId) {
+            this.compiled = compiled;
+            this.symbolTableId = symbolTableId;
+        }
+    }
+
+    /**
+     * Look up the compiled form of an expression parsed against the newest table the cache has seen
+     */
+    public CompiledExpression get(String expression) {
+        Entry entry = entries.get(expression);
+        return entry != null && entry.symbolTableId == symbolTableId ? entry.compiled : null;
+    }
+
+    /**
+     * Look up the compiled form of an expression
+     *
+     * @param expression the trimmed expression text
+     * @param symbols    the table the caller resolves variables against
+     * @return the cached expression, or null on a miss or when the cache is disabled
+     */
+    public CompiledExpression get(String expression, SymbolTable symbols) {
+        if (!enabled) {
+            return null;
+        }
+        adopt(symbols);
+        Entry entry = entries.get(expression);
+        if (entry != null && entry.symbolTableId == symbols.getId()) {
+            hits.increment();
+            return entry.compiled;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Store the compiled form of an expression, evicting the oldest entries if the cache is full
+     *
+     * @param symbols the table the expression was parsed against
+     */
+    public void put(String expression, CompiledExpression compiled, SymbolTable symbols) {
+        if (!enabled || !adopt(symbols)) {
+            return;
+        }
+        Entry entry = new Entry(compiled, symbols.getId());
+        synchronized (this) {
+            if (entry.symbolTableId != symbolTableId) {
+                return; // A newer table was adopted meanwhile
+            }
+            Entry previous = entries.putIfAbsent(expression, entry);
+            if (previous != null) {
+                if (previous.symbolTableId < entry.symbolTableId) {
+                    // Left over from an older table; the slot in the insertion order is kept
+                    entries.replace(expression, previous, entry);
+                }
+                return;
+            }
+            insertionOrder.add(expression);
+            if (size.incrementAndGet() > maxSize) {
+                evictOldest();
+            }
+        }
+    }
+
+    /**
+     * Switch to a table newer than the one of the cached entries, dropping those entries
+     *
+     * @return false if the table is older than the cached entries', whose slots it does not share
+     */
+    private boolean adopt(SymbolTable symbols) {
+        long id = symbols.getId();
+        if (id == symbolTableId) {
+            return true;
+        }
+        synchronized (this) {
+            if (id > symbolTableId) {
+                symbolTableId = id;
+                clear();
+            }
+            return id == symbolTableId;
+        }
+    }
+
+    private void evictOldest() {
+        while (size.get() > maxSize) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (entries.remove(oldest) != null) {
+                size.decrementAndGet();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Turn the cache on or off; turning it off drops all entries
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled && maxSize > 0;
+        if (!this.enabled) {
+            clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        insertionOrder.clear();
+        size.set(0);
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExpressionCache(size: %d/%d, hits: %d, misses: %d, evictions: %d)",
+                size(), maxSize, getHitCount(), getMissCount(), getEvictionCount());
+    }
+}
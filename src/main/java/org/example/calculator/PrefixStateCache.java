@@ -0,0 +1,300 @@
+package org.example.calculator;
+
+import org.example.errors.ErrorMessages;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded trie of request prefixes with snapshots of the variables after them
+ * <p>
+ * Every request records its lines as a path in the trie. When a request follows an
+ * existing path for a while, the calculator snapshots its variables at the point
+ * where it leaves the path, which is the prefix it shares with earlier requests.
+ * Later requests with that prefix restore the snapshot and evaluate only the lines
+ * after it. A request's output depends only on its lines, so resuming is exact.
+ * <p>
+ * Memory is bounded by an estimate of the bytes held by nodes and snapshots; when
+ * it is exceeded the least recently used paths are pruned. Paths are recorded up
+ * to a maximum depth, so very long requests do not fill the trie.
+ * <p>
+ * Snapshots hold slots of one SymbolTable, so the trie is cleared when requests
+ * move on to a newer table, and requests still on an older one neither resume
+ * nor record.
+ */
+public class PrefixStateCache {
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+    public static final int DEFAULT_MAX_DEPTH = 4_096;
+
+    private static final int NODE_OVERHEAD_BYTES = 120;
+
+    private final long maxBytes;
+    private final int maxDepth;
+    private final Node root = new Node(null, null);
+    private long bytes;
+    private long clock;
+    private int nodeCount;
+    private int snapshotCount;
+    private long symbolTableId;
+
+    private final LongAdder resumes = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder linesSkipped = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PrefixStateCache() {
+        this(DEFAULT_MAX_BYTES, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param maxBytes maximum estimated memory of the trie and its snapshots
+     * @param maxDepth maximum number of lines recorded per request
+     */
+    public PrefixStateCache(long maxBytes, int maxDepth) {
+        if (maxBytes < 0 || maxDepth < 0) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_CACHE_SIZE.getMessage(Math.min(maxBytes, maxDepth)));
+        }
+        this.maxBytes = maxBytes;
+        this.maxDepth = maxDepth;
+    }
+
+    private static final class Node {
+        private final Node parent;
+        private final String line;
+        private final Map<String, Node> children = new HashMap<>(2);
+        private VariableSnapshot snapshot;
+        private long lastUsed;
+
+        Node(Node parent, String line) {
+            this.parent = parent;
+            this.line = line;
+        }
+
+        long ownBytes() {
+            long size = NODE_OVERHEAD_BYTES + line.length() * 2L;
+            return snapshot != null ? size + snapshot.getEstimatedBytes() : size;
+        }
+    }
+
+    /**
+     * Where a request can resume and how far it follows recorded paths
+     */
+    public static final class Resume {
+        private final int snapshotDepth;
+        private final VariableSnapshot snapshot;
+        private final int sharedDepth;
+
+        Resume(int snapshotDepth, VariableSnapshot snapshot, int sharedDepth) {
+            this.snapshotDepth = snapshotDepth;
+            this.snapshot = snapshot;
+            this.sharedDepth = sharedDepth;
+        }
+
+        /**
+         * @return the number of leading lines covered by {@link #getSnapshot()}
+         */
+        public int getSnapshotDepth() {
+            return snapshotDepth;
+        }
+
+        /**
+         * @return the variables after the longest cached prefix, or null to start from scratch
+         */
+        public VariableSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        /**
+         * @return the number of leading lines the request shares with recorded requests
+         */
+        public int getSharedDepth() {
+            return sharedDepth;
+        }
+    }
+
+    /**
+     * Find the longest cached prefix of a request
+     *
+     * @param lines   the trimmed, non-empty lines of the request
+     * @param symbols the table the request resolves variables against
+     */
+    public synchronized Resume findResume(List<String> lines, SymbolTable symbols) {
+        if (!adopt(symbols)) {
+            misses.increment();
+            return new Resume(0, null, 0);
+        }
+        long now = ++clock;
+        Node node = root;
+        Node resumeNode = null;
+        int resumeDepth = 0;
+        int depth = 0;
+        while (depth < lines.size()) {
+            Node child = node.children.get(lines.get(depth));
+            if (child == null) {
+                break;
+            }
+            node = child;
+            depth++;
+            node.lastUsed = now;
+            if (node.snapshot != null) {
+                resumeNode = node;
+                resumeDepth = depth;
+            }
+        }
+
+        if (resumeNode == null) {
+            misses.increment();
+            return new Resume(0, null, depth);
+        }
+        resumes.increment();
+        linesSkipped.add(resumeDepth);
+        return new Resume(resumeDepth, resumeNode.snapshot, depth);
+    }
+
+    /**
+     * Record the lines of a request and the variables after its shared prefix
+     *
+     * @param lines       the trimmed, non-empty lines of the request
+     * @param depth       the number of leading lines the snapshot covers
+     * @param snapshot    the variables after those lines, or null to record the path only
+     * @param symbols     the table the snapshot's slots belong to
+     */
+    public synchronized void record(List<String> lines, int depth, VariableSnapshot snapshot, SymbolTable symbols) {
+        if (!adopt(symbols)) {
+            return;
+        }
+        long now = ++clock;
+        Node node = root;
+        int pathLength = Math.min(lines.size(), maxDepth);
+        for (int i = 0; i < pathLength; i++) {
+            String line = lines.get(i);
+            Node child = node.children.get(line);
+            if (child == null) {
+                child = new Node(node, line);
+                node.children.put(line, child);
+                nodeCount++;
+                bytes += child.ownBytes();
+            }
+            node = child;
+            node.lastUsed = now;
+            if (i + 1 == depth && snapshot != null && node.snapshot == null) {
+                node.snapshot = snapshot;
+                snapshotCount++;
+                bytes += snapshot.getEstimatedBytes();
+            }
+        }
+        if (bytes > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * Switch to a table newer than the snapshots', dropping the trie
+     *
+     * @return false if the table is older than the snapshots'
+     */
+    private boolean adopt(SymbolTable symbols) {
+        long id = symbols.getId();
+        if (id > symbolTableId) {
+            symbolTableId = id;
+            clear();
+        }
+        return id == symbolTableId;
+    }
+
+    /**
+     * Prune least recently used subtrees until the trie uses at most three quarters of its budget
+     * A node is never used later than its ancestors, so leaves go first.
+     */
+    private void evict() {
+        List<Node> nodes = new ArrayList<>(nodeCount);
+        collect(root, nodes);
+        nodes.sort(Comparator.comparingLong(node -> node.lastUsed));
+
+        long target = maxBytes - maxBytes / 4;
+        for (Node node : nodes) {
+            if (bytes <= target) {
+                break;
+            }
+            if (node.parent.children.get(node.line) == node) {
+                node.parent.children.remove(node.line);
+                detach(node);
+            }
+        }
+    }
+
+    private static void collect(Node node, List<Node> nodes) {
+        for (Node child : node.children.values()) {
+            nodes.add(child);
+            collect(child, nodes);
+        }
+    }
+
+    private void detach(Node node) {
+        for (Node child : node.children.values()) {
+            detach(child);
+        }
+        // Descendants still in the eviction order see an empty parent and are skipped
+        node.children.clear();
+        bytes -= node.ownBytes();
+        nodeCount--;
+        if (node.snapshot != null) {
+            snapshotCount--;
+        }
+        evictions.increment();
+    }
+
+    public synchronized void clear() {
+        root.children.clear();
+        bytes = 0;
+        nodeCount = 0;
+        snapshotCount = 0;
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    public synchronized int getNodeCount() {
+        return nodeCount;
+    }
+
+    public synchronized int getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getResumeCount() {
+        return resumes.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getLinesSkipped() {
+        return linesSkipped.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PrefixStateCache(nodes: %d, snapshots: %d, bytes: %d/%d, resumes: %d, misses: %d, lines skipped: %d, evictions: %d)",
+                getNodeCount(), getSnapshotCount(), getEstimatedBytes(), maxBytes,
+                getResumeCount(), getMissCount(), getLinesSkipped(), getEvictionCount());
+    }
+}
@@ -0,0 +1,238 @@
+package org.example.calculator;
+
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe memo of whole-request outcomes
+ * A request's output depends only on its lines, since every request starts from an
+ * empty VariableStore, so a repeated request can reuse the earlier result or error.
+ * Requests are keyed by a 64-bit fingerprint of their lines and compared by content,
+ * so a fingerprint collision can never return another request's result.
+ * <p>
+ * Memory is bounded by both the number of entries and an estimate of the bytes they
+ * retain; the least recently used entries are evicted first.
+ */
+public class RequestResultCache {
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int LINE_OVERHEAD_BYTES = 56;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<RequestKey, Outcome> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RequestResultCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxEntries maximum number of memoized requests
+     * @param maxBytes   maximum estimated memory retained by memoized requests
+     */
+    public RequestResultCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_CACHE_SIZE.getMessage(Math.min(maxEntries, maxBytes)));
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Outcome of one request: its output or its error message
+     */
+    public static final class Outcome {
+        private final String result;
+        private final String error;
+        private final CalculatorError failure;
+
+        public Outcome(String result, String error) {
+            this.result = result;
+            this.error = error;
+            this.failure = null;
+        }
+
+        /**
+         * Outcome of a failed request
+         * A CalculatorError is kept, as it has no stack trace and builds its message only
+         * when it is read. Of any other exception only the message is kept, so no stack
+         * trace is retained by a cached outcome.
+         */
+        public Outcome(RuntimeException failure) {
+            this.result = null;
+            if (failure instanceof CalculatorError) {
+                this.error = null;
+                this.failure = (CalculatorError) failure;
+            } else {
+                this.error = failure.getMessage();
+                this.failure = null;
+            }
+        }
+
+        public String getResult() {
+            return result;
+        }
+
+        public String getError() {
+            return failure != null ? failure.getMessage() : error;
+        }
+    }
+
+    /**
+     * @return the memoized outcome of a request, or null if it is not cached
+     */
+    public Outcome get(List<String> expressions) {
+        RequestKey key = new RequestKey(expressions);
+        Outcome outcome;
+        synchronized (this) {
+            outcome = entries.get(key);
+        }
+        if (outcome != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return outcome;
+    }
+
+    /**
+     * Memoize the outcome of a request, evicting least recently used requests if needed
+     */
+    public void put(List<String> expressions, Outcome outcome) {
+        RequestKey key = new RequestKey(List.copyOf(expressions));
+        long entryBytes = estimateBytes(key, outcome);
+        if (entryBytes > maxBytes || maxEntries == 0) {
+            return;
+        }
+        synchronized (this) {
+            Outcome previous = entries.put(key, outcome);
+            if (previous != null) {
+                bytes -= estimateBytes(key, previous);
+            }
+            bytes += entryBytes;
+
+            Iterator<Map.Entry<RequestKey, Outcome>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                Map.Entry<RequestKey, Outcome> entry = eldest.next();
+                bytes -= estimateBytes(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static long estimateBytes(RequestKey key, Outcome outcome) {
+        long size = ENTRY_OVERHEAD_BYTES + key.chars * 2L + (long) key.expressions.size() * LINE_OVERHEAD_BYTES;
+        if (outcome.result != null) {
+            size += LINE_OVERHEAD_BYTES + outcome.result.length() * 2L;
+        }
+        if (outcome.error != null) {
+            size += LINE_OVERHEAD_BYTES + outcome.error.length() * 2L;
+        }
+        if (outcome.failure != null) {
+            // Counted as if its message were built, without building it
+            size += outcome.failure.estimateRetainedBytes();
+        }
+        return size;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return hits divided by lookups, or 0 before the first lookup
+     */
+    public double getHitRatio() {
+        long hitCount = getHitCount();
+        long lookups = hitCount + getMissCount();
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RequestResultCache(size: %d/%d, bytes: %d/%d, hits: %d, misses: %d, hit ratio: %.2f, evictions: %d)",
+                size(), maxEntries, getEstimatedBytes(), maxBytes, getHitCount(), getMissCount(), getHitRatio(), getEvictionCount());
+    }
+
+    /**
+     * Lines of a request with their precomputed fingerprint
+     */
+    private static final class RequestKey {
+        private final List<String> expressions;
+        private final long fingerprint;
+        private final long chars;
+
+        RequestKey(List<String> expressions) {
+            this.expressions = expressions;
+            long hash = expressions.size();
+            long length = 0;
+            for (String expression : expressions) {
+                hash = hash * 0x9E3779B97F4A7C15L + expression.hashCode();
+                hash ^= hash >>> 29;
+                length += expression.length();
+            }
+            this.fingerprint = hash;
+            this.chars = length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RequestKey)) {
+                return false;
+            }
+            RequestKey other = (RequestKey) o;
+            return fingerprint == other.fingerprint && expressions.equals(other.expressions);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (fingerprint ^ (fingerprint >>> 32));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The shape of a request with its numeric literals erased, and the literals themselves
+ * <p>
+ * Requests with equal shapes tokenize to the same tokens except for the values of their
+ * numbers, so they parse to the same tree and can be evaluated together as one template
+ * (see {@link Calculator#processTemplate}). A literal is a run of ASCII digits that does
+ * not continue an identifier; operators never contain digits. Requests with characters
+ * outside ASCII, a '#' (the placeholder), or a literal beyond int range have no template.
+ */
+public final class RequestTemplate {
+    private static final char PLACEHOLDER = '#';
+
+    private final String shape;
+    private final List<String> lines;
+    private final int[] literals;
+
+    private RequestTemplate(String shape, List<String> lines, int[] literals) {
+        this.shape = shape;
+        this.lines = lines;
+        this.literals = literals;
+    }
+
+    /**
+     * @return the template of a request, or null if it has none
+     */
+    public static RequestTemplate of(List<String> expressions) {
+        StringBuilder shape = new StringBuilder();
+        List<String> lines = new ArrayList<>(expressions.size());
+        int[] literals = new int[8];
+        int literalCount = 0;
+
+        for (String expr : expressions) {
+            String line = expr.trim();
+            if (line.isEmpty()) continue;
+            lines.add(line);
+
+            int i = 0;
+            while (i < line.length()) {
+                char c = line.charAt(i);
+                if (c >= 0x80 || c == PLACEHOLDER) {
+                    return null;
+                }
+                if (isDigit(c) && (i == 0 || !isIdentifierChar(line.charAt(i - 1)))) {
+                    long value = 0;
+                    while (i < line.length() && isDigit(line.charAt(i))) {
+                        value = value * 10 + (line.charAt(i) - '0');
+                        if (value > Integer.MAX_VALUE) {
+                            return null;
+                        }
+                        i++;
+                    }
+                    if (literalCount == literals.length) {
+                        literals = Arrays.copyOf(literals, literalCount * 2);
+                    }
+                    literals[literalCount++] = (int) value;
+                    shape.append(PLACEHOLDER);
+                    continue;
+                }
+                shape.append(c);
+                i++;
+            }
+            shape.append('\n');
+        }
+        return new RequestTemplate(shape.toString(), lines, Arrays.copyOf(literals, literalCount));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    /**
+     * @return the request text with every literal replaced by a placeholder
+     */
+    public String getShape() {
+        return shape;
+    }
+
+    /**
+     * @return the trimmed, non-empty lines of the request
+     */
+    public List<String> getLines() {
+        return lines;
+    }
+
+    public int getLiteralCount() {
+        return literals.length;
+    }
+
+    public int getLiteral(int index) {
+        return literals[index];
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.calculator;
+
+import java.util.Arrays;
+
+/**
+ * Sorts variable slots by name, for formatting the output of a request
+ * <p>
+ * The rank of every slot in name order is computed once per SymbolTable and kept in
+ * it, so sorting the variables of a request is a sort of int ranks: no name is
+ * compared and nothing is boxed. Variables are added to the table as expressions are
+ * parsed, so the ranks are rebuilt once the table has grown by a fraction of its size;
+ * until then, requests with variables newer than the ranks sort by name.
+ */
+final class SlotOrder {
+    private static final int TEMPORARY = -1;
+
+    static final SlotOrder EMPTY = new SlotOrder(new int[0], new int[0]);
+
+    private final int[] ranks;
+    private final int[] slotsByRank;
+
+    private SlotOrder(int[] ranks, int[] slotsByRank) {
+        this.ranks = ranks;
+        this.slotsByRank = slotsByRank;
+    }
+
+    /**
+     * Write the slots of user variables in name order, leaving out temporaries
+     *
+     * @param symbols the table the slots belong to
+     * @param slots   the slots to sort
+     * @param count   the number of slots
+     * @param scratch space for at least count ints
+     * @param sorted  receives the sorted slots; at least count long
+     * @return the number of slots written to sorted
+     */
+    static int sort(SymbolTable symbols, int[] slots, int count, int[] scratch, int[] sorted) {
+        SlotOrder order = symbols.slotOrder;
+        if (!order.ranksAll(slots, count)) {
+            order = rebuildIfGrown(symbols);
+            if (!order.ranksAll(slots, count)) {
+                return sortByName(symbols, slots, count, sorted);
+            }
+        }
+
+        int ranked = 0;
+        for (int i = 0; i < count; i++) {
+            int rank = order.ranks[slots[i]];
+            if (rank != TEMPORARY) {
+                scratch[ranked++] = rank;
+            }
+        }
+        Arrays.sort(scratch, 0, ranked);
+        for (int i = 0; i < ranked; i++) {
+            sorted[i] = order.slotsByRank[scratch[i]];
+        }
+        return ranked;
+    }
+
+    private boolean ranksAll(int[] slots, int count) {
+        for (int i = 0; i < count; i++) {
+            if (slots[i] >= ranks.length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SlotOrder rebuildIfGrown(SymbolTable symbols) {
+        synchronized (symbols.slotOrderLock) {
+            return rebuild(symbols);
+        }
+    }
+
+    private static SlotOrder rebuild(SymbolTable symbols) {
+        SlotOrder order = symbols.slotOrder;
+        int ranked = order.ranks.length;
+        int size = symbols.size();
+        // Rebuilding sorts every name, so only do it once enough new names make it pay off
+        if (size - ranked < Math.max(ranked / 8, 1)) {
+            return order;
+        }
+
+        String[] names = new String[size];
+        for (int slot = 0; slot < size; slot++) {
+            names[slot] = symbols.nameOf(slot);
+        }
+        Arrays.sort(names);
+        int[] ranks = new int[size];
+        int[] slotsByRank = new int[size];
+        int rank = 0;
+        for (String name : names) {
+            int slot = symbols.slotOf(name);
+            if (SymbolTable.isTemporary(name)) {
+                ranks[slot] = TEMPORARY;
+            } else {
+                ranks[slot] = rank;
+                slotsByRank[rank++] = slot;
+            }
+        }
+        order = new SlotOrder(ranks, slotsByRank);
+        symbols.slotOrder = order;
+        return order;
+    }
+
+    private static int sortByName(SymbolTable symbols, int[] slots, int count, int[] sorted) {
+        String[] names = new String[count];
+        int named = 0;
+        for (int i = 0; i < count; i++) {
+            String name = symbols.nameOf(slots[i]);
+            if (!SymbolTable.isTemporary(name)) {
+                names[named++] = name;
+            }
+        }
+        Arrays.sort(names, 0, named);
+        for (int i = 0; i < named; i++) {
+            sorted[i] = symbols.slotOf(names[i]);
+        }
+        return named;
+    }
+}
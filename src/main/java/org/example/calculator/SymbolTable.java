@@ -0,0 +1,141 @@
+package org.example.calculator;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maps variable names to dense slot indexes into a VariableStore
+ * <p>
+ * Identifiers are resolved once, when an expression is parsed, so evaluation reads
+ * and writes variables by slot without hashing strings. Slots are never reused within
+ * a table, which keeps slots held by cached expressions valid. Each calculator owns a
+ * table; calculators that share caches, such as the workers of a
+ * ConcurrentCalculatorService, are given the same one so cached expressions run on any of them.
+ * <p>
+ * A table is bounded: once it holds {@link #getMaxSize()} names, {@link #latest()}
+ * returns a new, empty successor, the same one for every holder of the full table.
+ * Calculators switch to it at their next request, and their caches drop what was
+ * resolved against the old one, so the names of a long-running process with ever new
+ * variables are reclaimed along with the old table.
+ */
+public final class SymbolTable {
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    private static final char TEMPORARY_PREFIX = '$';
+    private static final AtomicLong nextId = new AtomicLong();
+
+    private final long id = nextId.incrementAndGet();
+    private final int maxSize;
+    private final ConcurrentHashMap<String, Integer> slots = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+    private SymbolTable successor;
+
+    // Name order of the slots, see SlotOrder
+    volatile SlotOrder slotOrder = SlotOrder.EMPTY;
+    final Object slotOrderLock = new Object();
+
+    public SymbolTable() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize the number of names after which {@link #latest()} moves on to a new table
+     */
+    public SymbolTable(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the table new requests resolve their variables against: this one while it
+     *         has room, otherwise its successor, which has the same bound
+     */
+    public SymbolTable latest() {
+        SymbolTable table = this;
+        while (table.isFull()) {
+            table = table.successor();
+        }
+        return table;
+    }
+
+    private synchronized SymbolTable successor() {
+        if (successor == null) {
+            successor = new SymbolTable(maxSize);
+        }
+        return successor;
+    }
+
+    /**
+     * @return the slot of a variable, assigning the next free slot on first use
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (this) {
+            slot = slots.get(name);
+            if (slot == null) {
+                if (size == names.length) {
+                    names = Arrays.copyOf(names, size * 2);
+                }
+                names[size] = name;
+                slot = size++;
+                // Publish the name before the slot so nameOf always sees it
+                slots.put(name, slot);
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * @return the slot of a variable, or -1 if no expression used it; never assigns a slot
+     */
+    public int find(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * @return the variable name of a slot returned by {@link #slotOf}
+     */
+    public String nameOf(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * Name of a compiler-generated temporary variable
+     * Temporaries start with a character the lexer never accepts in an identifier,
+     * so they cannot clash with user variables, and they are left out of the output.
+     */
+    public static String temporaryName(int index) {
+        return TEMPORARY_PREFIX + Integer.toString(index);
+    }
+
+    public static boolean isTemporary(String name) {
+        return name.charAt(0) == TEMPORARY_PREFIX;
+    }
+
+    /**
+     * @return the number of slots assigned so far
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isFull() {
+        return size() >= maxSize;
+    }
+
+    /**
+     * @return an identifier that is larger for tables created later
+     */
+    long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.calculator;
+
+import org.example.engine.EngineType;
+
+/**
+ * Tiered Calculator - same language as the Assignment Calculator; expressions start
+ * in the AST interpreter and are compiled in the background once they become hot
+ */
+public class TieredCalculator extends AssignmentCalculator {
+
+    public TieredCalculator() {
+        super();
+        setEngineType(EngineType.TIERED);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.calculator;
+
+/**
+ * Immutable copy of the variables of a VariableStore
+ * Holds only the assigned slots and their values, so it is as small as the state
+ * it captures and can be shared between threads and calculators.
+ */
+public final class VariableSnapshot {
+    private static final int OVERHEAD_BYTES = 64;
+
+    private final int[] slots;
+    private final int[] values;
+
+    VariableSnapshot(int[] slots, int[] values) {
+        this.slots = slots;
+        this.values = values;
+    }
+
+    int[] getSlots() {
+        return slots;
+    }
+
+    int[] getValues() {
+        return values;
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * @return estimated memory retained by the snapshot
+     */
+    public long getEstimatedBytes() {
+        return OVERHEAD_BYTES + slots.length * 8L;
+    }
+}
@@ -3,39 +3,146 @@ package org.example.calculator;
 import java.util.*;
 
 // Variable storage management
+// Values live in an int array indexed by slot of the store's SymbolTable. A slot holds a value
+// only when its generation stamp matches the store's, so clear() is O(1) and unset variables read as 0.
 public class VariableStore {
-    private final Map<String, Integer> variables = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final SymbolTable symbols;
+
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int generation = 1;
+
+    // Slots assigned in the current generation, for formatting the output
+    private int[] assignedSlots = new int[INITIAL_CAPACITY];
+    private int assignedCount;
+
+    // Reused for formatting, since a store is confined to one thread
+    private final StringBuilder output = new StringBuilder();
+    private int[] sortScratch = new int[INITIAL_CAPACITY];
+    private int[] sortedSlots = new int[INITIAL_CAPACITY];
+
+    public VariableStore() {
+        this(new SymbolTable());
+    }
+
+    public VariableStore(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
 
     public void assign(String name, int value) {
-        variables.put(name, value);
+        assign(symbols.slotOf(name), value);
     }
 
     public int getValue(String name) {
-        return variables.getOrDefault(name, 0);
+        // A name without a slot was never assigned; looking it up must not grow the table
+        int slot = symbols.find(name);
+        return slot >= 0 ? getValue(slot) : 0;
     }
 
-    public String getFormattedOutput() {
-        if (variables.isEmpty()) {
-            return "()";
+    public void assign(int slot, int value) {
+        if (slot >= values.length) {
+            grow(slot);
+        }
+        if (generations[slot] != generation) {
+            generations[slot] = generation;
+            if (assignedCount == assignedSlots.length) {
+                assignedSlots = Arrays.copyOf(assignedSlots, assignedCount * 2);
+            }
+            assignedSlots[assignedCount++] = slot;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Mark a slot as assigned, keeping its value (0 if it was unset)
+     * Unset variables read as 0 either way. Once every slot a request writes is declared,
+     * assignments only store their value, so threads may assign different slots concurrently.
+     */
+    public void declare(int slot) {
+        if (slot >= values.length || generations[slot] != generation) {
+            assign(slot, 0);
         }
+    }
+
+    public int getValue(int slot) {
+        if (slot < generations.length && generations[slot] == generation) {
+            return values[slot];
+        }
+        return 0;
+    }
+
+    private void grow(int slot) {
+        int capacity = Math.max(values.length * 2, slot + 1);
+        values = Arrays.copyOf(values, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+    }
+
+    /**
+     * @return the variables as sorted name=value pairs, e.g. "(a=1,b=2)"
+     */
+    public String getFormattedOutput() {
+        output.setLength(0);
+        formatTo(output);
+        return output.toString();
+    }
 
-        List<String> sortedKeys = new ArrayList<>(variables.keySet());
-        Collections.sort(sortedKeys);
+    /**
+     * Append the formatted output to a buffer, without intermediate strings
+     */
+    public void formatTo(StringBuilder out) {
+        if (sortScratch.length < assignedCount) {
+            sortScratch = new int[assignedSlots.length];
+            sortedSlots = new int[assignedSlots.length];
+        }
+        int count = SlotOrder.sort(symbols, assignedSlots, assignedCount, sortScratch, sortedSlots);
 
-        StringBuilder result = new StringBuilder("(");
-        for (int i = 0; i < sortedKeys.size(); i++) {
-            String key = sortedKeys.get(i);
-            result.append(key).append("=").append(variables.get(key));
-            if (i < sortedKeys.size() - 1) {
-                result.append(",");
+        out.append('(');
+        for (int i = 0; i < count; i++) {
+            int slot = sortedSlots[i];
+            if (i > 0) {
+                out.append(',');
             }
+            out.append(symbols.nameOf(slot)).append('=').append(values[slot]);
+        }
+        out.append(')');
+    }
+
+    /**
+     * @return an immutable copy of the current variables
+     */
+    public VariableSnapshot snapshot() {
+        int[] slots = Arrays.copyOf(assignedSlots, assignedCount);
+        int[] snapshotValues = new int[assignedCount];
+        for (int i = 0; i < assignedCount; i++) {
+            snapshotValues[i] = values[slots[i]];
         }
-        result.append(")");
+        return new VariableSnapshot(slots, snapshotValues);
+    }
 
-        return result.toString();
+    /**
+     * Replace the current variables with those of a snapshot
+     */
+    public void restore(VariableSnapshot snapshot) {
+        clear();
+        int[] slots = snapshot.getSlots();
+        int[] snapshotValues = snapshot.getValues();
+        for (int i = 0; i < slots.length; i++) {
+            assign(slots[i], snapshotValues[i]);
+        }
     }
 
     public void clear() {
-        variables.clear();
+        assignedCount = 0;
+        if (++generation == 0) {
+            // Stamps wrapped around; reset them so no stale slot matches
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
     }
 }
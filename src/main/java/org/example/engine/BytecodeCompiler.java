@@ -0,0 +1,282 @@
+package org.example.engine;
+
+import org.example.errors.ErrorMessages;
+import org.example.parser.ASTNode;
+import org.example.parser.ASTVisitor;
+import org.example.parser.AssignmentOperator;
+import org.example.parser.BinaryOperator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.example.engine.ClassFileBuilder.Code;
+
+/**
+ * Compiles an AST into a JVM hidden class implementing {@link CompiledExpression}
+ * <p>
+ * Every variable of the expression lives in a local slot of the generated
+ * evaluate method: variables that are read are loaded from their VariableStore
+ * slot once on entry, and variables that are written are stored back once before
+ * returning. Operators are inlined as iadd/isub/imul/idiv, with the same
+ * division-by-zero check and message as the registered operations, so there
+ * are no calls through ASTNode.evaluate or OperationRegistry.
+ * <p>
+ * The compiled code implements the {@link org.example.operations.DefaultOperations default
+ * operations}; EngineFactory uses it only for calculators that have them.
+ * Expressions too large for a class file are returned uncompiled.
+ */
+public class BytecodeCompiler implements ExpressionCompiler {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final String CLASS_NAME = "org/example/engine/GeneratedExpression";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String CALCULATOR_ERROR = "org/example/errors/CalculatorError";
+    private static final String COMPILED_EXPRESSION = "org/example/engine/CompiledExpression";
+    private static final String VARIABLE_STORE = "org/example/calculator/VariableStore";
+    private static final String EVALUATE_DESCRIPTOR =
+            "(Lorg/example/calculator/VariableStore;Lorg/example/operations/OperationRegistry;)I";
+
+    private static final int STORE_LOCAL = 1;
+    private static final int FIRST_VARIABLE_LOCAL = 3;
+
+    @Override
+    public CompiledExpression compile(ASTNode ast) {
+        byte[] classFile;
+        try {
+            classFile = generate(ast);
+        } catch (ClassFileBuilder.CodeTooLargeException e) {
+            return ast;
+        }
+
+        try {
+            MethodHandles.Lookup hiddenClass = LOOKUP.defineHiddenClass(classFile, true);
+            return (CompiledExpression) hiddenClass
+                    .findConstructor(hiddenClass.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException(ErrorMessages.BYTECODE_GENERATION_FAILED.getMessage() + e, e);
+        }
+    }
+
+    private byte[] generate(ASTNode ast) {
+        VariableCollector variables = new VariableCollector();
+        ast.accept(variables);
+
+        ClassFileBuilder classFile = new ClassFileBuilder(CLASS_NAME, OBJECT, COMPILED_EXPRESSION);
+        classFile.addMethod(ClassFileBuilder.ACC_PUBLIC, "<init>", "()V", constructor(classFile));
+
+        Map<Integer, Integer> locals = new LinkedHashMap<>();
+        for (int slot : variables.referenced) {
+            locals.put(slot, FIRST_VARIABLE_LOCAL + locals.size());
+        }
+        Code code = new Code(FIRST_VARIABLE_LOCAL + locals.size());
+
+        // Load the variables the expression reads into their local slots
+        int getValue = classFile.methodConstant(VARIABLE_STORE, "getValue", "(I)I");
+        for (int slot : variables.loaded) {
+            code.aload(STORE_LOCAL);
+            code.pushInt(classFile, slot);
+            code.constantOp(Code.INVOKEVIRTUAL, getValue, -1);
+            code.istore(locals.get(slot));
+        }
+
+        ast.accept(new Emitter(classFile, code, locals));
+
+        // Store the written variables back; the result stays on the stack below
+        int assign = classFile.methodConstant(VARIABLE_STORE, "assign", "(II)V");
+        for (int slot : variables.written) {
+            code.aload(STORE_LOCAL);
+            code.pushInt(classFile, slot);
+            code.iload(locals.get(slot));
+            code.constantOp(Code.INVOKEVIRTUAL, assign, -3);
+        }
+        code.op(Code.IRETURN, -1);
+
+        classFile.addMethod(ClassFileBuilder.ACC_PUBLIC, "evaluate", EVALUATE_DESCRIPTOR, code);
+        return classFile.toByteArray(ClassFileBuilder.ACC_PUBLIC | ClassFileBuilder.ACC_FINAL | ClassFileBuilder.ACC_SUPER);
+    }
+
+    private static Code constructor(ClassFileBuilder classFile) {
+        Code code = new Code(1);
+        code.aload(0);
+        code.constantOp(Code.INVOKESPECIAL, classFile.methodConstant(OBJECT, "<init>", "()V"), -1);
+        code.op(Code.RETURN, 0);
+        return code;
+    }
+
+    /**
+     * Collects the variables an expression references, reads before writing, and writes
+     */
+    private static final class VariableCollector implements ASTVisitor<Void> {
+        private final Set<Integer> referenced = new LinkedHashSet<>();
+        private final Set<Integer> loaded = new LinkedHashSet<>();
+        private final Set<Integer> written = new LinkedHashSet<>();
+
+        private void read(int slot) {
+            referenced.add(slot);
+            loaded.add(slot);
+        }
+
+        private void write(int slot) {
+            referenced.add(slot);
+            written.add(slot);
+        }
+
+        @Override
+        public Void visitNumber(int value) {
+            return null;
+        }
+
+        @Override
+        public Void visitVariable(String name, int slot) {
+            read(slot);
+            return null;
+        }
+
+        @Override
+        public Void visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            left.accept(this);
+            right.accept(this);
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            expression.accept(this);
+            if (operator != AssignmentOperator.ASSIGN) {
+                read(slot);
+            }
+            write(slot);
+            return null;
+        }
+
+        @Override
+        public Void visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            read(slot);
+            write(slot);
+            return null;
+        }
+
+        @Override
+        public Void visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            read(slot);
+            write(slot);
+            return null;
+        }
+    }
+
+    /**
+     * Emits code that leaves the value of the visited node on the operand stack
+     */
+    private static final class Emitter implements ASTVisitor<Void> {
+        private final ClassFileBuilder classFile;
+        private final Code code;
+        private final Map<Integer, Integer> locals;
+
+        Emitter(ClassFileBuilder classFile, Code code, Map<Integer, Integer> locals) {
+            this.classFile = classFile;
+            this.code = code;
+            this.locals = locals;
+        }
+
+        @Override
+        public Void visitNumber(int value) {
+            code.pushInt(classFile, value);
+            return null;
+        }
+
+        @Override
+        public Void visitVariable(String name, int slot) {
+            code.iload(locals.get(slot));
+            return null;
+        }
+
+        @Override
+        public Void visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            left.accept(this);
+            right.accept(this);
+            switch (operator) {
+                case PLUS:
+                    code.op(Code.IADD, -1);
+                    break;
+                case MINUS:
+                    code.op(Code.ISUB, -1);
+                    break;
+                case MULTIPLY:
+                    code.op(Code.IMUL, -1);
+                    break;
+                case DIVIDE:
+                    emitDivide();
+                    break;
+            }
+            return null;
+        }
+
+        /**
+         * Divide the two values on the stack, throwing like the registered DIVIDE operation on zero
+         */
+        private void emitDivide() {
+            code.op(Code.DUP, 1);
+            int nonZero = code.branch(Code.IFNE, -1);
+            int depth = code.getStack();
+            code.constantOp(Code.INVOKESTATIC,
+                    classFile.methodConstant(CALCULATOR_ERROR, "divisionByZero", "()L" + CALCULATOR_ERROR + ";"), 1);
+            code.op(Code.ATHROW, -1);
+            code.setStack(depth);
+            code.patchBranch(nonZero);
+            code.op(Code.IDIV, -1);
+        }
+
+        @Override
+        public Void visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            int local = locals.get(slot);
+            expression.accept(this);
+            if (operator != AssignmentOperator.ASSIGN) {
+                // current (read after the expression) op value
+                int value = code.newLocal();
+                code.istore(value);
+                code.iload(local);
+                code.iload(value);
+                switch (operator) {
+                    case PLUS_ASSIGN:
+                        code.op(Code.IADD, -1);
+                        break;
+                    case MINUS_ASSIGN:
+                        code.op(Code.ISUB, -1);
+                        break;
+                    case MULTIPLY_ASSIGN:
+                        code.op(Code.IMUL, -1);
+                        break;
+                    case DIVIDE_ASSIGN:
+                        emitDivide();
+                        break;
+                    default:
+                        break;
+                }
+            }
+            code.op(Code.DUP, 1);
+            code.istore(local);
+            return null;
+        }
+
+        @Override
+        public Void visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            int local = locals.get(slot);
+            code.iinc(local, isIncrement ? 1 : -1);
+            code.iload(local);
+            return null;
+        }
+
+        @Override
+        public Void visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            int local = locals.get(slot);
+            code.iload(local);
+            code.iinc(local, isIncrement ? 1 : -1);
+            return null;
+        }
+    }
+}
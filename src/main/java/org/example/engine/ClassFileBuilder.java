@@ -0,0 +1,402 @@
+package org.example.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer for generated expression classes
+ * Supports exactly what the bytecode compiler needs: one class implementing
+ * interfaces, a constant pool, and methods with a Code attribute. Class files
+ * use version 49 so that no StackMapTable has to be computed for branches.
+ */
+final class ClassFileBuilder {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int CLASS_FILE_VERSION = 49;
+    private static final int MAX_CONSTANT_POOL_SIZE = 0xFFFF;
+
+    private static final int TAG_UTF8 = 1;
+    private static final int TAG_INTEGER = 3;
+    private static final int TAG_CLASS = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_METHODREF = 10;
+    private static final int TAG_INTERFACE_METHODREF = 11;
+    private static final int TAG_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+    private final Map<String, Integer> constantIndexes = new HashMap<>();
+    private int constantCount = 1;
+
+    private final int thisClass;
+    private final int superClass;
+    private final List<Integer> interfaces = new ArrayList<>();
+    private final List<byte[]> methods = new ArrayList<>();
+
+    ClassFileBuilder(String internalName, String superName, String... interfaceNames) {
+        this.thisClass = classConstant(internalName);
+        this.superClass = classConstant(superName);
+        for (String interfaceName : interfaceNames) {
+            interfaces.add(classConstant(interfaceName));
+        }
+    }
+
+    // ---- constant pool ----
+
+    private int constant(String key, ConstantWriter writer) {
+        Integer index = constantIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        if (constantCount >= MAX_CONSTANT_POOL_SIZE) {
+            throw new CodeTooLargeException();
+        }
+        try {
+            writer.write(constantPool);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        int newIndex = constantCount++;
+        constantIndexes.put(key, newIndex);
+        return newIndex;
+    }
+
+    int utf8Constant(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(TAG_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    int intConstant(int value) {
+        return constant("I" + value, out -> {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt(value);
+        });
+    }
+
+    int classConstant(String internalName) {
+        int name = utf8Constant(internalName);
+        return constant("C" + internalName, out -> {
+            out.writeByte(TAG_CLASS);
+            out.writeShort(name);
+        });
+    }
+
+    int stringConstant(String value) {
+        int utf8 = utf8Constant(value);
+        return constant("S" + value, out -> {
+            out.writeByte(TAG_STRING);
+            out.writeShort(utf8);
+        });
+    }
+
+    private int nameAndTypeConstant(String name, String descriptor) {
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+        return constant("N" + name + ":" + descriptor, out -> {
+            out.writeByte(TAG_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+    }
+
+    int methodConstant(String owner, String name, String descriptor) {
+        int ownerIndex = classConstant(owner);
+        int nameAndType = nameAndTypeConstant(name, descriptor);
+        return constant("M" + owner + "." + name + descriptor, out -> {
+            out.writeByte(TAG_METHODREF);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    int interfaceMethodConstant(String owner, String name, String descriptor) {
+        int ownerIndex = classConstant(owner);
+        int nameAndType = nameAndTypeConstant(name, descriptor);
+        return constant("IM" + owner + "." + name + descriptor, out -> {
+            out.writeByte(TAG_INTERFACE_METHODREF);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    // ---- methods ----
+
+    void addMethod(int access, String name, String descriptor, Code code) {
+        if (code.length() > Code.MAX_CODE_LENGTH) {
+            throw new CodeTooLargeException();
+        }
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+        int codeAttribute = utf8Constant("Code");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(access);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + code.length());
+            out.writeShort(code.getMaxStack());
+            out.writeShort(code.getMaxLocals());
+            out.writeInt(code.length());
+            code.writeTo(out);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // attributes
+            methods.add(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    byte[] toByteArray(int access) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_VERSION);
+            out.writeShort(constantCount);
+            constantPoolBytes.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.size());
+            for (int interfaceIndex : interfaces) {
+                out.writeShort(interfaceIndex);
+            }
+            out.writeShort(0); // fields
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0); // attributes
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface ConstantWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Thrown when an expression does not fit in the limits of a class file
+     */
+    static final class CodeTooLargeException extends RuntimeException {
+        CodeTooLargeException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Bytecode of one method with stack depth tracking
+     */
+    static final class Code {
+        static final int MAX_CODE_LENGTH = 0xFFFF;
+
+        static final int ICONST_0 = 0x03;
+        static final int BIPUSH = 0x10;
+        static final int SIPUSH = 0x11;
+        static final int LDC = 0x12;
+        static final int LDC_W = 0x13;
+        static final int ILOAD = 0x15;
+        static final int ALOAD = 0x19;
+        static final int ISTORE = 0x36;
+        static final int POP = 0x57;
+        static final int DUP = 0x59;
+        static final int IADD = 0x60;
+        static final int ISUB = 0x64;
+        static final int IMUL = 0x68;
+        static final int IDIV = 0x6c;
+        static final int IINC = 0x84;
+        static final int IFNE = 0x9a;
+        static final int IRETURN = 0xac;
+        static final int RETURN = 0xb1;
+        static final int INVOKEVIRTUAL = 0xb6;
+        static final int INVOKESPECIAL = 0xb7;
+        static final int INVOKESTATIC = 0xb8;
+        static final int NEW = 0xbb;
+        static final int ATHROW = 0xbf;
+        static final int WIDE = 0xc4;
+
+        private byte[] bytes = new byte[256];
+        private int length;
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        Code(int maxLocals) {
+            this.maxLocals = maxLocals;
+        }
+
+        int length() {
+            return length;
+        }
+
+        int getMaxStack() {
+            return maxStack;
+        }
+
+        int getMaxLocals() {
+            return maxLocals;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.write(bytes, 0, length);
+        }
+
+        private void u1(int value) {
+            if (length == bytes.length) {
+                byte[] grown = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        private void u2(int value) {
+            u1(value >> 8);
+            u1(value);
+        }
+
+        private void adjustStack(int delta) {
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        /**
+         * Emit an instruction without operands
+         *
+         * @param stackDelta the change in operand stack depth
+         */
+        void op(int opcode, int stackDelta) {
+            u1(opcode);
+            adjustStack(stackDelta);
+        }
+
+        /**
+         * Emit an instruction with a constant pool index operand
+         */
+        void constantOp(int opcode, int index, int stackDelta) {
+            u1(opcode);
+            u2(index);
+            adjustStack(stackDelta);
+        }
+
+        void pushInt(ClassFileBuilder classFile, int value) {
+            if (value >= -1 && value <= 5) {
+                u1(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                u1(BIPUSH);
+                u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                u1(SIPUSH);
+                u2(value);
+            } else {
+                ldc(classFile.intConstant(value));
+                return;
+            }
+            adjustStack(1);
+        }
+
+        void pushString(ClassFileBuilder classFile, String value) {
+            ldc(classFile.stringConstant(value));
+        }
+
+        private void ldc(int index) {
+            if (index <= 0xFF) {
+                u1(LDC);
+                u1(index);
+            } else {
+                u1(LDC_W);
+                u2(index);
+            }
+            adjustStack(1);
+        }
+
+        private void localOp(int opcode, int local, int stackDelta) {
+            if (local > 0xFF) {
+                u1(WIDE);
+                u1(opcode);
+                u2(local);
+            } else {
+                u1(opcode);
+                u1(local);
+            }
+            adjustStack(stackDelta);
+        }
+
+        void iload(int local) {
+            localOp(ILOAD, local, 1);
+        }
+
+        void istore(int local) {
+            localOp(ISTORE, local, -1);
+        }
+
+        void aload(int local) {
+            localOp(ALOAD, local, 1);
+        }
+
+        void iinc(int local, int increment) {
+            if (local > 0xFF) {
+                u1(WIDE);
+                u1(IINC);
+                u2(local);
+                u2(increment);
+            } else {
+                u1(IINC);
+                u1(local);
+                u1(increment);
+            }
+        }
+
+        int newLocal() {
+            return maxLocals++;
+        }
+
+        /**
+         * Emit a forward branch whose target is set later with {@link #patchBranch}
+         *
+         * @return the address of the branch instruction
+         */
+        int branch(int opcode, int stackDelta) {
+            int address = length;
+            u1(opcode);
+            u2(0);
+            adjustStack(stackDelta);
+            return address;
+        }
+
+        /**
+         * Point a forward branch at the current address
+         */
+        void patchBranch(int address) {
+            int offset = length - address;
+            bytes[address + 1] = (byte) (offset >> 8);
+            bytes[address + 2] = (byte) offset;
+        }
+
+        /**
+         * Set the tracked stack depth, for code following an unconditional transfer
+         */
+        void setStack(int depth) {
+            stack = depth;
+        }
+
+        int getStack() {
+            return stack;
+        }
+    }
+}
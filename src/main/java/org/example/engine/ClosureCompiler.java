@@ -0,0 +1,196 @@
+package org.example.engine;
+
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+import org.example.operations.AssignmentOperation;
+import org.example.operations.BinaryOperation;
+import org.example.parser.ASTNode;
+import org.example.parser.ASTVisitor;
+import org.example.parser.AssignmentOperator;
+import org.example.parser.BinaryOperator;
+import org.example.parser.OperatorTable;
+
+/**
+ * Compiles an AST into a tree of specialized closures
+ * <p>
+ * Each closure has its operation and operands bound when it is created: the
+ * operation is resolved from the calculator's OperatorTable once, and common
+ * leaf shapes (variable or constant operands) get their own closures. Evaluating
+ * a compiled expression therefore does no registry lookups, enum conversions or
+ * node type checks, and needs no class definition at runtime.
+ */
+public class ClosureCompiler implements ExpressionCompiler {
+    private final OperatorTable operatorTable;
+
+    public ClosureCompiler(OperatorTable operatorTable) {
+        this.operatorTable = operatorTable;
+    }
+
+    @Override
+    public CompiledExpression compile(ASTNode ast) {
+        return ast.accept(new Builder());
+    }
+
+    private final class Builder implements ASTVisitor<CompiledExpression> {
+
+        @Override
+        public CompiledExpression visitNumber(int value) {
+            return (store, registry) -> value;
+        }
+
+        @Override
+        public CompiledExpression visitVariable(String name, int slot) {
+            return (store, registry) -> store.getValue(slot);
+        }
+
+        @Override
+        public CompiledExpression visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            BinaryOperation operation = operatorTable.getBinaryOperation(operator.getTokenType().index());
+            if (operation == null) {
+                return unknownOperator(operator.getTokenType());
+            }
+
+            // Specialize leaf operands so they are read inline instead of through another closure
+            Integer leftVariable = left.accept(VariableSlot.INSTANCE);
+            Integer rightConstant = right.accept(ConstantValue.INSTANCE);
+            Integer rightVariable = right.accept(VariableSlot.INSTANCE);
+            if (leftVariable != null && rightConstant != null) {
+                int leftSlot = leftVariable;
+                int constant = rightConstant;
+                return (store, registry) -> operation.execute(store.getValue(leftSlot), constant);
+            }
+            if (leftVariable != null && rightVariable != null) {
+                int leftSlot = leftVariable;
+                int rightSlot = rightVariable;
+                return (store, registry) -> operation.execute(store.getValue(leftSlot), store.getValue(rightSlot));
+            }
+
+            CompiledExpression leftClosure = left.accept(this);
+            if (rightConstant != null) {
+                int constant = rightConstant;
+                return (store, registry) -> operation.execute(leftClosure.evaluate(store, registry), constant);
+            }
+            CompiledExpression rightClosure = right.accept(this);
+            return (store, registry) -> {
+                int leftValue = leftClosure.evaluate(store, registry);
+                return operation.execute(leftValue, rightClosure.evaluate(store, registry));
+            };
+        }
+
+        @Override
+        public CompiledExpression visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            AssignmentOperation operation = operatorTable.getAssignmentOperation(operator.getTokenType().index());
+            if (operation == null) {
+                return unknownOperator(operator.getTokenType());
+            }
+
+            CompiledExpression valueClosure = expression.accept(this);
+            return (store, registry) -> {
+                int value = valueClosure.evaluate(store, registry);
+                int newValue = operation.execute(store.getValue(slot), value);
+                store.assign(slot, newValue);
+                return newValue;
+            };
+        }
+
+        @Override
+        public CompiledExpression visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            int delta = isIncrement ? 1 : -1;
+            return (store, registry) -> {
+                int newValue = store.getValue(slot) + delta;
+                store.assign(slot, newValue);
+                return newValue;
+            };
+        }
+
+        @Override
+        public CompiledExpression visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            int delta = isIncrement ? 1 : -1;
+            return (store, registry) -> {
+                int current = store.getValue(slot);
+                store.assign(slot, current + delta);
+                return current;
+            };
+        }
+
+        private CompiledExpression unknownOperator(Object tokenType) {
+            return (store, registry) -> {
+                throw new CalculatorError(ErrorMessages.UNKNOWN_OPERATOR, tokenType);
+            };
+        }
+    }
+
+    /**
+     * Returns the slot of a plain variable node, otherwise null
+     */
+    private enum VariableSlot implements ASTVisitor<Integer> {
+        INSTANCE;
+
+        @Override
+        public Integer visitNumber(int value) {
+            return null;
+        }
+
+        @Override
+        public Integer visitVariable(String name, int slot) {
+            return slot;
+        }
+
+        @Override
+        public Integer visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            return null;
+        }
+
+        @Override
+        public Integer visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            return null;
+        }
+
+        @Override
+        public Integer visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            return null;
+        }
+
+        @Override
+        public Integer visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the value of a number node, otherwise null
+     */
+    private enum ConstantValue implements ASTVisitor<Integer> {
+        INSTANCE;
+
+        @Override
+        public Integer visitNumber(int value) {
+            return value;
+        }
+
+        @Override
+        public Integer visitVariable(String name, int slot) {
+            return null;
+        }
+
+        @Override
+        public Integer visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            return null;
+        }
+
+        @Override
+        public Integer visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            return null;
+        }
+
+        @Override
+        public Integer visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            return null;
+        }
+
+        @Override
+        public Integer visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.engine;
+
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+import org.example.lexer.TokenType;
+import org.example.parser.ASTNode;
+import org.example.parser.ASTVisitor;
+import org.example.parser.AssignmentOperator;
+import org.example.parser.BinaryOperator;
+import org.example.parser.OperatorTable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the lines of a request template into a {@link ColumnarProgram}
+ * <p>
+ * The lines must be parsed without optimization: each number node becomes a reference
+ * to the next literal column, in the order the literals appear in the text, so constant
+ * folding would shift the columns. Like the bytecode compiler, the loops implement the
+ * operations configured by CalculatorConfiguration; operators without a registered
+ * operation fail every lane after their operands, as in the interpreter.
+ */
+public class ColumnarCompiler {
+    private final OperatorTable operatorTable;
+
+    public ColumnarCompiler(OperatorTable operatorTable) {
+        this.operatorTable = operatorTable;
+    }
+
+    /**
+     * @param lines the parsed, unoptimized lines of one request of the template
+     */
+    public ColumnarProgram compile(List<ASTNode> lines) {
+        Builder builder = new Builder();
+        ColumnarProgram.Column[] columns = new ColumnarProgram.Column[lines.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = lines.get(i).accept(builder);
+        }
+        int[] variableSlots = builder.variables.keySet().stream().mapToInt(Integer::intValue).toArray();
+        return new ColumnarProgram(columns, builder.literalCount, variableSlots);
+    }
+
+    private final class Builder implements ASTVisitor<ColumnarProgram.Column> {
+        private final Map<Integer, Integer> variables = new LinkedHashMap<>();
+        private int literalCount;
+
+        private int variable(int slot) {
+            return variables.computeIfAbsent(slot, key -> variables.size());
+        }
+
+        @Override
+        public ColumnarProgram.Column visitNumber(int value) {
+            int literal = literalCount++;
+            return lanes -> lanes.literals[literal];
+        }
+
+        @Override
+        public ColumnarProgram.Column visitVariable(String name, int slot) {
+            int variable = variable(slot);
+            return lanes -> lanes.get(variable);
+        }
+
+        @Override
+        public ColumnarProgram.Column visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            ColumnarProgram.Column leftColumn = left.accept(this);
+            ColumnarProgram.Column rightColumn = right.accept(this);
+            TokenType tokenType = operator.getTokenType();
+            if (operatorTable.getBinaryOperation(tokenType.index()) == null) {
+                return unknownOperator(leftColumn, rightColumn, tokenType);
+            }
+            switch (operator) {
+                case PLUS:
+                    return lanes -> add(leftColumn.evaluate(lanes), rightColumn.evaluate(lanes));
+                case MINUS:
+                    return lanes -> subtract(leftColumn.evaluate(lanes), rightColumn.evaluate(lanes));
+                case MULTIPLY:
+                    return lanes -> multiply(leftColumn.evaluate(lanes), rightColumn.evaluate(lanes));
+                default:
+                    return lanes -> {
+                        int[] dividends = leftColumn.evaluate(lanes);
+                        return divide(dividends, rightColumn.evaluate(lanes), lanes);
+                    };
+            }
+        }
+
+        @Override
+        public ColumnarProgram.Column visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            ColumnarProgram.Column valueColumn = expression.accept(this);
+            TokenType tokenType = operator.getTokenType();
+            if (operatorTable.getAssignmentOperation(tokenType.index()) == null) {
+                return unknownOperator(valueColumn, null, tokenType);
+            }
+            int target = variable(slot);
+            switch (operator) {
+                case ASSIGN:
+                    return lanes -> lanes.set(target, valueColumn.evaluate(lanes));
+                case PLUS_ASSIGN:
+                    return lanes -> {
+                        int[] values = valueColumn.evaluate(lanes);
+                        return lanes.set(target, add(lanes.get(target), values));
+                    };
+                case MINUS_ASSIGN:
+                    return lanes -> {
+                        int[] values = valueColumn.evaluate(lanes);
+                        return lanes.set(target, subtract(lanes.get(target), values));
+                    };
+                case MULTIPLY_ASSIGN:
+                    return lanes -> {
+                        int[] values = valueColumn.evaluate(lanes);
+                        return lanes.set(target, multiply(lanes.get(target), values));
+                    };
+                default:
+                    return lanes -> {
+                        int[] values = valueColumn.evaluate(lanes);
+                        return lanes.set(target, divide(lanes.get(target), values, lanes));
+                    };
+            }
+        }
+
+        @Override
+        public ColumnarProgram.Column visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            int target = variable(slot);
+            int delta = isIncrement ? 1 : -1;
+            return lanes -> lanes.set(target, addConstant(lanes.get(target), delta));
+        }
+
+        @Override
+        public ColumnarProgram.Column visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            int target = variable(slot);
+            int delta = isIncrement ? 1 : -1;
+            return lanes -> {
+                int[] current = lanes.get(target);
+                lanes.set(target, addConstant(current, delta));
+                return current;
+            };
+        }
+
+        private ColumnarProgram.Column unknownOperator(ColumnarProgram.Column left, ColumnarProgram.Column right,
+                                                       TokenType tokenType) {
+            RuntimeException error = new CalculatorError(ErrorMessages.UNKNOWN_OPERATOR, tokenType);
+            return lanes -> {
+                left.evaluate(lanes);
+                if (right != null) {
+                    right.evaluate(lanes);
+                }
+                lanes.failAll(error);
+                return new int[lanes.laneCount];
+            };
+        }
+    }
+
+    private static int[] add(int[] left, int[] right) {
+        int[] result = new int[left.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = left[i] + right[i];
+        }
+        return result;
+    }
+
+    private static int[] subtract(int[] left, int[] right) {
+        int[] result = new int[left.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = left[i] - right[i];
+        }
+        return result;
+    }
+
+    private static int[] multiply(int[] left, int[] right) {
+        int[] result = new int[left.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = left[i] * right[i];
+        }
+        return result;
+    }
+
+    private static int[] addConstant(int[] values, int constant) {
+        int[] result = new int[values.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values[i] + constant;
+        }
+        return result;
+    }
+
+    private static int[] divide(int[] dividends, int[] divisors, ColumnarProgram.Lanes lanes) {
+        int[] result = new int[dividends.length];
+        for (int i = 0; i < result.length; i++) {
+            int divisor = divisors[i];
+            if (divisor == 0) {
+                lanes.fail(i, CalculatorError.divisionByZero());
+                continue;
+            }
+            result[i] = dividends[i] / divisor;
+        }
+        return result;
+    }
+}
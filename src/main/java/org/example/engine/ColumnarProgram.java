@@ -0,0 +1,133 @@
+package org.example.engine;
+
+import org.example.calculator.VariableStore;
+
+import java.util.Arrays;
+
+/**
+ * A request template compiled to run many requests at once, one per lane
+ * <p>
+ * Requests that differ only in their numeric literals share a template; the literals
+ * of each request form one lane of the literal columns. Every operation of the template
+ * runs over all lanes with a plain loop over int arrays, which the JIT vectorizes, and
+ * every lane sees exactly the operations of its own request in the same order.
+ * <p>
+ * Columns are never modified once computed: an assignment replaces a variable's column,
+ * so operands read earlier keep their values, as in the scalar engines.
+ */
+public final class ColumnarProgram {
+    private final Column[] lines;
+    private final int literalCount;
+    private final int variableCount;
+    private final int[] variableSlots;
+
+    ColumnarProgram(Column[] lines, int literalCount, int[] variableSlots) {
+        this.lines = lines;
+        this.literalCount = literalCount;
+        this.variableCount = variableSlots.length;
+        this.variableSlots = variableSlots;
+    }
+
+    /**
+     * @return the number of literal columns the program reads, in textual order
+     */
+    public int getLiteralCount() {
+        return literalCount;
+    }
+
+    /**
+     * Run every lane of the template
+     *
+     * @param literals  one column per literal, each with one value per lane
+     * @param laneCount the number of requests
+     */
+    public Lanes execute(int[][] literals, int laneCount) {
+        Lanes lanes = new Lanes(literals, laneCount, variableCount);
+        for (Column line : lines) {
+            if (lanes.failedCount == laneCount) {
+                break;
+            }
+            line.evaluate(lanes);
+        }
+        return lanes;
+    }
+
+    /**
+     * One step of the template, evaluated for every lane
+     */
+    @FunctionalInterface
+    interface Column {
+        int[] evaluate(Lanes lanes);
+    }
+
+    /**
+     * The state of all lanes of one execution
+     */
+    public final class Lanes {
+        final int[][] literals;
+        final int laneCount;
+        private final int[][] variables;
+        private final boolean[] assigned;
+        private final int[] assignmentOrder;
+        private int assignedCount;
+        private final RuntimeException[] errors;
+        private int failedCount;
+
+        Lanes(int[][] literals, int laneCount, int variableCount) {
+            this.literals = literals;
+            this.laneCount = laneCount;
+            this.variables = new int[variableCount][];
+            this.assigned = new boolean[variableCount];
+            this.assignmentOrder = new int[variableCount];
+            this.errors = new RuntimeException[laneCount];
+            int[] unset = new int[laneCount];
+            Arrays.fill(variables, unset);
+        }
+
+        int[] get(int variable) {
+            return variables[variable];
+        }
+
+        int[] set(int variable, int[] column) {
+            if (!assigned[variable]) {
+                assigned[variable] = true;
+                assignmentOrder[assignedCount++] = variable;
+            }
+            variables[variable] = column;
+            return column;
+        }
+
+        /**
+         * Record the first error of a lane; later errors of a failed lane are ignored
+         */
+        void fail(int lane, RuntimeException error) {
+            if (errors[lane] == null) {
+                errors[lane] = error;
+                failedCount++;
+            }
+        }
+
+        void failAll(RuntimeException error) {
+            for (int lane = 0; lane < laneCount; lane++) {
+                fail(lane, error);
+            }
+        }
+
+        /**
+         * @return the error that ended a lane, or null if it succeeded
+         */
+        public RuntimeException getError(int lane) {
+            return errors[lane];
+        }
+
+        /**
+         * Assign a successful lane's variables to a store, in the order they were first assigned
+         */
+        public void copyTo(int lane, VariableStore store) {
+            for (int i = 0; i < assignedCount; i++) {
+                int variable = assignmentOrder[i];
+                store.assign(variableSlots[variable], variables[variable][lane]);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.engine;
+
+import org.example.calculator.VariableStore;
+import org.example.operations.OperationRegistry;
+
+/**
+ * Executable form of one parsed expression
+ * Implementations are immutable and may be shared between threads; all state
+ * lives in the VariableStore passed to {@link #evaluate}.
+ */
+public interface CompiledExpression {
+
+    /**
+     * Evaluate the expression against a variable store
+     *
+     * @param store             the variables of the current request
+     * @param operationRegistry the operations of the calculator evaluating the expression
+     * @return the value of the expression
+     */
+    int evaluate(VariableStore store, OperationRegistry operationRegistry);
+}
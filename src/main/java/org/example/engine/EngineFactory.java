@@ -0,0 +1,33 @@
+package org.example.engine;
+
+import org.example.parser.OperatorTable;
+
+public class EngineFactory {
+
+    /**
+     * Creates the expression compiler for an execution engine
+     * The interpreter's compiled form is the AST itself. BYTECODE and TIERED, whose generated
+     * classes inline the default arithmetic, fall back to CLOSURE when the calculator
+     * registered other operations for the built-in operators.
+     *
+     * @param operatorTable the calculator's operators and operations, bound by compilers that need them
+     */
+    public static ExpressionCompiler createCompiler(EngineType type, OperatorTable operatorTable) {
+        if ((type == EngineType.BYTECODE || type == EngineType.TIERED) && !operatorTable.hasDefaultOperations()) {
+            type = EngineType.CLOSURE;
+        }
+        switch (type) {
+            case CLOSURE:
+                return new ClosureCompiler(operatorTable);
+            case STACK_VM:
+                return new StackCompiler(operatorTable);
+            case TIERED:
+                return new TieredCompiler(operatorTable);
+            case BYTECODE:
+                return new BytecodeCompiler();
+            case INTERPRETER:
+            default:
+                return ast -> ast;
+        }
+    }
+}
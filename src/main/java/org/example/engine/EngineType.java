@@ -0,0 +1,45 @@
+package org.example.engine;
+
+import org.example.errors.ErrorMessages;
+
+// Enum defining the execution engines a calculator can run expressions on
+public enum EngineType {
+    INTERPRETER("AST Interpreter"),
+    CLOSURE("Closure Compiler"),
+    BYTECODE("JVM Bytecode Compiler"),
+    TIERED("Tiered Execution"),
+    STACK_VM("Stack Machine");
+
+    private final String displayName;
+
+    EngineType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public static EngineType fromString(String type) {
+        if (type == null) {
+            throw new IllegalArgumentException(ErrorMessages.ENGINE_TYPE_NULL.getMessage());
+        }
+
+        switch (type.toLowerCase()) {
+            case "closure":
+            case "closures":
+                return CLOSURE;
+            case "bytecode":
+            case "compiled":
+                return BYTECODE;
+            case "tiered":
+                return TIERED;
+            case "vm":
+            case "stack":
+                return STACK_VM;
+            case "interpreter":
+            default:
+                return INTERPRETER;
+        }
+    }
+}
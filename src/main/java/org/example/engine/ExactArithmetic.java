@@ -0,0 +1,115 @@
+package org.example.engine;
+
+import org.example.calculator.ExactVariableStore;
+import org.example.errors.CalculatorError;
+
+import java.math.BigInteger;
+
+/**
+ * The arithmetic of exact expressions
+ * <p>
+ * Each operation first runs on longs and checks for overflow. Operands that fit in an
+ * int can never overflow a long sum, difference or product, so for them the check is a
+ * single comparison. Only a result outside long range is computed with BigInteger, and
+ * wide operands are handled entirely with BigInteger.
+ */
+enum ExactArithmetic {
+    ADD {
+        @Override
+        long apply(long left, long right, ExactVariableStore store) {
+            long result = left + right;
+            if (((left ^ result) & (right ^ result)) < 0) {
+                return narrow(apply(BigInteger.valueOf(left), BigInteger.valueOf(right)), store);
+            }
+            return result;
+        }
+
+        @Override
+        BigInteger apply(BigInteger left, BigInteger right) {
+            return left.add(right);
+        }
+    },
+    SUBTRACT {
+        @Override
+        long apply(long left, long right, ExactVariableStore store) {
+            long result = left - right;
+            if (((left ^ right) & (left ^ result)) < 0) {
+                return narrow(apply(BigInteger.valueOf(left), BigInteger.valueOf(right)), store);
+            }
+            return result;
+        }
+
+        @Override
+        BigInteger apply(BigInteger left, BigInteger right) {
+            return left.subtract(right);
+        }
+    },
+    MULTIPLY {
+        @Override
+        long apply(long left, long right, ExactVariableStore store) {
+            long result = left * right;
+            if ((int) left != left || (int) right != right) {
+                long high = Math.multiplyHigh(left, right);
+                if (high != (result >> (Long.SIZE - 1))) {
+                    return narrow(apply(BigInteger.valueOf(left), BigInteger.valueOf(right)), store);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        BigInteger apply(BigInteger left, BigInteger right) {
+            return left.multiply(right);
+        }
+    },
+    DIVIDE {
+        @Override
+        long apply(long left, long right, ExactVariableStore store) {
+            if (right == 0) throw CalculatorError.divisionByZero();
+            if (left == Long.MIN_VALUE && right == -1) {
+                return narrow(apply(BigInteger.valueOf(left), BigInteger.valueOf(right)), store);
+            }
+            return left / right;
+        }
+
+        @Override
+        BigInteger apply(BigInteger left, BigInteger right) {
+            if (right.signum() == 0) throw CalculatorError.divisionByZero();
+            return left.divide(right);
+        }
+    };
+
+    /**
+     * @return the result if it fits in a long; otherwise 0, with the result left as the
+     * store's wide result
+     */
+    abstract long apply(long left, long right, ExactVariableStore store);
+
+    abstract BigInteger apply(BigInteger left, BigInteger right);
+
+    /**
+     * Apply to operands of which either may be wide
+     *
+     * @param wideLeft  the left operand if it is wide, otherwise null and the operand is left
+     * @param wideRight the right operand if it is wide, otherwise null and the operand is right
+     */
+    long apply(long left, BigInteger wideLeft, long right, BigInteger wideRight, ExactVariableStore store) {
+        if (wideLeft == null && wideRight == null) {
+            return apply(left, right, store);
+        }
+        BigInteger leftValue = wideLeft != null ? wideLeft : BigInteger.valueOf(left);
+        BigInteger rightValue = wideRight != null ? wideRight : BigInteger.valueOf(right);
+        return narrow(apply(leftValue, rightValue), store);
+    }
+
+    /**
+     * @return the value if it fits in a long; otherwise 0, with the value left as the store's wide result
+     */
+    static long narrow(BigInteger value, ExactVariableStore store) {
+        if (value.bitLength() < Long.SIZE) {
+            return value.longValue();
+        }
+        store.setWideResult(value);
+        return 0;
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.engine;
+
+import org.example.calculator.ExactVariableStore;
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+import org.example.lexer.TokenType;
+import org.example.parser.ASTNode;
+import org.example.parser.ASTVisitor;
+import org.example.parser.AssignmentOperator;
+import org.example.parser.BinaryOperator;
+import org.example.parser.OperatorTable;
+
+import java.math.BigInteger;
+
+/**
+ * Compiles an AST into a tree of closures over exact arithmetic
+ * <p>
+ * The closures mirror the closure engine, but compute with {@link ExactArithmetic}
+ * instead of the int operations of the OperatorTable; the table only decides which
+ * operators the calculator supports. The AST must not be constant folded, since the
+ * optimizer folds with int arithmetic.
+ */
+public class ExactCompiler {
+    private final OperatorTable operatorTable;
+
+    public ExactCompiler(OperatorTable operatorTable) {
+        this.operatorTable = operatorTable;
+    }
+
+    public ExactExpression compile(ASTNode ast) {
+        return ast.accept(new Builder());
+    }
+
+    private final class Builder implements ASTVisitor<ExactExpression> {
+
+        @Override
+        public ExactExpression visitNumber(int value) {
+            long constant = value;
+            return store -> constant;
+        }
+
+        @Override
+        public ExactExpression visitVariable(String name, int slot) {
+            return store -> store.getValue(slot);
+        }
+
+        @Override
+        public ExactExpression visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            TokenType tokenType = operator.getTokenType();
+            if (operatorTable.getBinaryOperation(tokenType.index()) == null) {
+                return unknownOperator(tokenType);
+            }
+            ExactArithmetic arithmetic = arithmeticOf(operator);
+            ExactExpression leftClosure = left.accept(this);
+            ExactExpression rightClosure = right.accept(this);
+            return store -> {
+                long leftValue = leftClosure.evaluate(store);
+                BigInteger wideLeft = store.takeWideResult();
+                long rightValue = rightClosure.evaluate(store);
+                BigInteger wideRight = store.takeWideResult();
+                return arithmetic.apply(leftValue, wideLeft, rightValue, wideRight, store);
+            };
+        }
+
+        @Override
+        public ExactExpression visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            TokenType tokenType = operator.getTokenType();
+            if (operatorTable.getAssignmentOperation(tokenType.index()) == null) {
+                return unknownOperator(tokenType);
+            }
+
+            ExactExpression valueClosure = expression.accept(this);
+            if (operator == AssignmentOperator.ASSIGN) {
+                return store -> {
+                    long value = valueClosure.evaluate(store);
+                    BigInteger wideValue = store.takeWideResult();
+                    return assign(store, slot, value, wideValue);
+                };
+            }
+            ExactArithmetic arithmetic = arithmeticOf(operator);
+            return store -> {
+                long value = valueClosure.evaluate(store);
+                BigInteger wideValue = store.takeWideResult();
+                long current = store.getValue(slot);
+                BigInteger wideCurrent = store.takeWideResult();
+                long newValue = arithmetic.apply(current, wideCurrent, value, wideValue, store);
+                return assign(store, slot, newValue, store.takeWideResult());
+            };
+        }
+
+        @Override
+        public ExactExpression visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            long delta = isIncrement ? 1 : -1;
+            return store -> {
+                long current = store.getValue(slot);
+                BigInteger wideCurrent = store.takeWideResult();
+                long newValue = ExactArithmetic.ADD.apply(current, wideCurrent, delta, null, store);
+                return assign(store, slot, newValue, store.takeWideResult());
+            };
+        }
+
+        @Override
+        public ExactExpression visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            long delta = isIncrement ? 1 : -1;
+            return store -> {
+                long current = store.getValue(slot);
+                BigInteger wideCurrent = store.takeWideResult();
+                long newValue = ExactArithmetic.ADD.apply(current, wideCurrent, delta, null, store);
+                assign(store, slot, newValue, store.takeWideResult());
+                if (wideCurrent != null) {
+                    store.setWideResult(wideCurrent);
+                }
+                return current;
+            };
+        }
+
+        private ExactExpression unknownOperator(TokenType tokenType) {
+            return store -> {
+                throw new CalculatorError(ErrorMessages.UNKNOWN_OPERATOR, tokenType);
+            };
+        }
+    }
+
+    /**
+     * Store a value and pass it on as the value of the assignment
+     */
+    private static long assign(ExactVariableStore store, int slot, long value, BigInteger wideValue) {
+        if (wideValue == null) {
+            store.assign(slot, value);
+            return value;
+        }
+        store.assign(slot, wideValue);
+        store.setWideResult(wideValue);
+        return 0;
+    }
+
+    private static ExactArithmetic arithmeticOf(BinaryOperator operator) {
+        switch (operator) {
+            case PLUS:
+                return ExactArithmetic.ADD;
+            case MINUS:
+                return ExactArithmetic.SUBTRACT;
+            case MULTIPLY:
+                return ExactArithmetic.MULTIPLY;
+            default:
+                return ExactArithmetic.DIVIDE;
+        }
+    }
+
+    private static ExactArithmetic arithmeticOf(AssignmentOperator operator) {
+        switch (operator) {
+            case PLUS_ASSIGN:
+                return ExactArithmetic.ADD;
+            case MINUS_ASSIGN:
+                return ExactArithmetic.SUBTRACT;
+            case MULTIPLY_ASSIGN:
+                return ExactArithmetic.MULTIPLY;
+            default:
+                return ExactArithmetic.DIVIDE;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.engine;
+
+import org.example.calculator.ExactVariableStore;
+
+/**
+ * Executable form of one parsed expression with exact arithmetic
+ * <p>
+ * Values are longs as long as they fit, so the common case neither allocates nor
+ * boxes. An expression whose value does not fit returns 0 and leaves the value as
+ * the store's wide result; every caller takes the wide result right after evaluating
+ * an operand. Like CompiledExpression, implementations are immutable.
+ */
+@FunctionalInterface
+public interface ExactExpression {
+
+    /**
+     * @param store the variables of the current request
+     * @return the value of the expression, or 0 if it is the store's wide result
+     */
+    long evaluate(ExactVariableStore store);
+}
@@ -0,0 +1,17 @@
+package org.example.engine;
+
+import org.example.parser.ASTNode;
+
+/**
+ * Strategy for turning a parsed AST into its executable form
+ */
+public interface ExpressionCompiler {
+
+    /**
+     * Compile an AST
+     *
+     * @param ast the parsed expression
+     * @return an executable form with the same semantics as {@link ASTNode#evaluate}
+     */
+    CompiledExpression compile(ASTNode ast);
+}
@@ -0,0 +1,209 @@
+package org.example.engine;
+
+import org.example.calculator.VariableStore;
+import org.example.operations.OperationRegistry;
+import org.example.parser.ASTNode;
+import org.example.parser.DependencyGraph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Evaluates the lines of a request on a fork-join pool, following their DependencyGraph
+ * <p>
+ * A line runs once every line it depends on has finished. The worker that finishes a
+ * line continues with one of the lines it made ready and forks the others, so a chain
+ * of dependent lines stays on one thread while independent chains spread over the pool.
+ * Every line sees exactly the values it would see when run in order, and the final
+ * variables are the same.
+ * <p>
+ * When lines fail, the error of the lowest failing line is thrown: every line before
+ * the first failure of a sequential run depends only on lines before it, so it succeeds
+ * here too, and that failure is reproduced. Lines after a known failure are skipped,
+ * as are the lines depending on a failed line.
+ */
+public final class ParallelEvaluator {
+    private static final int SEQUENTIAL_BATCH = 64;
+
+    private final ForkJoinPool pool;
+
+    public ParallelEvaluator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelEvaluator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Evaluate the lines into a store; the store must not be used by other threads meanwhile
+     *
+     * @param lines the parsed lines of a request, in order
+     * @param graph the dependencies between those lines
+     */
+    public void evaluate(List<ASTNode> lines, DependencyGraph graph, ExpressionCompiler compiler,
+                         VariableStore store, OperationRegistry operationRegistry) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        // With every written variable already assigned, each line only stores into its own slots
+        for (int slot : graph.getWrittenSlots()) {
+            store.declare(slot);
+        }
+        new Run(lines, graph, compiler, store, operationRegistry).execute();
+    }
+
+    private final class Run {
+        private final List<ASTNode> lines;
+        private final DependencyGraph graph;
+        private final ExpressionCompiler compiler;
+        private final VariableStore store;
+        private final OperationRegistry operationRegistry;
+        private final AtomicIntegerArray waiting;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile int failedLine = Integer.MAX_VALUE;
+        private Throwable failure;
+
+        Run(List<ASTNode> lines, DependencyGraph graph, ExpressionCompiler compiler,
+            VariableStore store, OperationRegistry operationRegistry) {
+            this.lines = lines;
+            this.graph = graph;
+            this.compiler = compiler;
+            this.store = store;
+            this.operationRegistry = operationRegistry;
+            int[] counts = new int[graph.size()];
+            for (int line = 0; line < counts.length; line++) {
+                counts[line] = graph.getPredecessorCount(line);
+            }
+            this.waiting = new AtomicIntegerArray(counts);
+        }
+
+        void execute() {
+            int[] roots = new int[graph.size()];
+            int rootCount = 0;
+            for (int line = 0; line < roots.length; line++) {
+                if (graph.getPredecessorCount(line) == 0) {
+                    roots[rootCount++] = line;
+                }
+            }
+            pending.set(rootCount);
+            pool.execute(new Batch(roots, 0, rootCount));
+            awaitDone();
+
+            Throwable error;
+            synchronized (this) {
+                error = failure;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+        }
+
+        private void awaitDone() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    // The store is written until the last line finishes, so keep waiting
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Run a line, then the lines it makes ready, until a line makes none ready
+         */
+        void runFrom(int line) {
+            int[] ready = null;
+            while (line >= 0) {
+                int next = -1;
+                int readyCount = 0;
+                if (line < failedLine && evaluate(line)) {
+                    for (int i = graph.getSuccessorStart(line); i < graph.getSuccessorEnd(line); i++) {
+                        int successor = graph.getSuccessor(i);
+                        if (waiting.decrementAndGet(successor) != 0) {
+                            continue;
+                        }
+                        if (next < 0) {
+                            next = successor;
+                        } else {
+                            if (ready == null || readyCount == ready.length) {
+                                ready = ready == null ? new int[8] : Arrays.copyOf(ready, readyCount * 2);
+                            }
+                            ready[readyCount++] = successor;
+                        }
+                    }
+                }
+                int started = (next >= 0 ? 1 : 0) + readyCount;
+                if (readyCount > 0) {
+                    pending.addAndGet(readyCount);
+                    new Batch(ready, 0, readyCount).fork();
+                    ready = null;
+                }
+                // The continuation takes over this line's pending count
+                if (started == 0 && pending.decrementAndGet() == 0) {
+                    done.countDown();
+                }
+                line = next;
+            }
+        }
+
+        private boolean evaluate(int line) {
+            try {
+                compiler.compile(lines.get(line)).evaluate(store, operationRegistry);
+                return true;
+            } catch (Throwable e) {
+                fail(line, e);
+                return false;
+            }
+        }
+
+        private synchronized void fail(int line, Throwable e) {
+            if (line < failedLine) {
+                failedLine = line;
+                failure = e;
+            }
+        }
+
+        /**
+         * Lines that became ready together, split until small enough to run in turn
+         */
+        private final class Batch extends RecursiveAction {
+            private final int[] lines;
+            private final int from;
+            private final int to;
+
+            Batch(int[] lines, int from, int to) {
+                this.lines = lines;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > SEQUENTIAL_BATCH) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new Batch(lines, from, middle), new Batch(lines, middle, to));
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    runFrom(lines[i]);
+                }
+            }
+        }
+    }
+}
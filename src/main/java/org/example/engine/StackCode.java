@@ -0,0 +1,41 @@
+package org.example.engine;
+
+import org.example.calculator.VariableStore;
+import org.example.operations.OperationRegistry;
+
+/**
+ * Stack machine instructions of one expression, leaving its value on the stack
+ * Immutable; evaluated on its own it runs on a fresh StackMachine, but normally the
+ * code of every line is appended to one {@link StackProgram} per request.
+ */
+public final class StackCode implements CompiledExpression {
+    private final int[] code;
+    private final int maxStack;
+    private final int lastInstruction;
+
+    StackCode(int[] code, int maxStack, int lastInstruction) {
+        this.code = code;
+        this.maxStack = maxStack;
+        this.lastInstruction = lastInstruction;
+    }
+
+    int[] getCode() {
+        return code;
+    }
+
+    int getMaxStack() {
+        return maxStack;
+    }
+
+    /**
+     * @return the offset of the last instruction in the code
+     */
+    int getLastInstruction() {
+        return lastInstruction;
+    }
+
+    @Override
+    public int evaluate(VariableStore store, OperationRegistry operationRegistry) {
+        return new StackMachine().execute(code, code.length, maxStack, null, store);
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.engine;
+
+import org.example.lexer.TokenType;
+import org.example.parser.ASTNode;
+import org.example.parser.ASTVisitor;
+import org.example.parser.AssignmentOperator;
+import org.example.parser.BinaryOperator;
+import org.example.parser.OperatorTable;
+
+import java.util.Arrays;
+
+/**
+ * Compiles an AST into instructions for the {@link StackMachine}
+ * <p>
+ * Operands are emitted in evaluation order, followed by the operator, so the
+ * instruction stream evaluates exactly like the AST. Like the bytecode compiler,
+ * the instructions implement the operations configured by CalculatorConfiguration;
+ * operators without a registered operation compile to an unknown-operator error
+ * raised after their operands, as in the interpreter.
+ */
+public class StackCompiler implements ExpressionCompiler {
+    private final OperatorTable operatorTable;
+
+    public StackCompiler(OperatorTable operatorTable) {
+        this.operatorTable = operatorTable;
+    }
+
+    @Override
+    public CompiledExpression compile(ASTNode ast) {
+        Emitter emitter = new Emitter();
+        ast.accept(emitter);
+        return new StackCode(Arrays.copyOf(emitter.code, emitter.length), emitter.maxStack, emitter.lastInstruction);
+    }
+
+    private final class Emitter implements ASTVisitor<Void> {
+        private int[] code = new int[32];
+        private int length;
+        private int lastInstruction;
+        private int stack;
+        private int maxStack;
+
+        private void emit(int opcode, int stackDelta, int... operands) {
+            if (length + 1 + operands.length > code.length) {
+                code = Arrays.copyOf(code, code.length * 2 + operands.length);
+            }
+            lastInstruction = length;
+            code[length++] = opcode;
+            for (int operand : operands) {
+                code[length++] = operand;
+            }
+            stack += stackDelta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        @Override
+        public Void visitNumber(int value) {
+            emit(StackMachine.PUSH, 1, value);
+            return null;
+        }
+
+        @Override
+        public Void visitVariable(String name, int slot) {
+            emit(StackMachine.LOAD, 1, slot);
+            return null;
+        }
+
+        @Override
+        public Void visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            left.accept(this);
+            right.accept(this);
+            TokenType tokenType = operator.getTokenType();
+            if (operatorTable.getBinaryOperation(tokenType.index()) == null) {
+                emit(StackMachine.UNKNOWN_OPERATOR, 0, tokenType.index());
+                return null;
+            }
+            switch (operator) {
+                case PLUS:
+                    emit(StackMachine.ADD, -1);
+                    break;
+                case MINUS:
+                    emit(StackMachine.SUB, -1);
+                    break;
+                case MULTIPLY:
+                    emit(StackMachine.MUL, -1);
+                    break;
+                case DIVIDE:
+                    emit(StackMachine.DIV, -1);
+                    break;
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            expression.accept(this);
+            TokenType tokenType = operator.getTokenType();
+            if (operatorTable.getAssignmentOperation(tokenType.index()) == null) {
+                emit(StackMachine.UNKNOWN_OPERATOR, 0, tokenType.index());
+                return null;
+            }
+            switch (operator) {
+                case ASSIGN:
+                    emit(StackMachine.SET, 0, slot);
+                    break;
+                case PLUS_ASSIGN:
+                    emit(StackMachine.ADD_TO, 0, slot);
+                    break;
+                case MINUS_ASSIGN:
+                    emit(StackMachine.SUB_FROM, 0, slot);
+                    break;
+                case MULTIPLY_ASSIGN:
+                    emit(StackMachine.MUL_TO, 0, slot);
+                    break;
+                case DIVIDE_ASSIGN:
+                    emit(StackMachine.DIV_TO, 0, slot);
+                    break;
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            emit(StackMachine.PRE_INC, 1, slot, isIncrement ? 1 : -1);
+            return null;
+        }
+
+        @Override
+        public Void visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            emit(StackMachine.POST_INC, 1, slot, isIncrement ? 1 : -1);
+            return null;
+        }
+    }
+}
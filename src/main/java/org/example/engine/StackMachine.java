@@ -0,0 +1,153 @@
+package org.example.engine;
+
+import org.example.calculator.VariableStore;
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+import org.example.lexer.TokenTypes;
+
+/**
+ * Interpreter for the flat int[] instruction stream produced by {@link StackCompiler}
+ * <p>
+ * Instructions are an opcode followed by at most two inline operands. Variables are
+ * addressed by SymbolTable slot and intermediate values live on an int stack, so
+ * a request runs as one tight loop over a contiguous array. The operand stack is
+ * reused between runs, so a machine must stay confined to one thread.
+ */
+public final class StackMachine {
+    // Stack operations
+    static final int PUSH = 0;         // value         -> push value
+    static final int LOAD = 1;         // slot          -> push variable
+    static final int SET = 2;          // slot          store top of stack, keep it
+    static final int STORE = 3;        // slot          pop and store
+    static final int POP = 4;
+
+    // Arithmetic on the two topmost values
+    static final int ADD = 5;
+    static final int SUB = 6;
+    static final int MUL = 7;
+    static final int DIV = 8;
+
+    // Compound assignment: variable = variable op top of stack, replacing the top with the result
+    static final int ADD_TO = 9;       // slot
+    static final int SUB_FROM = 10;    // slot
+    static final int MUL_TO = 11;      // slot
+    static final int DIV_TO = 12;      // slot
+
+    // Increments push the new (PRE) or previous (POST) value
+    static final int PRE_INC = 13;     // slot, delta
+    static final int POST_INC = 14;    // slot, delta
+
+    // Errors
+    static final int UNKNOWN_OPERATOR = 15; // token type index
+    static final int THROW = 16;            // index into the program's error table
+
+    private int[] stack = new int[16];
+
+    /**
+     * Run instructions against a variable store
+     *
+     * @param maxStack the deepest operand stack the instructions need
+     * @param errors   exceptions raised by THROW instructions
+     * @return the value on top of the stack at the end, or 0 if the stack is empty
+     */
+    public int execute(int[] code, int length, int maxStack, RuntimeException[] errors, VariableStore store) {
+        if (stack.length < maxStack) {
+            stack = new int[maxStack];
+        }
+        int[] stack = this.stack;
+        int sp = 0;
+        int pc = 0;
+
+        while (pc < length) {
+            switch (code[pc++]) {
+                case PUSH:
+                    stack[sp++] = code[pc++];
+                    break;
+                case LOAD:
+                    stack[sp++] = store.getValue(code[pc++]);
+                    break;
+                case SET:
+                    store.assign(code[pc++], stack[sp - 1]);
+                    break;
+                case STORE:
+                    store.assign(code[pc++], stack[--sp]);
+                    break;
+                case POP:
+                    sp--;
+                    break;
+                case ADD:
+                    sp--;
+                    stack[sp - 1] += stack[sp];
+                    break;
+                case SUB:
+                    sp--;
+                    stack[sp - 1] -= stack[sp];
+                    break;
+                case MUL:
+                    sp--;
+                    stack[sp - 1] *= stack[sp];
+                    break;
+                case DIV:
+                    sp--;
+                    stack[sp - 1] = divide(stack[sp - 1], stack[sp]);
+                    break;
+                case ADD_TO: {
+                    int slot = code[pc++];
+                    int value = store.getValue(slot) + stack[sp - 1];
+                    store.assign(slot, value);
+                    stack[sp - 1] = value;
+                    break;
+                }
+                case SUB_FROM: {
+                    int slot = code[pc++];
+                    int value = store.getValue(slot) - stack[sp - 1];
+                    store.assign(slot, value);
+                    stack[sp - 1] = value;
+                    break;
+                }
+                case MUL_TO: {
+                    int slot = code[pc++];
+                    int value = store.getValue(slot) * stack[sp - 1];
+                    store.assign(slot, value);
+                    stack[sp - 1] = value;
+                    break;
+                }
+                case DIV_TO: {
+                    int slot = code[pc++];
+                    int value = divide(store.getValue(slot), stack[sp - 1]);
+                    store.assign(slot, value);
+                    stack[sp - 1] = value;
+                    break;
+                }
+                case PRE_INC: {
+                    int slot = code[pc++];
+                    int value = store.getValue(slot) + code[pc++];
+                    store.assign(slot, value);
+                    stack[sp++] = value;
+                    break;
+                }
+                case POST_INC: {
+                    int slot = code[pc++];
+                    int value = store.getValue(slot);
+                    store.assign(slot, value + code[pc++]);
+                    stack[sp++] = value;
+                    break;
+                }
+                case UNKNOWN_OPERATOR:
+                    throw new CalculatorError(ErrorMessages.UNKNOWN_OPERATOR, TokenTypes.fromIndex(code[pc]));
+                case THROW:
+                    throw errors[code[pc]];
+                default:
+                    throw new IllegalStateException(ErrorMessages.INVALID_INSTRUCTION.getMessage(pc - 1));
+            }
+        }
+        return sp > 0 ? stack[sp - 1] : 0;
+    }
+
+    private static int divide(int left, int right) {
+        if (right == 0) {
+            throw CalculatorError.divisionByZero();
+        }
+        return left / right;
+    }
+}
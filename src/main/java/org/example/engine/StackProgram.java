@@ -0,0 +1,74 @@
+package org.example.engine;
+
+import org.example.calculator.VariableStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One flat instruction stream for a whole request
+ * The compiled lines are appended in order, each followed by a POP of its value
+ * (folded into the preceding assignment where possible). A line that failed to
+ * parse becomes a THROW of the parse error, so it is raised only after all
+ * earlier lines ran, exactly as with line-by-line evaluation.
+ * A program is reused for every request of one calculator via {@link #reset()}.
+ */
+public final class StackProgram {
+    private static final RuntimeException[] NO_ERRORS = new RuntimeException[0];
+
+    private int[] code = new int[256];
+    private int length;
+    private int maxStack;
+    private final List<RuntimeException> errors = new ArrayList<>();
+
+    public void reset() {
+        length = 0;
+        maxStack = 0;
+        errors.clear();
+    }
+
+    /**
+     * Append a line whose value is discarded
+     */
+    public void append(StackCode line) {
+        int[] lineCode = line.getCode();
+        ensureCapacity(lineCode.length + 1);
+        System.arraycopy(lineCode, 0, code, length, lineCode.length);
+        int last = length + line.getLastInstruction();
+        length += lineCode.length;
+        maxStack = Math.max(maxStack, line.getMaxStack());
+
+        if (lineCode.length > 0 && code[last] == StackMachine.SET) {
+            // Store and pop in one instruction
+            code[last] = StackMachine.STORE;
+        } else if (lineCode.length > 0) {
+            code[length++] = StackMachine.POP;
+        }
+    }
+
+    /**
+     * Append an instruction raising an error, such as a parse error of the next line
+     */
+    public void appendThrow(RuntimeException error) {
+        ensureCapacity(2);
+        code[length++] = StackMachine.THROW;
+        code[length++] = errors.size();
+        errors.add(error);
+    }
+
+    public void execute(StackMachine machine, VariableStore store) {
+        RuntimeException[] errorTable = errors.isEmpty() ? NO_ERRORS : errors.toArray(NO_ERRORS);
+        machine.execute(code, length, maxStack, errorTable, store);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, length + additional));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Promotion thresholds and counters of tiered execution
+ * <p>
+ * The counters are cumulative. An expression is counted in the tier it was created or
+ * promoted to and moves between tier counts only when promoted; evicting it from an
+ * expression cache does not uncount it, as the cache does not know about tiers and the
+ * expression may still be running elsewhere. Tier counts therefore add up to the number
+ * of tiered expressions created, not to the number currently cached.
+ */
+public class TierMetrics {
+    private final int closureThreshold;
+    private final int bytecodeThreshold;
+
+    private final LongAdder interpreted = new LongAdder();
+    private final LongAdder closures = new LongAdder();
+    private final LongAdder bytecode = new LongAdder();
+    private final LongAdder pending = new LongAdder();
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder compileNanos = new LongAdder();
+
+    /**
+     * @param closureThreshold  invocations before an expression is compiled to closures
+     * @param bytecodeThreshold invocations before an expression is compiled to bytecode
+     */
+    public TierMetrics(int closureThreshold, int bytecodeThreshold) {
+        this.closureThreshold = closureThreshold;
+        this.bytecodeThreshold = bytecodeThreshold;
+    }
+
+    void recordCreated() {
+        interpreted.increment();
+    }
+
+    void recordQueued() {
+        pending.increment();
+    }
+
+    void recordDequeued() {
+        pending.decrement();
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordFailed() {
+        failed.increment();
+    }
+
+    void recordCompileTime(long nanos) {
+        compileNanos.add(nanos);
+    }
+
+    void recordPromotion(EngineType from, EngineType to) {
+        counter(from).decrement();
+        counter(to).increment();
+        promotions.increment();
+    }
+
+    private LongAdder counter(EngineType tier) {
+        switch (tier) {
+            case CLOSURE:
+                return closures;
+            case BYTECODE:
+                return bytecode;
+            case INTERPRETER:
+            default:
+                return interpreted;
+        }
+    }
+
+    public int getClosureThreshold() {
+        return closureThreshold;
+    }
+
+    public int getBytecodeThreshold() {
+        return bytecodeThreshold;
+    }
+
+    /**
+     * @return number of expressions created so far whose latest tier is the given one,
+     * including expressions that were evicted since
+     */
+    public long getTierCount(EngineType tier) {
+        return counter(tier).sum();
+    }
+
+    public long getPendingCount() {
+        return pending.sum();
+    }
+
+    public long getPromotionCount() {
+        return promotions.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getCompileTimeNanos() {
+        return compileNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TierMetrics(thresholds: %d/%d, interpreted: %d, closures: %d, bytecode: %d, "
+                        + "pending: %d, promotions: %d, rejected: %d, failed: %d)",
+                closureThreshold, bytecodeThreshold, getTierCount(EngineType.INTERPRETER),
+                getTierCount(EngineType.CLOSURE), getTierCount(EngineType.BYTECODE),
+                getPendingCount(), getPromotionCount(), getRejectedCount(), getFailedCount());
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.engine;
+
+import org.example.parser.ASTNode;
+import org.example.parser.OperatorTable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles expressions for tiered execution
+ * <p>
+ * Every expression starts in the AST interpreter and counts its invocations. When
+ * the count reaches a tier's threshold it is queued for a background compiler thread,
+ * which compiles it to closures and later to bytecode and swaps each new form in
+ * atomically. Evaluating threads never wait for compilation, and expressions that
+ * stay cold are never compiled. Like the BYTECODE engine, the last tier implements
+ * the operations configured by CalculatorConfiguration.
+ */
+public class TieredCompiler implements ExpressionCompiler {
+    public static final int DEFAULT_CLOSURE_THRESHOLD = 100;
+    public static final int DEFAULT_BYTECODE_THRESHOLD = 2_000;
+
+    private static final int MAX_PENDING_COMPILATIONS = 1_024;
+    private static final TierMetrics SHARED_METRICS = new TierMetrics(DEFAULT_CLOSURE_THRESHOLD, DEFAULT_BYTECODE_THRESHOLD);
+
+    private final ExpressionCompiler closureCompiler;
+    private final ExpressionCompiler bytecodeCompiler = new BytecodeCompiler();
+    private final TierMetrics metrics;
+
+    /**
+     * Create a compiler with the default thresholds, reporting to {@link #getSharedMetrics()}
+     */
+    public TieredCompiler(OperatorTable operatorTable) {
+        this(operatorTable, SHARED_METRICS);
+    }
+
+    /**
+     * @param metrics the thresholds to apply and the counters to update
+     */
+    public TieredCompiler(OperatorTable operatorTable, TierMetrics metrics) {
+        this.closureCompiler = new ClosureCompiler(operatorTable);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Metrics of every tiered compiler created with the default thresholds
+     */
+    public static TierMetrics getSharedMetrics() {
+        return SHARED_METRICS;
+    }
+
+    public TierMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public CompiledExpression compile(ASTNode ast) {
+        metrics.recordCreated();
+        return new TieredExpression(ast, this);
+    }
+
+    int getThreshold(EngineType nextTier) {
+        return nextTier == EngineType.CLOSURE ? metrics.getClosureThreshold() : metrics.getBytecodeThreshold();
+    }
+
+    /**
+     * Queue an expression for compilation to its next tier without blocking
+     *
+     * @return false if the compiler queue is full
+     */
+    boolean schedulePromotion(TieredExpression expression) {
+        try {
+            Background.EXECUTOR.execute(() -> promote(expression));
+            metrics.recordQueued();
+            return true;
+        } catch (RejectedExecutionException e) {
+            metrics.recordRejected();
+            return false;
+        }
+    }
+
+    private void promote(TieredExpression expression) {
+        metrics.recordDequeued();
+        EngineType from = expression.getTier();
+        EngineType to = expression.getNextTier();
+        if (to == null) {
+            expression.stayAtCurrentTier();
+            return;
+        }
+        CompiledExpression compiled;
+        try {
+            long start = System.nanoTime();
+            compiled = (to == EngineType.CLOSURE ? closureCompiler : bytecodeCompiler).compile(expression.getAst());
+            metrics.recordCompileTime(System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            compiled = null;
+        }
+
+        if (compiled == null || compiled instanceof ASTNode) {
+            // Not compilable to that tier (for example too large for a class file): stay where we are
+            metrics.recordFailed();
+            expression.stayAtCurrentTier();
+            return;
+        }
+        expression.install(to, compiled);
+        metrics.recordPromotion(from, to);
+    }
+
+    /**
+     * Daemon compiler thread shared by all tiered compilers, created on first promotion
+     */
+    private static final class Background {
+        static final ExecutorService EXECUTOR = new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_PENDING_COMPILATIONS),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tiered-compiler");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
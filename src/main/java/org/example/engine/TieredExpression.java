@@ -0,0 +1,112 @@
+package org.example.engine;
+
+import org.example.calculator.VariableStore;
+import org.example.operations.OperationRegistry;
+import org.example.parser.ASTNode;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Expression that runs in its current tier and counts invocations towards the next
+ * The counter is updated without synchronization, so under contention it may lag
+ * slightly; it only decides when a promotion is requested. It saturates instead of
+ * wrapping, and stops mattering once the last tier is reached.
+ */
+public final class TieredExpression implements CompiledExpression {
+    private static final int NEVER = Integer.MAX_VALUE;
+
+    private final ASTNode ast;
+    private final TieredCompiler compiler;
+    private final AtomicBoolean promoting = new AtomicBoolean(false);
+
+    private volatile CompiledExpression current;
+    private volatile EngineType tier = EngineType.INTERPRETER;
+    private int invocations;
+    private int nextThreshold;
+
+    TieredExpression(ASTNode ast, TieredCompiler compiler) {
+        this.ast = ast;
+        this.compiler = compiler;
+        this.current = ast;
+        this.nextThreshold = compiler.getThreshold(EngineType.CLOSURE);
+    }
+
+    @Override
+    public int evaluate(VariableStore store, OperationRegistry operationRegistry) {
+        int count = invocations;
+        if (count < Integer.MAX_VALUE) {
+            invocations = ++count;
+        }
+        int threshold = nextThreshold;
+        if (count >= threshold && threshold != NEVER) {
+            requestPromotion();
+        }
+        return current.evaluate(store, operationRegistry);
+    }
+
+    private void requestPromotion() {
+        EngineType nextTier = getNextTier();
+        if (nextTier == null) {
+            nextThreshold = NEVER;
+            return;
+        }
+        if (promoting.compareAndSet(false, true)) {
+            if (!compiler.schedulePromotion(this)) {
+                // Queue is full: try again after the same number of invocations
+                long retry = (long) invocations + compiler.getThreshold(nextTier);
+                nextThreshold = (int) Math.min(retry, NEVER - 1);
+                promoting.set(false);
+            }
+        }
+    }
+
+    ASTNode getAst() {
+        return ast;
+    }
+
+    /**
+     * @return the tier the expression currently runs in
+     */
+    public EngineType getTier() {
+        return tier;
+    }
+
+    /**
+     * @return the tier a promotion compiles to, or null at the last tier
+     */
+    EngineType getNextTier() {
+        switch (tier) {
+            case INTERPRETER:
+                return EngineType.CLOSURE;
+            case CLOSURE:
+                return EngineType.BYTECODE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return approximate number of evaluations so far, at most Integer.MAX_VALUE
+     */
+    public int getInvocationCount() {
+        return invocations;
+    }
+
+    /**
+     * Swap in the compiled form of the next tier; called by the background compiler
+     */
+    void install(EngineType newTier, CompiledExpression compiled) {
+        current = compiled;
+        tier = newTier;
+        nextThreshold = newTier == EngineType.BYTECODE ? NEVER : compiler.getThreshold(EngineType.BYTECODE);
+        promoting.set(false);
+    }
+
+    /**
+     * Stop promoting after a failed compilation
+     */
+    void stayAtCurrentTier() {
+        nextThreshold = NEVER;
+        promoting.set(false);
+    }
+}
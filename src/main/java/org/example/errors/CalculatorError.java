@@ -0,0 +1,103 @@
+package org.example.errors;
+
+/**
+ * An error in a request: lexing, parsing or evaluating one of its lines
+ * <p>
+ * Request errors are ordinary results rather than bugs, and mostly-invalid input
+ * raises a great many of them, so these exceptions capture no stack trace and build
+ * their message only when it is first read. The message is the code's message,
+ * followed by the details and, when known, the position in the line; it is the same
+ * text the calculator always reported.
+ * Division by zero, the one error without details, is preallocated and shared.
+ */
+public final class CalculatorError extends RuntimeException {
+    public static final int NO_POSITION = -1;
+
+    private static final Object[] NO_DETAILS = new Object[0];
+
+    // For estimating retained memory: the error with its details array, each detail,
+    // the characters of a detail that is not text, and of " at position " and a number
+    private static final int ERROR_OVERHEAD_BYTES = 64;
+    private static final int DETAIL_OVERHEAD_BYTES = 24;
+    private static final int MAX_DETAIL_CHARS = 32;
+    private static final int POSITION_CHARS = 24;
+    private static final int STRING_OVERHEAD_BYTES = 56;
+
+    private static final CalculatorError DIVISION_BY_ZERO = new CalculatorError(ErrorMessages.DIVISION_BY_ZERO);
+
+    private final ErrorMessages code;
+    private final int position;
+    private final Object[] details;
+    private volatile String message;
+
+    public CalculatorError(ErrorMessages code) {
+        this(code, NO_POSITION, NO_DETAILS);
+    }
+
+    public CalculatorError(ErrorMessages code, Object detail) {
+        this(code, NO_POSITION, detail);
+    }
+
+    /**
+     * @param code     the kind of error, whose message starts the text
+     * @param position the position in the line, or NO_POSITION
+     * @param details  appended to the code's message in order
+     */
+    public CalculatorError(ErrorMessages code, int position, Object... details) {
+        super(null, null, false, false);
+        this.code = code;
+        this.position = position;
+        this.details = details;
+    }
+
+    /**
+     * @return the shared division-by-zero error
+     */
+    public static CalculatorError divisionByZero() {
+        return DIVISION_BY_ZERO;
+    }
+
+    public ErrorMessages getCode() {
+        return code;
+    }
+
+    /**
+     * @return the position in the line, or NO_POSITION
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Estimate the memory this error keeps, including its message once it is read,
+     * without building the message
+     */
+    public long estimateRetainedBytes() {
+        long chars = code.getMessage().length();
+        for (Object detail : details) {
+            chars += detail instanceof CharSequence ? ((CharSequence) detail).length() : MAX_DETAIL_CHARS;
+        }
+        if (position != NO_POSITION) {
+            chars += POSITION_CHARS;
+        }
+        return ERROR_OVERHEAD_BYTES + (long) details.length * DETAIL_OVERHEAD_BYTES
+                + STRING_OVERHEAD_BYTES + chars * 2;
+    }
+
+    @Override
+    public String getMessage() {
+        String result = message;
+        if (result == null) {
+            StringBuilder text = new StringBuilder(code.getMessage());
+            for (Object detail : details) {
+                text.append(detail);
+            }
+            if (position != NO_POSITION) {
+                text.append(" at position ").append(position);
+            }
+            result = text.toString();
+            message = result;
+        }
+        return result;
+    }
+}
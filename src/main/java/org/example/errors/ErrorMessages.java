@@ -13,12 +13,23 @@ public enum ErrorMessages {
     ERROR_WRITING_FILE("Error writing to file: "),
     ERROR_CLOSING_FILE("Error closing file: "),
     INPUT_FILE_NOT_EXISTS("Input file does not exist: "),
+    INVALID_FLUSH_POLICY("Invalid flush policy: "),
+    INPUT_LINE_TOO_LONG("Input line is longer than a mapped region, at offset: "),
 
     // Calculator error messages
     DIVISION_BY_ZERO("Division by zero"),
     UNEXPECTED_TOKEN("Unexpected token: "),
+    UNEXPECTED_CHARACTER("Unexpected character: "),
+    EXPECTED_TOKEN("Expected "),
+    EXPECTED_IDENTIFIER("Expected identifier after "),
+    NOT_ASSIGNMENT_OPERATOR("Not an assignment operator: "),
+    NOT_BINARY_OPERATOR("Not a binary operator: "),
     CALCULATOR_TYPE_NULL("Calculator type cannot be null"),
+    ENGINE_TYPE_NULL("Engine type cannot be null"),
+    BYTECODE_GENERATION_FAILED("Failed to define compiled expression class: "),
     ERROR_CONCURRENT("Error processing concurrent requests"),
+    INVALID_CACHE_SIZE("Cache size cannot be negative: "),
+    INVALID_INSTRUCTION("Invalid stack machine instruction at: "),
 
     // Operator registry error messages
     OPERATOR_PATTERN_NULL_OR_EMPTY("Operator pattern cannot be null or empty"),
@@ -27,6 +38,8 @@ public enum ErrorMessages {
 
     //Parser error messages
     ERROR_NULL_FACTOR_PARSER("FactorParser cannot be null"),
+    LOOKAHEAD_EXCEEDED("Lookahead exceeds streaming buffer: "),
+    CAN_PARSE_NOT_IMPLEMENTED("FactorParser does not implement canParse: "),
 
     // Generic error messages
     ERROR_PREFIX("Error: "),
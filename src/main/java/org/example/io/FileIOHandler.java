@@ -10,16 +10,21 @@ import org.example.errors.ErrorMessages;
 
 /**
  * Concrete implementation of the IOHandler interface for file-based input and output
+ * Output is buffered and written as the {@link FlushPolicy} says (see {@link FileOutput}).
+ * The input is opened for {@link #readLine()} on first use, and read one line at a time.
  */
 public class FileIOHandler implements IOHandler {
     private BufferedReader reader;
-    private BufferedWriter writer;
-    private List<String> lines;
-    private int currentLineIndex;
+    private final FileOutput output;
+    private final InputTail tail;
     private String inputPath;
-    private long lastModifiedTime; // Added to track last modified time
+    private final InputWatcher watcher;
 
     public FileIOHandler(String inputPath, String outputPath) throws IOException {
+        this(inputPath, outputPath, FlushPolicy.EVERY_LINE);
+    }
+
+    public FileIOHandler(String inputPath, String outputPath, FlushPolicy flushPolicy) throws IOException {
         this.inputPath = inputPath;
 
         // Check if input file exists
@@ -27,64 +32,98 @@ public class FileIOHandler implements IOHandler {
             throw new IOException(ErrorMessages.INPUT_FILE_NOT_EXISTS.getMessage() + inputPath);
         }
 
-        // Read all lines from input file
-        this.lines = Files.readAllLines(Paths.get(inputPath));
-        this.currentLineIndex = 0;
-        this.lastModifiedTime = Files.getLastModifiedTime(Paths.get(inputPath)).toMillis(); // Initialize lastModifiedTime
+        this.watcher = new InputWatcher(Paths.get(inputPath));
 
         // Prepare output file
-        this.writer = Files.newBufferedWriter(Paths.get(outputPath));
+        this.output = new FileOutput(Paths.get(outputPath), flushPolicy);
+        this.tail = new InputTail(Paths.get(inputPath));
     }
 
     @Override
     public String readLine() {
-        if (currentLineIndex < lines.size()) {
-            return lines.get(currentLineIndex++);
+        try {
+            if (reader == null) {
+                reader = Files.newBufferedReader(Paths.get(inputPath));
+            }
+            return reader.readLine();
+        } catch (IOException e) {
+            System.err.println("Error reading input file: " + e.getMessage());
+            return null;
         }
-        return null;
     }
 
     @Override
     public void writeLine(String line) {
+        writeLine((CharSequence) line);
+    }
+
+    @Override
+    public void writeLine(CharSequence line) {
         try {
-            writer.write(line);
-            writer.newLine();
-            writer.flush(); // Force flush to ensure real-time output
+            output.writeLine(line);
         } catch (IOException e) {
             System.err.println(ErrorMessages.ERROR_WRITING_FILE.getMessage() + e.getMessage());
         }
     }
 
     /**
-     * Check if there's new content available by comparing file modification time
+     * Write all buffered output lines to the file
      */
     @Override
-    public boolean hasNewContent() {
+    public void flush() {
         try {
-            long currentModified = Files.getLastModifiedTime(Paths.get(inputPath)).toMillis();
-            boolean hasNew = currentModified > lastModifiedTime;
-            if (hasNew) {
-                lastModifiedTime = currentModified; // Update the last modified time
-            }
-            return hasNew;
+            output.flush();
         } catch (IOException e) {
-            return false;
+            System.err.println(ErrorMessages.ERROR_WRITING_FILE.getMessage() + e.getMessage());
         }
     }
 
+    public FlushPolicy getFlushPolicy() {
+        return output.getFlushPolicy();
+    }
+
+    /**
+     * Check if the input file changed since the last check, see {@link InputWatcher}
+     */
+    @Override
+    public boolean hasNewContent() {
+        return watcher.hasChanged();
+    }
+
+    /**
+     * Wait for a change notification of the input file, or for the poll interval
+     */
+    @Override
+    public void awaitNewContent() throws InterruptedException {
+        watcher.awaitChange();
+    }
+
     /**
      * Reset the reader to start reading from the beginning
+     * The file is opened again by the next {@link #readLine()}, so it sees any new content.
      */
     @Override
     public void resetReader() {
-        this.currentLineIndex = 0;
         try {
-            // Re-read the file to get any new content
-            this.lines = Files.readAllLines(Paths.get(inputPath));
-            // Update the last modified time to current time to avoid re-processing the same content
-            this.lastModifiedTime = Files.getLastModifiedTime(Paths.get(inputPath)).toMillis();
+            if (reader != null) {
+                reader.close();
+            }
         } catch (IOException e) {
-            System.err.println("Error re-reading input file: " + e.getMessage());
+            System.err.println(ErrorMessages.ERROR_CLOSING_FILE.getMessage() + e.getMessage());
+        }
+        reader = null;
+    }
+
+    /**
+     * Read the requests appended to the input file since the last call, see {@link InputTail}
+     */
+    @Override
+    public List<List<CharSequence>> readNewRequests() {
+        try {
+            return tail.poll(InputTail.DEFAULT_MAX_REQUESTS);
+        } catch (IOException e) {
+            System.err.println("Error reading input file: " + e.getMessage());
+            return new ArrayList<>();
         }
     }
 
@@ -100,15 +139,13 @@ public class FileIOHandler implements IOHandler {
      * Read all requests from the input file
      */
     public List<List<String>> readAllRequests() {
-        try {
-            // Re-read the file to get any new content
-            this.lines = Files.readAllLines(Paths.get(inputPath));
-            this.currentLineIndex = 0;
-
+        // Re-read the file to get any new content
+        try (BufferedReader input = Files.newBufferedReader(Paths.get(inputPath))) {
             List<List<String>> allRequests = new ArrayList<>();
             List<String> currentRequest = new ArrayList<>();
 
-            for (String line : lines) {
+            String line;
+            while ((line = input.readLine()) != null) {
                 if (line.trim().isEmpty()) {
                     if (!currentRequest.isEmpty()) {
                         allRequests.add(new ArrayList<>(currentRequest));
@@ -133,13 +170,12 @@ public class FileIOHandler implements IOHandler {
 
     @Override
     public void close() {
+        watcher.close();
         try {
             if (reader != null) {
                 reader.close();
             }
-            if (writer != null) {
-                writer.close();
-            }
+            output.close();
         } catch (IOException e) {
             System.err.println(ErrorMessages.ERROR_CLOSING_FILE.getMessage() + e.getMessage());
         }
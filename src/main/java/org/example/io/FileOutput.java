@@ -0,0 +1,109 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered output file shared by the file IO handlers
+ * <p>
+ * Output lines are encoded as UTF-8 into a direct buffer and written to the file's
+ * channel as the {@link FlushPolicy} says, so a batch of results can reach the file
+ * in a few large writes instead of one write per line.
+ */
+final class FileOutput {
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final FileChannel output;
+    private final ByteBuffer outputBuffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final FlushPolicy flushPolicy;
+    private long bufferedLines;
+    private long lastWriteNanos = System.nanoTime();
+
+    FileOutput(Path path, FlushPolicy flushPolicy) throws IOException {
+        this.flushPolicy = flushPolicy;
+        this.output = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    void writeLine(CharSequence line) throws IOException {
+        append(line);
+        append(LINE_SEPARATOR);
+        bufferedLines++;
+        long nanosSinceWrite = flushPolicy.isTimed() ? System.nanoTime() - lastWriteNanos : 0;
+        if (flushPolicy.shouldWrite(bufferedLines, nanosSinceWrite / 1_000_000)) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Write all buffered lines to the file
+     */
+    void flush() throws IOException {
+        writeBuffer();
+    }
+
+    /**
+     * Write the buffered lines and close the file; closing again does nothing
+     */
+    void close() throws IOException {
+        if (output.isOpen()) {
+            writeBuffer();
+            output.close();
+        }
+    }
+
+    private void append(CharSequence text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                encode(text, i);
+                return;
+            }
+            if (!outputBuffer.hasRemaining()) {
+                writeBuffer();
+            }
+            outputBuffer.put((byte) c);
+        }
+    }
+
+    /**
+     * Encode the rest of a line that is not plain ASCII
+     */
+    private void encode(CharSequence text, int start) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text, start, text.length());
+        while (encoder.encode(chars, outputBuffer, true) == CoderResult.OVERFLOW) {
+            writeBuffer();
+        }
+        while (encoder.flush(outputBuffer) == CoderResult.OVERFLOW) {
+            writeBuffer();
+        }
+        encoder.reset();
+    }
+
+    private void writeBuffer() throws IOException {
+        outputBuffer.flip();
+        while (outputBuffer.hasRemaining()) {
+            output.write(outputBuffer);
+        }
+        outputBuffer.clear();
+        bufferedLines = 0;
+        lastWriteNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.io;
+
+import org.example.errors.ErrorMessages;
+
+/**
+ * When buffered output lines are written to the output file
+ * <p>
+ * Output is always written when the buffer is full, at a {@link IOHandler#flush() flush}
+ * (App flushes at the end of every batch of results) and when the handler is closed.
+ * The policy adds the points in between: after every line, after every N lines, or on
+ * the first line written at least T milliseconds after the previous write.
+ */
+public final class FlushPolicy {
+    public static final FlushPolicy EVERY_LINE = new FlushPolicy(Mode.LINES, 1);
+    public static final FlushPolicy BATCH_END = new FlushPolicy(Mode.BATCH, 0);
+
+    private final Mode mode;
+    private final long limit;
+
+    private FlushPolicy(Mode mode, long limit) {
+        this.mode = mode;
+        this.limit = limit;
+    }
+
+    public static FlushPolicy everyLines(int lines) {
+        if (lines < 1) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_FLUSH_POLICY.getMessage(lines));
+        }
+        return lines == 1 ? EVERY_LINE : new FlushPolicy(Mode.LINES, lines);
+    }
+
+    public static FlushPolicy everyMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_FLUSH_POLICY.getMessage(millis));
+        }
+        return new FlushPolicy(Mode.INTERVAL, millis);
+    }
+
+    /**
+     * Parse a policy: "line", "batch", "lines:N" or "ms:T"
+     */
+    public static FlushPolicy fromString(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_FLUSH_POLICY.getMessage(value));
+        }
+        String policy = value.trim().toLowerCase();
+        switch (policy) {
+            case "line":
+                return EVERY_LINE;
+            case "batch":
+                return BATCH_END;
+            default:
+                break;
+        }
+        int separator = policy.indexOf(':');
+        try {
+            if (separator > 0) {
+                long amount = Long.parseLong(policy.substring(separator + 1));
+                switch (policy.substring(0, separator)) {
+                    case "lines":
+                        return everyLines(Math.toIntExact(amount));
+                    case "ms":
+                        return everyMillis(amount);
+                    default:
+                        break;
+                }
+            }
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            // Reported below with the whole policy
+        }
+        throw new IllegalArgumentException(ErrorMessages.INVALID_FLUSH_POLICY.getMessage(value));
+    }
+
+    /**
+     * @param linesSinceWrite lines buffered since output was last written, including this one
+     * @param millisSinceWrite time since output was last written
+     * @return whether the buffered output should be written after a line
+     */
+    boolean shouldWrite(long linesSinceWrite, long millisSinceWrite) {
+        switch (mode) {
+            case LINES:
+                return linesSinceWrite >= limit;
+            case INTERVAL:
+                return millisSinceWrite >= limit;
+            case BATCH:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return whether the policy needs the time of every line
+     */
+    boolean isTimed() {
+        return mode == Mode.INTERVAL;
+    }
+
+    @Override
+    public String toString() {
+        switch (mode) {
+            case LINES:
+                return limit == 1 ? "line" : "lines:" + limit;
+            case INTERVAL:
+                return "ms:" + limit;
+            case BATCH:
+            default:
+                return "batch";
+        }
+    }
+
+    private enum Mode {
+        LINES,
+        INTERVAL,
+        BATCH
+    }
+}
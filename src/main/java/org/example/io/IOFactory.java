@@ -13,7 +13,8 @@ public class IOFactory {
      * Creates an IO handler based on the specified IO type
      *
      * @param ioType the type of IO handler to create
-     * @param params variable number of String parameters (e.g., input path, output path for file handler)
+     * @param params variable number of String parameters (e.g., input path, output path and
+     *               optionally a {@link FlushPolicy} for the file handler)
      * @return an IOHandler instance
      * @throws IllegalArgumentException if invalid parameters are provided
      * @throws IOException              if file operations fail
@@ -25,8 +26,20 @@ public class IOFactory {
                 if (params.length < 2) {
                     throw new IllegalArgumentException(ErrorMessages.FILE_IO_INVALID_PARAMS.getMessage());
                 }
+                if (params.length >= 3) {
+                    return new FileIOHandler(params[0], params[1], FlushPolicy.fromString(params[2]));
+                }
                 return new FileIOHandler(params[0], params[1]);
 
+            case MMAP:
+                if (params.length < 2) {
+                    throw new IllegalArgumentException(ErrorMessages.FILE_IO_INVALID_PARAMS.getMessage());
+                }
+                if (params.length >= 3) {
+                    return new MappedFileIOHandler(params[0], params[1], FlushPolicy.fromString(params[2]));
+                }
+                return new MappedFileIOHandler(params[0], params[1]);
+
             default:
                 throw new IllegalArgumentException(ErrorMessages.UNSUPPORTED_IO_TYPE.getMessage() + ioType);
         }
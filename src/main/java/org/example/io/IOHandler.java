@@ -1,5 +1,7 @@
 package org.example.io;
 
+import java.util.List;
+
 /**
  * Interface defining the contract for all IO handler implementations
  */
@@ -18,6 +20,24 @@ public interface IOHandler {
      */
     void writeLine(String line);
 
+    /**
+     * Writes a line of output held in a buffer the caller reuses
+     * Implementations should copy the characters out rather than convert the buffer to a String.
+     *
+     * @param line the line to write; only read during the call
+     */
+    default void writeLine(CharSequence line) {
+        writeLine(line.toString());
+    }
+
+    /**
+     * Writes out all buffered output lines
+     * Called at the end of every batch of results, whatever the handler's flush policy.
+     */
+    default void flush() {
+        // Default implementation does not buffer
+    }
+
     /**
      * Closes the IO stream or resource
      */
@@ -32,6 +52,16 @@ public interface IOHandler {
         return false;
     }
 
+    /**
+     * Waits until there may be new content, for handlers that support continuous monitoring
+     * Returns at the latest after a poll interval; {@link #hasNewContent()} tells whether there is any.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    default void awaitNewContent() throws InterruptedException {
+        Thread.sleep(1000);
+    }
+
     /**
      * Resets the reader to start reading from the beginning
      * Useful for re-reading content when new data is available
@@ -40,6 +70,27 @@ public interface IOHandler {
         // Default implementation does nothing
     }
 
+    /**
+     * Reads the requests added to the input since the last call, for handlers that follow their input
+     * A call may return only the first of the new requests; the next call continues after them,
+     * and an empty list means everything was read. A request is returned again only if it was
+     * the unfinished last request of the input and changed since.
+     *
+     * @return the new requests as trimmed lines, or null if the handler does not follow its input
+     *         and has to be reread with {@link #resetReader()}
+     */
+    default List<List<CharSequence>> readNewRequests() {
+        return null;
+    }
+
+    /**
+     * Whether the lines from {@link #readNewRequests()} may be views of the input rather than Strings
+     * Such lines are lexed where they are, so they are best not copied to Strings, e.g. as cache keys.
+     */
+    default boolean readsInPlace() {
+        return false;
+    }
+
     /**
      * Determines if this IO handler supports continuous monitoring
      * File-based handlers return true, console-based handlers return false
@@ -6,7 +6,8 @@ import org.example.errors.ErrorMessages;
  * Enum representing different types of IO operations
  */
 public enum IOType {
-    FILE("file");
+    FILE("file"),
+    MMAP("mmap");
 
     private final String value;
 
@@ -0,0 +1,290 @@
+package org.example.io;
+
+import org.example.errors.ErrorMessages;
+import org.example.lexer.AsciiByteSequence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Follows a growing input file, returning each request once
+ * <p>
+ * The tail remembers the byte offset after the last complete request, i.e. after the
+ * blank line that ended it, and each poll reads only the bytes from there on. The
+ * request at the end of the file, which may still be growing, is returned whenever its
+ * lines changed since it was last returned, and not again once it is completed.
+ * <p>
+ * A file that was replaced (a different file key, as after log rotation), truncated
+ * below the offset, or rewritten before it (the bytes just before the offset changed)
+ * is followed again from its beginning.
+ * <p>
+ * A poll may be limited to a number of complete requests, so a large file is read in
+ * batches rather than held in memory at once. A {@link #mapped mapped} tail maps the
+ * bytes it reads and returns ASCII lines as {@link AsciiByteSequence} views of them,
+ * which the calculator lexes in place; other tails decode every line to a String.
+ */
+public final class InputTail {
+    /**
+     * Number of complete requests the IO handlers read per poll
+     */
+    public static final int DEFAULT_MAX_REQUESTS = 10_000;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int ANCHOR_SIZE = 64;
+
+    private final Path path;
+    private final int maxMappingSize;
+    private final ByteBuffer readBuffer;
+
+    private long offset;
+    private Object fileKey;
+    private byte[] anchor = new byte[0];
+    private List<CharSequence> returnedPartial;
+    private long restarts;
+
+    public InputTail(Path path) {
+        this(path, 0);
+    }
+
+    private InputTail(Path path, int maxMappingSize) {
+        this.path = path;
+        this.maxMappingSize = maxMappingSize;
+        this.readBuffer = maxMappingSize > 0 ? null : ByteBuffer.allocate(READ_BUFFER_SIZE);
+    }
+
+    /**
+     * A tail that returns ASCII lines as views of the mapped file instead of Strings
+     *
+     * @param maxMappingSize the largest part of the file mapped at once; a line must fit in it
+     */
+    public static InputTail mapped(Path path, int maxMappingSize) {
+        return new InputTail(path, maxMappingSize);
+    }
+
+    /**
+     * Read the requests appended since the last poll
+     *
+     * @return the new and changed requests, as trimmed non-blank lines, in file order
+     */
+    public List<List<CharSequence>> poll() throws IOException {
+        return poll(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Read at most a number of the requests appended since the last poll
+     * Once the limit is reached the rest of the file is left for the next poll, so the
+     * request at the end of the file is returned only by a poll that reaches it.
+     *
+     * @param maxRequests the largest number of complete requests to return
+     * @return the new and changed requests, as trimmed non-blank lines, in file order
+     */
+    public List<List<CharSequence>> poll(int maxRequests) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Object key = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+            long size = channel.size();
+            if (offset > 0 && (!Objects.equals(key, fileKey) || size < offset || !anchorMatches(channel))) {
+                restart();
+            }
+            fileKey = key;
+            Requests requests = new Requests(maxRequests);
+            if (maxMappingSize > 0) {
+                readMapped(channel, size, requests);
+            } else {
+                read(channel, size, requests);
+            }
+            anchor = readAt(channel, Math.max(0, offset - ANCHOR_SIZE), (int) Math.min(offset, ANCHOR_SIZE));
+            return requests.finish();
+        }
+    }
+
+    private void restart() {
+        offset = 0;
+        anchor = new byte[0];
+        returnedPartial = null;
+        restarts++;
+    }
+
+    private boolean anchorMatches(FileChannel channel) throws IOException {
+        return Arrays.equals(anchor, readAt(channel, offset - anchor.length, anchor.length));
+    }
+
+    private byte[] readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        while (bytes.hasRemaining() && channel.read(bytes, position + bytes.position()) >= 0) {
+            // Read until the buffer is full or the file ends
+        }
+        return Arrays.copyOf(bytes.array(), bytes.position());
+    }
+
+    private void read(FileChannel channel, long size, Requests requests) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long position = offset;
+        while (position < size) {
+            readBuffer.clear();
+            int read = channel.read(readBuffer, position);
+            if (read < 0) {
+                break;
+            }
+            byte[] bytes = readBuffer.array();
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                line.write(bytes, lineStart, i - lineStart);
+                lineStart = i + 1;
+                String text = decode(line);
+                line.reset();
+                if (!requests.line(text, position + i + 1)) {
+                    return;
+                }
+            }
+            line.write(bytes, lineStart, read - lineStart);
+            position += read;
+        }
+        requests.lastLine(decode(line));
+    }
+
+    private void readMapped(FileChannel channel, long size, Requests requests) throws IOException {
+        long position = offset;
+        while (position < size) {
+            int length = (int) Math.min(size - position, maxMappingSize);
+            // The mapping stays valid after the channel is closed, for as long as a view refers to it
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (bytes.get(i) != '\n') {
+                    continue;
+                }
+                if (!requests.line(text(bytes, lineStart, i), position + i + 1)) {
+                    return;
+                }
+                lineStart = i + 1;
+            }
+            if (position + length == size) {
+                requests.lastLine(text(bytes, lineStart, length));
+                return;
+            }
+            if (lineStart == 0) {
+                throw new IOException(ErrorMessages.INPUT_LINE_TOO_LONG.getMessage(position));
+            }
+            // The next mapping starts with the line this one cut off
+            position += lineStart;
+        }
+    }
+
+    private static String decode(ByteArrayOutputStream line) {
+        return new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * @return the trimmed line: a view of the mapped bytes if it is ASCII, otherwise decoded
+     */
+    private static CharSequence text(ByteBuffer bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes.get(i) < 0) {
+                byte[] line = new byte[end - start];
+                bytes.get(start, line);
+                return new String(line, StandardCharsets.UTF_8).trim();
+            }
+        }
+        return new AsciiByteSequence(bytes, start, end - start).trim();
+    }
+
+    private static boolean sameLines(List<CharSequence> lines, List<CharSequence> other) {
+        if (other == null || lines.size() != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            if (CharSequence.compare(lines.get(i), other.get(i)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects the lines of one poll into requests and advances the offset past complete ones
+     */
+    private final class Requests {
+        private final int maxRequests;
+        private final List<List<CharSequence>> requests = new ArrayList<>();
+        private List<CharSequence> request = new ArrayList<>();
+        private boolean first = true;
+        private boolean limited;
+
+        Requests(int maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+
+        /**
+         * Add a complete line
+         *
+         * @param end the file offset after its line break
+         * @return false once the limit of complete requests is reached
+         */
+        boolean line(CharSequence text, long end) {
+            if (text.length() > 0) {
+                request.add(text);
+                return true;
+            }
+            // A blank line completes the request before it
+            offset = end;
+            if (!request.isEmpty()) {
+                // The first request may have been returned while it was still growing
+                if (!(first && sameLines(request, returnedPartial))) {
+                    requests.add(request);
+                }
+                first = false;
+                returnedPartial = null;
+                request = new ArrayList<>();
+            }
+            limited = requests.size() >= maxRequests;
+            return !limited;
+        }
+
+        /**
+         * Add the text after the last line break, which may still be incomplete
+         */
+        void lastLine(CharSequence text) {
+            if (text.length() > 0) {
+                request.add(text);
+            }
+        }
+
+        List<List<CharSequence>> finish() {
+            // The last request is part of this poll only if the poll read up to the end of the file
+            if (!limited && !request.isEmpty() && !sameLines(request, returnedPartial)) {
+                requests.add(request);
+                returnedPartial = request;
+            }
+            return requests;
+        }
+    }
+
+    /**
+     * @return the byte offset after the last complete request
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return how often the file was followed again from its beginning
+     */
+    public long getRestarts() {
+        return restarts;
+    }
+}
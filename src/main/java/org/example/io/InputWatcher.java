@@ -0,0 +1,156 @@
+package org.example.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects changes of an input file
+ * <p>
+ * {@link #awaitChange()} wakes up on a WatchService event for the file (registered on its
+ * directory, so replacing the file is seen too) and then waits for the burst of events a
+ * write causes to settle, for at most {@link #MAX_DEBOUNCE_MILLIS}. It also returns after
+ * the poll interval, so a file system without change events is still polled. The interval
+ * starts at {@link #MIN_POLL_MILLIS} after a change and doubles while the file stays the
+ * same, up to a limit that is short when there is no WatchService.
+ * <p>
+ * {@link #hasChanged()} compares the file's size, full-precision modification time and
+ * file key with the ones seen last, so writes within one millisecond are not missed.
+ */
+public final class InputWatcher implements Closeable {
+    public static final long MIN_POLL_MILLIS = 5;
+    public static final long MAX_POLL_MILLIS = 1_000;
+    public static final long MAX_UNWATCHED_POLL_MILLIS = 50;
+    public static final long DEBOUNCE_MILLIS = 2;
+    public static final long MAX_DEBOUNCE_MILLIS = 20;
+
+    private final Path file;
+    private final Path fileName;
+    private WatchService watchService;
+    private final long maxPollMillis;
+    private long pollMillis = MIN_POLL_MILLIS;
+
+    private long size;
+    private FileTime modified;
+    private Object fileKey;
+
+    public InputWatcher(Path file) {
+        this.file = file.toAbsolutePath();
+        this.fileName = this.file.getFileName();
+        this.watchService = openWatchService(this.file.getParent());
+        this.maxPollMillis = watchService != null ? MAX_POLL_MILLIS : MAX_UNWATCHED_POLL_MILLIS;
+        hasChanged();
+    }
+
+    private static WatchService openWatchService(Path directory) {
+        WatchService service = null;
+        try {
+            service = directory.getFileSystem().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            return service;
+        } catch (IOException | UnsupportedOperationException e) {
+            // Polled only
+            closeQuietly(service);
+            return null;
+        }
+    }
+
+    /**
+     * @return whether the file changed since the last call; false while it does not exist
+     */
+    public boolean hasChanged() {
+        boolean changed = false;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            changed = attributes.size() != size
+                    || !attributes.lastModifiedTime().equals(modified)
+                    || !Objects.equals(attributes.fileKey(), fileKey);
+            size = attributes.size();
+            modified = attributes.lastModifiedTime();
+            fileKey = attributes.fileKey();
+        } catch (IOException e) {
+            // Between the removal and the creation of a replaced file
+        }
+        pollMillis = changed ? MIN_POLL_MILLIS : Math.min(pollMillis * 2, maxPollMillis);
+        return changed;
+    }
+
+    /**
+     * Wait until the file may have changed, or for the current poll interval
+     */
+    public void awaitChange() throws InterruptedException {
+        if (watchService == null) {
+            Thread.sleep(pollMillis);
+            return;
+        }
+        long start = System.nanoTime();
+        long debounceEnd = 0;
+        boolean changed = false;
+        long timeout = pollMillis;
+        try {
+            while (true) {
+                WatchKey key = watchService.poll(timeout, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    return; // Settled, or the poll interval is over
+                }
+                if (concernsFile(key) && !changed) {
+                    changed = true;
+                    debounceEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_DEBOUNCE_MILLIS);
+                }
+                long left = changed ? debounceEnd - System.nanoTime()
+                        : start + TimeUnit.MILLISECONDS.toNanos(pollMillis) - System.nanoTime();
+                if (left <= 0) {
+                    return;
+                }
+                timeout = Math.min(changed ? DEBOUNCE_MILLIS : pollMillis, TimeUnit.NANOSECONDS.toMillis(left) + 1);
+            }
+        } catch (ClosedWatchServiceException e) {
+            watchService = null;
+        }
+    }
+
+    private boolean concernsFile(WatchKey key) {
+        boolean concerns = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // Events may have been lost on overflow
+            concerns |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+        }
+        key.reset();
+        return concerns;
+    }
+
+    /**
+     * @return whether changes are notified by a WatchService rather than only polled
+     */
+    public boolean isWatching() {
+        return watchService != null;
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(watchService);
+        watchService = null;
+    }
+
+    private static void closeQuietly(WatchService service) {
+        if (service == null) {
+            return;
+        }
+        try {
+            service.close();
+        } catch (IOException e) {
+            // Nothing is watched any more either way
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package org.example.io;
+
+import org.example.errors.ErrorMessages;
+import org.example.lexer.AsciiByteSequence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File IO handler that memory-maps its input instead of reading it into the heap
+ * <p>
+ * Lines and request boundaries are found by scanning the mapped bytes, and ASCII lines
+ * are returned as views of them, which the calculator lexes in place.
+ * {@link #readNewRequests()} reads the requests in batches through a {@link InputTail#mapped
+ * mapped InputTail}, so neither the file nor its lines are ever held in the heap at once.
+ * {@link #readLine()} and {@link #readRequest()} read from the beginning instead; the file is
+ * mapped for them on first use. Files larger than one mapping are mapped in regions that
+ * end at a line break, so a single line must fit in a region. Output is written as by
+ * FileIOHandler.
+ */
+public class MappedFileIOHandler implements IOHandler {
+    public static final int DEFAULT_REGION_SIZE = 1 << 30;
+
+    private final Path inputPath;
+    private final FileOutput output;
+    private final InputTail tail;
+    private final InputWatcher watcher;
+    private final int maxRegionSize;
+
+    // Mapped on the first read from the beginning
+    private ByteBuffer[] regions;
+    private long mappedSize;
+    private FileTime mappedModifiedTime;
+
+    // Read position, and the bounds of the line found last by nextLine
+    private int region;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+
+    public MappedFileIOHandler(String inputPath, String outputPath) throws IOException {
+        this(inputPath, outputPath, FlushPolicy.EVERY_LINE);
+    }
+
+    public MappedFileIOHandler(String inputPath, String outputPath, FlushPolicy flushPolicy) throws IOException {
+        this(inputPath, outputPath, flushPolicy, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * @param maxRegionSize the largest part of the input mapped at once
+     */
+    public MappedFileIOHandler(String inputPath, String outputPath, FlushPolicy flushPolicy, int maxRegionSize)
+            throws IOException {
+        this.inputPath = Paths.get(inputPath);
+        this.maxRegionSize = maxRegionSize;
+        if (!Files.exists(this.inputPath)) {
+            throw new IOException(ErrorMessages.INPUT_FILE_NOT_EXISTS.getMessage() + inputPath);
+        }
+        this.output = new FileOutput(Paths.get(outputPath), flushPolicy);
+        this.tail = InputTail.mapped(this.inputPath, maxRegionSize);
+        this.watcher = new InputWatcher(this.inputPath);
+    }
+
+    private void map() throws IOException {
+        List<ByteBuffer> mapped = new ArrayList<>();
+        long size;
+        try (FileChannel channel = FileChannel.open(inputPath, StandardOpenOption.READ)) {
+            size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long length = Math.min(size - start, maxRegionSize);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                int usable = (int) length;
+                if (start + length < size) {
+                    // End the region after its last line break, so no line spans two regions
+                    while (usable > 0 && buffer.get(usable - 1) != '\n') {
+                        usable--;
+                    }
+                    if (usable == 0) {
+                        throw new IOException(ErrorMessages.INPUT_LINE_TOO_LONG.getMessage(start));
+                    }
+                }
+                mapped.add(buffer.slice(0, usable));
+                start += usable;
+            }
+        }
+        // The mappings stay valid after the channel is closed
+        this.regions = mapped.toArray(new ByteBuffer[0]);
+        this.mappedSize = size;
+        this.mappedModifiedTime = Files.getLastModifiedTime(inputPath);
+        this.region = 0;
+        this.position = 0;
+    }
+
+    private void mapIfNeeded() throws IOException {
+        if (regions == null) {
+            map();
+        }
+    }
+
+    /**
+     * Find the next line, without its line break
+     *
+     * @return false at the end of the input
+     */
+    private boolean nextLine() {
+        while (region < regions.length && position >= regions[region].limit()) {
+            region++;
+            position = 0;
+        }
+        if (region >= regions.length) {
+            return false;
+        }
+        ByteBuffer buffer = regions[region];
+        int limit = buffer.limit();
+        int end = position;
+        while (end < limit && buffer.get(end) != '\n') {
+            end++;
+        }
+        lineStart = position;
+        lineEnd = end > position && buffer.get(end - 1) == '\r' ? end - 1 : end;
+        position = end + 1;
+        return true;
+    }
+
+    private boolean isAscii() {
+        ByteBuffer buffer = regions[region];
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decodeLine() {
+        byte[] bytes = new byte[lineEnd - lineStart];
+        regions[region].get(lineStart, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the current line: a view of the mapped bytes if it is ASCII, otherwise decoded
+     */
+    private CharSequence lineSequence() {
+        if (isAscii()) {
+            return new AsciiByteSequence(regions[region], lineStart, lineEnd - lineStart);
+        }
+        return decodeLine();
+    }
+
+    @Override
+    public String readLine() {
+        try {
+            mapIfNeeded();
+        } catch (IOException e) {
+            System.err.println("Error reading input file: " + e.getMessage());
+            return null;
+        }
+        return nextLine() ? decodeLine() : null;
+    }
+
+    /**
+     * Read the next request: its trimmed lines up to a blank line or the end of input
+     * Blank lines before the request are skipped. Lines are not checked for an exit command.
+     *
+     * @return the lines of the request, or an empty list at the end of input
+     * @throws IOException if the file cannot be mapped
+     */
+    public List<CharSequence> readRequest() throws IOException {
+        mapIfNeeded();
+        List<CharSequence> request = new ArrayList<>();
+        while (nextLine()) {
+            CharSequence line = lineSequence();
+            CharSequence trimmed = line instanceof AsciiByteSequence
+                    ? ((AsciiByteSequence) line).trim() : line.toString().trim();
+            if (trimmed.length() > 0) {
+                request.add(trimmed);
+            } else if (!request.isEmpty()) {
+                break;
+            }
+        }
+        return request;
+    }
+
+    @Override
+    public void writeLine(String line) {
+        writeLine((CharSequence) line);
+    }
+
+    @Override
+    public void writeLine(CharSequence line) {
+        try {
+            output.writeLine(line);
+        } catch (IOException e) {
+            System.err.println(ErrorMessages.ERROR_WRITING_FILE.getMessage() + e.getMessage());
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            System.err.println(ErrorMessages.ERROR_WRITING_FILE.getMessage() + e.getMessage());
+        }
+    }
+
+    /**
+     * Check if the input file changed since the last check, see {@link InputWatcher}
+     */
+    @Override
+    public boolean hasNewContent() {
+        return watcher.hasChanged();
+    }
+
+    /**
+     * Wait for a change notification of the input file, or for the poll interval
+     */
+    @Override
+    public void awaitNewContent() throws InterruptedException {
+        watcher.awaitChange();
+    }
+
+    /**
+     * Read from the beginning again, mapping the file anew if it was modified or changed size since it was mapped
+     */
+    @Override
+    public void resetReader() {
+        try {
+            if (regions == null || !Files.getLastModifiedTime(inputPath).equals(mappedModifiedTime)
+                    || Files.size(inputPath) != mappedSize) {
+                map();
+            }
+        } catch (IOException e) {
+            System.err.println("Error re-reading input file: " + e.getMessage());
+        }
+        this.region = 0;
+        this.position = 0;
+    }
+
+    /**
+     * Read the requests appended to the input file since the last call, see {@link InputTail}
+     */
+    @Override
+    public List<List<CharSequence>> readNewRequests() {
+        try {
+            return tail.poll(InputTail.DEFAULT_MAX_REQUESTS);
+        } catch (IOException e) {
+            System.err.println("Error reading input file: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public boolean readsInPlace() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsContinuousMonitoring() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        watcher.close();
+        try {
+            output.close();
+        } catch (IOException e) {
+            System.err.println(ErrorMessages.ERROR_CLOSING_FILE.getMessage() + e.getMessage());
+        }
+    }
+}
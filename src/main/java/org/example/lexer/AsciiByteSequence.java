@@ -0,0 +1,60 @@
+package org.example.lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ASCII text read in place from a byte buffer, such as a memory-mapped file
+ * <p>
+ * Each byte is one character, so the scanners can lex the bytes directly; nothing
+ * is decoded or copied until {@link #toString()} is called. The buffer is only read
+ * with absolute gets, so views may share it. The bytes must all be ASCII.
+ */
+public final class AsciiByteSequence implements CharSequence {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    public AsciiByteSequence(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) buffer.get(offset + index);
+    }
+
+    @Override
+    public AsciiByteSequence subSequence(int start, int end) {
+        return new AsciiByteSequence(buffer, offset + start, end - start);
+    }
+
+    /**
+     * @return the text without leading and trailing whitespace and control characters, like String.trim
+     */
+    public AsciiByteSequence trim() {
+        int start = 0;
+        int end = length;
+        while (start < end && charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == 0 && end == length ? this : subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
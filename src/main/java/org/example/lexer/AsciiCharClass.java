@@ -0,0 +1,55 @@
+package org.example.lexer;
+
+/**
+ * Character classification with a table lookup for ASCII
+ * Non-ASCII characters fall back to the java.lang.Character methods,
+ * so the results always agree with the classic Lexer.
+ */
+final class AsciiCharClass {
+    private static final byte WHITESPACE = 1;
+    private static final byte DIGIT = 2;
+    private static final byte IDENTIFIER_START = 4;
+
+    private static final byte[] ASCII = new byte[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII[c] = classify(c);
+        }
+    }
+
+    private AsciiCharClass() {
+    }
+
+    private static byte classify(char c) {
+        byte flags = 0;
+        if (Character.isWhitespace(c)) flags |= WHITESPACE;
+        if (Character.isDigit(c)) flags |= DIGIT;
+        if (Character.isAlphabetic(c) || c == '_') flags |= IDENTIFIER_START;
+        return flags;
+    }
+
+    private static byte flags(char c) {
+        return c < 128 ? ASCII[c] : classify(c);
+    }
+
+    static boolean isWhitespace(char c) {
+        return (flags(c) & WHITESPACE) != 0;
+    }
+
+    static boolean isDigit(char c) {
+        return (flags(c) & DIGIT) != 0;
+    }
+
+    static boolean isIdentifierStart(char c) {
+        return (flags(c) & IDENTIFIER_START) != 0;
+    }
+
+    static boolean isIdentifierPart(char c) {
+        return (flags(c) & (IDENTIFIER_START | DIGIT)) != 0;
+    }
+
+    static int digitValue(char c) {
+        return c < 128 ? c - '0' : Character.digit(c, 10);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.lexer;
+
+/**
+ * Token source that reads straight from the primitive arrays of a {@link TokenBuffer}
+ */
+public class BufferTokenSource implements TokenSource {
+    private final TokenBuffer buffer;
+    private int index;
+
+    public BufferTokenSource(TokenBuffer buffer) {
+        this.buffer = buffer;
+        this.index = 0;
+    }
+
+    private int at(int lookahead) {
+        return Math.min(index + lookahead, buffer.size() - 1);
+    }
+
+    @Override
+    public TokenType getType(int lookahead) {
+        return TokenTypes.fromIndex(buffer.getType(at(lookahead)));
+    }
+
+    @Override
+    public int getPosition(int lookahead) {
+        return buffer.getStart(at(lookahead));
+    }
+
+    @Override
+    public String getText(int lookahead) {
+        return buffer.getText(at(lookahead));
+    }
+
+    @Override
+    public int getIntValue(int lookahead) {
+        int i = at(lookahead);
+        if (buffer.hasIntOverflow(i)) {
+            // Re-parse from text to raise the same error as the list-based path
+            return Integer.parseInt(buffer.getText(i));
+        }
+        return buffer.getIntValue(i);
+    }
+
+    @Override
+    public Token getToken(int lookahead) {
+        int i = at(lookahead);
+        return new Token(TokenTypes.fromIndex(buffer.getType(i)), buffer.getText(i),
+                buffer.getStart(i), buffer.getLength(i));
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void advance() {
+        if (index < buffer.size() - 1) {
+            index++;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package org.example.lexer;
 
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+
 import static org.example.lexer.TokenTypes.CoreTokenType;
 
 import java.util.*;
@@ -10,6 +13,8 @@ public class Lexer {
     private int position;
     private char currentChar;
     private final OperatorRegistry operatorRegistry;
+    // Start of every token, as the operator tokens of tokenSource() are shared and carry no position
+    private int[] positions = new int[16];
 
     public Lexer(String input, OperatorRegistry operatorRegistry) {
         this.input = input;
@@ -55,7 +60,25 @@ public class Lexer {
         return result.toString();
     }
 
+    /**
+     * Split the input into tokens, ending with EOF
+     * The start of every token is also available from {@link #getPositions()} afterwards.
+     */
     public List<Token> tokenize() {
+        return scan(false);
+    }
+
+    /**
+     * Split the input into tokens for the parser
+     * Operator tokens are shared by all their occurrences, so lexing an operator does not
+     * allocate; the source takes their positions from the lexer's position table.
+     */
+    public TokenSource tokenSource() {
+        List<Token> tokens = scan(true);
+        return new ListTokenSource(tokens, positions);
+    }
+
+    private List<Token> scan(boolean sharedOperators) {
         List<Token> tokens = new ArrayList<>();
 
         while (currentChar != '\0') {
@@ -66,33 +89,50 @@ public class Lexer {
 
             if (Character.isDigit(currentChar)) {
                 String number = readNumber();
-                tokens.add(new Token(CoreTokenType.NUMBER, number, tokenStart));
+                add(tokens, new Token(CoreTokenType.NUMBER, number, tokenStart), tokenStart);
             } else if (isValidIdentifierStart(currentChar)) {
                 String identifier = readIdentifier();
-                tokens.add(new Token(CoreTokenType.IDENTIFIER, identifier, tokenStart));
+                add(tokens, new Token(CoreTokenType.IDENTIFIER, identifier, tokenStart), tokenStart);
             } else {
                 // Try to recognize an operator using the instance registry
-                Token operatorToken = operatorRegistry.recognizeOperator(input, position);
+                Token operatorToken = sharedOperators
+                        ? operatorRegistry.recognizeSharedOperator(input, position)
+                        : operatorRegistry.recognizeOperator(input, position);
                 if (operatorToken != null) {
                     // Advance position by the length of the matched operator
                     for (int i = 0; i < operatorToken.length; i++) {
                         advance();
                     }
-                    tokens.add(operatorToken);
+                    add(tokens, operatorToken, tokenStart);
                 } else if (currentChar == '(') {
                     advance();
-                    tokens.add(new Token(CoreTokenType.LPAREN, "(", tokenStart));
+                    add(tokens, new Token(CoreTokenType.LPAREN, "(", tokenStart), tokenStart);
                 } else if (currentChar == ')') {
                     advance();
-                    tokens.add(new Token(CoreTokenType.RPAREN, ")", tokenStart));
+                    add(tokens, new Token(CoreTokenType.RPAREN, ")", tokenStart), tokenStart);
                 } else {
-                    throw new RuntimeException("Unexpected character: " + currentChar + " at position " + position);
+                    throw new CalculatorError(ErrorMessages.UNEXPECTED_CHARACTER, position, currentChar);
                 }
             }
         }
 
-        tokens.add(new Token(CoreTokenType.EOF, "", position));
+        add(tokens, new Token(CoreTokenType.EOF, "", position), position);
         return tokens;
     }
 
+    private void add(List<Token> tokens, Token token, int start) {
+        if (tokens.size() == positions.length) {
+            positions = Arrays.copyOf(positions, positions.length * 2);
+        }
+        positions[tokens.size()] = start;
+        tokens.add(token);
+    }
+
+    /**
+     * @return the start of each token returned by the last {@link #tokenize()}, by token index
+     */
+    public int[] getPositions() {
+        return positions;
+    }
+
 }
@@ -0,0 +1,21 @@
+package org.example.lexer;
+
+/**
+ * Front-end modes for turning expression text into tokens
+ */
+public enum LexerMode {
+    /**
+     * Classic {@link Lexer} producing a list of Token objects
+     */
+    TOKEN_LIST,
+
+    /**
+     * {@link TokenScanner} writing into a reusable {@link TokenBuffer}; no per-token allocation
+     */
+    PRIMITIVE_BUFFER,
+
+    /**
+     * {@link StreamingTokenSource} lexing lazily as the parser pulls tokens; no token list at all
+     */
+    STREAMING
+}
@@ -0,0 +1,82 @@
+package org.example.lexer;
+
+import java.util.List;
+
+/**
+ * Token source over a token list produced by a {@link Lexer}
+ * Positions come from the lexer's position table when one is given, since the
+ * lexer's operator tokens are shared and carry no position of their own.
+ */
+public class ListTokenSource implements TokenSource {
+    private final List<Token> tokens;
+    private final int[] positions;
+    private int index;
+
+    public ListTokenSource(List<Token> tokens) {
+        this(tokens, 0);
+    }
+
+    public ListTokenSource(List<Token> tokens, int index) {
+        this(tokens, null, index);
+    }
+
+    /**
+     * @param positions the start of each token, as from {@link Lexer#getPositions()}
+     */
+    public ListTokenSource(List<Token> tokens, int[] positions) {
+        this(tokens, positions, 0);
+    }
+
+    public ListTokenSource(List<Token> tokens, int[] positions, int index) {
+        this.tokens = tokens;
+        this.positions = positions;
+        this.index = index;
+    }
+
+    private int tokenIndex(int lookahead) {
+        return Math.min(index + lookahead, tokens.size() - 1);
+    }
+
+    /**
+     * Get a token; a shared token is copied with its position here
+     */
+    @Override
+    public Token getToken(int lookahead) {
+        Token token = tokens.get(tokenIndex(lookahead));
+        int position = getPosition(lookahead);
+        return token.position == position ? token : new Token(token.type, token.value, position, token.length);
+    }
+
+    @Override
+    public TokenType getType(int lookahead) {
+        return tokens.get(tokenIndex(lookahead)).type;
+    }
+
+    @Override
+    public int getPosition(int lookahead) {
+        int i = tokenIndex(lookahead);
+        return positions != null ? positions[i] : tokens.get(i).position;
+    }
+
+    @Override
+    public String getText(int lookahead) {
+        return tokens.get(tokenIndex(lookahead)).value;
+    }
+
+    @Override
+    public int getIntValue(int lookahead) {
+        return Integer.parseInt(tokens.get(tokenIndex(lookahead)).value);
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void advance() {
+        if (index < tokens.size() - 1) {
+            index++;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.example.lexer;
 import org.example.errors.ErrorMessages;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -11,6 +12,7 @@ import java.util.List;
  */
 public class OperatorRegistry {
     private final List<OperatorInfo> sortedOperators = new ArrayList<>();
+    private OperatorTrie matcher;
 
     /**
      * Register a new operator pattern
@@ -30,6 +32,31 @@ public class OperatorRegistry {
 
         // Insert into sorted list in correct position (longest first)
         insertInSortedOrder(operatorInfo);
+
+        // Registration changed the operator set; the matcher is rebuilt on next use
+        matcher = null;
+    }
+
+    /**
+     * Build the immutable operator matcher
+     * Called once configuration finishes so that lexing never pays the build cost
+     */
+    public void build() {
+        matcher = new OperatorTrie(sortedOperators);
+    }
+
+    /**
+     * Get the registered operators, longest pattern first
+     */
+    public List<OperatorInfo> getOperators() {
+        return Collections.unmodifiableList(sortedOperators);
+    }
+
+    private OperatorTrie getMatcher() {
+        if (matcher == null) {
+            build();
+        }
+        return matcher;
     }
 
     /**
@@ -60,12 +87,26 @@ public class OperatorRegistry {
      * @return Token if an operator was found, null otherwise
      */
     public Token recognizeOperator(String input, int position) {
-        for (OperatorInfo op : sortedOperators) {
-            if (position + op.pattern.length() <= input.length() &&
-                    input.regionMatches(position, op.pattern, 0, op.pattern.length())) {
-                return new Token(op.tokenType, op.pattern, position, op.pattern.length());
-            }
-        }
-        return null;
+        OperatorInfo operator = getMatcher().match(input, position);
+        return operator != null ? new Token(operator.tokenType, operator.pattern, position) : null;
+    }
+
+    /**
+     * Like {@link #recognizeOperator}, but returns the token shared by every occurrence of
+     * the operator, with position {@link Token#NO_POSITION}; the caller keeps track of where it was found
+     */
+    Token recognizeSharedOperator(String input, int position) {
+        return getMatcher().matchToken(input, position);
+    }
+
+    /**
+     * Find the longest operator at the given position without creating a token
+     *
+     * @param input    the input characters
+     * @param position the current position in the input
+     * @return the matched operator, or null if none matches
+     */
+    public OperatorInfo matchOperator(CharSequence input, int position) {
+        return getMatcher().match(input, position);
     }
 }
@@ -0,0 +1,105 @@
+package org.example.lexer;
+
+import java.util.List;
+
+/**
+ * Immutable character trie over the registered operator patterns
+ * Finds the longest operator at a position in O(operator length), and hands out
+ * one pre-built token per operator so recognizing an operator does not allocate.
+ */
+class OperatorTrie {
+    private final Node root;
+
+    OperatorTrie(List<OperatorInfo> operators) {
+        this.root = new Node();
+        for (OperatorInfo operator : operators) {
+            insert(operator);
+        }
+    }
+
+    private void insert(OperatorInfo operator) {
+        Node node = root;
+        for (int i = 0; i < operator.pattern.length(); i++) {
+            node = node.childOrCreate(operator.pattern.charAt(i));
+        }
+        // Keep the first registration of a pattern, as the sorted scan did
+        if (node.operator == null) {
+            node.operator = operator;
+            node.token = new Token(operator.tokenType, operator.pattern, Token.NO_POSITION, operator.pattern.length());
+        }
+    }
+
+    /**
+     * Find the longest operator starting at the given position
+     *
+     * @return the matched operator, or null if none matches
+     */
+    OperatorInfo match(CharSequence input, int position) {
+        Node node = match(root, input, position);
+        return node != null ? node.operator : null;
+    }
+
+    /**
+     * Find the longest operator starting at the given position and return its shared token
+     *
+     * @return the operator token, with position {@link Token#NO_POSITION}, or null if none matches
+     */
+    Token matchToken(CharSequence input, int position) {
+        Node node = match(root, input, position);
+        return node != null ? node.token : null;
+    }
+
+    private static Node match(Node root, CharSequence input, int position) {
+        Node node = root;
+        Node longest = null;
+        for (int i = position; i < input.length(); i++) {
+            node = node.child(input.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.operator != null) {
+                longest = node;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Trie node with children indexed by (character - firstChar)
+     */
+    private static final class Node {
+        private char firstChar;
+        private Node[] children;
+        private OperatorInfo operator;
+        private Token token;
+
+        Node child(char c) {
+            if (children == null) {
+                return null;
+            }
+            int index = c - firstChar;
+            return index >= 0 && index < children.length ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            if (children == null) {
+                firstChar = c;
+                children = new Node[1];
+            } else if (c < firstChar) {
+                Node[] grown = new Node[children.length + (firstChar - c)];
+                System.arraycopy(children, 0, grown, firstChar - c, children.length);
+                children = grown;
+                firstChar = c;
+            } else if (c - firstChar >= children.length) {
+                Node[] grown = new Node[c - firstChar + 1];
+                System.arraycopy(children, 0, grown, 0, children.length);
+                children = grown;
+            }
+            int index = c - firstChar;
+            if (children[index] == null) {
+                children[index] = new Node();
+            }
+            return children[index];
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.lexer;
+
+import org.example.errors.ErrorMessages;
+
+import static org.example.lexer.TokenTypes.CoreTokenType;
+
+/**
+ * Token source that lexes on demand while the parser consumes tokens
+ * Only the current token and a bounded number of lookahead tokens are kept,
+ * in a small ring of primitive slots, so the token list of a line is never
+ * materialized and memory use does not depend on the line length.
+ * <p>
+ * Reusable via {@link #reset(CharSequence)}; meant to be owned by a single thread.
+ */
+public class StreamingTokenSource implements TokenSource {
+    /**
+     * Largest lookahead the source supports (0 = current token)
+     */
+    public static final int MAX_LOOKAHEAD = 3;
+
+    private static final int CAPACITY = 4;
+    private static final int MASK = CAPACITY - 1;
+    private static final int EOF = CoreTokenType.EOF.index();
+
+    private final TokenScanner scanner;
+    private final int[] types = new int[CAPACITY];
+    private final int[] starts = new int[CAPACITY];
+    private final int[] lengths = new int[CAPACITY];
+    private final int[] values = new int[CAPACITY];
+    private final boolean[] overflows = new boolean[CAPACITY];
+
+    private int head;
+    private int buffered;
+    private int index;
+    private boolean eofScanned;
+
+    public StreamingTokenSource(OperatorRegistry operatorRegistry) {
+        this.scanner = new TokenScanner(operatorRegistry);
+    }
+
+    /**
+     * Start streaming tokens from a new input
+     */
+    public void reset(CharSequence input) {
+        scanner.reset(input);
+        head = 0;
+        buffered = 0;
+        index = 0;
+        eofScanned = false;
+    }
+
+    private int slot(int lookahead) {
+        if (lookahead > MAX_LOOKAHEAD) {
+            throw new IllegalArgumentException(ErrorMessages.LOOKAHEAD_EXCEEDED.getMessage(lookahead));
+        }
+        while (buffered <= lookahead) {
+            if (eofScanned) {
+                // Looking past the end yields the EOF token
+                return (head + buffered - 1) & MASK;
+            }
+            scanNext();
+        }
+        return (head + lookahead) & MASK;
+    }
+
+    private void scanNext() {
+        int slot = (head + buffered) & MASK;
+        int type = scanner.next();
+        types[slot] = type;
+        starts[slot] = scanner.getStart();
+        lengths[slot] = scanner.getLength();
+        values[slot] = scanner.getIntValue();
+        overflows[slot] = scanner.hasIntOverflow();
+        buffered++;
+        eofScanned = type == EOF;
+    }
+
+    @Override
+    public TokenType getType(int lookahead) {
+        return TokenTypes.fromIndex(types[slot(lookahead)]);
+    }
+
+    @Override
+    public int getPosition(int lookahead) {
+        return starts[slot(lookahead)];
+    }
+
+    @Override
+    public String getText(int lookahead) {
+        int slot = slot(lookahead);
+        return scanner.getInput().subSequence(starts[slot], starts[slot] + lengths[slot]).toString();
+    }
+
+    @Override
+    public int getIntValue(int lookahead) {
+        int slot = slot(lookahead);
+        if (overflows[slot]) {
+            // Re-parse from text to raise the same error as the list-based path
+            return Integer.parseInt(getText(lookahead));
+        }
+        return values[slot];
+    }
+
+    @Override
+    public Token getToken(int lookahead) {
+        return new Token(getType(lookahead), getText(lookahead), getPosition(lookahead), lengths[slot(lookahead)]);
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void advance() {
+        int current = slot(0);
+        if (types[current] == EOF) {
+            return;
+        }
+        head = (head + 1) & MASK;
+        buffered--;
+        index++;
+    }
+
+    /**
+     * Scan the rest of the input without keeping the tokens
+     * The classic lexer tokenizes a whole line before parsing, so it reports an
+     * unexpected character even where the parser would stop early or fail first.
+     * Draining after parsing keeps those errors identical.
+     */
+    public void drain() {
+        while (!eofScanned) {
+            eofScanned = scanner.next() == EOF;
+        }
+    }
+}
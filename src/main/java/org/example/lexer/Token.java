@@ -1,6 +1,11 @@
 package org.example.lexer;
 
 public class Token {
+    /**
+     * Position of tokens shared by all their occurrences, such as the operator tokens of {@link Lexer#tokenSource()}
+     */
+    public static final int NO_POSITION = -1;
+
     public final TokenType type;
     public final String value;
     public final int position;
@@ -0,0 +1,90 @@
+package org.example.lexer;
+
+import java.util.Arrays;
+
+/**
+ * Reusable struct-of-arrays token storage
+ * Holds the tokens of one line as parallel primitive arrays: type indexes,
+ * start offsets, lengths and pre-decoded int literal values. The arrays only
+ * grow, so refilling a buffer in steady state does not allocate.
+ */
+public final class TokenBuffer {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private CharSequence source;
+    private int size;
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] values = new int[INITIAL_CAPACITY];
+    private boolean[] overflows = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * Tokenize an input into this buffer, replacing its previous contents
+     * The last token is always EOF.
+     */
+    public void fill(TokenScanner scanner, CharSequence input) {
+        this.source = input;
+        this.size = 0;
+        scanner.reset(input);
+
+        int eof = TokenTypes.CoreTokenType.EOF.index();
+        int type;
+        do {
+            type = scanner.next();
+            ensureCapacity(size + 1);
+            types[size] = type;
+            starts[size] = scanner.getStart();
+            lengths[size] = scanner.getLength();
+            values[size] = scanner.getIntValue();
+            overflows[size] = scanner.hasIntOverflow();
+            size++;
+        } while (type != eof);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > types.length) {
+            int newCapacity = Math.max(capacity, types.length * 2);
+            types = Arrays.copyOf(types, newCapacity);
+            starts = Arrays.copyOf(starts, newCapacity);
+            lengths = Arrays.copyOf(lengths, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            overflows = Arrays.copyOf(overflows, newCapacity);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CharSequence getSource() {
+        return source;
+    }
+
+    public int getType(int index) {
+        return types[index];
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    public int getIntValue(int index) {
+        return values[index];
+    }
+
+    public boolean hasIntOverflow(int index) {
+        return overflows[index];
+    }
+
+    /**
+     * Get the source text of a token (allocates a new String)
+     */
+    public String getText(int index) {
+        return source.subSequence(starts[index], starts[index] + lengths[index]).toString();
+    }
+}
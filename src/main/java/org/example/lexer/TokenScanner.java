@@ -0,0 +1,140 @@
+package org.example.lexer;
+
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+
+import static org.example.lexer.TokenTypes.CoreTokenType;
+
+/**
+ * Allocation-free scanner that produces one token at a time
+ * The current token is described by primitive fields (type index, start, length
+ * and decoded int value) instead of a Token object. A scanner is reusable and
+ * meant to be owned by a single thread.
+ */
+public final class TokenScanner {
+    private static final int LPAREN = CoreTokenType.LPAREN.index();
+    private static final int RPAREN = CoreTokenType.RPAREN.index();
+    private static final int NUMBER = CoreTokenType.NUMBER.index();
+    private static final int IDENTIFIER = CoreTokenType.IDENTIFIER.index();
+    private static final int EOF = CoreTokenType.EOF.index();
+
+    private final OperatorRegistry operatorRegistry;
+    private CharSequence input;
+    private int position;
+
+    private int type;
+    private int start;
+    private int length;
+    private int intValue;
+    private boolean intOverflow;
+
+    public TokenScanner(OperatorRegistry operatorRegistry) {
+        this.operatorRegistry = operatorRegistry;
+    }
+
+    /**
+     * Start scanning a new input
+     */
+    public void reset(CharSequence input) {
+        this.input = input;
+        this.position = 0;
+    }
+
+    public CharSequence getInput() {
+        return input;
+    }
+
+    /**
+     * Scan the next token
+     * After the end of input every call produces an EOF token.
+     *
+     * @return the type index of the scanned token
+     */
+    public int next() {
+        int end = input.length();
+        while (position < end && AsciiCharClass.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+
+        start = position;
+        intOverflow = false;
+        if (position >= end) {
+            return setToken(EOF, 0);
+        }
+
+        char c = input.charAt(position);
+        if (AsciiCharClass.isDigit(c)) {
+            return scanNumber(end);
+        }
+        if (AsciiCharClass.isIdentifierStart(c)) {
+            while (position < end && AsciiCharClass.isIdentifierPart(input.charAt(position))) {
+                position++;
+            }
+            return setToken(IDENTIFIER, position - start);
+        }
+
+        OperatorInfo operator = operatorRegistry.matchOperator(input, position);
+        if (operator != null) {
+            position += operator.pattern.length();
+            return setToken(operator.tokenType.index(), operator.pattern.length());
+        }
+        if (c == '(') {
+            position++;
+            return setToken(LPAREN, 1);
+        }
+        if (c == ')') {
+            position++;
+            return setToken(RPAREN, 1);
+        }
+        throw new CalculatorError(ErrorMessages.UNEXPECTED_CHARACTER, position, c);
+    }
+
+    private int scanNumber(int end) {
+        long value = 0;
+        while (position < end && AsciiCharClass.isDigit(input.charAt(position))) {
+            if (!intOverflow) {
+                value = value * 10 + AsciiCharClass.digitValue(input.charAt(position));
+                intOverflow = value > Integer.MAX_VALUE;
+            }
+            position++;
+        }
+        intValue = (int) value;
+        type = NUMBER;
+        length = position - start;
+        return type;
+    }
+
+    private int setToken(int type, int length) {
+        this.type = type;
+        this.length = length;
+        this.intValue = 0;
+        return type;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Get the decoded value of the current NUMBER token
+     */
+    public int getIntValue() {
+        return intValue;
+    }
+
+    /**
+     * Check if the current NUMBER token does not fit in an int
+     * Such literals are re-parsed from text so that the usual NumberFormatException is raised.
+     */
+    public boolean hasIntOverflow() {
+        return intOverflow;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.lexer;
+
+/**
+ * Read access to a sequence of tokens for the parser
+ * Lookahead 0 is the current token; looking past the end yields the EOF token.
+ * Parsers must not look further ahead than {@link StreamingTokenSource#MAX_LOOKAHEAD}.
+ */
+public interface TokenSource {
+
+    TokenType getType(int lookahead);
+
+    int getPosition(int lookahead);
+
+    /**
+     * Get the source text of a token
+     */
+    String getText(int lookahead);
+
+    /**
+     * Get the value of a NUMBER token
+     *
+     * @throws NumberFormatException if the literal does not fit in an int
+     */
+    int getIntValue(int lookahead);
+
+    /**
+     * Get a token as an object; array-backed sources create it on demand
+     */
+    Token getToken(int lookahead);
+
+    /**
+     * Get the index of the current token
+     */
+    int getIndex();
+
+    /**
+     * Move to the next token; stays on EOF once it is reached
+     */
+    void advance();
+}
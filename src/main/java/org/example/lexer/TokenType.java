@@ -12,4 +12,15 @@ public interface TokenType {
      * @return the string representation
      */
     String toString();
+
+    /**
+     * Get the dense index of this token type across all token type categories
+     * The built-in token types have fixed indexes below {@link TokenTypes#COUNT}; other
+     * implementations need not override this and get the next free index when first asked.
+     *
+     * @return the dense index
+     */
+    default int index() {
+        return TokenTypes.indexOf(this);
+    }
 }
@@ -1,5 +1,9 @@
 package org.example.lexer;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Consolidated token types for all calculator types
  * Simple enums without unnecessary complexity
@@ -10,14 +14,24 @@ public class TokenTypes {
      * Core tokens that ALL calculators need
      */
     public enum CoreTokenType implements TokenType {
-        NUMBER, IDENTIFIER, LPAREN, RPAREN, EOF
+        NUMBER, IDENTIFIER, LPAREN, RPAREN, EOF;
+
+        @Override
+        public int index() {
+            return ordinal();
+        }
     }
 
     /**
      * Basic arithmetic tokens for simple calculators
      */
     public enum BasicTokenType implements TokenType {
-        PLUS, MINUS, MULTIPLY, DIVIDE, ASSIGN
+        PLUS, MINUS, MULTIPLY, DIVIDE, ASSIGN;
+
+        @Override
+        public int index() {
+            return BASIC_OFFSET + ordinal();
+        }
     }
 
     /**
@@ -25,6 +39,70 @@ public class TokenTypes {
      */
     public enum AssignTokenType implements TokenType {
         INCREMENT, DECREMENT, PLUS_ASSIGN, MINUS_ASSIGN,
-        MULTIPLY_ASSIGN, DIVIDE_ASSIGN, EQUAL, NOT_EQUAL
+        MULTIPLY_ASSIGN, DIVIDE_ASSIGN, EQUAL, NOT_EQUAL;
+
+        @Override
+        public int index() {
+            return ASSIGN_OFFSET + ordinal();
+        }
+    }
+
+    private static final int BASIC_OFFSET = CoreTokenType.values().length;
+    private static final int ASSIGN_OFFSET = BASIC_OFFSET + BasicTokenType.values().length;
+
+    /**
+     * Number of built-in token types; their indexes are below this value
+     */
+    public static final int COUNT = ASSIGN_OFFSET + AssignTokenType.values().length;
+
+    private static final TokenType[] BY_INDEX = new TokenType[COUNT];
+
+    // Token types defined outside this class, indexed from COUNT in the order they were first seen
+    private static final Map<TokenType, Integer> EXTENSION_INDEXES = new ConcurrentHashMap<>();
+    private static volatile TokenType[] extensions = new TokenType[0];
+
+    static {
+        for (TokenType type : CoreTokenType.values()) BY_INDEX[type.index()] = type;
+        for (TokenType type : BasicTokenType.values()) BY_INDEX[type.index()] = type;
+        for (TokenType type : AssignTokenType.values()) BY_INDEX[type.index()] = type;
+    }
+
+    /**
+     * Get the token type with the given dense index
+     *
+     * @param index the index returned by {@link TokenType#index()}
+     * @return the corresponding token type
+     */
+    public static TokenType fromIndex(int index) {
+        return index < COUNT ? BY_INDEX[index] : extensions[index - COUNT];
+    }
+
+    /**
+     * Get the index of a token type that does not define its own, assigning the next free one
+     */
+    static int indexOf(TokenType type) {
+        Integer index = EXTENSION_INDEXES.get(type);
+        return index != null ? index : assignIndex(type);
+    }
+
+    private static synchronized int assignIndex(TokenType type) {
+        Integer index = EXTENSION_INDEXES.get(type);
+        if (index == null) {
+            index = COUNT + extensions.length;
+            TokenType[] grown = Arrays.copyOf(extensions, extensions.length + 1);
+            grown[extensions.length] = type;
+            extensions = grown;
+            EXTENSION_INDEXES.put(type, index);
+        }
+        return index;
+    }
+
+    /**
+     * Get the number of token types indexed so far, built-in and others
+     * Every index handed out so far is below this value; tables sized by it must still
+     * check indexes, as more token types can be indexed later.
+     */
+    public static int size() {
+        return COUNT + extensions.length;
     }
 }
@@ -0,0 +1,30 @@
+package org.example.operations;
+
+import org.example.errors.CalculatorError;
+
+/**
+ * The arithmetic operations every calculator is configured with
+ * Engines that inline the arithmetic instead of calling the registered operations,
+ * like the bytecode engine, check for these instances before they do.
+ */
+public final class DefaultOperations {
+    public static final BinaryOperation ADD = (left, right) -> left + right;
+    public static final BinaryOperation SUBTRACT = (left, right) -> left - right;
+    public static final BinaryOperation MULTIPLY = (left, right) -> left * right;
+    public static final BinaryOperation DIVIDE = (left, right) -> {
+        if (right == 0) throw CalculatorError.divisionByZero();
+        return left / right;
+    };
+
+    public static final AssignmentOperation ASSIGN = (current, value) -> value;
+    public static final AssignmentOperation ADD_ASSIGN = (current, value) -> current + value;
+    public static final AssignmentOperation SUBTRACT_ASSIGN = (current, value) -> current - value;
+    public static final AssignmentOperation MULTIPLY_ASSIGN = (current, value) -> current * value;
+    public static final AssignmentOperation DIVIDE_ASSIGN = (current, value) -> {
+        if (value == 0) throw CalculatorError.divisionByZero();
+        return current / value;
+    };
+
+    private DefaultOperations() {
+    }
+}
@@ -1,36 +1,63 @@
 package org.example.operations;
 
+import org.example.errors.CalculatorError;
 import org.example.errors.ErrorMessages;
 import org.example.lexer.TokenType;
-import java.util.HashMap;
-import java.util.Map;
+import org.example.lexer.TokenTypes;
+
+import java.util.Arrays;
 
 // Registry for operations - allows extension without modification
+// Operations are stored in arrays indexed by TokenType.index() for single-load lookups
 public class OperationRegistry {
-    private final Map<TokenType, BinaryOperation> binaryOperations = new HashMap<>();
-    private final Map<TokenType, AssignmentOperation> assignmentOperations = new HashMap<>();
+    private BinaryOperation[] binaryOperations = new BinaryOperation[TokenTypes.COUNT];
+    private AssignmentOperation[] assignmentOperations = new AssignmentOperation[TokenTypes.COUNT];
     
     public void registerBinaryOperation(TokenType tokenType, BinaryOperation operation) {
-        binaryOperations.put(tokenType, operation);
+        int index = tokenType.index();
+        if (index >= binaryOperations.length) {
+            binaryOperations = Arrays.copyOf(binaryOperations, TokenTypes.size());
+        }
+        binaryOperations[index] = operation;
     }
     
     public void registerAssignmentOperation(TokenType tokenType, AssignmentOperation operation) {
-        assignmentOperations.put(tokenType, operation);
+        int index = tokenType.index();
+        if (index >= assignmentOperations.length) {
+            assignmentOperations = Arrays.copyOf(assignmentOperations, TokenTypes.size());
+        }
+        assignmentOperations[index] = operation;
     }
     
     public BinaryOperation getBinaryOperation(TokenType tokenType) {
-        BinaryOperation operation = binaryOperations.get(tokenType);
+        BinaryOperation operation = findBinaryOperation(tokenType);
         if (operation == null) {
-            throw new RuntimeException(ErrorMessages.UNKNOWN_OPERATOR.getMessage() + tokenType);
+            throw new CalculatorError(ErrorMessages.UNKNOWN_OPERATOR, tokenType);
         }
         return operation;
     }
     
     public AssignmentOperation getAssignmentOperation(TokenType tokenType) {
-        AssignmentOperation operation = assignmentOperations.get(tokenType);
+        AssignmentOperation operation = findAssignmentOperation(tokenType);
         if (operation == null) {
-            throw new RuntimeException(ErrorMessages.UNKNOWN_OPERATOR.getMessage() + tokenType);
+            throw new CalculatorError(ErrorMessages.UNKNOWN_OPERATOR, tokenType);
         }
         return operation;
     }
+
+    /**
+     * Get the binary operation for a token type, or null if none is registered
+     */
+    public BinaryOperation findBinaryOperation(TokenType tokenType) {
+        int index = tokenType.index();
+        return index < binaryOperations.length ? binaryOperations[index] : null;
+    }
+
+    /**
+     * Get the assignment operation for a token type, or null if none is registered
+     */
+    public AssignmentOperation findAssignmentOperation(TokenType tokenType) {
+        int index = tokenType.index();
+        return index < assignmentOperations.length ? assignmentOperations[index] : null;
+    }
 }
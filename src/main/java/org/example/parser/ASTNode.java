@@ -1,9 +1,14 @@
 package org.example.parser;
 
 import org.example.calculator.VariableStore;
+import org.example.engine.CompiledExpression;
 import org.example.operations.OperationRegistry;
 
 // AST Node hierarchy - Base class
-public abstract class ASTNode {
+// An AST is immutable and can be evaluated directly as the interpreter's compiled form
+public abstract class ASTNode implements CompiledExpression {
+    @Override
     public abstract int evaluate(VariableStore store, OperationRegistry operationRegistry);
+
+    public abstract <R> R accept(ASTVisitor<R> visitor);
 }
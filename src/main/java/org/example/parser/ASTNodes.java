@@ -14,27 +14,47 @@ class NumberNode extends ASTNode {
         this.value = value;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitNumber(value);
+    }
+
     @Override
     public int evaluate(VariableStore store, OperationRegistry operationRegistry) {
         return value;
     }
+
+    public int getValue() {
+        return value;
+    }
 }
 
 class VariableNode extends ASTNode {
     private final String name;
+    private final int slot;
 
-    public VariableNode(String name) {
+    public VariableNode(String name, int slot) {
         this.name = name;
+        this.slot = slot;  // Resolved once at parse time
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitVariable(name, slot);
     }
 
     @Override
     public int evaluate(VariableStore store, OperationRegistry operationRegistry) {
-        return store.getValue(name);
+        return store.getValue(slot);
     }
 
     public String getName() {
         return name;
     }
+
+    public int getSlot() {
+        return slot;
+    }
 }
 
 class BinaryOpNode extends ASTNode {
@@ -43,11 +63,20 @@ class BinaryOpNode extends ASTNode {
     private final BinaryOperator operator;
 
     public BinaryOpNode(ASTNode left, TokenType tokenType, ASTNode right) {
+        this(left, BinaryOperator.fromTokenType(tokenType), right);  // Convert TokenType to BinaryOperator
+    }
+
+    public BinaryOpNode(ASTNode left, BinaryOperator operator, ASTNode right) {
         this.left = left;
-        this.operator = BinaryOperator.fromTokenType(tokenType);  // Convert TokenType to BinaryOperator
+        this.operator = operator;
         this.right = right;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitBinary(operator, left, right);
+    }
+
     @Override
     public int evaluate(VariableStore store, OperationRegistry operationRegistry) {
         int leftVal = left.evaluate(store, operationRegistry);
@@ -60,68 +89,125 @@ class BinaryOpNode extends ASTNode {
     public BinaryOperator getOperator() {
         return operator;
     }
+
+    public ASTNode getLeft() {
+        return left;
+    }
+
+    public ASTNode getRight() {
+        return right;
+    }
 }
 
 class AssignmentNode extends ASTNode {
     private final String variable;
+    private final int slot;
     private final ASTNode expression;
     private final AssignmentOperator assignOperator;
 
-    public AssignmentNode(String variable, AssignmentOperator assignOperator, ASTNode expression) {
+    public AssignmentNode(String variable, int slot, AssignmentOperator assignOperator, ASTNode expression) {
         this.variable = variable;
+        this.slot = slot;
         this.assignOperator = assignOperator;  // Direct assignment, no conversion needed
         this.expression = expression;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitAssignment(variable, slot, assignOperator, expression);
+    }
+
     @Override
     public int evaluate(VariableStore store, OperationRegistry operationRegistry) {
         int value = expression.evaluate(store, operationRegistry);
-        int current = store.getValue(variable);
+        int current = store.getValue(slot);
 
         AssignmentOperation operation = operationRegistry.getAssignmentOperation(assignOperator.getTokenType());
         int newValue = operation.execute(current, value);
 
-        store.assign(variable, newValue);
+        store.assign(slot, newValue);
         return newValue;
     }
 
     public AssignmentOperator getAssignmentOperator() {
         return assignOperator;
     }
+
+    public String getVariable() {
+        return variable;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public ASTNode getExpression() {
+        return expression;
+    }
 }
 
 class PreIncrementNode extends ASTNode {
     private final String variable;
+    private final int slot;
     private final boolean isIncrement;
 
-    public PreIncrementNode(String variable, boolean isIncrement) {
+    public PreIncrementNode(String variable, int slot, boolean isIncrement) {
         this.variable = variable;
+        this.slot = slot;
         this.isIncrement = isIncrement;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitPreIncrement(variable, slot, isIncrement);
+    }
+
+    public String getVariable() {
+        return variable;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
     @Override
     public int evaluate(VariableStore store, OperationRegistry operationRegistry) {
-        int current = store.getValue(variable);
+        int current = store.getValue(slot);
         int newValue = isIncrement ? current + 1 : current - 1;
-        store.assign(variable, newValue);
+        store.assign(slot, newValue);
         return newValue;
     }
 }
 
 class PostIncrementNode extends ASTNode {
     private final String variable;
+    private final int slot;
     private final boolean isIncrement;
 
-    public PostIncrementNode(String variable, boolean isIncrement) {
+    public PostIncrementNode(String variable, int slot, boolean isIncrement) {
         this.variable = variable;
+        this.slot = slot;
         this.isIncrement = isIncrement;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitPostIncrement(variable, slot, isIncrement);
+    }
+
+    public String getVariable() {
+        return variable;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
     @Override
     public int evaluate(VariableStore store, OperationRegistry operationRegistry) {
-        int current = store.getValue(variable);
+        int current = store.getValue(slot);
         int newValue = isIncrement ? current + 1 : current - 1;
-        store.assign(variable, newValue);
+        store.assign(slot, newValue);
         return current; // Return original value for post-increment
     }
 }
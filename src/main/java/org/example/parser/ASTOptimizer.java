@@ -0,0 +1,173 @@
+package org.example.parser;
+
+import org.example.operations.BinaryOperation;
+
+/**
+ * Rewrites a parsed AST into a cheaper equivalent before it is compiled
+ * <p>
+ * Constant subexpressions are folded with the calculator's own operations; a fold
+ * that throws (such as a division by zero) is left in place so the error is still
+ * raised at evaluation. Constants are moved to the right of + and * and merged
+ * across chains like {@code (x + 3) + 4}. Identities such as {@code x + 0},
+ * {@code x * 1} and {@code x / 1} are removed, {@code x * 0} is folded only when
+ * {@code x} can neither throw nor write a variable, and {@code x * 2} on a variable
+ * becomes {@code x + x}.
+ * <p>
+ * Like the bytecode compiler, the identities assume the int arithmetic configured by
+ * CalculatorConfiguration. Operators without a registered operation are left as they
+ * are, so they still fail with an unknown-operator error.
+ */
+public final class ASTOptimizer implements ASTVisitor<ASTNode> {
+    private final OperatorTable operatorTable;
+    private final SideEffects sideEffects;
+
+    public ASTOptimizer(OperatorTable operatorTable) {
+        this.operatorTable = operatorTable;
+        this.sideEffects = new SideEffects(operatorTable);
+    }
+
+    public ASTNode optimize(ASTNode ast) {
+        return ast.accept(this);
+    }
+
+    @Override
+    public ASTNode visitNumber(int value) {
+        return new NumberNode(value);
+    }
+
+    @Override
+    public ASTNode visitVariable(String name, int slot) {
+        return new VariableNode(name, slot);
+    }
+
+    @Override
+    public ASTNode visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+        ASTNode optimizedLeft = left.accept(this);
+        ASTNode optimizedRight = right.accept(this);
+        if (!sideEffects.hasOperation(operator)) {
+            return new BinaryOpNode(optimizedLeft, operator, optimizedRight);
+        }
+        return simplify(operator, optimizedLeft, optimizedRight);
+    }
+
+    @Override
+    public ASTNode visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+        return new AssignmentNode(variable, slot, operator, expression.accept(this));
+    }
+
+    @Override
+    public ASTNode visitPreIncrement(String variable, int slot, boolean isIncrement) {
+        return new PreIncrementNode(variable, slot, isIncrement);
+    }
+
+    @Override
+    public ASTNode visitPostIncrement(String variable, int slot, boolean isIncrement) {
+        return new PostIncrementNode(variable, slot, isIncrement);
+    }
+
+    /**
+     * Simplify a binary node whose operands are already optimized
+     */
+    private ASTNode simplify(BinaryOperator operator, ASTNode left, ASTNode right) {
+        if (left instanceof NumberNode && right instanceof NumberNode) {
+            return fold(operator, left, right);
+        }
+
+        switch (operator) {
+            case PLUS:
+                if (isConstant(left)) {
+                    return simplifyPlus(right, value(left));
+                }
+                if (isConstant(right)) {
+                    return simplifyPlus(left, value(right));
+                }
+                break;
+            case MINUS:
+                if (isConstant(right)) {
+                    return simplifyPlus(left, -value(right));
+                }
+                if (isSameVariable(left, right)) {
+                    return new NumberNode(0);
+                }
+                break;
+            case MULTIPLY:
+                if (isConstant(left)) {
+                    return simplifyMultiply(right, value(left));
+                }
+                if (isConstant(right)) {
+                    return simplifyMultiply(left, value(right));
+                }
+                break;
+            case DIVIDE:
+                if (isConstant(right) && value(right) == 1) {
+                    return left;
+                }
+                if (isConstant(right) && value(right) == -1) {
+                    return new BinaryOpNode(new NumberNode(0), BinaryOperator.MINUS, left);
+                }
+                break;
+        }
+        return new BinaryOpNode(left, operator, right);
+    }
+
+    /**
+     * operand + constant, merging into an operand of the form x + c
+     */
+    private ASTNode simplifyPlus(ASTNode operand, int constant) {
+        if (constant == 0) {
+            return operand;
+        }
+        if (operand instanceof BinaryOpNode) {
+            BinaryOpNode binary = (BinaryOpNode) operand;
+            if (binary.getOperator() == BinaryOperator.PLUS && isConstant(binary.getRight())) {
+                return simplifyPlus(binary.getLeft(), value(binary.getRight()) + constant);
+            }
+        }
+        return new BinaryOpNode(operand, BinaryOperator.PLUS, new NumberNode(constant));
+    }
+
+    /**
+     * operand * constant, merging into an operand of the form x * c
+     */
+    private ASTNode simplifyMultiply(ASTNode operand, int constant) {
+        if (constant == 1) {
+            return operand;
+        }
+        if (constant == 0 && sideEffects.isSafe(operand)) {
+            return new NumberNode(0);
+        }
+        if (constant == 2 && operand instanceof VariableNode) {
+            return new BinaryOpNode(operand, BinaryOperator.PLUS, operand);
+        }
+        if (operand instanceof BinaryOpNode) {
+            BinaryOpNode binary = (BinaryOpNode) operand;
+            if (binary.getOperator() == BinaryOperator.MULTIPLY && isConstant(binary.getRight())) {
+                return simplifyMultiply(binary.getLeft(), value(binary.getRight()) * constant);
+            }
+        }
+        return new BinaryOpNode(operand, BinaryOperator.MULTIPLY, new NumberNode(constant));
+    }
+
+    private ASTNode fold(BinaryOperator operator, ASTNode left, ASTNode right) {
+        BinaryOperation operation = operatorTable.getBinaryOperation(operator.getTokenType().index());
+        try {
+            return new NumberNode(operation.execute(value(left), value(right)));
+        } catch (RuntimeException e) {
+            // Keep the node so the same error is raised when it is evaluated
+            return new BinaryOpNode(left, operator, right);
+        }
+    }
+
+    private static boolean isConstant(ASTNode node) {
+        return node instanceof NumberNode;
+    }
+
+    private static int value(ASTNode node) {
+        return ((NumberNode) node).getValue();
+    }
+
+    private static boolean isSameVariable(ASTNode left, ASTNode right) {
+        return left instanceof VariableNode && right instanceof VariableNode
+                && ((VariableNode) left).getName().equals(((VariableNode) right).getName());
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.parser;
+
+/**
+ * Visitor over the AST node hierarchy
+ * Lets compilers and analysis passes outside this package walk an AST
+ * without depending on the package-private node classes. Variables come with
+ * the slot they were resolved to in the SymbolTable the AST was parsed against.
+ *
+ * @param <R> the result type of the visit
+ */
+public interface ASTVisitor<R> {
+
+    R visitNumber(int value);
+
+    R visitVariable(String name, int slot);
+
+    R visitBinary(BinaryOperator operator, ASTNode left, ASTNode right);
+
+    R visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression);
+
+    R visitPreIncrement(String variable, int slot, boolean isIncrement);
+
+    R visitPostIncrement(String variable, int slot, boolean isIncrement);
+}
@@ -1,6 +1,9 @@
 package org.example.parser;
 
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
 import org.example.lexer.TokenType;
+import org.example.lexer.TokenTypes;
 import static org.example.lexer.TokenTypes.BasicTokenType;
 import static org.example.lexer.TokenTypes.AssignTokenType;
 
@@ -13,7 +16,20 @@ public enum AssignmentOperator {
     MINUS_ASSIGN(AssignTokenType.MINUS_ASSIGN),
     MULTIPLY_ASSIGN(AssignTokenType.MULTIPLY_ASSIGN),
     DIVIDE_ASSIGN(AssignTokenType.DIVIDE_ASSIGN);
-    
+
+    private static final AssignmentOperator[] BY_TOKEN_INDEX = new AssignmentOperator[TokenTypes.COUNT];
+
+    static {
+        for (AssignmentOperator op : values()) {
+            BY_TOKEN_INDEX[op.tokenType.index()] = op;
+        }
+    }
+
+    private static AssignmentOperator byTokenType(TokenType tokenType) {
+        int index = tokenType.index();
+        return index < BY_TOKEN_INDEX.length ? BY_TOKEN_INDEX[index] : null;
+    }
+
     private final TokenType tokenType;
     
     AssignmentOperator(TokenType tokenType) {
@@ -31,12 +47,11 @@ public enum AssignmentOperator {
      * @throws RuntimeException if tokenType is not an assignment operator
      */
     public static AssignmentOperator fromTokenType(TokenType tokenType) {
-        for (AssignmentOperator op : values()) {
-            if (op.tokenType == tokenType) {
-                return op;
-            }
+        AssignmentOperator op = byTokenType(tokenType);
+        if (op == null) {
+            throw new CalculatorError(ErrorMessages.NOT_ASSIGNMENT_OPERATOR, tokenType);
         }
-        throw new RuntimeException("Not an assignment operator: " + tokenType);
+        return op;
     }
     
     /**
@@ -45,11 +60,6 @@ public enum AssignmentOperator {
      * @return true if it's an assignment operator, false otherwise
      */
     public static boolean isAssignmentOperator(TokenType tokenType) {
-        for (AssignmentOperator op : values()) {
-            if (op.tokenType == tokenType) {
-                return true;
-            }
-        }
-        return false;
+        return byTokenType(tokenType) != null;
     }
 }
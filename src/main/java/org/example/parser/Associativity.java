@@ -0,0 +1,9 @@
+package org.example.parser;
+
+/**
+ * Grouping direction of binary operators with equal precedence
+ */
+public enum Associativity {
+    LEFT,
+    RIGHT
+}
@@ -1,6 +1,9 @@
 package org.example.parser;
 
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
 import org.example.lexer.TokenType;
+import org.example.lexer.TokenTypes;
 
 import static org.example.lexer.TokenTypes.BasicTokenType;
 
@@ -11,18 +14,33 @@ public enum BinaryOperator {
     // Highest precedence (evaluated first) - lower numbers = higher precedence
 
     // Higher precedence  
-    MULTIPLY(1, BasicTokenType.MULTIPLY),
-    DIVIDE(1, BasicTokenType.DIVIDE),
+    MULTIPLY(1, Associativity.LEFT, BasicTokenType.MULTIPLY),
+    DIVIDE(1, Associativity.LEFT, BasicTokenType.DIVIDE),
 
     // Lower precedence (evaluated later)  
-    PLUS(2, BasicTokenType.PLUS),
-    MINUS(2, BasicTokenType.MINUS);
+    PLUS(2, Associativity.LEFT, BasicTokenType.PLUS),
+    MINUS(2, Associativity.LEFT, BasicTokenType.MINUS);
+
+    private static final BinaryOperator[] BY_TOKEN_INDEX = new BinaryOperator[TokenTypes.COUNT];
+
+    static {
+        for (BinaryOperator op : values()) {
+            BY_TOKEN_INDEX[op.tokenType.index()] = op;
+        }
+    }
+
+    private static BinaryOperator byTokenType(TokenType tokenType) {
+        int index = tokenType.index();
+        return index < BY_TOKEN_INDEX.length ? BY_TOKEN_INDEX[index] : null;
+    }
 
     private final int precedence;
+    private final Associativity associativity;
     private final TokenType tokenType;
 
-    BinaryOperator(int precedence, TokenType tokenType) {
+    BinaryOperator(int precedence, Associativity associativity, TokenType tokenType) {
         this.precedence = precedence;
+        this.associativity = associativity;
         this.tokenType = tokenType;
     }
 
@@ -30,6 +48,14 @@ public enum BinaryOperator {
         return tokenType;
     }
 
+    public int getPrecedence() {
+        return precedence;
+    }
+
+    public Associativity getAssociativity() {
+        return associativity;
+    }
+
     /**
      * Convert TokenType to BinaryOperator
      *
@@ -38,12 +64,11 @@ public enum BinaryOperator {
      * @throws RuntimeException if tokenType is not a binary operator
      */
     public static BinaryOperator fromTokenType(TokenType tokenType) {
-        for (BinaryOperator op : values()) {
-            if (op.tokenType == tokenType) {
-                return op;
-            }
+        BinaryOperator op = byTokenType(tokenType);
+        if (op == null) {
+            throw new CalculatorError(ErrorMessages.NOT_BINARY_OPERATOR, tokenType);
         }
-        throw new RuntimeException("Not a binary operator: " + tokenType);
+        return op;
     }
 
     /**
@@ -53,12 +78,7 @@ public enum BinaryOperator {
      * @return true if it's a binary operator, false otherwise
      */
     public static boolean isBinaryOperator(TokenType tokenType) {
-        for (BinaryOperator op : values()) {
-            if (op.tokenType == tokenType) {
-                return true;
-            }
-        }
-        return false;
+        return byTokenType(tokenType) != null;
     }
 
     /**
@@ -0,0 +1,188 @@
+package org.example.parser;
+
+import org.example.calculator.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes repeated subexpressions of a request only once
+ * <p>
+ * The lines of a request are value-numbered in evaluation order. Every variable
+ * carries a version that is bumped by each write ({@code =}, compound assignments,
+ * {@code ++} and {@code --}), so two occurrences of a subexpression get the same
+ * number only if none of their inputs was written in between. Only binary nodes
+ * without writes are numbered; + and * are numbered regardless of operand order.
+ * <p>
+ * The first evaluated occurrence of a repeated subexpression stores its value in a
+ * temporary variable (see {@link SymbolTable#temporaryName}) and later occurrences
+ * read it. The first occurrence always runs before the others, so errors such as a
+ * division by zero are raised at the same point as without elimination.
+ */
+public final class CommonSubexpressionEliminator {
+    private final boolean supported;
+
+    public CommonSubexpressionEliminator(OperatorTable operatorTable) {
+        // Temporaries are written with a plain assignment
+        this.supported = operatorTable.getAssignmentOperation(AssignmentOperator.ASSIGN.getTokenType().index()) != null;
+    }
+
+    /**
+     * @param lines   the parsed lines of a request, in order
+     * @param symbols the table the lines were parsed against, which receives the temporaries
+     * @return the lines rewritten to reuse repeated subexpressions
+     */
+    public List<ASTNode> eliminate(List<ASTNode> lines, SymbolTable symbols) {
+        if (!supported) {
+            return lines;
+        }
+
+        Numbering numbering = new Numbering();
+        for (ASTNode line : lines) {
+            numbering.number(line);
+        }
+
+        Map<Integer, Integer> occurrences = new HashMap<>();
+        for (ASTNode line : lines) {
+            count(line, numbering.valueNumbers, occurrences);
+        }
+
+        Rewriter rewriter = new Rewriter(numbering.valueNumbers, occurrences, symbols);
+        List<ASTNode> result = new ArrayList<>(lines.size());
+        for (ASTNode line : lines) {
+            result.add(rewriter.rewrite(line));
+        }
+        return result;
+    }
+
+    /**
+     * Count the occurrences that will be evaluated, not descending into repeats
+     */
+    private static void count(ASTNode node, Map<ASTNode, Integer> valueNumbers, Map<Integer, Integer> occurrences) {
+        Integer valueNumber = valueNumbers.get(node);
+        if (valueNumber != null && occurrences.merge(valueNumber, 1, Integer::sum) > 1) {
+            return;
+        }
+        if (node instanceof BinaryOpNode) {
+            count(((BinaryOpNode) node).getLeft(), valueNumbers, occurrences);
+            count(((BinaryOpNode) node).getRight(), valueNumbers, occurrences);
+        } else if (node instanceof AssignmentNode) {
+            count(((AssignmentNode) node).getExpression(), valueNumbers, occurrences);
+        }
+    }
+
+    /**
+     * Assigns value numbers to the write-free binary nodes of a request
+     */
+    private static final class Numbering {
+        private final Map<ASTNode, Integer> valueNumbers = new IdentityHashMap<>();
+        private final Map<String, Integer> versions = new HashMap<>();
+        private final Map<String, Integer> leafNumbers = new HashMap<>();
+        private final List<Map<Long, Integer>> binaryNumbers = new ArrayList<>();
+        private int nextNumber;
+
+        Numbering() {
+            for (int i = 0; i < BinaryOperator.values().length; i++) {
+                binaryNumbers.add(new HashMap<>());
+            }
+        }
+
+        /**
+         * @return the value number of the node, or -1 if it writes a variable
+         */
+        int number(ASTNode node) {
+            if (node instanceof NumberNode) {
+                return leafNumber("#" + ((NumberNode) node).getValue());
+            }
+            if (node instanceof VariableNode) {
+                String name = ((VariableNode) node).getName();
+                return leafNumber(name + "@" + versions.getOrDefault(name, 0));
+            }
+            if (node instanceof BinaryOpNode) {
+                BinaryOpNode binary = (BinaryOpNode) node;
+                int left = number(binary.getLeft());
+                int right = number(binary.getRight());
+                if (left < 0 || right < 0) {
+                    return -1;
+                }
+                BinaryOperator operator = binary.getOperator();
+                if ((operator == BinaryOperator.PLUS || operator == BinaryOperator.MULTIPLY) && left > right) {
+                    int swap = left;
+                    left = right;
+                    right = swap;
+                }
+                long key = ((long) left << 32) | right;
+                int valueNumber = binaryNumbers.get(operator.ordinal()).computeIfAbsent(key, k -> nextNumber++);
+                valueNumbers.put(node, valueNumber);
+                return valueNumber;
+            }
+            if (node instanceof AssignmentNode) {
+                AssignmentNode assignment = (AssignmentNode) node;
+                number(assignment.getExpression());
+                write(assignment.getVariable());
+                return -1;
+            }
+            if (node instanceof PreIncrementNode) {
+                write(((PreIncrementNode) node).getVariable());
+            } else if (node instanceof PostIncrementNode) {
+                write(((PostIncrementNode) node).getVariable());
+            }
+            return -1;
+        }
+
+        private int leafNumber(String key) {
+            return leafNumbers.computeIfAbsent(key, k -> nextNumber++);
+        }
+
+        private void write(String variable) {
+            versions.merge(variable, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Replaces repeated subexpressions by a store into a temporary and later loads from it
+     */
+    private static final class Rewriter {
+        private final Map<ASTNode, Integer> valueNumbers;
+        private final Map<Integer, Integer> occurrences;
+        private final SymbolTable symbols;
+        private final Map<Integer, String> temporaries = new HashMap<>();
+
+        Rewriter(Map<ASTNode, Integer> valueNumbers, Map<Integer, Integer> occurrences, SymbolTable symbols) {
+            this.valueNumbers = valueNumbers;
+            this.occurrences = occurrences;
+            this.symbols = symbols;
+        }
+
+        ASTNode rewrite(ASTNode node) {
+            Integer valueNumber = valueNumbers.get(node);
+            if (valueNumber != null && occurrences.get(valueNumber) > 1) {
+                String temporary = temporaries.get(valueNumber);
+                if (temporary != null) {
+                    return new VariableNode(temporary, symbols.slotOf(temporary));
+                }
+                temporary = SymbolTable.temporaryName(temporaries.size());
+                temporaries.put(valueNumber, temporary);
+                return new AssignmentNode(temporary, symbols.slotOf(temporary), AssignmentOperator.ASSIGN,
+                        rewriteChildren(node));
+            }
+            return rewriteChildren(node);
+        }
+
+        private ASTNode rewriteChildren(ASTNode node) {
+            if (node instanceof BinaryOpNode) {
+                BinaryOpNode binary = (BinaryOpNode) node;
+                return new BinaryOpNode(rewrite(binary.getLeft()), binary.getOperator(), rewrite(binary.getRight()));
+            }
+            if (node instanceof AssignmentNode) {
+                AssignmentNode assignment = (AssignmentNode) node;
+                return new AssignmentNode(assignment.getVariable(), assignment.getSlot(),
+                        assignment.getAssignmentOperator(), rewrite(assignment.getExpression()));
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes work whose result never reaches the output of a request
+ * <p>
+ * The output of a request is the final value of every assigned variable, so a store
+ * is dead when a later plain assignment overwrites the variable before anything
+ * reads it. Lines are analyzed backwards with the set of such overwritten variables:
+ * <ul>
+ *     <li>a dead assignment or increment whose evaluation cannot throw or write is dropped</li>
+ *     <li>a dead plain assignment whose expression can throw or write keeps only the expression</li>
+ *     <li>a line without an assignment that cannot throw or write is dropped</li>
+ * </ul>
+ * A dropped store always has a later assignment to the same variable, so the set of
+ * variables in the output is unchanged, and every evaluation that could raise an error
+ * is kept in its original order.
+ */
+public final class DeadStoreEliminator {
+    private final SideEffects sideEffects;
+
+    public DeadStoreEliminator(OperatorTable operatorTable) {
+        this.sideEffects = new SideEffects(operatorTable);
+    }
+
+    /**
+     * @param lines the parsed lines of a request, in order
+     * @return the lines that still need to be evaluated, in order
+     */
+    public List<ASTNode> eliminate(List<ASTNode> lines) {
+        Set<String> overwritten = new HashSet<>();
+        List<ASTNode> kept = new ArrayList<>(lines.size());
+
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            ASTNode line = eliminate(lines.get(i), overwritten);
+            if (line != null) {
+                kept.add(line);
+            }
+        }
+        Collections.reverse(kept);
+        return kept;
+    }
+
+    /**
+     * Rewrite one line and update the overwritten variables to the point before it
+     *
+     * @return the line to evaluate, or null to drop it
+     */
+    private ASTNode eliminate(ASTNode line, Set<String> overwritten) {
+        if (line instanceof AssignmentNode) {
+            AssignmentNode assignment = (AssignmentNode) line;
+            String variable = assignment.getVariable();
+            ASTNode expression = assignment.getExpression();
+            boolean dead = overwritten.contains(variable);
+
+            if (assignment.getAssignmentOperator() == AssignmentOperator.ASSIGN
+                    && sideEffects.hasOperation(AssignmentOperator.ASSIGN)) {
+                if (dead) {
+                    if (sideEffects.isSafe(expression)) {
+                        return null;
+                    }
+                    // Keep the evaluation for its writes and errors, but not the store
+                    markReads(expression, overwritten);
+                    return expression;
+                }
+                overwritten.add(variable);
+                markReads(expression, overwritten);
+                return line;
+            }
+
+            if (dead && sideEffects.isSafe(expression) && isSafeCompound(assignment)) {
+                return null;
+            }
+            overwritten.remove(variable);
+            markReads(expression, overwritten);
+            return line;
+        }
+
+        if (line instanceof PreIncrementNode || line instanceof PostIncrementNode) {
+            String variable = line instanceof PreIncrementNode
+                    ? ((PreIncrementNode) line).getVariable()
+                    : ((PostIncrementNode) line).getVariable();
+            if (overwritten.contains(variable)) {
+                return null;
+            }
+            return line;
+        }
+
+        if (sideEffects.isSafe(line)) {
+            return null;
+        }
+        markReads(line, overwritten);
+        return line;
+    }
+
+    /**
+     * @return true if applying a compound assignment cannot throw
+     */
+    private boolean isSafeCompound(AssignmentNode assignment) {
+        AssignmentOperator operator = assignment.getAssignmentOperator();
+        if (!sideEffects.hasOperation(operator)) {
+            return false;
+        }
+        return operator != AssignmentOperator.DIVIDE_ASSIGN || SideEffects.isNonZeroConstant(assignment.getExpression());
+    }
+
+    /**
+     * Every variable an expression reads or writes is needed before it
+     */
+    private static void markReads(ASTNode node, Set<String> overwritten) {
+        if (overwritten.isEmpty()) {
+            return;
+        }
+        if (node instanceof VariableNode) {
+            overwritten.remove(((VariableNode) node).getName());
+        } else if (node instanceof BinaryOpNode) {
+            markReads(((BinaryOpNode) node).getLeft(), overwritten);
+            markReads(((BinaryOpNode) node).getRight(), overwritten);
+        } else if (node instanceof AssignmentNode) {
+            overwritten.remove(((AssignmentNode) node).getVariable());
+            markReads(((AssignmentNode) node).getExpression(), overwritten);
+        } else if (node instanceof PreIncrementNode) {
+            overwritten.remove(((PreIncrementNode) node).getVariable());
+        } else if (node instanceof PostIncrementNode) {
+            overwritten.remove(((PostIncrementNode) node).getVariable());
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package org.example.parser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dependencies between the lines of a request
+ * <p>
+ * Each line reads and writes a set of variables. A line depends on an earlier line when
+ * it reads a variable the earlier line wrote, writes a variable the earlier line wrote,
+ * or writes a variable the earlier line read since its last write. Only the nearest such
+ * lines are recorded; the rest follow transitively. Lines without a path between them
+ * in the graph can run in any order, or at the same time, with the same results.
+ */
+public final class DependencyGraph {
+    private final int size;
+    private final int[] predecessorCounts;
+    private final int[] successorStart;
+    private final int[] successors;
+    private final int[] writtenSlots;
+    private final int criticalPathLength;
+
+    private DependencyGraph(int size, int[] predecessorCounts, int[] successorStart, int[] successors,
+                            int[] writtenSlots, int criticalPathLength) {
+        this.size = size;
+        this.predecessorCounts = predecessorCounts;
+        this.successorStart = successorStart;
+        this.successors = successors;
+        this.writtenSlots = writtenSlots;
+        this.criticalPathLength = criticalPathLength;
+    }
+
+    /**
+     * @param lines the parsed lines of a request, in order
+     */
+    public static DependencyGraph build(List<ASTNode> lines) {
+        int size = lines.size();
+        Accesses accesses = new Accesses();
+        SlotState slots = new SlotState();
+        IntList edgeFrom = new IntList();
+        IntList edgeTo = new IntList();
+        IntList written = new IntList();
+        int[] seen = new int[size];
+        int[] levels = new int[size];
+        int criticalPathLength = 0;
+
+        for (int line = 0; line < size; line++) {
+            accesses.collect(lines.get(line));
+            int stamp = line + 1;
+            int level = 0;
+
+            for (int i = 0; i < accesses.reads.size; i++) {
+                int writer = slots.lastWriter(accesses.reads.values[i]);
+                level = addEdge(writer, line, stamp, seen, levels, level, edgeFrom, edgeTo);
+            }
+            for (int i = 0; i < accesses.writes.size; i++) {
+                int slot = accesses.writes.values[i];
+                level = addEdge(slots.lastWriter(slot), line, stamp, seen, levels, level, edgeFrom, edgeTo);
+                for (int reader = slots.firstReader(slot); reader >= 0; reader = slots.nextReader(reader)) {
+                    level = addEdge(slots.readerLine(reader), line, stamp, seen, levels, level, edgeFrom, edgeTo);
+                }
+            }
+
+            for (int i = 0; i < accesses.reads.size; i++) {
+                slots.addReader(accesses.reads.values[i], line);
+            }
+            for (int i = 0; i < accesses.writes.size; i++) {
+                int slot = accesses.writes.values[i];
+                if (slots.lastWriter(slot) < 0) {
+                    written.add(slot);
+                }
+                slots.setWriter(slot, line);
+            }
+            levels[line] = level + 1;
+            criticalPathLength = Math.max(criticalPathLength, level + 1);
+        }
+
+        int[] predecessorCounts = new int[size];
+        int[] successorStart = new int[size + 1];
+        for (int i = 0; i < edgeFrom.size; i++) {
+            successorStart[edgeFrom.values[i] + 1]++;
+            predecessorCounts[edgeTo.values[i]]++;
+        }
+        for (int line = 0; line < size; line++) {
+            successorStart[line + 1] += successorStart[line];
+        }
+        int[] successors = new int[edgeFrom.size];
+        int[] next = Arrays.copyOf(successorStart, size);
+        for (int i = 0; i < edgeFrom.size; i++) {
+            successors[next[edgeFrom.values[i]]++] = edgeTo.values[i];
+        }
+        return new DependencyGraph(size, predecessorCounts, successorStart, successors,
+                written.toArray(), criticalPathLength);
+    }
+
+    /**
+     * Record that a line depends on an earlier one, once per pair
+     *
+     * @return the deepest level among the line's predecessors so far
+     */
+    private static int addEdge(int from, int to, int stamp, int[] seen, int[] levels, int level,
+                               IntList edgeFrom, IntList edgeTo) {
+        if (from < 0 || from == to || seen[from] == stamp) {
+            return level;
+        }
+        seen[from] = stamp;
+        edgeFrom.add(from);
+        edgeTo.add(to);
+        return Math.max(level, levels[from]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of earlier lines this line waits for
+     */
+    public int getPredecessorCount(int line) {
+        return predecessorCounts[line];
+    }
+
+    /**
+     * Successors of a line are {@code getSuccessor(i)} for i from
+     * {@code getSuccessorStart(line)} up to {@code getSuccessorEnd(line)}
+     */
+    public int getSuccessorStart(int line) {
+        return successorStart[line];
+    }
+
+    public int getSuccessorEnd(int line) {
+        return successorStart[line + 1];
+    }
+
+    public int getSuccessor(int index) {
+        return successors[index];
+    }
+
+    /**
+     * @return the slot of every variable written by some line
+     */
+    public int[] getWrittenSlots() {
+        return writtenSlots.clone();
+    }
+
+    /**
+     * @return the number of lines on the longest dependency chain; the request cannot
+     * finish in fewer sequential steps than this
+     */
+    public int getCriticalPathLength() {
+        return criticalPathLength;
+    }
+
+    /**
+     * Slots a line reads and writes
+     */
+    private static final class Accesses {
+        private final IntList reads = new IntList();
+        private final IntList writes = new IntList();
+
+        void collect(ASTNode line) {
+            reads.size = 0;
+            writes.size = 0;
+            add(line);
+        }
+
+        private void add(ASTNode node) {
+            if (node instanceof VariableNode) {
+                reads.add(((VariableNode) node).getSlot());
+            } else if (node instanceof BinaryOpNode) {
+                add(((BinaryOpNode) node).getLeft());
+                add(((BinaryOpNode) node).getRight());
+            } else if (node instanceof AssignmentNode) {
+                AssignmentNode assignment = (AssignmentNode) node;
+                add(assignment.getExpression());
+                if (assignment.getAssignmentOperator() != AssignmentOperator.ASSIGN) {
+                    reads.add(assignment.getSlot());
+                }
+                writes.add(assignment.getSlot());
+            } else if (node instanceof PreIncrementNode) {
+                reads.add(((PreIncrementNode) node).getSlot());
+                writes.add(((PreIncrementNode) node).getSlot());
+            } else if (node instanceof PostIncrementNode) {
+                reads.add(((PostIncrementNode) node).getSlot());
+                writes.add(((PostIncrementNode) node).getSlot());
+            }
+        }
+    }
+
+    /**
+     * Last writer and readers since that write, for every slot seen so far
+     * Readers are kept in linked lists threaded through shared arrays.
+     */
+    private static final class SlotState {
+        private int[] lastWriters = new int[0];
+        private int[] firstReaders = new int[0];
+        private final IntList readerLines = new IntList();
+        private final IntList readerNext = new IntList();
+
+        private void ensure(int slot) {
+            if (slot >= lastWriters.length) {
+                int capacity = Math.max(lastWriters.length * 2, slot + 16);
+                int oldLength = lastWriters.length;
+                lastWriters = Arrays.copyOf(lastWriters, capacity);
+                firstReaders = Arrays.copyOf(firstReaders, capacity);
+                Arrays.fill(lastWriters, oldLength, capacity, -1);
+                Arrays.fill(firstReaders, oldLength, capacity, -1);
+            }
+        }
+
+        int lastWriter(int slot) {
+            return slot < lastWriters.length ? lastWriters[slot] : -1;
+        }
+
+        int firstReader(int slot) {
+            return slot < firstReaders.length ? firstReaders[slot] : -1;
+        }
+
+        int nextReader(int reader) {
+            return readerNext.values[reader];
+        }
+
+        int readerLine(int reader) {
+            return readerLines.values[reader];
+        }
+
+        void addReader(int slot, int line) {
+            ensure(slot);
+            if (firstReaders[slot] >= 0 && readerLines.values[firstReaders[slot]] == line) {
+                return;
+            }
+            readerLines.add(line);
+            readerNext.add(firstReaders[slot]);
+            firstReaders[slot] = readerLines.size - 1;
+        }
+
+        void setWriter(int slot, int line) {
+            ensure(slot);
+            lastWriters[slot] = line;
+            firstReaders[slot] = -1;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
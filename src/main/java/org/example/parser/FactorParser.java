@@ -1,8 +1,11 @@
 package org.example.parser;
 
+import org.example.errors.ErrorMessages;
 import org.example.lexer.Token;
 import org.example.lexer.TokenType;
+
 import java.util.List;
+import java.util.Set;
 
 /**
  * Strategy interface for parsing different types of factors
@@ -10,14 +13,41 @@ import java.util.List;
  */
 public interface FactorParser {
     
+    /**
+     * Checks if this parser can handle the current parsing context
+     * Lookahead goes through {@link ParseContext#peekType(int)} and is bounded,
+     * since tokens may be produced lazily while parsing
+     * @param context the current parsing context
+     * @return true if this parser can handle the current context
+     */
+    @SuppressWarnings("deprecation")
+    default boolean canParse(ParseContext context) {
+        return canParse(context.getCurrentToken(), context.getTokens(), context.getCurrentTokenIndex());
+    }
+
     /**
      * Checks if this parser can handle the current token sequence
+     * Only called for parsers that do not override {@link #canParse(ParseContext)}.
      * @param currentToken the current token being examined
-     * @param tokens the complete token list for lookahead
+     * @param tokens the tokens from the current one up to the lookahead limit, see {@link ParseContext#getTokens()}
      * @param currentIndex the current position in the token list
      * @return true if this parser can handle the current context
+     * @deprecated override {@link #canParse(ParseContext)}, which also works on streamed tokens
+     */
+    @Deprecated
+    default boolean canParse(Token currentToken, List<Token> tokens, int currentIndex) {
+        throw new UnsupportedOperationException(ErrorMessages.CAN_PARSE_NOT_IMPLEMENTED.getMessage() + getClass().getName());
+    }
+
+    /**
+     * Token types this parser can start on
+     * The registry only consults a parser for these token types; canParse is still
+     * called to confirm. Returning null means the parser may start on any token.
+     * @return the start token types, or null for any token
      */
-    boolean canParse(Token currentToken, List<Token> tokens, int currentIndex);
+    default Set<TokenType> getStartTokenTypes() {
+        return null;
+    }
     
     /**
      * Parses the factor and returns the corresponding AST node
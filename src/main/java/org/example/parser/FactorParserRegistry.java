@@ -1,19 +1,27 @@
 package org.example.parser;
 
-import org.example.lexer.Token;
+import org.example.lexer.TokenType;
+import org.example.lexer.TokenTypes;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Set;
 
+import org.example.errors.CalculatorError;
 import org.example.errors.ErrorMessages;
 
 /**
  * Simple registry for factor parsers
+ * Parsers are tried in registration order. A dispatch table from token type to
+ * the candidate parsers for that type is built once configuration finishes, so
+ * picking a parser does not scan every registered plugin.
  */
 public class FactorParserRegistry {
+    private static final FactorParser[] NO_PARSERS = new FactorParser[0];
+
     private final List<FactorParser> parsers = new ArrayList<>();
-    private boolean needsSorting = false;
+    // Volatile since parse may rebuild it from the threads of a parallel stream
+    private volatile FactorParser[][] dispatchTable;
 
     /**
      * Register a new factor parser
@@ -24,7 +32,7 @@ public class FactorParserRegistry {
         }
 
         parsers.add(parser);
-        needsSorting = true;
+        dispatchTable = null;
     }
 
     /**
@@ -32,26 +40,55 @@ public class FactorParserRegistry {
      */
     public void clear() {
         parsers.clear();
-        needsSorting = false;
+        dispatchTable = null;
+    }
+
+    /**
+     * Build the token-type dispatch table
+     * Called once configuration finishes; registering or clearing parsers invalidates it
+     */
+    public void build() {
+        dispatchTable = buildTable();
+    }
+
+    private FactorParser[][] buildTable() {
+        int size = TokenTypes.size();
+        FactorParser[][] table = new FactorParser[size][];
+        for (int index = 0; index < size; index++) {
+            TokenType type = TokenTypes.fromIndex(index);
+            List<FactorParser> candidates = new ArrayList<>();
+            for (FactorParser parser : parsers) {
+                Set<TokenType> startTypes = parser.getStartTokenTypes();
+                if (startTypes == null || startTypes.contains(type)) {
+                    candidates.add(parser);
+                }
+            }
+            table[index] = candidates.isEmpty() ? NO_PARSERS : candidates.toArray(new FactorParser[0]);
+        }
+        return table;
     }
 
     /**
      * Find and use the appropriate parser for the current token context
      */
     public ASTNode parse(ParseContext context) {
-        Token currentToken = context.getCurrentToken();
-        List<Token> tokens = context.getTokens();
-        int currentIndex = context.getCurrentTokenIndex();
+        int index = context.getCurrentType().index();
+        FactorParser[][] table = dispatchTable;
+        if (table == null || index >= table.length) {
+            // Token types indexed after the build need their own entries
+            table = buildTable();
+            dispatchTable = table;
+        }
 
-        // Try each parser in priority order (highest priority first)
-        for (FactorParser parser : parsers) {
-            if (parser.canParse(currentToken, tokens, currentIndex)) {
+        // Try each candidate for this token type in priority order (highest priority first)
+        for (FactorParser parser : table[index]) {
+            if (parser.canParse(context)) {
                 return parser.parse(context);
             }
         }
 
         // No parser found
-        throw new RuntimeException(ErrorMessages.UNEXPECTED_TOKEN.getMessage() + currentToken.type + " at position " + currentToken.position);
+        throw new CalculatorError(ErrorMessages.UNEXPECTED_TOKEN, context.getCurrentPosition(), context.getCurrentType());
     }
 
     /**
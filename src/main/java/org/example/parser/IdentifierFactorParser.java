@@ -1,11 +1,11 @@
 package org.example.parser;
 
 // Same package, no import needed
-import org.example.lexer.Token;
-
+import org.example.lexer.TokenType;
 import static org.example.lexer.TokenTypes.CoreTokenType;
 import static org.example.lexer.TokenTypes.AssignTokenType;
-import java.util.List;
+
+import java.util.Set;
 
 /**
  * Parses identifiers and related constructs:
@@ -14,28 +14,34 @@ import java.util.List;
  * - Post-increment/decrement (e.g., "x++", "y--")
  */
 public class IdentifierFactorParser implements FactorParser {
+    private static final Set<TokenType> START_TYPES = Set.of(CoreTokenType.IDENTIFIER);
+
+    @Override
+    public boolean canParse(ParseContext context) {
+        return context.getCurrentType() == CoreTokenType.IDENTIFIER;
+    }
 
     @Override
-    public boolean canParse(Token currentToken, List<Token> tokens, int currentIndex) {
-        return currentToken.type == CoreTokenType.IDENTIFIER;
+    public Set<TokenType> getStartTokenTypes() {
+        return START_TYPES;
     }
 
     @Override
     public ASTNode parse(ParseContext context) {
-        String identifier = context.getCurrentToken().value;
+        String identifier = context.getCurrentText();
         context.advance();
 
         // Check for post-increment/decrement
-        if (context.getCurrentToken().type == AssignTokenType.INCREMENT) {
+        if (context.getCurrentType() == AssignTokenType.INCREMENT) {
             context.advance();
-            return new PostIncrementNode(identifier, true);
+            return new PostIncrementNode(identifier, context.slotOf(identifier), true);
         } 
-        else if (context.getCurrentToken().type == AssignTokenType.DECREMENT) {
+        else if (context.getCurrentType() == AssignTokenType.DECREMENT) {
             context.advance();
-            return new PostIncrementNode(identifier, false);
+            return new PostIncrementNode(identifier, context.slotOf(identifier), false);
         }
 
         // Simple variable reference
-        return new VariableNode(identifier);
+        return new VariableNode(identifier, context.slotOf(identifier));
     }
 }
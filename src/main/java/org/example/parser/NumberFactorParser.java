@@ -1,23 +1,30 @@
 package org.example.parser;
 
-import org.example.lexer.Token;
+import org.example.lexer.TokenType;
 import static org.example.lexer.TokenTypes.CoreTokenType;
-import java.util.List;
+
+import java.util.Set;
 
 /**
  * Parses numeric literals (e.g., "42", "123")
  */
 public class NumberFactorParser implements FactorParser {
+    private static final Set<TokenType> START_TYPES = Set.of(CoreTokenType.NUMBER);
+
+    @Override
+    public boolean canParse(ParseContext context) {
+        return context.getCurrentType() == CoreTokenType.NUMBER;
+    }
 
     @Override
-    public boolean canParse(Token currentToken, List<Token> tokens, int currentIndex) {
-        return currentToken.type == CoreTokenType.NUMBER;
+    public Set<TokenType> getStartTokenTypes() {
+        return START_TYPES;
     }
 
     @Override
     public ASTNode parse(ParseContext context) {
-        Token token = context.getCurrentToken();
+        int value = context.getCurrentIntValue();
         context.advance();
-        return new NumberNode(Integer.parseInt(token.value));
+        return new NumberNode(value);
     }
 }
@@ -0,0 +1,163 @@
+package org.example.parser;
+
+import org.example.lexer.OperatorInfo;
+import org.example.lexer.OperatorRegistry;
+import org.example.lexer.TokenType;
+import org.example.lexer.TokenTypes;
+import org.example.operations.AssignmentOperation;
+import org.example.operations.BinaryOperation;
+import org.example.operations.DefaultOperations;
+import org.example.operations.OperationRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Immutable operator table indexed by TokenType.index()
+ * Covers the token types indexed when it is built; tokens indexed later have no operator.
+ * Merges the precedence and associativity of BinaryOperator, the AssignmentOperator
+ * mapping and the operations of an OperationRegistry, so the parser and compilers
+ * get everything they need about an operator with a single array lookup.
+ * <p>
+ * Built once when a Calculator is constructed.
+ */
+public final class OperatorTable {
+    /**
+     * Precedence reported for tokens that are not binary operators; never binds
+     */
+    public static final int NO_PRECEDENCE = Integer.MAX_VALUE;
+
+    /**
+     * Table with the built-in operators and no operations, for parsers created without a calculator
+     */
+    public static final OperatorTable DEFAULT = new OperatorTable();
+
+    private final BinaryOperator[] binaryOperators;
+    private final int[] precedences;
+    private final boolean[] rightAssociative;
+    private final AssignmentOperator[] assignmentOperators;
+    private final BinaryOperation[] binaryOperations;
+    private final AssignmentOperation[] assignmentOperations;
+    private boolean defaultOperations;
+
+    private OperatorTable() {
+        this(TokenTypes.COUNT);
+    }
+
+    /**
+     * @param size the number of token types covered; tokens indexed later get the defaults
+     */
+    private OperatorTable(int size) {
+        binaryOperators = new BinaryOperator[size];
+        precedences = new int[size];
+        rightAssociative = new boolean[size];
+        assignmentOperators = new AssignmentOperator[size];
+        binaryOperations = new BinaryOperation[size];
+        assignmentOperations = new AssignmentOperation[size];
+        Arrays.fill(precedences, NO_PRECEDENCE);
+        for (BinaryOperator op : BinaryOperator.values()) {
+            int index = op.getTokenType().index();
+            binaryOperators[index] = op;
+            precedences[index] = op.getPrecedence();
+            rightAssociative[index] = op.getAssociativity() == Associativity.RIGHT;
+        }
+        for (AssignmentOperator op : AssignmentOperator.values()) {
+            assignmentOperators[op.getTokenType().index()] = op;
+        }
+    }
+
+    /**
+     * Build the table for a configured calculator
+     */
+    public static OperatorTable build(OperatorRegistry operatorRegistry, OperationRegistry operationRegistry) {
+        // Index the registered token types first, so the table covers them
+        for (OperatorInfo operator : operatorRegistry.getOperators()) {
+            operator.tokenType.index();
+        }
+        int size = TokenTypes.size();
+        OperatorTable table = new OperatorTable(size);
+        for (int index = 0; index < size; index++) {
+            TokenType type = TokenTypes.fromIndex(index);
+            table.binaryOperations[index] = operationRegistry.findBinaryOperation(type);
+            table.assignmentOperations[index] = operationRegistry.findAssignmentOperation(type);
+        }
+        table.defaultOperations = table.holdsDefaultOperations();
+        return table;
+    }
+
+    /**
+     * Copy of this table in which a built-in operator groups in another direction
+     * E.g. a right-associative MINUS parses 8 - 4 - 2 as 8 - (4 - 2).
+     */
+    public OperatorTable withAssociativity(BinaryOperator operator, Associativity associativity) {
+        OperatorTable table = new OperatorTable(precedences.length);
+        System.arraycopy(binaryOperations, 0, table.binaryOperations, 0, binaryOperations.length);
+        System.arraycopy(assignmentOperations, 0, table.assignmentOperations, 0, assignmentOperations.length);
+        System.arraycopy(rightAssociative, 0, table.rightAssociative, 0, rightAssociative.length);
+        table.rightAssociative[operator.getTokenType().index()] = associativity == Associativity.RIGHT;
+        table.defaultOperations = defaultOperations;
+        return table;
+    }
+
+    private boolean holdsDefaultOperations() {
+        return getBinaryOperation(BinaryOperator.PLUS.getTokenType().index()) == DefaultOperations.ADD
+                && getBinaryOperation(BinaryOperator.MINUS.getTokenType().index()) == DefaultOperations.SUBTRACT
+                && getBinaryOperation(BinaryOperator.MULTIPLY.getTokenType().index()) == DefaultOperations.MULTIPLY
+                && getBinaryOperation(BinaryOperator.DIVIDE.getTokenType().index()) == DefaultOperations.DIVIDE
+                && getAssignmentOperation(AssignmentOperator.ASSIGN.getTokenType().index()) == DefaultOperations.ASSIGN
+                && getAssignmentOperation(AssignmentOperator.PLUS_ASSIGN.getTokenType().index())
+                == DefaultOperations.ADD_ASSIGN
+                && getAssignmentOperation(AssignmentOperator.MINUS_ASSIGN.getTokenType().index())
+                == DefaultOperations.SUBTRACT_ASSIGN
+                && getAssignmentOperation(AssignmentOperator.MULTIPLY_ASSIGN.getTokenType().index())
+                == DefaultOperations.MULTIPLY_ASSIGN
+                && getAssignmentOperation(AssignmentOperator.DIVIDE_ASSIGN.getTokenType().index())
+                == DefaultOperations.DIVIDE_ASSIGN;
+    }
+
+    /**
+     * @return whether every built-in operator has its {@link DefaultOperations default operation},
+     *         so its arithmetic may be inlined instead of calling the registered operation
+     */
+    public boolean hasDefaultOperations() {
+        return defaultOperations;
+    }
+
+    /**
+     * @return the precedence of a binary operator token (lower binds tighter), or NO_PRECEDENCE
+     */
+    public int getPrecedence(int tokenIndex) {
+        return tokenIndex < precedences.length ? precedences[tokenIndex] : NO_PRECEDENCE;
+    }
+
+    public boolean isRightAssociative(int tokenIndex) {
+        return tokenIndex < rightAssociative.length ? rightAssociative[tokenIndex] : false;
+    }
+
+    /**
+     * @return the binary operator of a token, or null if it is not one
+     */
+    public BinaryOperator getBinaryOperator(int tokenIndex) {
+        return tokenIndex < binaryOperators.length ? binaryOperators[tokenIndex] : null;
+    }
+
+    /**
+     * @return the assignment operator of a token, or null if it is not one
+     */
+    public AssignmentOperator getAssignmentOperator(int tokenIndex) {
+        return tokenIndex < assignmentOperators.length ? assignmentOperators[tokenIndex] : null;
+    }
+
+    /**
+     * @return the registered operation of a binary operator token, or null if none
+     */
+    public BinaryOperation getBinaryOperation(int tokenIndex) {
+        return tokenIndex < binaryOperations.length ? binaryOperations[tokenIndex] : null;
+    }
+
+    /**
+     * @return the registered operation of an assignment operator token, or null if none
+     */
+    public AssignmentOperation getAssignmentOperation(int tokenIndex) {
+        return tokenIndex < assignmentOperations.length ? assignmentOperations[tokenIndex] : null;
+    }
+}
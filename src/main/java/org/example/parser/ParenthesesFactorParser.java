@@ -1,20 +1,26 @@
 package org.example.parser;
 
 // Same package, no import needed
-import org.example.lexer.Token;
 import org.example.lexer.TokenType;
 import static org.example.lexer.TokenTypes.CoreTokenType;
-import java.util.List;
+
+import java.util.Set;
 
 /**
  * Parses parenthesized expressions
  * Examples: "(2 + 3)", "((x * y) + z)"
  */
 public class ParenthesesFactorParser implements FactorParser {
+    private static final Set<TokenType> START_TYPES = Set.of(CoreTokenType.LPAREN);
+
+    @Override
+    public boolean canParse(ParseContext context) {
+        return context.getCurrentType() == CoreTokenType.LPAREN;
+    }
 
     @Override
-    public boolean canParse(Token currentToken, List<Token> tokens, int currentIndex) {
-        return currentToken.type == CoreTokenType.LPAREN;
+    public Set<TokenType> getStartTokenTypes() {
+        return START_TYPES;
     }
 
     @Override
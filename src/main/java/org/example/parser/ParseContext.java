@@ -1,48 +1,96 @@
 package org.example.parser;
 
+import org.example.calculator.SymbolTable;
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+import org.example.lexer.ListTokenSource;
+import org.example.lexer.StreamingTokenSource;
 import org.example.lexer.Token;
+import org.example.lexer.TokenSource;
 import org.example.lexer.TokenType;
+import org.example.lexer.TokenTypes;
 
+import java.util.AbstractList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * This encapsulates the parsing state and common operations
  */
 public class ParseContext {
-    private final List<Token> tokens;
-    private int currentTokenIndex;
-    private Token currentToken;
+    private final TokenSource tokenSource;
     private final Parser parentParser;
+    private final SymbolTable symbols;
 
+    /**
+     * @deprecated use {@link #ParseContext(TokenSource, Parser)} with a {@link ListTokenSource}
+     */
+    @Deprecated
     public ParseContext(List<Token> tokens, int currentTokenIndex, Token currentToken, Parser parentParser) {
-        this.tokens = tokens;
-        this.currentTokenIndex = currentTokenIndex;
-        this.currentToken = currentToken;
+        this(new ListTokenSource(tokens, currentTokenIndex), parentParser);
+    }
+
+    public ParseContext(TokenSource tokenSource, Parser parentParser) {
+        this(tokenSource, parentParser, new SymbolTable());
+    }
+
+    public ParseContext(TokenSource tokenSource, Parser parentParser, SymbolTable symbols) {
+        this.tokenSource = tokenSource;
         this.parentParser = parentParser;
+        this.symbols = symbols;
     }
 
     public Token getCurrentToken() {
-        return currentToken;
+        return tokenSource.getToken(0);
     }
 
+    public TokenType getCurrentType() {
+        return tokenSource.getType(0);
+    }
+
+    /**
+     * Get the type of a token ahead of the current one
+     *
+     * @param lookahead number of tokens to look ahead (0 = current token)
+     */
+    public TokenType peekType(int lookahead) {
+        return tokenSource.getType(lookahead);
+    }
+
+    public String getCurrentText() {
+        return tokenSource.getText(0);
+    }
+
+    public int getCurrentIntValue() {
+        return tokenSource.getIntValue(0);
+    }
+
+    public int getCurrentPosition() {
+        return tokenSource.getPosition(0);
+    }
+
+    /**
+     * Get the tokens as a list indexed like {@link #getCurrentTokenIndex()}
+     * Only the current token and the tokens up to {@link StreamingTokenSource#MAX_LOOKAHEAD}
+     * ahead of it are available, since tokens may be produced lazily while parsing.
+     * @deprecated look ahead with {@link #peekType(int)}
+     */
+    @Deprecated
     public List<Token> getTokens() {
-        return tokens;
+        return new LookaheadList(tokenSource);
     }
 
     public int getCurrentTokenIndex() {
-        return currentTokenIndex;
+        return tokenSource.getIndex();
     }
 
     public void advance() {
-        currentTokenIndex++;
-        if (currentTokenIndex < tokens.size()) {
-            currentToken = tokens.get(currentTokenIndex);
-        }
+        tokenSource.advance();
     }
 
     public void expect(TokenType expectedType) {
-        if (currentToken.type != expectedType) {
-            throw new RuntimeException("Expected " + expectedType + " but got " + currentToken.type + " at position " + currentToken.position);
+        if (getCurrentType() != expectedType) {
+            throw new CalculatorError(ErrorMessages.EXPECTED_TOKEN, getCurrentPosition(), expectedType, " but got ", getCurrentType());
         }
         advance();
     }
@@ -50,4 +98,45 @@ public class ParseContext {
     public ASTNode parseExpression() {
         return parentParser.parseExpression();
     }
+
+    /**
+     * @return the slot of a variable in the table this parse resolves against
+     */
+    public int slotOf(String variable) {
+        return symbols.slotOf(variable);
+    }
+
+    /**
+     * Read-only view of a token source from the current token up to the lookahead limit
+     */
+    private static final class LookaheadList extends AbstractList<Token> {
+        private final TokenSource tokenSource;
+        private final int first;
+        private final int size;
+
+        LookaheadList(TokenSource tokenSource) {
+            this.tokenSource = tokenSource;
+            this.first = tokenSource.getIndex();
+            int lookahead = 0;
+            while (lookahead < StreamingTokenSource.MAX_LOOKAHEAD
+                    && tokenSource.getType(lookahead) != TokenTypes.CoreTokenType.EOF) {
+                lookahead++;
+            }
+            this.size = first + lookahead + 1;
+        }
+
+        @Override
+        public Token get(int index) {
+            Objects.checkIndex(index, size);
+            if (index < first || tokenSource.getIndex() != first) {
+                throw new IndexOutOfBoundsException("Token " + index + " is not in the lookahead window");
+            }
+            return tokenSource.getToken(index - first);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package org.example.parser;
 
+import org.example.calculator.SymbolTable;
 import org.example.lexer.*;
 
 import static org.example.lexer.TokenTypes.CoreTokenType;
@@ -8,14 +9,30 @@ import java.util.*;
 
 // Recursive descent parser
 public class Parser {
-    private final List<Token> tokens;
     private ParseContext context;
     private final FactorParserRegistry factorParserRegistry;
+    private final OperatorTable operatorTable;
 
     public Parser(List<Token> tokens, FactorParserRegistry factorParserRegistry) {
-        this.tokens = tokens;
+        this(new ListTokenSource(tokens), factorParserRegistry);
+    }
+
+    public Parser(TokenSource tokenSource, FactorParserRegistry factorParserRegistry) {
+        this(tokenSource, factorParserRegistry, OperatorTable.DEFAULT);
+    }
+
+    public Parser(TokenSource tokenSource, FactorParserRegistry factorParserRegistry, OperatorTable operatorTable) {
+        this(tokenSource, factorParserRegistry, operatorTable, new SymbolTable());
+    }
+
+    /**
+     * @param symbols the table variables are resolved against
+     */
+    public Parser(TokenSource tokenSource, FactorParserRegistry factorParserRegistry, OperatorTable operatorTable,
+                  SymbolTable symbols) {
         this.factorParserRegistry = factorParserRegistry;
-        this.context = new ParseContext(tokens, 0, tokens.get(0), this);
+        this.operatorTable = operatorTable;
+        this.context = new ParseContext(tokenSource, this, symbols);
     }
 
     private void advance() {
@@ -25,19 +42,15 @@ public class Parser {
 
     public ASTNode parseAssignment() {
         // Check if this is an assignment (identifier followed by assignment operator)
-        Token currentToken = context.getCurrentToken();
-        if (currentToken.type == CoreTokenType.IDENTIFIER && context.getCurrentTokenIndex() + 1 < tokens.size()) {
-            Token nextToken = tokens.get(context.getCurrentTokenIndex() + 1);
-            if (isAssignmentOperator(nextToken.type)) {
-                String variable = currentToken.value;
+        if (context.getCurrentType() == CoreTokenType.IDENTIFIER) {
+            AssignmentOperator assignOperator = operatorTable.getAssignmentOperator(context.peekType(1).index());
+            if (assignOperator != null) {
+                String variable = context.getCurrentText();
                 advance(); // consume identifier
-
-                TokenType assignType = context.getCurrentToken().type;
-                AssignmentOperator assignOperator = AssignmentOperator.fromTokenType(assignType);
                 advance(); // consume assignment operator
 
                 ASTNode expression = parseExpression();
-                return new AssignmentNode(variable, assignOperator, expression);
+                return new AssignmentNode(variable, context.slotOf(variable), assignOperator, expression);
             }
         }
 
@@ -45,10 +58,6 @@ public class Parser {
         return parseExpression();
     }
 
-    private boolean isAssignmentOperator(TokenType type) {
-        return AssignmentOperator.isAssignmentOperator(type);
-    }
-
     public ASTNode parseExpression() {
         return parseExpressionWithPrecedence(Integer.MAX_VALUE);
     }
@@ -56,13 +65,17 @@ public class Parser {
     private ASTNode parseExpressionWithPrecedence(int minPrecedence) {
         ASTNode node = parseFactor();
 
-        while (BinaryOperator.isBinaryOperator(context.getCurrentToken().type) &&
-                BinaryOperator.getPrecedence(context.getCurrentToken().type) < minPrecedence) {
-            TokenType operator = context.getCurrentToken().type;
-            int precedence = BinaryOperator.getPrecedence(operator);
+        while (true) {
+            int operatorIndex = context.getCurrentType().index();
+            int precedence = operatorTable.getPrecedence(operatorIndex);
+            if (precedence >= minPrecedence) {
+                break;
+            }
             advance();
-            ASTNode right = parseExpressionWithPrecedence(precedence);
-            node = new BinaryOpNode(node, operator, right);
+            // Right-associative operators let an equal-precedence operator bind on the right
+            int rightMinPrecedence = operatorTable.isRightAssociative(operatorIndex) ? precedence + 1 : precedence;
+            ASTNode right = parseExpressionWithPrecedence(rightMinPrecedence);
+            node = new BinaryOpNode(node, operatorTable.getBinaryOperator(operatorIndex), right);
         }
 
         return node;
@@ -1,37 +1,44 @@
 package org.example.parser;
 
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
 // Same package, no import needed
-import org.example.lexer.Token;
 import org.example.lexer.TokenType;
 import static org.example.lexer.TokenTypes.CoreTokenType;
 import static org.example.lexer.TokenTypes.AssignTokenType;
-import java.util.List;
+
+import java.util.Set;
 
 /**
  * Parses pre-increment and pre-decrement expressions
  * Examples: "++x", "--counter"
  */
 public class PreIncrementFactorParser implements FactorParser {
+    private static final Set<TokenType> START_TYPES = Set.of(AssignTokenType.INCREMENT, AssignTokenType.DECREMENT);
+
+    @Override
+    public boolean canParse(ParseContext context) {
+        return context.getCurrentType() == AssignTokenType.INCREMENT ||
+               context.getCurrentType() == AssignTokenType.DECREMENT;
+    }
 
     @Override
-    public boolean canParse(Token currentToken, List<Token> tokens, int currentIndex) {
-        return currentToken.type == AssignTokenType.INCREMENT || 
-               currentToken.type == AssignTokenType.DECREMENT;
+    public Set<TokenType> getStartTokenTypes() {
+        return START_TYPES;
     }
 
     @Override
     public ASTNode parse(ParseContext context) {
-        Token operatorToken = context.getCurrentToken();
-        boolean isIncrement = operatorToken.type == AssignTokenType.INCREMENT;
+        boolean isIncrement = context.getCurrentType() == AssignTokenType.INCREMENT;
         context.advance();
 
-        if (context.getCurrentToken().type != CoreTokenType.IDENTIFIER) {
+        if (context.getCurrentType() != CoreTokenType.IDENTIFIER) {
             String operator = isIncrement ? "++" : "--";
-            throw new RuntimeException("Expected identifier after " + operator + " at position " + context.getCurrentToken().position);
+            throw new CalculatorError(ErrorMessages.EXPECTED_IDENTIFIER, context.getCurrentPosition(), operator);
         }
 
-        String identifier = context.getCurrentToken().value;
+        String identifier = context.getCurrentText();
         context.advance();
-        return new PreIncrementNode(identifier, isIncrement);
+        return new PreIncrementNode(identifier, context.slotOf(identifier), isIncrement);
     }
 }
@@ -0,0 +1,41 @@
+package org.example.parser;
+
+/**
+ * Answers whether evaluating a node can be skipped without changing the outcome
+ */
+final class SideEffects {
+    private final OperatorTable operatorTable;
+
+    SideEffects(OperatorTable operatorTable) {
+        this.operatorTable = operatorTable;
+    }
+
+    boolean hasOperation(BinaryOperator operator) {
+        return operatorTable.getBinaryOperation(operator.getTokenType().index()) != null;
+    }
+
+    boolean hasOperation(AssignmentOperator operator) {
+        return operatorTable.getAssignmentOperation(operator.getTokenType().index()) != null;
+    }
+
+    /**
+     * @return true if evaluating the node can neither throw nor change a variable
+     */
+    boolean isSafe(ASTNode node) {
+        if (node instanceof NumberNode || node instanceof VariableNode) {
+            return true;
+        }
+        if (node instanceof BinaryOpNode) {
+            BinaryOpNode binary = (BinaryOpNode) node;
+            if (!hasOperation(binary.getOperator()) || !isSafe(binary.getLeft()) || !isSafe(binary.getRight())) {
+                return false;
+            }
+            return binary.getOperator() != BinaryOperator.DIVIDE || isNonZeroConstant(binary.getRight());
+        }
+        return false;
+    }
+
+    static boolean isNonZeroConstant(ASTNode node) {
+        return node instanceof NumberNode && ((NumberNode) node).getValue() != 0;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.engine.EngineType;
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+/**
+ * Tests for stackless request errors with lazily built messages
+ */
+public class CalculatorErrorTest {
+
+    private static RuntimeException failure(Calculator calc, String... expressions) {
+        return assertThrows(RuntimeException.class, () -> calc.processExpressions(List.of(expressions)));
+    }
+
+    @Test
+    void testMessagesAreUnchanged() {
+        Calculator calc = new AssignmentCalculator();
+        assertEquals("Division by zero", failure(calc, "x = 1 / 0").getMessage());
+        assertEquals("Unexpected token: RPAREN at position 4", failure(calc, "x = )").getMessage());
+        assertEquals("Unexpected character: $ at position 4", failure(calc, "x = $").getMessage());
+        assertEquals("Expected RPAREN but got EOF at position 6", failure(calc, "x = (1").getMessage());
+    }
+
+    @Test
+    void testErrorsHaveCodesAndPositionsButNoStackTrace() {
+        for (EngineType engineType : EngineType.values()) {
+            Calculator calc = new AssignmentCalculator();
+            calc.setEngineType(engineType);
+            RuntimeException division = failure(calc, "x = 5", "y = x / (x - 5)");
+            assertSame(CalculatorError.divisionByZero(), division, engineType.toString());
+            assertEquals(0, division.getStackTrace().length);
+        }
+
+        CalculatorError unexpected = (CalculatorError) failure(new AssignmentCalculator(), "x = 1 +");
+        assertEquals(ErrorMessages.UNEXPECTED_TOKEN, unexpected.getCode());
+        assertEquals(7, unexpected.getPosition());
+        assertEquals(0, unexpected.getStackTrace().length);
+    }
+
+    @Test
+    void testServiceReportsSameText() {
+        ConcurrentCalculatorService service = new ConcurrentCalculatorService(CalculatorType.ASSIGNMENT);
+        try {
+            List<ConcurrentCalculatorService.CalculatorResult> results = service.processRequestsConcurrently(List.of(
+                    List.of("x = 1 / 0"), List.of("x = )"), List.of("x = 2")));
+            assertEquals("Division by zero", results.get(0).getError());
+            assertTrue(results.get(1).hasError());
+            assertEquals("Request " + results.get(1).getRequestId() + " Error: Unexpected token: RPAREN at position 4",
+                    results.get(1).toString());
+            assertFalse(results.get(2).hasError());
+            assertEquals("(x=2)", results.get(2).getResult());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.lexer.TokenTypes.BasicTokenType;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for request-level dead-store elimination
+ */
+public class DeadStoreEliminationTest {
+
+    /**
+     * Assignment calculator that counts how often + is executed
+     */
+    private static final class CountingCalculator extends AssignmentCalculator {
+        private AtomicInteger additions;
+
+        CountingCalculator() {
+            setDeadStoreEliminationEnabled(true);
+        }
+
+        @Override
+        protected void configureOperations() {
+            super.configureOperations();
+            additions = new AtomicInteger();
+            AtomicInteger counter = additions;
+            operationRegistry.registerBinaryOperation(BasicTokenType.PLUS, (left, right) -> {
+                counter.incrementAndGet();
+                return left + right;
+            });
+        }
+
+        int takeAdditions() {
+            return additions.getAndSet(0);
+        }
+    }
+
+    private static String run(Calculator calc, List<String> expressions) {
+        try {
+            return calc.processExpressions(expressions);
+        } catch (RuntimeException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    @Test
+    void testOverwrittenStoresAreSkipped() {
+        CountingCalculator calc = new CountingCalculator();
+
+        assertEquals("(a=1,t=4,y=4)", run(calc, List.of("a = 1", "t = a + 1", "t = a + 2", "t = a + 3", "y = t")));
+        assertEquals(1, calc.takeAdditions());
+
+        assertEquals("(t=1,x=2)", run(calc, List.of("t = 3", "t += x + 4", "x + 1", "++t", "t = 1", "x = 2")));
+        assertEquals(0, calc.takeAdditions());
+    }
+
+    @Test
+    void testReadStoresAreKept() {
+        CountingCalculator calc = new CountingCalculator();
+
+        assertEquals("(a=1,t=6)", run(calc, List.of("a = 1", "t = a + 1", "t = t + a + 3")));
+        assertEquals(3, calc.takeAdditions());
+
+        assertEquals("(a=3,t=3)", run(calc, List.of("t = 1 + a", "a = 2", "t = 3", "a += 1")));
+        assertEquals("(t=2,u=2)", run(calc, List.of("t = 1", "u = ++t", "t = u")));
+    }
+
+    @Test
+    void testErrorsAndSideEffectsAreKept() {
+        Calculator calc = new CountingCalculator();
+
+        assertEquals("Error: Division by zero", run(calc, List.of("t = 1 / a", "t = 2")));
+        assertEquals("Error: Division by zero", run(calc, List.of("t = 5", "t /= a", "t = 1")));
+        assertEquals("Error: Division by zero", run(calc, List.of("a / 0", "a = 1")));
+        assertEquals("(a=1,t=1)", run(calc, List.of("t = a++", "t = 1")));
+        assertEquals("(b=2,t=0)", run(calc, List.of("t = b++ + b++", "t = 0")));
+        assertEquals("Error: Unexpected token: RPAREN at position 4", run(calc, List.of("t = 1", "t = )", "t = 2")));
+    }
+
+    @Test
+    void testRandomRequestsMatchWithoutElimination() {
+        Random random = new Random(23);
+        Calculator plain = new AssignmentCalculator();
+        Calculator eliminating = new AssignmentCalculator();
+        eliminating.setDeadStoreEliminationEnabled(true);
+        Calculator both = new AssignmentCalculator();
+        both.setDeadStoreEliminationEnabled(true);
+        both.setSubexpressionEliminationEnabled(true);
+
+        for (int i = 0; i < 1000; i++) {
+            List<String> request = RequestGenerator.randomRequest(random, 10);
+            String expected = run(plain, request);
+            assertEquals(expected, run(eliminating, request), request.toString());
+            assertEquals(expected, run(both, request), request.toString());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the exact calculator, which promotes values to BigInteger instead of wrapping
+ */
+public class ExactArithmeticTest {
+
+    private static String evaluate(Calculator calc, String... lines) {
+        return calc.processExpressions(List.of(lines));
+    }
+
+    @Test
+    void testCalculatorType() {
+        assertEquals(CalculatorType.EXACT, CalculatorType.fromString("Exact"));
+        assertEquals(CalculatorType.EXACT, CalculatorType.fromString("bigint"));
+        assertInstanceOf(ExactCalculator.class, CalculatorFactory.createCalculator(CalculatorType.EXACT));
+    }
+
+    @Test
+    void testSmallValuesMatchTheAssignmentCalculator() {
+        Calculator exact = new ExactCalculator();
+        Calculator assignment = new AssignmentCalculator();
+        List<String> request = List.of("x = 5 + 3", "y = x * 2", "z = y / 3 - x", "x += ++y", "w = x-- - z++");
+        assertEquals(assignment.processExpressions(request), exact.processExpressions(request));
+        assertEquals("()", evaluate(exact));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> evaluate(exact, "a = 1", "b = a / 0"));
+        assertEquals("Division by zero", error.getMessage());
+        assertEquals("(b=2)", evaluate(exact, "b = 2"));
+    }
+
+    @Test
+    void testOverflowPromotesInsteadOfWrapping() {
+        Calculator exact = new ExactCalculator();
+        assertEquals("(x=2147483648)", evaluate(exact, "x = 2147483647 + 1"));
+        assertEquals("(x=-4294967296)", evaluate(exact, "x = 0 - 2147483647 - 2147483647 - 2"));
+        assertEquals("(x=340282366920938463463374607431768211456)",
+                evaluate(exact, "x = 65536 * 65536", "x *= x", "x *= x"));
+        assertEquals("(x=9223372036854775808)",
+                evaluate(exact, "x = 0 - 65536 * 65536", "x *= 65536 * 32768", "x = x / (0 - 1)"));
+        assertEquals("(x=-9223372036854775809)",
+                evaluate(exact, "x = 0 - 65536 * 65536", "x *= 65536 * 32768", "x = --x"));
+    }
+
+    @Test
+    void testWideValuesNarrowAgain() {
+        Calculator exact = new ExactCalculator();
+        assertEquals("(x=18446744073709551616,y=4294967296,z=1)",
+                evaluate(exact, "x = 65536 * 65536 * 65536 * 65536", "y = x / (65536 * 65536)", "z = x / y / y"));
+        assertEquals("(x=9223372036854775807,y=9223372036854775809)",
+                evaluate(exact, "x = 65536 * 65536 * 65536 * 32768", "y = x--", "y++"));
+        assertEquals("(a=0,b=0)",
+                evaluate(exact, "a = 2147483647 * 2147483647 * 2147483647", "b = a - a", "a = b"));
+    }
+
+    @Test
+    void testWrappedResultsAgreeModulo2To32() {
+        // Without division, int arithmetic is exact arithmetic modulo 2^32
+        Random random = new Random(20);
+        Calculator exact = new ExactCalculator();
+        Calculator assignment = new AssignmentCalculator();
+        int promoted = 0;
+        for (int i = 0; i < 500; i++) {
+            List<String> request = new ArrayList<>(RequestGenerator.randomRequest(random, 8));
+            request.replaceAll(line -> line.replace('/', '*'));
+            String exactResult = exact.processExpressions(request);
+            String intResult = assignment.processExpressions(request);
+
+            String[] exactValues = exactResult.replaceAll("[()]", "").split(",");
+            String[] intValues = intResult.replaceAll("[()]", "").split(",");
+            assertEquals(intValues.length, exactValues.length, request.toString());
+            for (int v = 0; v < exactValues.length; v++) {
+                if (exactValues[v].isEmpty()) continue;
+                String[] exactPair = exactValues[v].split("=");
+                String[] intPair = intValues[v].split("=");
+                assertEquals(intPair[0], exactPair[0]);
+                BigInteger value = new BigInteger(exactPair[1]);
+                assertEquals(Integer.parseInt(intPair[1]), value.intValue(), request.toString());
+                if (value.bitLength() >= Integer.SIZE) {
+                    promoted++;
+                }
+            }
+        }
+        assertTrue(promoted > 0, "Some random requests should leave int range");
+    }
+
+    /**
+     * On small values the exact calculator stays on longs, so evaluating allocates nothing
+     * beyond the output; the timings are in the benchmark source set ("exact")
+     */
+    @Test
+    void testFastPathDoesNotAllocate() {
+        List<String> small = List.of("a = 12 + 30", "b = a * 7 - 5", "c = b / 3 + a", "a += c * 2", "b = a++ - --c");
+        List<String> wide = List.of("a = 65536 * 65536", "b = a * a * a", "c = b / 3 + a", "a += c * 2", "b = a++ - --c");
+
+        Calculator exact = new ExactCalculator();
+        String expected = new AssignmentCalculator().processExpressions(small);
+        assertEquals(expected, exact.processExpressions(small));
+        BigInteger a = BigInteger.valueOf(65536).pow(2);
+        BigInteger c = a.pow(3).divide(BigInteger.valueOf(3)).add(a);
+        a = a.add(c.multiply(BigInteger.TWO));
+        c = c.subtract(BigInteger.ONE);
+        String promoted = "(a=" + a.add(BigInteger.ONE) + ",b=" + a.subtract(c) + ",c=" + c + ")";
+        assertEquals(promoted, exact.processExpressions(wide));
+
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            // Formatting the output allocates, so compare with a request of constants with the same output
+            List<String> constants = new ArrayList<>();
+            for (String pair : expected.replaceAll("[()]", "").split(",")) {
+                constants.add(pair.replace("=", " = "));
+            }
+            int iterations = 20_000;
+            long allocated = allocatedBytes(allocations, exact, small, iterations)
+                    - allocatedBytes(allocations, exact, constants, iterations);
+            assertTrue(allocated < iterations * 8L, "Fast path allocated " + allocated + " bytes");
+        }
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean allocations, Calculator calc,
+                                       List<String> request, int iterations) {
+        calc.processExpressions(request);
+        long thread = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < iterations; i++) {
+            calc.processExpressions(request);
+        }
+        return allocations.getThreadAllocatedBytes(thread) - before;
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.engine.CompiledExpression;
+import org.example.engine.EngineType;
+import org.example.lexer.TokenTypes.BasicTokenType;
+import org.example.parser.ASTNode;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that every execution engine produces the same results and errors as the AST interpreter
+ */
+public class ExecutionEngineTest {
+
+    private static Calculator createCalculator(EngineType engineType) {
+        Calculator calc = new AssignmentCalculator();
+        calc.setEngineType(engineType);
+        return calc;
+    }
+
+    private static String run(Calculator calc, List<String> expressions) {
+        try {
+            return calc.processExpressions(expressions);
+        } catch (RuntimeException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    @Test
+    void testKnownRequests() {
+        for (EngineType engineType : EngineType.values()) {
+            Calculator calc = createCalculator(engineType);
+
+            assertEquals("(i=82,j=1,x=6,y=80)",
+                    run(calc, List.of("i = 0", "j = ++i", "x = i++ + 5", "y = (5 + 3) * 10", "i += y")), engineType.name());
+            assertEquals("(x=3,y=4,z=10)",
+                    run(calc, List.of("x = 1", "y = 2", "z = x++ + y++ + ++x + ++y")), engineType.name());
+            assertEquals("(a=-7,b=5,c=1)",
+                    run(calc, List.of("a = 7", "b = a-- - 2", "a /= 2", "a -= b + 5", "c = b / 5")), engineType.name());
+            assertEquals("Error: Division by zero",
+                    run(calc, List.of("x = 5", "y = 0", "z = x / y")), engineType.name());
+            assertEquals("Error: Division by zero",
+                    run(calc, List.of("x = 5", "x /= 0")), engineType.name());
+            assertEquals("()", run(calc, List.of("x + 1")), engineType.name());
+        }
+    }
+
+    @Test
+    void testCompiledCalculatorType() {
+        Calculator calc = CalculatorFactory.createCalculator(CalculatorType.fromString("compiled"));
+        ExpressionCache cache = new ExpressionCache();
+        calc.setExpressionCache(cache);
+
+        assertInstanceOf(CompiledCalculator.class, calc);
+        assertEquals("(m=14,n=26)", calc.processExpressions(List.of("m = 5", "n = m++ + ++m", "m *= 2", "n += m")));
+        assertTrue(cache.get("n = m++ + ++m").getClass().isHidden(), "Expressions should run as generated hidden classes");
+    }
+
+    @Test
+    void testUncachedLinesDefineNoClasses() {
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        for (EngineType engineType : new EngineType[]{EngineType.BYTECODE, EngineType.TIERED}) {
+            Calculator calc = createCalculator(engineType);
+            assertEquals("(x=1,y=0)", calc.processExpressions(List.of("y = 0", "x = y + 1")));
+
+            long loaded = classLoading.getTotalLoadedClassCount();
+            for (int i = 0; i < 500; i++) {
+                assertEquals("(x=" + (i + 1) + ",y=" + i + ")",
+                        calc.processExpressions(List.of("y = " + i, "x = y + 1")), engineType.name());
+            }
+            assertTrue(classLoading.getTotalLoadedClassCount() - loaded < 100,
+                    engineType + " should not define a class per uncached line");
+        }
+    }
+
+    @Test
+    void testBytecodeFallsBackToClosuresForOtherOperations() {
+        Calculator calc = new AssignmentCalculator() {
+            @Override
+            protected void configureOperations() {
+                super.configureOperations();
+                operationRegistry.registerBinaryOperation(BasicTokenType.PLUS, (left, right) -> left + right + 1000);
+            }
+        };
+        calc.setEngineType(EngineType.BYTECODE);
+        ExpressionCache cache = new ExpressionCache();
+        calc.setExpressionCache(cache);
+
+        assertEquals("(x=1003,y=1)", calc.processExpressions(List.of("y = 1", "x = y + 2")));
+        assertFalse(cache.get("x = y + 2").getClass().getName().startsWith("org.example.engine.GeneratedExpression"));
+    }
+
+    @Test
+    void testClosureEngineBindsOperations() {
+        Calculator calc = createCalculator(EngineType.fromString("closure"));
+        ExpressionCache cache = new ExpressionCache();
+        calc.setExpressionCache(cache);
+
+        assertEquals("(x=4,y=13)", calc.processExpressions(List.of("x = 3", "y = x++ * 4 + 1")));
+
+        // Operations are bound at compile time, so evaluation never consults the registry
+        CompiledExpression compiled = cache.get("y = x++ * 4 + 1");
+        assertFalse(compiled instanceof ASTNode);
+        VariableStore store = new VariableStore();
+        store.assign("x", 5);
+        assertEquals(21, compiled.evaluate(store, null));
+        assertEquals(6, store.getValue("x"));
+    }
+
+    @Test
+    void testRandomRequestsMatchInterpreter() {
+        Random random = new Random(42);
+        Calculator interpreter = createCalculator(EngineType.INTERPRETER);
+        interpreter.setOptimizationEnabled(false);
+        List<Calculator> engines = new ArrayList<>();
+        for (EngineType engineType : EngineType.values()) {
+            engines.add(createCalculator(engineType));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            List<String> request = RequestGenerator.randomRequest(random, 6);
+            String expected = run(interpreter, request);
+            for (Calculator engine : engines) {
+                assertEquals(expected, run(engine, request), engine.getEngineType() + " on " + request);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.engine.CompiledExpression;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the shared parsed-expression cache
+ */
+public class ExpressionCacheTest {
+
+    @Test
+    void testRepeatedExpressionsHitCache() {
+        ExpressionCache cache = new ExpressionCache();
+        Calculator calc = new AssignmentCalculator();
+        calc.setExpressionCache(cache);
+
+        List<String> expressions = List.of("x = 5", "y = x * 2", "x += y");
+        assertEquals("(x=15,y=10)", calc.processExpressions(expressions));
+        assertEquals("(x=15,y=10)", calc.processExpressions(expressions));
+
+        assertEquals(3, cache.getMissCount());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testEvictionKeepsCacheBounded() {
+        ExpressionCache cache = new ExpressionCache(2);
+        Calculator calc = new AssignmentCalculator();
+        calc.setExpressionCache(cache);
+
+        assertEquals("(a=1,b=2,c=3)", calc.processExpressions(List.of("a = 1", "b = 2", "c = 3")));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void testDisabledCacheStillEvaluates() {
+        ExpressionCache cache = new ExpressionCache();
+        cache.setEnabled(false);
+        Calculator calc = new AssignmentCalculator();
+        calc.setExpressionCache(cache);
+
+        assertEquals("(x=2)", calc.processExpressions(List.of("x = 1", "x++")));
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    void testSizeStaysExactWhenNewTablesClearConcurrentPuts() throws Exception {
+        ExpressionCache cache = new ExpressionCache(64);
+        CompiledExpression constant = (store, operations) -> 1;
+        SymbolTable[] table = {new SymbolTable()};
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            int writer = t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    cache.put("w" + writer + "_" + i, constant, table[0]);
+                }
+            });
+            writers[t].start();
+        }
+        // Each newer table clears the cache while the writers put
+        while (Arrays.stream(writers).anyMatch(Thread::isAlive)) {
+            SymbolTable next = new SymbolTable();
+            cache.get("x", next);
+            table[0] = next;
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        SymbolTable last = new SymbolTable();
+        for (int i = 0; i < 128; i++) {
+            cache.put("last_" + i, constant, last);
+        }
+        assertEquals(64, cache.size());
+        for (int i = 64; i < 128; i++) {
+            assertNotNull(cache.get("last_" + i, last), "Capacity was lost to uncounted clears");
+        }
+    }
+
+    @Test
+    void testCacheSharedAcrossServiceThreads() {
+        ConcurrentCalculatorService service = new ConcurrentCalculatorService(CalculatorType.ASSIGNMENT);
+        try {
+            List<List<String>> requests = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                requests.add(List.of("x = 7", "y = x++ + ++x"));
+            }
+
+            var results = service.processRequestsConcurrently(requests);
+
+            for (var result : results) {
+                assertEquals("(x=9,y=16)", result.getResult());
+            }
+            assertTrue(service.getExpressionCache().getHitCount() > 0);
+            assertEquals(2, service.getExpressionCache().size());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
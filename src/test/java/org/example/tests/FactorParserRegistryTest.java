@@ -0,0 +1,198 @@
+package org.example.tests;
+
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+import org.example.lexer.Lexer;
+import org.example.lexer.ListTokenSource;
+import org.example.lexer.OperatorRegistry;
+import org.example.lexer.StreamingTokenSource;
+import org.example.lexer.Token;
+import org.example.lexer.TokenType;
+import org.example.lexer.TokenTypes;
+import org.example.parser.ASTNode;
+import org.example.parser.FactorParser;
+import org.example.parser.FactorParserRegistry;
+import org.example.parser.ParseContext;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.example.lexer.TokenTypes.AssignTokenType;
+import static org.example.lexer.TokenTypes.CoreTokenType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for the token-type dispatch of FactorParserRegistry
+ */
+public class FactorParserRegistryTest {
+
+    /**
+     * A token type first indexed while parsing, after the registry was built
+     */
+    private enum LateTokenType implements TokenType {
+        LATE
+    }
+
+    /**
+     * Factor parser that records each call it gets
+     */
+    private static final class RecordingParser implements FactorParser {
+        private final String name;
+        private final Set<TokenType> startTypes;
+        private final boolean accepts;
+        private final List<String> calls;
+
+        RecordingParser(String name, Set<TokenType> startTypes, boolean accepts, List<String> calls) {
+            this.name = name;
+            this.startTypes = startTypes;
+            this.accepts = accepts;
+            this.calls = calls;
+        }
+
+        @Override
+        public boolean canParse(ParseContext context) {
+            calls.add("canParse " + name);
+            return accepts;
+        }
+
+        @Override
+        public Set<TokenType> getStartTokenTypes() {
+            return startTypes;
+        }
+
+        @Override
+        public ASTNode parse(ParseContext parseContext) {
+            calls.add("parse " + name);
+            parseContext.advance();
+            return null;
+        }
+    }
+
+    private static ParseContext contextOn(TokenType type, String text) {
+        List<Token> tokens = List.of(new Token(type, text, 0), new Token(CoreTokenType.EOF, "", text.length()));
+        return new ParseContext(new ListTokenSource(tokens), null);
+    }
+
+    private static void assertUnexpectedToken(FactorParserRegistry registry, TokenType type, String text) {
+        CalculatorError error = assertThrows(CalculatorError.class, () -> registry.parse(contextOn(type, text)));
+        assertEquals(ErrorMessages.UNEXPECTED_TOKEN, error.getCode());
+    }
+
+    @Test
+    void testParsersForAnyTokenKeepTheirPriority() {
+        List<String> calls = new ArrayList<>();
+        FactorParserRegistry registry = new FactorParserRegistry();
+        registry.register(new RecordingParser("any-declining", null, false, calls));
+        registry.register(new RecordingParser("number", Set.of(CoreTokenType.NUMBER), true, calls));
+        registry.register(new RecordingParser("any", null, true, calls));
+        registry.build();
+
+        registry.parse(contextOn(CoreTokenType.NUMBER, "1"));
+        assertEquals(List.of("canParse any-declining", "canParse number", "parse number"), calls);
+
+        // The number parser is never consulted for other tokens
+        calls.clear();
+        registry.parse(contextOn(CoreTokenType.IDENTIFIER, "x"));
+        assertEquals(List.of("canParse any-declining", "canParse any", "parse any"), calls);
+    }
+
+    @Test
+    void testRegisterAndClearInvalidateTheTable() {
+        List<String> calls = new ArrayList<>();
+        FactorParserRegistry registry = new FactorParserRegistry();
+        registry.register(new RecordingParser("number", Set.of(CoreTokenType.NUMBER), true, calls));
+        registry.build();
+        assertUnexpectedToken(registry, CoreTokenType.IDENTIFIER, "x");
+
+        registry.register(new RecordingParser("identifier", Set.of(CoreTokenType.IDENTIFIER), true, calls));
+        registry.parse(contextOn(CoreTokenType.IDENTIFIER, "x"));
+        assertEquals(List.of("canParse identifier", "parse identifier"), calls);
+
+        registry.clear();
+        assertEquals(0, registry.getRegisteredCount());
+        assertUnexpectedToken(registry, CoreTokenType.NUMBER, "1");
+
+        calls.clear();
+        registry.register(new RecordingParser("number again", Set.of(CoreTokenType.NUMBER), true, calls));
+        registry.parse(contextOn(CoreTokenType.NUMBER, "1"));
+        assertEquals(List.of("canParse number again", "parse number again"), calls);
+    }
+
+    @Test
+    void testTokenTypeIndexedAfterBuild() {
+        List<String> calls = new ArrayList<>();
+        FactorParserRegistry registry = new FactorParserRegistry();
+        registry.register(new RecordingParser("late", Set.of(LateTokenType.LATE), true, calls));
+        int sizeAtBuild = TokenTypes.size();
+        registry.build();
+
+        registry.parse(contextOn(LateTokenType.LATE, "@"));
+        assertTrue(LateTokenType.LATE.index() >= sizeAtBuild);
+        assertEquals(List.of("canParse late", "parse late"), calls);
+        assertUnexpectedToken(registry, CoreTokenType.NUMBER, "1");
+    }
+
+    @Test
+    void testParallelParsesOnAnUnbuiltRegistry() {
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        FactorParserRegistry registry = new FactorParserRegistry();
+        registry.register(new RecordingParser("number", Set.of(CoreTokenType.NUMBER), true, calls));
+
+        // Unbuilt, so the first parses race to build the table
+        IntStream.range(0, 10_000).parallel()
+                .forEach(i -> registry.parse(contextOn(CoreTokenType.NUMBER, String.valueOf(i))));
+        assertEquals(20_000, calls.size());
+    }
+
+    /**
+     * A plugin written against the token-list canParse, before ParseContext had peekType
+     */
+    private static final class LegacyPostIncrementParser implements FactorParser {
+        @Override
+        @SuppressWarnings("deprecation")
+        public boolean canParse(Token currentToken, List<Token> tokens, int currentIndex) {
+            return currentToken.type == CoreTokenType.IDENTIFIER
+                    && currentIndex + 1 < tokens.size()
+                    && tokens.get(currentIndex + 1).type == AssignTokenType.INCREMENT;
+        }
+
+        @Override
+        public ASTNode parse(ParseContext parseContext) {
+            parseContext.advance();
+            parseContext.advance();
+            return null;
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testLegacyCanParseStillWorks() {
+        OperatorRegistry operators = new OperatorRegistry();
+        operators.register("++", AssignTokenType.INCREMENT);
+        operators.register("+", TokenTypes.BasicTokenType.PLUS);
+        FactorParser legacy = new LegacyPostIncrementParser();
+
+        List<Token> tokens = new Lexer("x ++ + y", operators).tokenize();
+        ParseContext context = new ParseContext(tokens, 0, tokens.get(0), null);
+        assertTrue(legacy.canParse(context));
+        assertEquals(4, context.getTokens().size());
+        assertEquals(2, context.getTokens().get(1).position);
+        context.advance();
+        context.advance();
+        assertFalse(legacy.canParse(context));
+        assertEquals(List.of("+", "y", ""), context.getTokens().subList(2, 5).stream().map(t -> t.value).toList());
+        assertThrows(IndexOutOfBoundsException.class, () -> context.getTokens().get(0));
+
+        StreamingTokenSource streaming = new StreamingTokenSource(operators);
+        streaming.reset("x ++ + y");
+        assertTrue(legacy.canParse(new ParseContext(streaming, null)));
+        streaming.reset("y + x ++");
+        assertFalse(legacy.canParse(new ParseContext(streaming, null)));
+
+        FactorParser incomplete = parseContext -> null;
+        assertThrows(UnsupportedOperationException.class, () -> incomplete.canParse(context));
+    }
+}
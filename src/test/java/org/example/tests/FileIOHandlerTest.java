@@ -0,0 +1,123 @@
+package org.example.tests;
+
+import org.example.io.FileIOHandler;
+import org.example.io.FlushPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests for the buffered output of FileIOHandler and its flush policies
+ */
+public class FileIOHandlerTest {
+    private static final String NL = System.lineSeparator();
+
+    @TempDir
+    Path tempDir;
+
+    private FileIOHandler createHandler(FlushPolicy policy) throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.write(input, "x = 1".getBytes());
+        return new FileIOHandler(input.toString(), output().toString(), policy);
+    }
+
+    private Path output() {
+        return tempDir.resolve("output.txt");
+    }
+
+    private String written() throws IOException {
+        return new String(Files.readAllBytes(output()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testPolicyParsing() {
+        assertSame(FlushPolicy.EVERY_LINE, FlushPolicy.fromString("line"));
+        assertSame(FlushPolicy.EVERY_LINE, FlushPolicy.fromString("lines:1"));
+        assertSame(FlushPolicy.BATCH_END, FlushPolicy.fromString(" Batch "));
+        assertEquals("lines:500", FlushPolicy.fromString("lines:500").toString());
+        assertEquals("ms:20", FlushPolicy.fromString("ms:20").toString());
+
+        for (String invalid : new String[]{null, "", "lines:0", "lines:x", "ms:-1", "seconds:3", "lines:99999999999"}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> FlushPolicy.fromString(invalid));
+            assertEquals("Invalid flush policy: " + invalid, e.getMessage());
+        }
+    }
+
+    @Test
+    void testInputIsReadOnFirstReadLine() throws IOException {
+        FileIOHandler handler = createHandler(FlushPolicy.EVERY_LINE);
+        Path input = tempDir.resolve("input.txt");
+        // Nothing was read when the handler was created
+        Files.write(input, "y = 2\nz = 3".getBytes());
+        assertEquals("y = 2", handler.readLine());
+
+        Files.write(input, "w = 4\n".getBytes());
+        handler.resetReader();
+        assertEquals("w = 4", handler.readLine());
+        assertNull(handler.readLine());
+        handler.close();
+    }
+
+    @Test
+    void testEveryLineWritesImmediately() throws IOException {
+        FileIOHandler handler = createHandler(FlushPolicy.EVERY_LINE);
+        handler.writeLine("Results:");
+        assertEquals("Results:" + NL, written());
+        handler.writeLine(new StringBuilder("Request 1 Result: (x=1)"));
+        assertEquals("Results:" + NL + "Request 1 Result: (x=1)" + NL, written());
+        handler.close();
+        handler.close();
+    }
+
+    @Test
+    void testEveryNLinesAndBatchBarrier() throws IOException {
+        FileIOHandler handler = createHandler(FlushPolicy.everyLines(3));
+        handler.writeLine("a");
+        handler.writeLine("b");
+        assertEquals("", written());
+        handler.writeLine("c");
+        assertEquals("a" + NL + "b" + NL + "c" + NL, written());
+        handler.writeLine("d");
+        assertEquals("a" + NL + "b" + NL + "c" + NL, written());
+        handler.flush();
+        assertEquals("a" + NL + "b" + NL + "c" + NL + "d" + NL, written());
+        handler.close();
+    }
+
+    @Test
+    void testBatchPolicyWritesOnFlushCloseAndFullBuffer() throws IOException {
+        FileIOHandler handler = createHandler(FlushPolicy.BATCH_END);
+        handler.writeLine("Request 1 Error: Unexpected character: \u00e9 at position 4");
+        assertEquals("", written());
+        handler.flush();
+        assertEquals("Request 1 Error: Unexpected character: \u00e9 at position 4" + NL, written());
+
+        // Lines larger than the buffer are written in pieces, also when they are not ASCII
+        StringBuilder expected = new StringBuilder(written());
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            line.append("(x").append(i).append("=\u00e9").append(i).append(')');
+        }
+        handler.writeLine(line);
+        handler.writeLine(line.toString().replace('\u00e9', 'e'));
+        expected.append(line).append(NL).append(line.toString().replace('\u00e9', 'e')).append(NL);
+        assertTrue(Files.size(output()) > 0);
+        handler.close();
+        assertEquals(expected.toString(), written());
+    }
+
+    @Test
+    void testIntervalPolicy() throws Exception {
+        FileIOHandler handler = createHandler(FlushPolicy.everyMillis(50));
+        handler.writeLine("first");
+        Thread.sleep(60);
+        handler.writeLine("second");
+        assertEquals("first" + NL + "second" + NL, written());
+        handler.close();
+    }
+}
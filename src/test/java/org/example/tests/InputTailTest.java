@@ -0,0 +1,192 @@
+package org.example.tests;
+
+import org.example.io.FileIOHandler;
+import org.example.io.InputTail;
+import org.example.lexer.AsciiByteSequence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Tests for following a growing input file from the offset of its last complete request
+ */
+public class InputTailTest {
+    @TempDir
+    Path tempDir;
+
+    private Path input() {
+        return tempDir.resolve("input.txt");
+    }
+
+    private void write(String text) throws IOException {
+        Files.write(input(), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void append(String text) throws IOException {
+        Files.write(input(), text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void testReturnsOnlyAppendedRequests() throws IOException {
+        write("x = 1\ny = 2\n\n  z = 3  \n\n");
+        InputTail tail = new InputTail(input());
+        assertEquals(List.of(List.of("x = 1", "y = 2"), List.of("z = 3")), tail.poll());
+        assertEquals(24, tail.getOffset());
+        assertEquals(List.of(), tail.poll());
+
+        append("a = 4\n\n\n\nb = 5\n\n");
+        assertEquals(List.of(List.of("a = 4"), List.of("b = 5")), tail.poll());
+        assertEquals(List.of(), tail.poll());
+        assertEquals(0, tail.getRestarts());
+    }
+
+    @Test
+    void testRepeatedRequestIsNewWhenAppended() throws IOException {
+        write("x = 1\n\n");
+        InputTail tail = new InputTail(input());
+        assertEquals(List.of(List.of("x = 1")), tail.poll());
+        append("x = 1\n\n");
+        assertEquals(List.of(List.of("x = 1")), tail.poll());
+    }
+
+    @Test
+    void testUnfinishedLastRequest() throws IOException {
+        write("x = 1\n\ny = 2");
+        InputTail tail = new InputTail(input());
+        assertEquals(List.of(List.of("x = 1"), List.of("y = 2")), tail.poll());
+        assertEquals(7, tail.getOffset());
+        assertEquals(List.of(), tail.poll());
+
+        // The last request grows: it is returned again as a whole
+        append("\nz = 3\n");
+        assertEquals(List.of(List.of("y = 2", "z = 3")), tail.poll());
+
+        // Finishing it without changing it returns nothing; the next request is new
+        append("\nw = 4\n");
+        assertEquals(List.of(List.of("w = 4")), tail.poll());
+        append("\n");
+        assertEquals(List.of(), tail.poll());
+        assertEquals(List.of(), tail.poll());
+    }
+
+    @Test
+    void testRequestsSplitAcrossReads() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append("v").append(i).append(" = ").append(i).append("\r\n\r\n");
+        }
+        write(text.toString());
+        InputTail tail = new InputTail(input());
+        List<List<CharSequence>> requests = tail.poll();
+        assertEquals(20_000, requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(List.of("v" + i + " = " + i), requests.get(i));
+        }
+        assertEquals(Files.size(input()), tail.getOffset());
+    }
+
+    @Test
+    void testPollReturnsAtMostMaxRequests() throws IOException {
+        write("a = 1\n\nb = 2\n\nc = 3\n\nd = 4\n\ne = 5\n\nf = 6");
+        InputTail tail = new InputTail(input());
+        assertEquals(List.of(List.of("a = 1"), List.of("b = 2")), tail.poll(2));
+        assertEquals(14, tail.getOffset());
+        assertEquals(List.of(List.of("c = 3"), List.of("d = 4")), tail.poll(2));
+        // The unfinished last request is left for the poll that reaches it
+        assertEquals(List.of(List.of("e = 5")), tail.poll(1));
+        assertEquals(List.of(List.of("f = 6")), tail.poll(1));
+        assertEquals(List.of(), tail.poll(1));
+    }
+
+    @Test
+    void testMappedTailReturnsViewsOfTheFile() throws IOException {
+        String text = "x = 1\r\ny = x + 2\n\n  \n\u00e9 = 3\nz = (x + y) * 10\n\n\nw = z++\r\nq = 7";
+        write(text);
+        List<List<CharSequence>> expected = new InputTail(input()).poll();
+        for (int mappingSize : new int[]{20, 64, 1 << 20}) {
+            InputTail tail = InputTail.mapped(input(), mappingSize);
+            List<List<CharSequence>> requests = tail.poll();
+            assertEquals(expected.toString(), requests.toString(), "Mapping size " + mappingSize);
+            assertInstanceOf(AsciiByteSequence.class, requests.get(0).get(1));
+            assertInstanceOf(String.class, requests.get(1).get(0));
+
+            // The unfinished last request is returned again only when it changed
+            assertEquals(List.of(), tail.poll());
+            append("\nr = 8\n");
+            assertEquals("[[w = z++, q = 7, r = 8]]", tail.poll().toString());
+            append("\n");
+            assertEquals(List.of(), tail.poll());
+            write(text);
+        }
+    }
+
+    @Test
+    void testMappedTailRejectsLineLongerThanMapping() throws IOException {
+        write("x = 1 + 2 + 3 + 4 + 5\ny = 2\n");
+        IOException e = assertThrows(IOException.class, () -> InputTail.mapped(input(), 8).poll());
+        assertEquals("Input line is longer than a mapped region, at offset: 0", e.getMessage());
+    }
+
+    @Test
+    void testNonAsciiLines() throws IOException {
+        write("\u00e9 = 3\n\n");
+        InputTail tail = new InputTail(input());
+        assertEquals(List.of(List.of("\u00e9 = 3")), tail.poll());
+    }
+
+    @Test
+    void testTruncatedFileIsFollowedFromItsBeginning() throws IOException {
+        write("x = 1\n\ny = 2\n\n");
+        InputTail tail = new InputTail(input());
+        assertEquals(2, tail.poll().size());
+
+        write("z = 3\n\n");
+        assertEquals(List.of(List.of("z = 3")), tail.poll());
+        assertEquals(1, tail.getRestarts());
+        assertEquals(7, tail.getOffset());
+    }
+
+    @Test
+    void testRewrittenFileIsFollowedFromItsBeginning() throws IOException {
+        write("x = 1\n\n");
+        InputTail tail = new InputTail(input());
+        assertEquals(1, tail.poll().size());
+
+        // Truncated and written past the old offset between two polls
+        write("a = 7\n\nb = 8\n\n");
+        assertEquals(List.of(List.of("a = 7"), List.of("b = 8")), tail.poll());
+        assertEquals(1, tail.getRestarts());
+    }
+
+    @Test
+    void testRotatedFileIsFollowedFromItsBeginning() throws IOException {
+        write("x = 1\n\n");
+        InputTail tail = new InputTail(input());
+        assertEquals(1, tail.poll().size());
+
+        // Replaced by another file that starts with the same bytes
+        Path next = tempDir.resolve("next.txt");
+        Files.write(next, "x = 1\n\ny = 2\n\n".getBytes(StandardCharsets.UTF_8));
+        Files.move(next, input(), StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(List.of(List.of("x = 1"), List.of("y = 2")), tail.poll());
+        assertEquals(1, tail.getRestarts());
+    }
+
+    @Test
+    void testFileHandlerReadsNewRequests() throws IOException {
+        write("x = 1\n\n");
+        FileIOHandler handler = new FileIOHandler(input().toString(), tempDir.resolve("output.txt").toString());
+        assertEquals(List.of(List.of("x = 1")), handler.readNewRequests());
+        append("y = 2\n");
+        assertEquals(List.of(List.of("y = 2")), handler.readNewRequests());
+        handler.close();
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.tests;
+
+import org.example.App;
+import org.example.io.InputWatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the change detection of input files in continuous mode
+ */
+public class InputWatcherTest {
+    @TempDir
+    Path tempDir;
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes());
+        return file;
+    }
+
+    @Test
+    void testDetectsAppendsAndReplacement() throws IOException {
+        Path input = write("input.txt", "x = 1\n");
+        try (InputWatcher watcher = new InputWatcher(input)) {
+            assertFalse(watcher.hasChanged());
+
+            Files.write(input, "y = 2\n".getBytes(), StandardOpenOption.APPEND);
+            assertTrue(watcher.hasChanged());
+            assertFalse(watcher.hasChanged());
+
+            // Same size and modification time, but another file
+            FileTime modified = Files.getLastModifiedTime(input);
+            Path next = write("next.txt", "x = 1\ny = 2\n");
+            Files.setLastModifiedTime(next, modified);
+            Files.move(next, input, StandardCopyOption.REPLACE_EXISTING);
+            assertTrue(watcher.hasChanged());
+
+            Files.delete(input);
+            assertFalse(watcher.hasChanged());
+        }
+    }
+
+    @Test
+    void testDetectsChangesWithinOneMillisecond() throws IOException {
+        Path input = write("input.txt", "x = 1\n");
+        FileTime modified = FileTime.from(1_700_000_000_000_000L, TimeUnit.MICROSECONDS);
+        Files.setLastModifiedTime(input, modified);
+        try (InputWatcher watcher = new InputWatcher(input)) {
+            FileTime later = FileTime.from(1_700_000_000_000_001L, TimeUnit.MICROSECONDS);
+            Files.setLastModifiedTime(input, later);
+            assumeTrue(Files.getLastModifiedTime(input).equals(later), "File system keeps microseconds");
+            assertTrue(watcher.hasChanged());
+        }
+    }
+
+    @Test
+    void testAwaitReturnsSoonAfterAChange() throws Exception {
+        Path input = write("input.txt", "x = 1\n");
+        try (InputWatcher watcher = new InputWatcher(input)) {
+            assumeTrue(watcher.isWatching(), "No WatchService for the temporary directory");
+            // Let the poll interval grow to its limit
+            for (int i = 0; i < 20; i++) {
+                watcher.hasChanged();
+            }
+
+            Thread writer = new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                    Files.write(input, "y = 2\n".getBytes(), StandardOpenOption.APPEND);
+                } catch (IOException | InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            long start = System.nanoTime();
+            writer.start();
+            watcher.awaitChange();
+            long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            writer.join();
+            assertTrue(waited < InputWatcher.MAX_POLL_MILLIS / 2, "Waited " + waited + " ms");
+            assertTrue(watcher.hasChanged());
+        }
+    }
+
+    /**
+     * An idle app answers an appended request without waiting out its poll interval
+     * The latency itself is timed by WatcherBenchmark.
+     */
+    @Test
+    void testAppendedRequestIsAnsweredBeforeThePollInterval() throws Exception {
+        Path input = write("input.txt", "x = 1\n\n");
+        Path output = tempDir.resolve("output.txt");
+        try (InputWatcher probe = new InputWatcher(input)) {
+            assumeTrue(probe.isWatching(), "No WatchService for the temporary directory");
+        }
+        Thread app = new Thread(() -> {
+            try {
+                App.runApp(new String[]{"file", "assignment", input.toString(), output.toString()});
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        app.start();
+        waitForOutput(output, "Request 1 ");
+        // Idle long enough for the poll interval to reach its limit
+        Thread.sleep(InputWatcher.MAX_POLL_MILLIS + 200);
+
+        long start = System.nanoTime();
+        Files.write(input, "y = 2\n\n".getBytes(), StandardOpenOption.APPEND);
+        waitForOutput(output, "Request 2 Result: (y=2)");
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Files.write(input, "exit\n".getBytes(), StandardOpenOption.APPEND);
+        app.join(10_000);
+        assertFalse(app.isAlive(), "App should exit");
+        assertTrue(latency < InputWatcher.MAX_POLL_MILLIS / 2, "Waited " + latency + " ms");
+    }
+
+    private static void waitForOutput(Path output, String text) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!(Files.exists(output) && Files.readString(output).contains(text))) {
+            assertTrue(System.currentTimeMillis() < deadline, "No output " + text);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.tests;
+
+import org.example.App;
+import org.example.calculator.AssignmentCalculator;
+import org.example.calculator.Calculator;
+import org.example.io.FileIOHandler;
+import org.example.io.FlushPolicy;
+import org.example.io.InputTail;
+import org.example.io.MappedFileIOHandler;
+import org.example.lexer.AsciiByteSequence;
+import org.example.lexer.LexerMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for reading input from a memory-mapped file
+ */
+public class MappedFileIOHandlerTest {
+    private static final String INPUT = "x = 1\r\ny = x + 2\n\n  \n\u00e9 = 3\nz = (x + y) * 10\n\n\nw = z++\r\nq = 7";
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private static List<String> readLines(org.example.io.IOHandler handler) {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = handler.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    void testLinesMatchFileHandlerAcrossRegions() throws IOException {
+        Path input = write("input.txt", INPUT);
+        FileIOHandler file = new FileIOHandler(input.toString(), tempDir.resolve("out1.txt").toString());
+        List<String> expected = readLines(file);
+        file.close();
+
+        for (int regionSize : new int[]{20, 64, MappedFileIOHandler.DEFAULT_REGION_SIZE}) {
+            MappedFileIOHandler mapped = new MappedFileIOHandler(input.toString(),
+                    tempDir.resolve("out2.txt").toString(), FlushPolicy.EVERY_LINE, regionSize);
+            assertEquals(expected, readLines(mapped), "Region size " + regionSize);
+            assertNull(mapped.readLine());
+            mapped.resetReader();
+            assertEquals(expected, readLines(mapped));
+            mapped.close();
+        }
+    }
+
+    @Test
+    void testRequestsAreViewsOfTheMappedBytes() throws IOException {
+        Path input = write("input.txt", INPUT);
+        MappedFileIOHandler mapped = new MappedFileIOHandler(input.toString(),
+                tempDir.resolve("out.txt").toString(), FlushPolicy.BATCH_END, 20);
+
+        List<List<CharSequence>> requests = new ArrayList<>();
+        List<CharSequence> request;
+        while (!(request = mapped.readRequest()).isEmpty()) {
+            requests.add(request);
+        }
+        assertEquals(3, requests.size());
+        assertInstanceOf(AsciiByteSequence.class, requests.get(0).get(1));
+        assertInstanceOf(String.class, requests.get(1).get(0));
+        assertEquals("[x = 1, y = x + 2]", requests.get(0).toString());
+        assertEquals("[w = z++, q = 7]", requests.get(2).toString());
+
+        for (LexerMode mode : LexerMode.values()) {
+            Calculator calc = new AssignmentCalculator();
+            calc.setLexerMode(mode);
+            assertEquals("(x=1,y=3)", calc.processExpressions(requests.get(0)), mode.toString());
+            assertEquals("(z=0,\u00e9=3)", calc.processExpressions(requests.get(1)), mode.toString());
+            assertEquals("(q=7,w=0,z=1)", calc.processExpressions(requests.get(2)), mode.toString());
+        }
+        mapped.close();
+    }
+
+    @Test
+    void testLineLongerThanRegionIsRejected() throws IOException {
+        Path input = write("input.txt", "x = 1 + 2 + 3 + 4 + 5\ny = 2\n");
+        MappedFileIOHandler mapped = new MappedFileIOHandler(input.toString(),
+                tempDir.resolve("out.txt").toString(), FlushPolicy.EVERY_LINE, 8);
+        // The file is mapped on the first read from the beginning
+        IOException e = assertThrows(IOException.class, mapped::readRequest);
+        assertEquals("Input line is longer than a mapped region, at offset: 0", e.getMessage());
+        mapped.close();
+    }
+
+    @Test
+    void testNewRequestsAreViewsOfTheMappedBytes() throws IOException {
+        Path input = write("input.txt", INPUT);
+        MappedFileIOHandler mapped = new MappedFileIOHandler(input.toString(),
+                tempDir.resolve("out.txt").toString(), FlushPolicy.BATCH_END, 20);
+        assertTrue(mapped.readsInPlace());
+
+        List<List<CharSequence>> requests = mapped.readNewRequests();
+        assertEquals("[[x = 1, y = x + 2], [\u00e9 = 3, z = (x + y) * 10], [w = z++, q = 7]]", requests.toString());
+        assertInstanceOf(AsciiByteSequence.class, requests.get(2).get(0));
+        assertEquals(List.of(), mapped.readNewRequests());
+        mapped.close();
+    }
+
+    @Test
+    void testResetReaderMapsAppendedContent() throws IOException {
+        Path input = write("input.txt", "x = 1\n");
+        MappedFileIOHandler mapped = new MappedFileIOHandler(input.toString(), tempDir.resolve("out.txt").toString());
+        assertEquals(List.of("x = 1"), readLines(mapped));
+        assertFalse(mapped.hasNewContent());
+
+        Files.write(input, "\ny = 2\n".getBytes(), StandardOpenOption.APPEND);
+        assertTrue(mapped.hasNewContent());
+        mapped.resetReader();
+        assertFalse(mapped.hasNewContent());
+        assertEquals(List.of("x = 1", "", "y = 2"), readLines(mapped));
+        mapped.close();
+    }
+
+    /**
+     * Run the app in continuous mode until it has written its results, then make it exit
+     */
+    private static String runApp(String ioType, Path input, Path output, String... extraArgs) throws Exception {
+        return runApp(3, ioType, "assignment", input, output, extraArgs);
+    }
+
+    private static String runApp(int requests, String ioType, String calculatorType, Path input, Path output,
+                                 String... extraArgs) throws Exception {
+        List<String> args = new ArrayList<>(List.of(ioType, calculatorType, input.toString(), output.toString()));
+        args.addAll(List.of(extraArgs));
+        Thread app = new Thread(() -> {
+            try {
+                App.runApp(args.toArray(new String[0]));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        app.start();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline
+                && !(Files.exists(output) && Files.readString(output).contains("Request " + requests + " "))) {
+            Thread.sleep(20);
+        }
+        Files.write(input, "\nexit\n".getBytes(), StandardOpenOption.APPEND);
+        app.join(10_000);
+        assertFalse(app.isAlive(), "App should exit");
+        return Files.readString(output);
+    }
+
+    @Test
+    void testAppOutputMatchesFileMode() throws Exception {
+        String content = "i = 0\nj = ++i\nx = i++ + 5\n\ny = (5 + 3) * 10\ni += y\n\nz = 1 / 0\n";
+        Path fileInput = write("file_input.txt", content);
+        Path mappedInput = write("mapped_input.txt", content);
+
+        String expected = runApp("file", fileInput, tempDir.resolve("file.txt"));
+        assertTrue(expected.contains("Request 3 Error: Division by zero"), expected);
+        assertEquals(expected, runApp("mmap", mappedInput, tempDir.resolve("mapped.txt"), "batch"));
+        for (String calculatorType : new String[]{"compiled", "tiered"}) {
+            Path input = write(calculatorType + "_input.txt", content);
+            assertEquals(expected, runApp(3, "mmap", calculatorType, input, tempDir.resolve(calculatorType + ".txt")),
+                    calculatorType);
+        }
+    }
+
+    @Test
+    void testAppReadsInputLargerThanOneBatch() throws Exception {
+        int requests = InputTail.DEFAULT_MAX_REQUESTS + 5;
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= requests; i++) {
+            content.append("x = ").append(i).append("\n\n");
+        }
+        String output = runApp(requests, "mmap", "assignment", write("input.txt", content.toString()), tempDir.resolve("out.txt"));
+        assertTrue(output.contains("Request 1 Result: (x=1)"), output);
+        assertTrue(output.contains("Request " + requests + " Result: (x=" + requests + ")"));
+    }
+}
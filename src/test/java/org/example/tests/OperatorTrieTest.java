@@ -0,0 +1,137 @@
+package org.example.tests;
+
+import org.example.calculator.AssignmentCalculator;
+import org.example.calculator.Calculator;
+import org.example.lexer.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.example.lexer.TokenTypes.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for operator matching through the registry's trie
+ */
+public class OperatorTrieTest {
+
+    private static OperatorRegistry createRegistry() {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.register("+", BasicTokenType.PLUS);
+        registry.register("++", AssignTokenType.INCREMENT);
+        registry.register("+=", AssignTokenType.PLUS_ASSIGN);
+        registry.register("-", BasicTokenType.MINUS);
+        registry.register("-=", AssignTokenType.MINUS_ASSIGN);
+        registry.register("*", BasicTokenType.MULTIPLY);
+        registry.register("=", BasicTokenType.ASSIGN);
+        registry.build();
+        return registry;
+    }
+
+    private static String match(OperatorRegistry registry, String input, int position) {
+        OperatorInfo operator = registry.matchOperator(input, position);
+        return operator != null ? operator.pattern : null;
+    }
+
+    @Test
+    void testLongestMatch() {
+        OperatorRegistry registry = createRegistry();
+        assertEquals("++", match(registry, "x++", 1));
+        assertEquals("+=", match(registry, "x+=1", 1));
+        assertEquals("+", match(registry, "x+1", 1));
+        assertEquals("+", match(registry, "x+", 1));
+        assertEquals("++", match(registry, "+++", 0));
+        assertEquals("+", match(registry, "+++", 2));
+        assertEquals("-=", match(registry, "-=", 0));
+        assertNull(match(registry, "x+1", 0));
+        assertNull(match(registry, "x+1", 3));
+    }
+
+    @Test
+    void testPrefixWithoutOperatorFallsBackToShorterMatch() {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.register("<", BasicTokenType.MINUS);
+        registry.register("<<=", AssignTokenType.MINUS_ASSIGN);
+        registry.build();
+
+        // "<<" is only a prefix of "<<=", not an operator
+        assertEquals("<", match(registry, "<<x", 0));
+        assertEquals("<<=", match(registry, "<<=", 0));
+        assertEquals("<", match(registry, "<<", 0));
+        assertNull(match(registry, "=", 0));
+    }
+
+    @Test
+    void testChildrenBelowAndAboveTheFirstCharacter() {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.register("m", BasicTokenType.MINUS);
+        registry.register("a", BasicTokenType.PLUS);
+        registry.register("z", BasicTokenType.MULTIPLY);
+        registry.register("ma", AssignTokenType.PLUS_ASSIGN);
+        registry.register("mz", AssignTokenType.MULTIPLY_ASSIGN);
+        registry.build();
+
+        assertEquals(BasicTokenType.PLUS, registry.matchOperator("a", 0).tokenType);
+        assertEquals(BasicTokenType.MULTIPLY, registry.matchOperator("z", 0).tokenType);
+        assertEquals(AssignTokenType.PLUS_ASSIGN, registry.matchOperator("ma", 0).tokenType);
+        assertEquals(AssignTokenType.MULTIPLY_ASSIGN, registry.matchOperator("mz", 0).tokenType);
+        assertEquals(BasicTokenType.MINUS, registry.matchOperator("mb", 0).tokenType);
+        assertNull(registry.matchOperator("b", 0));
+    }
+
+    @Test
+    void testFirstRegistrationOfAPatternWins() {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.register("+", BasicTokenType.PLUS);
+        registry.register("+", BasicTokenType.MINUS);
+        assertEquals(BasicTokenType.PLUS, registry.matchOperator("+", 0).tokenType);
+    }
+
+    @Test
+    void testRegisteringAfterBuildRebuildsTheTrie() {
+        OperatorRegistry registry = createRegistry();
+        assertEquals("*", match(registry, "**", 0));
+        registry.register("**", BasicTokenType.MULTIPLY);
+        assertEquals("**", match(registry, "**", 0));
+    }
+
+    @Test
+    void testRecognizedOperatorsKeepTheirPosition() {
+        OperatorRegistry registry = createRegistry();
+        String line = "x = 1" + " + 1".repeat(1_000);
+        Token first = registry.recognizeOperator(line, 6);
+        Token last = registry.recognizeOperator(line, line.length() - 3);
+        assertEquals(BasicTokenType.PLUS, first.type);
+        assertEquals("+", first.value);
+        assertEquals(6, first.position);
+        assertEquals(line.length() - 3, last.position);
+    }
+
+    @Test
+    void testLexerKeepsPositionsOfOperatorTokens() {
+        Lexer lexer = new Lexer("ab += ++c", createRegistry());
+        List<Token> tokens = lexer.tokenize();
+        assertEquals(AssignTokenType.PLUS_ASSIGN, tokens.get(1).type);
+        assertEquals(3, tokens.get(1).position);
+        assertEquals(6, tokens.get(2).position);
+        assertEquals(9, tokens.get(4).position);
+        assertArrayEquals(new int[]{0, 3, 6, 8, 9}, Arrays.copyOf(lexer.getPositions(), tokens.size()));
+
+        // The parser's source shares operator tokens, but still reports where each one is
+        TokenSource source = new Lexer("ab += ++c", createRegistry()).tokenSource();
+        source.advance();
+        assertEquals(AssignTokenType.PLUS_ASSIGN, source.getType(0));
+        assertEquals(3, source.getPosition(0));
+        assertEquals(3, source.getToken(0).position);
+        source.advance();
+        assertEquals(6, source.getToken(0).position);
+    }
+
+    @Test
+    void testErrorPositionsPastLongPrefixes() {
+        Calculator calc = new AssignmentCalculator();
+        String prefix = "x = 1" + " + 1".repeat(100);
+        Exception e = assertThrows(RuntimeException.class, () -> calc.processExpressions(List.of(prefix + " + * 2")));
+        assertEquals("Unexpected token: MULTIPLY at position " + (prefix.length() + 3), e.getMessage());
+    }
+}
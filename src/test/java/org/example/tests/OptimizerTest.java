@@ -0,0 +1,112 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.parser.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for constant folding and algebraic simplification of parsed expressions
+ */
+public class OptimizerTest {
+
+    /**
+     * Renders an AST with explicit parentheses around every binary node
+     */
+    private static final class Printer implements ASTVisitor<String> {
+        private static final Map<BinaryOperator, String> SYMBOLS = Map.of(
+                BinaryOperator.PLUS, "+", BinaryOperator.MINUS, "-",
+                BinaryOperator.MULTIPLY, "*", BinaryOperator.DIVIDE, "/");
+
+        @Override
+        public String visitNumber(int value) {
+            return String.valueOf(value);
+        }
+
+        @Override
+        public String visitVariable(String name, int slot) {
+            return name;
+        }
+
+        @Override
+        public String visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            return "(" + left.accept(this) + " " + SYMBOLS.get(operator) + " " + right.accept(this) + ")";
+        }
+
+        @Override
+        public String visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            return variable + " " + (operator == AssignmentOperator.ASSIGN ? "=" : operator.name()) + " " + expression.accept(this);
+        }
+
+        @Override
+        public String visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            return (isIncrement ? "++" : "--") + variable;
+        }
+
+        @Override
+        public String visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            return variable + (isIncrement ? "++" : "--");
+        }
+    }
+
+    private static String optimize(String expression) {
+        Calculator calc = new AssignmentCalculator();
+        ExpressionCache cache = new ExpressionCache();
+        calc.setExpressionCache(cache);
+        run(calc, List.of(expression));
+        return ((ASTNode) cache.get(expression)).accept(new Printer());
+    }
+
+    private static String run(Calculator calc, List<String> expressions) {
+        try {
+            return calc.processExpressions(expressions);
+        } catch (RuntimeException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    @Test
+    void testConstantFolding() {
+        assertEquals("y = 80", optimize("y = (5 + 3) * 10"));
+        assertEquals("y = (x + 7)", optimize("y = (x + 3) + 4"));
+        assertEquals("y = (x + 2)", optimize("y = 5 + x - 3"));
+        assertEquals("y = (x * 12)", optimize("y = 3 * (x * 4)"));
+    }
+
+    @Test
+    void testIdentitiesAndStrengthReduction() {
+        assertEquals("y = x", optimize("y = x * 1 + 0"));
+        assertEquals("y = x", optimize("y = x / 1 - 0"));
+        assertEquals("y = 0", optimize("y = x * 0"));
+        assertEquals("y = 0", optimize("y = x - x"));
+        assertEquals("y = (x + x)", optimize("y = x * 2"));
+    }
+
+    @Test
+    void testSideEffectsAndErrorsAreKept() {
+        assertEquals("y = (x++ * 0)", optimize("y = x++ * 0"));
+        assertEquals("y = ((x / 0) * 0)", optimize("y = x / 0 * 0"));
+        assertEquals("y = (1 / 0)", optimize("y = 1 / 0"));
+
+        Calculator calc = new AssignmentCalculator();
+        assertEquals("Error: Division by zero", run(calc, List.of("y = 7 / (3 - 3)")));
+        assertEquals("(x=2,y=0)", run(calc, List.of("x = 1", "y = x++ * 0")));
+    }
+
+    @Test
+    void testRandomRequestsMatchUnoptimized() {
+        Random random = new Random(7);
+        Calculator plain = new AssignmentCalculator();
+        plain.setOptimizationEnabled(false);
+        Calculator optimized = new AssignmentCalculator();
+
+        for (int i = 0; i < 1000; i++) {
+            List<String> request = RequestGenerator.randomRequest(random, 6);
+            assertEquals(run(plain, request), run(optimized, request), request.toString());
+        }
+    }
+}
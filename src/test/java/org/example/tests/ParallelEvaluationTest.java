@@ -0,0 +1,131 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.engine.EngineType;
+import org.example.lexer.TokenTypes.BasicTokenType;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for evaluating independent lines of large requests in parallel
+ */
+public class ParallelEvaluationTest {
+
+    /**
+     * Assignment calculator whose division errors name the dividend, so errors of different lines differ
+     */
+    private static final class LabelledCalculator extends AssignmentCalculator {
+        @Override
+        protected void configureOperations() {
+            super.configureOperations();
+            operationRegistry.registerBinaryOperation(BasicTokenType.DIVIDE, (left, right) -> {
+                if (right == 0) {
+                    throw new RuntimeException("Division by zero: " + left);
+                }
+                return left / right;
+            });
+        }
+    }
+
+    private static String run(Calculator calc, List<String> expressions) {
+        try {
+            return calc.processExpressions(expressions);
+        } catch (RuntimeException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Random lines over a few variables of one of many independent groups, with some lines across groups
+     */
+    private static List<String> randomRequest(Random random, int lines, int groups) {
+        List<String> request = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            String line = RequestGenerator.randomLine(random);
+            if (random.nextInt(50) == 0) {
+                line = "a" + random.nextInt(groups) + " += b" + random.nextInt(groups);
+            } else {
+                line = line.replaceAll("\\b([abc])\\b", "$1" + random.nextInt(groups));
+            }
+            request.add(line);
+        }
+        return request;
+    }
+
+    @Test
+    void testIndependentGroupsMatchSequentialResults() {
+        Random random = new Random(41);
+        Calculator sequential = new LabelledCalculator();
+        Calculator parallel = new LabelledCalculator();
+        parallel.setParallelEvaluationEnabled(true);
+
+        int successes = 0;
+        for (int i = 0; i < 30; i++) {
+            List<String> request = randomRequest(random, Calculator.MIN_PARALLEL_LINES + random.nextInt(3000), 64);
+            if (i % 2 == 0) {
+                // Long random requests nearly always divide by zero somewhere
+                request.replaceAll(line -> line.replace('/', '-'));
+            }
+            String expected = run(sequential, request);
+            assertEquals(expected, run(parallel, request), "request " + i);
+            if (!expected.startsWith("Error")) {
+                successes++;
+            }
+        }
+        assertTrue(successes > 0, "Some requests should succeed");
+    }
+
+    @Test
+    void testLowestFailingLineIsReported() {
+        Random random = new Random(43);
+        Calculator sequential = new LabelledCalculator();
+        Calculator parallel = new LabelledCalculator();
+        parallel.setParallelEvaluationEnabled(true);
+
+        for (int i = 0; i < 20; i++) {
+            List<String> request = new ArrayList<>();
+            for (int line = 0; line < Calculator.MIN_PARALLEL_LINES * 2; line++) {
+                request.add("v" + (line % 97) + " = v" + (line % 97) + " + " + line);
+            }
+            // Failures in unrelated lines; the earliest one must win
+            for (int failure = 0; failure < 5; failure++) {
+                int line = random.nextInt(request.size());
+                request.set(line, "e" + line + " = " + line + " / 0");
+            }
+            if (i % 4 == 0) {
+                request.set(random.nextInt(request.size()), "x = )");
+            }
+            assertEquals(run(sequential, request), run(parallel, request), "request " + i);
+        }
+    }
+
+    @Test
+    void testSharedInputFansOut() {
+        Calculator parallel = new AssignmentCalculator();
+        parallel.setParallelEvaluationEnabled(true);
+        parallel.setEngineType(EngineType.CLOSURE);
+
+        List<String> request = new ArrayList<>();
+        request.add("base = 7");
+        StringBuilder expected = new StringBuilder("(base=8");
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < Calculator.MIN_PARALLEL_LINES; i++) {
+            request.add("r" + i + " = base * " + i);
+            names.add("r" + i);
+        }
+        // Written after every reader, so each reader must still see 7
+        request.add("base++");
+        names.sort(null);
+        for (String name : names) {
+            expected.append(",").append(name).append("=").append(7 * Integer.parseInt(name.substring(1)));
+        }
+        expected.append(")");
+
+        assertEquals(expected.toString(), run(parallel, request));
+        assertEquals(expected.toString(), run(parallel, request), "The calculator is reusable");
+    }
+}
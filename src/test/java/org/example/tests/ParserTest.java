@@ -0,0 +1,155 @@
+package org.example.tests;
+
+import org.example.lexer.*;
+import org.example.operations.OperationRegistry;
+import org.example.parser.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.example.lexer.TokenTypes.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for operator precedence and associativity in the parser and its OperatorTable
+ */
+public class ParserTest {
+    private static final OperatorRegistry REGISTRY = createRegistry();
+    private static final FactorParserRegistry FACTOR_PARSERS = createFactorParsers();
+
+    private static OperatorRegistry createRegistry() {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.register("++", AssignTokenType.INCREMENT);
+        registry.register("--", AssignTokenType.DECREMENT);
+        registry.register("+=", AssignTokenType.PLUS_ASSIGN);
+        registry.register("-=", AssignTokenType.MINUS_ASSIGN);
+        registry.register("*=", AssignTokenType.MULTIPLY_ASSIGN);
+        registry.register("/=", AssignTokenType.DIVIDE_ASSIGN);
+        registry.register("+", BasicTokenType.PLUS);
+        registry.register("-", BasicTokenType.MINUS);
+        registry.register("*", BasicTokenType.MULTIPLY);
+        registry.register("/", BasicTokenType.DIVIDE);
+        registry.register("=", BasicTokenType.ASSIGN);
+        registry.build();
+        return registry;
+    }
+
+    private static FactorParserRegistry createFactorParsers() {
+        FactorParserRegistry registry = new FactorParserRegistry();
+        new FactorParserConfigurator().configureAssignment(registry);
+        return registry;
+    }
+
+    /**
+     * Prints binary operations fully parenthesized
+     */
+    private static final class Printer implements ASTVisitor<String> {
+        private static final Map<BinaryOperator, String> SYMBOLS = Map.of(
+                BinaryOperator.PLUS, "+", BinaryOperator.MINUS, "-",
+                BinaryOperator.MULTIPLY, "*", BinaryOperator.DIVIDE, "/");
+
+        @Override
+        public String visitNumber(int value) {
+            return String.valueOf(value);
+        }
+
+        @Override
+        public String visitVariable(String name, int slot) {
+            return name;
+        }
+
+        @Override
+        public String visitBinary(BinaryOperator operator, ASTNode left, ASTNode right) {
+            return "(" + left.accept(this) + " " + SYMBOLS.get(operator) + " " + right.accept(this) + ")";
+        }
+
+        @Override
+        public String visitAssignment(String variable, int slot, AssignmentOperator operator, ASTNode expression) {
+            return variable + " " + operator.name() + " " + expression.accept(this);
+        }
+
+        @Override
+        public String visitPreIncrement(String variable, int slot, boolean isIncrement) {
+            return (isIncrement ? "++" : "--") + variable;
+        }
+
+        @Override
+        public String visitPostIncrement(String variable, int slot, boolean isIncrement) {
+            return variable + (isIncrement ? "++" : "--");
+        }
+    }
+
+    private static String parse(String expression, OperatorTable table) {
+        Lexer lexer = new Lexer(expression, REGISTRY);
+        List<Token> tokens = lexer.tokenize();
+        Parser parser = new Parser(new ListTokenSource(tokens, lexer.getPositions()), FACTOR_PARSERS, table);
+        return parser.parseAssignment().accept(new Printer());
+    }
+
+    private static String parse(String expression) {
+        return parse(expression, OperatorTable.DEFAULT);
+    }
+
+    @Test
+    void testOperatorsOfEqualPrecedenceGroupFromTheLeft() {
+        assertEquals("((a + b) + c)", parse("a + b + c"));
+        assertEquals("((a - b) - c)", parse("a - b - c"));
+        assertEquals("((a * b) * c)", parse("a * b * c"));
+        assertEquals("((a / b) / c)", parse("a / b / c"));
+        assertEquals("((a + b) - c)", parse("a + b - c"));
+        assertEquals("((a - b) + c)", parse("a - b + c"));
+        assertEquals("((a * b) / c)", parse("a * b / c"));
+        assertEquals("((a / b) * c)", parse("a / b * c"));
+    }
+
+    @Test
+    void testMultiplicationAndDivisionBindTighter() {
+        for (String additive : new String[]{"+", "-"}) {
+            for (String multiplicative : new String[]{"*", "/"}) {
+                assertEquals("(a " + additive + " (b " + multiplicative + " c))",
+                        parse("a " + additive + " b " + multiplicative + " c"));
+                assertEquals("((a " + multiplicative + " b) " + additive + " c)",
+                        parse("a " + multiplicative + " b " + additive + " c"));
+            }
+        }
+        assertEquals("((a - (b * c)) + (d / e))", parse("a - b * c + d / e"));
+        assertEquals("((a + b) * c)", parse("(a + b) * c"));
+        assertEquals("x PLUS_ASSIGN (y + (2 * z++))", parse("x += y + 2 * z++"));
+    }
+
+    @Test
+    void testTableMatchesOperatorEnums() {
+        OperationRegistry operations = new OperationRegistry();
+        operations.registerBinaryOperation(BasicTokenType.PLUS, Integer::sum);
+        operations.registerAssignmentOperation(AssignTokenType.DIVIDE_ASSIGN, (current, value) -> current / value);
+        OperatorTable table = OperatorTable.build(REGISTRY, operations);
+
+        for (int index = 0; index < TokenTypes.size(); index++) {
+            TokenType type = TokenTypes.fromIndex(index);
+            boolean binary = BinaryOperator.isBinaryOperator(type);
+            assertEquals(binary ? BinaryOperator.fromTokenType(type) : null, table.getBinaryOperator(index), type.toString());
+            assertEquals(binary ? BinaryOperator.getPrecedence(type) : OperatorTable.NO_PRECEDENCE,
+                    table.getPrecedence(index), type.toString());
+            assertFalse(table.isRightAssociative(index), type.toString());
+            assertEquals(AssignmentOperator.isAssignmentOperator(type) ? AssignmentOperator.fromTokenType(type) : null,
+                    table.getAssignmentOperator(index), type.toString());
+            assertSame(operations.findBinaryOperation(type), table.getBinaryOperation(index), type.toString());
+            assertSame(operations.findAssignmentOperation(type), table.getAssignmentOperation(index), type.toString());
+        }
+        assertEquals(OperatorTable.NO_PRECEDENCE, table.getPrecedence(TokenTypes.size() + 10));
+        assertFalse(table.isRightAssociative(TokenTypes.size() + 10));
+    }
+
+    @Test
+    void testRightAssociativeOperator() {
+        OperatorTable table = OperatorTable.DEFAULT.withAssociativity(BinaryOperator.MINUS, Associativity.RIGHT);
+        assertTrue(table.isRightAssociative(BasicTokenType.MINUS.index()));
+        assertEquals("(a - (b - c))", parse("a - b - c", table));
+        assertEquals("(a - (b - (c - d)))", parse("a - b - c - d", table));
+        // Precedence still decides first, and other operators still group from the left
+        assertEquals("(a - ((b * c) - d))", parse("a - b * c - d", table));
+        assertEquals("((a + b) - (c - d))", parse("a + b - c - d", table));
+        assertEquals("(a - ((b + c) + d))", parse("a - b + c + d", table));
+        assertEquals("((a - b) - c)", parse("a - b - c"));
+    }
+}
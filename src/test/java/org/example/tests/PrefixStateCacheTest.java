@@ -0,0 +1,99 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for resuming requests from snapshots after shared prefixes
+ */
+public class PrefixStateCacheTest {
+
+    private static String run(Calculator calc, List<String> expressions) {
+        try {
+            return calc.processExpressions(expressions);
+        } catch (RuntimeException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    @Test
+    void testSharedPrefixIsSkipped() {
+        PrefixStateCache cache = new PrefixStateCache();
+        Calculator calc = new AssignmentCalculator();
+        calc.setPrefixStateCache(cache);
+
+        assertEquals("(a=1,b=2,c=4)", run(calc, List.of("a = 1", "b = a + 1", "c = b * 2")));
+        assertEquals("(a=1,b=2,d=2)", run(calc, List.of("a = 1", " b = a + 1 ", "", "d = c + b")));
+        assertEquals(0, cache.getResumeCount(), "The shared prefix is only snapshotted the second time");
+        assertEquals(1, cache.getSnapshotCount());
+
+        assertEquals("(a=1,b=2,e=7)", run(calc, List.of("a = 1", "b = a + 1", "e = b + 5")));
+        assertEquals(1, cache.getResumeCount());
+        assertEquals(2, cache.getLinesSkipped());
+
+        // Snapshots of the variables are not changed by the lines after them
+        assertEquals("(a=1,b=3)", run(calc, List.of("a = 1", "b = a + 1", "b++")));
+        assertEquals("(a=1,b=2)", run(calc, List.of("a = 1", "b = a + 1")));
+        assertEquals(3, cache.getResumeCount());
+    }
+
+    @Test
+    void testErrorsAreNotSnapshotted() {
+        PrefixStateCache cache = new PrefixStateCache();
+        Calculator calc = new AssignmentCalculator();
+        calc.setPrefixStateCache(cache);
+
+        assertEquals("Error: Division by zero", run(calc, List.of("a = 1", "b = a / 0")));
+        assertEquals("Error: Division by zero", run(calc, List.of("a = 1", "b = a / 0", "c = 1")));
+        assertEquals("Error: Division by zero", run(calc, List.of("a = 1", "b = a / 0", "c = 2")));
+        assertEquals(0, cache.getSnapshotCount());
+
+        assertEquals("(a=1,x=1)", run(calc, List.of("a = 1", "x = a")));
+        assertEquals("Error: Division by zero", run(calc, List.of("a = 1", "x = a", "y = x / 0")));
+        assertEquals("Error: Unexpected token: RPAREN at position 4", run(calc, List.of("a = 1", "x = )")));
+        assertEquals("(a=1,x=1,z=2)", run(calc, List.of("a = 1", "z = a + 1", "x = a")));
+    }
+
+    @Test
+    void testRandomRequestsMatchWithoutCache() {
+        Random random = new Random(31);
+        Calculator plain = new AssignmentCalculator();
+        Calculator cached = new AssignmentCalculator();
+        PrefixStateCache cache = new PrefixStateCache();
+        cached.setPrefixStateCache(cache);
+
+        List<List<String>> prefixes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            prefixes.add(RequestGenerator.randomRequest(random, 8));
+        }
+        for (int i = 0; i < 2000; i++) {
+            List<String> request = new ArrayList<>(prefixes.get(random.nextInt(prefixes.size())));
+            request.addAll(RequestGenerator.randomRequest(random, 4));
+            assertEquals(run(plain, request), run(cached, request), request.toString());
+        }
+        assertTrue(cache.getLinesSkipped() > 0);
+    }
+
+    @Test
+    void testMemoryIsBounded() {
+        Random random = new Random(37);
+        Calculator plain = new AssignmentCalculator();
+        Calculator cached = new AssignmentCalculator();
+        PrefixStateCache cache = new PrefixStateCache(16 * 1024, 64);
+        cached.setPrefixStateCache(cache);
+
+        for (int i = 0; i < 3000; i++) {
+            List<String> request = new ArrayList<>(List.of("a = " + random.nextInt(50), "b = a * 3"));
+            request.addAll(RequestGenerator.randomRequest(random, 6));
+            assertEquals(run(plain, request), run(cached, request), request.toString());
+            assertTrue(cache.getEstimatedBytes() <= cache.getMaxBytes());
+        }
+        assertTrue(cache.getEvictionCount() > 0);
+        assertTrue(cache.getResumeCount() > 0);
+    }
+}
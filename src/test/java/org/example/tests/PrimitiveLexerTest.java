@@ -0,0 +1,157 @@
+package org.example.tests;
+
+import org.example.calculator.AssignmentCalculator;
+import org.example.calculator.Calculator;
+import org.example.lexer.*;
+import org.example.operations.OperationRegistry;
+import org.example.parser.OperatorTable;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.example.lexer.TokenTypes.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Tests for the primitive-buffer and streaming lexer modes
+ */
+public class PrimitiveLexerTest {
+
+    private static OperatorRegistry createRegistry() {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.register("++", AssignTokenType.INCREMENT);
+        registry.register("--", AssignTokenType.DECREMENT);
+        registry.register("+=", AssignTokenType.PLUS_ASSIGN);
+        registry.register("*=", AssignTokenType.MULTIPLY_ASSIGN);
+        registry.register("+", BasicTokenType.PLUS);
+        registry.register("-", BasicTokenType.MINUS);
+        registry.register("*", BasicTokenType.MULTIPLY);
+        registry.register("/", BasicTokenType.DIVIDE);
+        registry.register("=", BasicTokenType.ASSIGN);
+        registry.build();
+        return registry;
+    }
+
+    @Test
+    void testBufferMatchesTokenList() {
+        OperatorRegistry registry = createRegistry();
+        String input = "total_1 += (x++ + 42) * --y / 7";
+
+        Lexer lexer = new Lexer(input, registry);
+        List<Token> expected = lexer.tokenize();
+        TokenBuffer buffer = new TokenBuffer();
+        buffer.fill(new TokenScanner(registry), input);
+
+        assertEquals(expected.size(), buffer.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Token token = expected.get(i);
+            assertEquals(token.type.index(), buffer.getType(i));
+            assertEquals(lexer.getPositions()[i], buffer.getStart(i));
+            assertEquals(token.value, buffer.getText(i));
+        }
+        assertEquals(42, buffer.getIntValue(6));
+    }
+
+    @Test
+    void testCalculatorResultsMatchInBufferMode() {
+        Calculator calc = new AssignmentCalculator();
+        calc.setLexerMode(LexerMode.PRIMITIVE_BUFFER);
+
+        assertEquals("(i=82,j=1,x=6,y=80)",
+                calc.processExpressions(List.of("i = 0", "j = ++i", "x = i++ + 5", "y = (5 + 3) * 10", "i += y")));
+
+        Exception e = assertThrows(RuntimeException.class, () -> calc.processExpressions(List.of("x = 1 $ 2")));
+        assertEquals("Unexpected character: $ at position 6", e.getMessage());
+        assertThrows(NumberFormatException.class, () -> calc.processExpressions(List.of("x = 99999999999")));
+    }
+
+    @Test
+    void testNoAllocationPerTokenInSteadyState() {
+        OperatorRegistry registry = createRegistry();
+        TokenScanner scanner = new TokenScanner(registry);
+        TokenBuffer buffer = new TokenBuffer();
+        String input = "alpha = (beta + 12) * gamma++ - --delta / 3 + epsilon * (zeta + 1000) - 7";
+
+        for (int i = 0; i < 20_000; i++) {
+            buffer.fill(scanner, input);
+        }
+
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int iterations = 10_000;
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            buffer.fill(scanner, input);
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+
+        long tokens = (long) iterations * buffer.size();
+        assertTrue(allocated < tokens / 100,
+                "Expected no per-token allocation, but allocated " + allocated + " bytes for " + tokens + " tokens");
+    }
+
+    @Test
+    void testStreamingModeMatchesTokenListMode() {
+        Calculator streaming = new AssignmentCalculator();
+        streaming.setLexerMode(LexerMode.STREAMING);
+
+        assertEquals("(m=14,n=26)",
+                streaming.processExpressions(List.of("m = 5", "n = m++ + ++m", "m *= 2", "n += m")));
+
+        // Lexing errors after the point where parsing fails are still reported first
+        Exception e = assertThrows(RuntimeException.class, () -> streaming.processExpressions(List.of("x = ) $")));
+        assertEquals("Unexpected character: $ at position 6", e.getMessage());
+        e = assertThrows(RuntimeException.class, () -> streaming.processExpressions(List.of("x = 1 2 #")));
+        assertEquals("Unexpected character: # at position 8", e.getMessage());
+    }
+
+    @Test
+    void testStreamingModeParsesLongLine() {
+        Calculator streaming = new AssignmentCalculator();
+        streaming.setLexerMode(LexerMode.STREAMING);
+
+        StringBuilder line = new StringBuilder("x = 0");
+        for (int i = 0; i < 2_000; i++) {
+            line.append(" + 1");
+        }
+
+        assertEquals("(x=2000)", streaming.processExpressions(List.of(line.toString())));
+    }
+
+    /**
+     * A token type defined outside TokenTypes, as before token types had indexes
+     */
+    private enum ExtensionTokenType implements TokenType {
+        CARET, TILDE
+    }
+
+    @Test
+    void testTokenTypesWithoutOwnIndex() {
+        int caret = ExtensionTokenType.CARET.index();
+        assertTrue(caret >= COUNT);
+        assertEquals(caret, ExtensionTokenType.CARET.index());
+        assertNotEquals(caret, ExtensionTokenType.TILDE.index());
+        assertSame(ExtensionTokenType.CARET, fromIndex(caret));
+        assertTrue(size() > ExtensionTokenType.TILDE.index());
+
+        OperationRegistry operations = new OperationRegistry();
+        operations.registerBinaryOperation(BasicTokenType.PLUS, Integer::sum);
+        assertNull(operations.findBinaryOperation(ExtensionTokenType.TILDE));
+        operations.registerBinaryOperation(ExtensionTokenType.CARET, (left, right) -> left ^ right);
+        assertEquals(6, operations.getBinaryOperation(ExtensionTokenType.CARET).execute(5, 3));
+        assertEquals(8, operations.getBinaryOperation(BasicTokenType.PLUS).execute(5, 3));
+
+        OperatorRegistry registry = createRegistry();
+        registry.register("^", ExtensionTokenType.CARET);
+        registry.build();
+        assertEquals(ExtensionTokenType.CARET, new Lexer("x ^ 2", registry).tokenize().get(1).type);
+        TokenBuffer buffer = new TokenBuffer();
+        buffer.fill(new TokenScanner(registry), "x ^ 2");
+        assertEquals(caret, buffer.getType(1));
+
+        OperatorTable table = OperatorTable.build(registry, operations);
+        assertNotNull(table.getBinaryOperation(caret));
+        assertNull(table.getBinaryOperator(caret));
+        assertEquals(OperatorTable.NO_PRECEDENCE, table.getPrecedence(ExtensionTokenType.TILDE.index() + 100));
+    }
+}
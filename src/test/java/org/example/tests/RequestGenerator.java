@@ -0,0 +1,56 @@
+package org.example.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates random requests for differential tests between calculator configurations, and for the benchmarks
+ */
+public final class RequestGenerator {
+    private static final String[] VARIABLES = {"a", "b", "c"};
+    private static final String[] ASSIGNMENTS = {"=", "+=", "-=", "*=", "/="};
+    private static final String[] OPERATORS = {"+", "-", "*", "/"};
+
+    private RequestGenerator() {
+    }
+
+    public static List<String> randomRequest(Random random, int maxLines) {
+        List<String> request = new ArrayList<>();
+        int lines = 1 + random.nextInt(maxLines);
+        for (int line = 0; line < lines; line++) {
+            request.add(randomLine(random));
+        }
+        return request;
+    }
+
+    public static String randomLine(Random random) {
+        String expression = randomExpression(random, 3);
+        if (random.nextInt(5) == 0) {
+            return expression;
+        }
+        return VARIABLES[random.nextInt(VARIABLES.length)] + " "
+                + ASSIGNMENTS[random.nextInt(ASSIGNMENTS.length)] + " " + expression;
+    }
+
+    public static String randomExpression(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            String variable = VARIABLES[random.nextInt(VARIABLES.length)];
+            switch (random.nextInt(6)) {
+                case 0:
+                    return String.valueOf(random.nextInt(10));
+                case 1:
+                    return variable + "++";
+                case 2:
+                    return "--" + variable;
+                case 3:
+                    return String.valueOf(random.nextInt(100000));
+                default:
+                    return variable;
+            }
+        }
+        String expression = randomExpression(random, depth - 1) + " "
+                + OPERATORS[random.nextInt(OPERATORS.length)] + " " + randomExpression(random, depth - 1);
+        return random.nextBoolean() ? "(" + expression + ")" : expression;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.errors.CalculatorError;
+import org.example.errors.ErrorMessages;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for memoizing whole-request results
+ */
+public class RequestResultCacheTest {
+
+    @Test
+    void testRepeatedRequestsReuseResultsAndErrors() {
+        RequestResultCache resultCache = new RequestResultCache();
+        ConcurrentCalculatorService service =
+                new ConcurrentCalculatorService(CalculatorType.ASSIGNMENT, new ExpressionCache(), resultCache);
+        try {
+            List<String> valid = List.of("x = 5", "y = x * 2");
+            List<String> invalid = List.of("x = 5", "y = x / 0");
+            List<List<String>> requests = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                requests.add(valid);
+                requests.add(invalid);
+            }
+
+            List<ConcurrentCalculatorService.CalculatorResult> first = service.processRequestsConcurrently(requests);
+            List<ConcurrentCalculatorService.CalculatorResult> second = service.processRequestsConcurrently(requests);
+
+            for (int i = 0; i < requests.size(); i++) {
+                assertEquals(i % 2 == 0 ? "(x=5,y=10)" : null, second.get(i).getResult());
+                assertEquals(i % 2 == 0 ? null : "Division by zero", second.get(i).getError());
+                assertEquals(first.get(i).getResult(), second.get(i).getResult());
+                assertEquals(first.size() + i + 1, second.get(i).getRequestId(), "Hits still get a new request id");
+            }
+            assertEquals(2, resultCache.size());
+            assertTrue(resultCache.getHitCount() >= requests.size());
+            assertTrue(resultCache.getHitRatio() >= 0.5);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testContentIsComparedNotJustFingerprint() {
+        RequestResultCache cache = new RequestResultCache();
+        cache.put(List.of("a = 1", "b = 2"), new RequestResultCache.Outcome("(a=1,b=2)", null));
+
+        assertNull(cache.get(List.of("b = 2", "a = 1")));
+        assertNull(cache.get(List.of("a = 1b = 2")));
+        assertEquals("(a=1,b=2)", cache.get(new ArrayList<>(List.of("a = 1", "b = 2"))).getResult());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted() {
+        RequestResultCache cache = new RequestResultCache(2, Long.MAX_VALUE);
+        cache.put(List.of("a = 1"), new RequestResultCache.Outcome("(a=1)", null));
+        cache.put(List.of("b = 2"), new RequestResultCache.Outcome("(b=2)", null));
+        assertNotNull(cache.get(List.of("a = 1")));
+        cache.put(List.of("c = 3"), new RequestResultCache.Outcome("(c=3)", null));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(List.of("a = 1")));
+        assertNull(cache.get(List.of("b = 2")));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void testErrorsAreCountedWithoutKeepingStackTraces() {
+        RequestResultCache cache = new RequestResultCache();
+        String detail = "x".repeat(1_000);
+        cache.put(List.of("a = 1"), new RequestResultCache.Outcome(
+                new CalculatorError(ErrorMessages.UNEXPECTED_CHARACTER, 3, detail)));
+        assertTrue(cache.getEstimatedBytes() >= 2L * detail.length());
+        assertTrue(cache.get(List.of("a = 1")).getError().endsWith(detail + " at position 3"));
+
+        cache.put(List.of("b = 2"), new RequestResultCache.Outcome(new NumberFormatException("For input string: \"9\"")));
+        assertEquals("For input string: \"9\"", cache.get(List.of("b = 2")).getError());
+    }
+
+    @Test
+    void testMemoryBoundIsEnforced() {
+        RequestResultCache cache = new RequestResultCache(1_000, 4_096);
+        for (int i = 0; i < 100; i++) {
+            cache.put(List.of("x = " + i, "y = x * " + i), new RequestResultCache.Outcome("(x=" + i + ")", null));
+        }
+
+        assertTrue(cache.getEstimatedBytes() <= 4_096);
+        assertTrue(cache.size() < 100);
+        assertNotNull(cache.get(List.of("x = 99", "y = x * 99")));
+        assertThrows(IllegalArgumentException.class, () -> new RequestResultCache(-1, 10));
+    }
+}
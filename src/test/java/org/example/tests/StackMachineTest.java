@@ -0,0 +1,54 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.engine.EngineType;
+import org.example.engine.StackCode;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+/**
+ * Tests for the whole-request stack machine engine
+ */
+public class StackMachineTest {
+
+    private static Calculator createCalculator() {
+        Calculator calc = new AssignmentCalculator();
+        calc.setEngineType(EngineType.fromString("vm"));
+        return calc;
+    }
+
+    @Test
+    void testAllOperators() {
+        List<String> request = List.of("a = 10", "b = 3", "c = a++ - --b * 2", "a -= b * 4 + 1", "b *= 0 - 2",
+                "d = ++a / 2 - a-- + 1", "e = (c + a) / 3", "a /= 1 + a", "b += b++ + b--");
+
+        assertEquals(new AssignmentCalculator().processExpressions(request), createCalculator().processExpressions(request));
+    }
+
+    @Test
+    void testLinesAreCompiledOnceAndShared() {
+        Calculator calc = createCalculator();
+        ExpressionCache cache = new ExpressionCache();
+        calc.setExpressionCache(cache);
+
+        assertEquals("(x=5,y=11)", calc.processExpressions(List.of("x = 5", "y = x * 2 + 1")));
+        assertEquals("(x=6,y=13)", calc.processExpressions(List.of("x = 6", "y = x * 2 + 1")));
+        assertEquals(1, cache.getHitCount());
+        assertInstanceOf(StackCode.class, cache.get("y = x * 2 + 1"));
+    }
+
+    @Test
+    void testErrorsKeepLineOrder() {
+        Calculator calc = createCalculator();
+
+        Exception e = assertThrows(RuntimeException.class, () -> calc.processExpressions(List.of("x = 1 / y", "z = )")));
+        assertEquals("Division by zero", e.getMessage());
+        e = assertThrows(RuntimeException.class, () -> calc.processExpressions(List.of("x = 1", "z = )", "y = 1 / 0")));
+        assertEquals("Unexpected token: RPAREN at position 4", e.getMessage());
+        assertThrows(NumberFormatException.class, () -> calc.processExpressions(List.of("x = 1", "y = 99999999999")));
+
+        assertEquals("(x=1)", calc.processExpressions(List.of("x = 1", "", "x + 7")));
+    }
+}
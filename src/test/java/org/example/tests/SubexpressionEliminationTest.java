@@ -0,0 +1,123 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.engine.EngineType;
+import org.example.lexer.TokenTypes.BasicTokenType;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for request-level common-subexpression elimination
+ */
+public class SubexpressionEliminationTest {
+
+    /**
+     * Assignment calculator that counts how often + is executed
+     */
+    private static final class CountingCalculator extends AssignmentCalculator {
+        private AtomicInteger additions;
+
+        @Override
+        protected void configureOperations() {
+            super.configureOperations();
+            additions = new AtomicInteger();
+            AtomicInteger counter = additions;
+            operationRegistry.registerBinaryOperation(BasicTokenType.PLUS, (left, right) -> {
+                counter.incrementAndGet();
+                return left + right;
+            });
+        }
+
+        int takeAdditions() {
+            return additions.getAndSet(0);
+        }
+    }
+
+    private static String run(Calculator calc, List<String> expressions) {
+        try {
+            return calc.processExpressions(expressions);
+        } catch (RuntimeException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    @Test
+    void testRepeatedSubexpressionIsComputedOnce() {
+        CountingCalculator calc = new CountingCalculator();
+        calc.setSubexpressionEliminationEnabled(true);
+
+        assertEquals("(a=1,b=2,c=3,x=9,y=9,z=18)", calc.processExpressions(List.of(
+                "a = 1", "b = 2", "c = 3", "x = (a + b) * c", "y = (a + b) * c", "z = (b + a) * c + (a + b) * c")));
+        assertEquals(2, calc.takeAdditions(), "a + b once, plus the outer +");
+    }
+
+    @Test
+    void testBytecodeEngineDefinesNoClassesPerRequest() {
+        CountingCalculator calc = new CountingCalculator();
+        calc.setEngineType(EngineType.BYTECODE);
+        calc.setSubexpressionEliminationEnabled(true);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("(a=1,b=2,x=6,y=6)", calc.processExpressions(List.of(
+                    "a = 1", "b = 2", "x = (a + b) * 2", "y = (a + b) * 2")));
+            // Generated bytecode adds inline; closures call the registered operation
+            assertEquals(1, calc.takeAdditions());
+        }
+    }
+
+    @Test
+    void testWritesInvalidateSubexpressions() {
+        CountingCalculator calc = new CountingCalculator();
+        calc.setSubexpressionEliminationEnabled(true);
+
+        assertEquals("(a=2,b=2,x=3,y=4)", calc.processExpressions(List.of("a = 1", "b = 2", "x = a + b", "a++", "y = a + b")));
+        assertEquals(2, calc.takeAdditions());
+
+        assertEquals("(a=2,b=2,x=9)", calc.processExpressions(List.of("a = 1", "b = 2", "x = (a + b) + ++a + (a + b)")));
+        assertEquals(4, calc.takeAdditions());
+
+        assertEquals("(a=6,b=2)", calc.processExpressions(List.of("a = 1", "b = 2", "a += a + b", "a = a + b")));
+        assertEquals(2, calc.takeAdditions());
+    }
+
+    @Test
+    void testErrorsAreRaisedInOrder() {
+        Calculator calc = new AssignmentCalculator();
+        calc.setSubexpressionEliminationEnabled(true);
+
+        assertEquals("Error: Division by zero", run(calc, List.of("x = 1 / a", "y = ) 2")));
+        assertEquals("Error: Unexpected token: RPAREN at position 4", run(calc, List.of("x = 1 / 1", "y = ) 2", "z = 1 / a")));
+        assertEquals("(a=0,x=1)", run(calc, List.of("x = 1", "a = x / 2", "")));
+    }
+
+    @Test
+    void testRandomRequestsMatchWithoutElimination() {
+        Random random = new Random(11);
+        Calculator plain = new AssignmentCalculator();
+        List<Calculator> eliminating = new ArrayList<>();
+        for (EngineType engineType : EngineType.values()) {
+            Calculator calc = new AssignmentCalculator();
+            calc.setEngineType(engineType);
+            calc.setSubexpressionEliminationEnabled(true);
+            eliminating.add(calc);
+        }
+
+        for (int i = 0; i < 300; i++) {
+            List<String> request = RequestGenerator.randomRequest(random, 6);
+            // Repeat some lines to create redundancy across the request
+            for (int repeat = random.nextInt(4); repeat > 0; repeat--) {
+                request.add(request.get(random.nextInt(request.size())));
+            }
+
+            String expected = run(plain, request);
+            for (Calculator calc : eliminating) {
+                assertEquals(expected, run(calc, request), calc.getEngineType() + " on " + request);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tests for evaluating requests that share a template column-wise
+ */
+public class TemplateBatchingTest {
+    private static final Pattern LITERAL = Pattern.compile("(?<![A-Za-z0-9_])[0-9]+");
+
+    private static List<String> withRandomLiterals(List<String> request, Random random) {
+        List<String> result = new ArrayList<>(request.size());
+        for (String line : request) {
+            Matcher matcher = LITERAL.matcher(line);
+            StringBuilder replaced = new StringBuilder();
+            while (matcher.find()) {
+                // Small values, so that some lanes divide by zero
+                matcher.appendReplacement(replaced, String.valueOf(random.nextInt(4) == 0 ? 0 : random.nextInt(100000)));
+            }
+            matcher.appendTail(replaced);
+            result.add(replaced.toString());
+        }
+        return result;
+    }
+
+    @Test
+    void testTemplateShapesAndLiterals() {
+        RequestTemplate first = RequestTemplate.of(List.of(" x = 12 + y3 ", "", "z = (x * 450)"));
+        RequestTemplate second = RequestTemplate.of(List.of("x = 7 + y3", "z = (x * 0)"));
+
+        assertEquals("x = # + y3\nz = (x * #)\n", first.getShape());
+        assertEquals(first.getShape(), second.getShape());
+        assertEquals(List.of("x = 12 + y3", "z = (x * 450)"), first.getLines());
+        assertEquals(2, second.getLiteralCount());
+        assertEquals(7, second.getLiteral(0));
+        assertEquals(0, second.getLiteral(1));
+
+        assertNull(RequestTemplate.of(List.of("x = 99999999999")));
+        assertNull(RequestTemplate.of(List.of("x = # + 1")));
+        assertNull(RequestTemplate.of(List.of("x = \u0661 + 1")));
+        assertEquals(Integer.MAX_VALUE, RequestTemplate.of(List.of("x = 2147483647")).getLiteral(0));
+    }
+
+    @Test
+    void testBatchedResultsMatchPerRequestResults() {
+        Random random = new Random(47);
+        Calculator sequential = new AssignmentCalculator();
+        ConcurrentCalculatorService service = new ConcurrentCalculatorService(CalculatorType.ASSIGNMENT);
+        service.setTemplateBatchingEnabled(true);
+        try {
+            List<List<String>> requests = new ArrayList<>();
+            for (int shape = 0; shape < 20; shape++) {
+                List<String> request = RequestGenerator.randomRequest(random, 6);
+                int lanes = random.nextInt(3) == 0 ? 3 : 50 + random.nextInt(100);
+                for (int lane = 0; lane < lanes; lane++) {
+                    requests.add(withRandomLiterals(request, random));
+                }
+            }
+            // Templates that do not parse report each request's own error position
+            for (int lane = 0; lane < 20; lane++) {
+                requests.add(List.of("x = " + random.nextInt(1000) + " )"));
+            }
+            Collections.shuffle(requests, random);
+
+            List<ConcurrentCalculatorService.CalculatorResult> results = service.processRequestsConcurrently(requests);
+            int errors = 0;
+            for (int i = 0; i < requests.size(); i++) {
+                String expectedResult = null;
+                String expectedError = null;
+                try {
+                    expectedResult = sequential.processExpressions(requests.get(i));
+                } catch (RuntimeException e) {
+                    expectedError = e.getMessage();
+                    errors++;
+                }
+                assertEquals(expectedResult, results.get(i).getResult(), requests.get(i).toString());
+                assertEquals(expectedError, results.get(i).getError(), requests.get(i).toString());
+                if (i > 0) {
+                    assertEquals(results.get(i - 1).getRequestId() + 1, results.get(i).getRequestId());
+                }
+            }
+            assertTrue(errors > 0 && errors < requests.size(), "Lanes of a template should both fail and succeed");
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testProcessTemplateFailsOnlyTheLanesThatFail() {
+        Calculator calc = new AssignmentCalculator();
+        List<RequestTemplate> requests = List.of(
+                RequestTemplate.of(List.of("a = 10", "b = a / 2", "c = a++ + ++a")),
+                RequestTemplate.of(List.of("a = 10", "b = a / 0", "c = a++ + ++a")),
+                RequestTemplate.of(List.of("a = 3", "b = a / 3", "c = a++ + ++a")));
+
+        RequestResultCache.Outcome[] outcomes = calc.processTemplate(requests);
+        assertEquals("(a=12,b=5,c=22)", outcomes[0].getResult());
+        assertNull(outcomes[1].getResult());
+        assertEquals("Division by zero", outcomes[1].getError());
+        assertEquals("(a=5,b=1,c=8)", outcomes[2].getResult());
+
+        assertNull(calc.processTemplate(List.of(RequestTemplate.of(List.of("a = (1")))));
+    }
+}
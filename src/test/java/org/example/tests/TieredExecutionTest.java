@@ -0,0 +1,108 @@
+package org.example.tests;
+
+import org.example.calculator.*;
+import org.example.engine.EngineType;
+import org.example.engine.TierMetrics;
+import org.example.engine.TieredCompiler;
+import org.example.engine.TieredExpression;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for tiered execution with background promotion
+ */
+public class TieredExecutionTest {
+
+    private static TieredExpression cached(ExpressionCache cache, String expression) {
+        return (TieredExpression) cache.get(expression);
+    }
+
+    private static void awaitTier(ExpressionCache cache, String expression, EngineType tier) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (cached(cache, expression).getTier() != tier && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(tier, cached(cache, expression).getTier());
+    }
+
+    @Test
+    void testColdExpressionsStayInterpreted() {
+        Calculator calc = CalculatorFactory.createCalculator(CalculatorType.fromString("tiered"));
+        ExpressionCache cache = new ExpressionCache();
+        calc.setExpressionCache(cache);
+
+        assertInstanceOf(TieredCalculator.class, calc);
+        assertEquals("(x=6,y=80)", calc.processExpressions(List.of("x = 6", "y = (5 + 3) * 10")));
+        assertEquals(EngineType.INTERPRETER, cached(cache, "x = 6").getTier());
+        assertEquals(1, cached(cache, "x = 6").getInvocationCount());
+    }
+
+    @Test
+    void testHotExpressionsArePromoted() throws InterruptedException {
+        Calculator calc = new TieredCalculator();
+        ExpressionCache cache = new ExpressionCache();
+        calc.setExpressionCache(cache);
+        List<String> request = List.of("a = 7", "b = a++ * 3 + --a", "a /= 2", "c = b - a * 4");
+
+        TierMetrics metrics = TieredCompiler.getSharedMetrics();
+        long promotionsBefore = metrics.getPromotionCount();
+
+        for (int i = 0; i < metrics.getClosureThreshold(); i++) {
+            assertEquals("(a=3,b=28,c=16)", calc.processExpressions(request));
+        }
+        for (String line : request) {
+            awaitTier(cache, line, EngineType.CLOSURE);
+        }
+
+        for (int i = 0; i < metrics.getBytecodeThreshold(); i++) {
+            assertEquals("(a=3,b=28,c=16)", calc.processExpressions(request));
+        }
+        for (String line : request) {
+            awaitTier(cache, line, EngineType.BYTECODE);
+        }
+
+        assertEquals("(a=3,b=28,c=16)", calc.processExpressions(request));
+        assertTrue(metrics.getPromotionCount() - promotionsBefore >= 2 * request.size());
+        assertTrue(metrics.getTierCount(EngineType.BYTECODE) >= request.size());
+    }
+
+    @Test
+    void testPromotionKeepsErrors() throws InterruptedException {
+        Calculator calc = new TieredCalculator();
+        ExpressionCache cache = new ExpressionCache();
+        calc.setExpressionCache(cache);
+
+        for (int i = 0; i < TieredCompiler.DEFAULT_BYTECODE_THRESHOLD + 1; i++) {
+            Exception e = assertThrows(RuntimeException.class, () -> calc.processExpressions(List.of("x = 1", "y = 5 / (x - 1)")));
+            assertEquals("Division by zero", e.getMessage());
+        }
+        awaitTier(cache, "y = 5 / (x - 1)", EngineType.BYTECODE);
+
+        Exception e = assertThrows(RuntimeException.class, () -> calc.processExpressions(List.of("x = 1", "y = 5 / (x - 1)")));
+        assertEquals("Division by zero", e.getMessage());
+    }
+
+    @Test
+    void testConcurrentServiceExposesTierMetrics() {
+        ConcurrentCalculatorService service = new ConcurrentCalculatorService(CalculatorType.TIERED);
+        try {
+            List<List<String>> requests = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                requests.add(List.of("x = " + (i % 5), "y = x * 2 + 1"));
+            }
+            for (ConcurrentCalculatorService.CalculatorResult result : service.processRequestsConcurrently(requests)) {
+                assertFalse(result.hasError());
+            }
+
+            TierMetrics metrics = service.getTierMetrics();
+            assertEquals(TieredCompiler.DEFAULT_CLOSURE_THRESHOLD, metrics.getClosureThreshold());
+            assertEquals(TieredCompiler.DEFAULT_BYTECODE_THRESHOLD, metrics.getBytecodeThreshold());
+            assertTrue(metrics.getTierCount(EngineType.INTERPRETER) + metrics.getTierCount(EngineType.CLOSURE) > 0);
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.tests;
+
+import org.example.calculator.AssignmentCalculator;
+import org.example.calculator.Calculator;
+import org.example.calculator.ExpressionCache;
+import org.example.calculator.PrefixStateCache;
+import org.example.calculator.SymbolTable;
+import org.example.calculator.VariableStore;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * Tests for the slot-indexed VariableStore and the SymbolTable
+ */
+public class VariableStoreTest {
+    private final SymbolTable symbols = new SymbolTable(SymbolTable.DEFAULT_MAX_SIZE);
+
+    @Test
+    void testSlotsAreStableAndDense() {
+        int slot = symbols.slotOf("store_test_alpha");
+        assertEquals(slot, symbols.slotOf("store_test_alpha"));
+        assertEquals("store_test_alpha", symbols.nameOf(slot));
+        assertNotEquals(slot, symbols.slotOf("store_test_beta"));
+        assertEquals(2, symbols.size());
+    }
+
+    @Test
+    void testUnsetVariablesReadAsZero() {
+        VariableStore store = new VariableStore(symbols);
+        assertEquals(0, store.getValue("store_test_unset"));
+        assertEquals(0, store.getValue(symbols.size() + 1000));
+        assertEquals("()", store.getFormattedOutput());
+    }
+
+    @Test
+    void testReadingUnknownNamesAssignsNoSlot() {
+        VariableStore store = new VariableStore(symbols);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, store.getValue("store_test_read_" + i));
+        }
+        assertEquals(0, symbols.size());
+        assertEquals(-1, symbols.find("store_test_read_0"));
+    }
+
+    @Test
+    void testNameAndSlotAccessAgree() {
+        VariableStore store = new VariableStore(symbols);
+        store.assign("store_test_x", 7);
+        assertEquals(7, store.getValue(symbols.slotOf("store_test_x")));
+
+        store.assign(symbols.slotOf("store_test_x"), 9);
+        assertEquals(9, store.getValue("store_test_x"));
+    }
+
+    @Test
+    void testFullTableIsReplacedAndCachesFollow() {
+        SymbolTable first = new SymbolTable(64);
+        ExpressionCache cache = new ExpressionCache();
+        Calculator calc = new AssignmentCalculator();
+        calc.setSymbolTable(first);
+        calc.setExpressionCache(cache);
+        Calculator prefixed = new AssignmentCalculator();
+        prefixed.setSymbolTable(first);
+        prefixed.setExpressionCache(cache);
+        prefixed.setPrefixStateCache(new PrefixStateCache());
+        Calculator other = new AssignmentCalculator();
+        SymbolTable otherTable = other.getSymbolTable();
+
+        for (int i = 0; i < 1000; i++) {
+            String name = "store_test_unique_" + i;
+            List<String> request = List.of("shared = 2", name + " = shared * " + i);
+            String expected = "(shared=2," + name + "=" + (2 * i) + ")";
+            assertEquals(expected, calc.processExpressions(request));
+            assertEquals(expected, prefixed.processExpressions(request));
+            // Both calculators move on to the same successors
+            assertSame(calc.getSymbolTable().latest(), prefixed.getSymbolTable().latest());
+            assertTrue(calc.getSymbolTable().size() <= 64 + 2);
+        }
+        assertNotSame(first, calc.getSymbolTable());
+        assertSame(first.latest(), calc.getSymbolTable().latest());
+        assertTrue(cache.size() <= 64 + 2);
+        assertTrue(cache.getHitCount() > 0);
+
+        // Calculators with a table of their own are not affected
+        assertEquals("(a=1)", other.processExpressions(List.of("a = 1")));
+        assertSame(otherTable, other.getSymbolTable());
+    }
+
+    @Test
+    void testOutputIsSortedByName() {
+        VariableStore store = new VariableStore(symbols);
+        store.assign("store_test_z", 3);
+        store.assign("store_test_a", 1);
+        store.assign("store_test_m", -2);
+        store.assign("store_test_a", 5);
+
+        assertEquals("(store_test_a=5,store_test_m=-2,store_test_z=3)", store.getFormattedOutput());
+    }
+
+    @Test
+    void testClearForgetsAllVariables() {
+        VariableStore store = new VariableStore(symbols);
+        store.assign("store_test_x", 1);
+        store.assign("store_test_y", 2);
+        store.clear();
+
+        assertEquals(0, store.getValue("store_test_x"));
+        assertEquals("()", store.getFormattedOutput());
+
+        store.assign("store_test_y", 4);
+        assertEquals("(store_test_y=4)", store.getFormattedOutput());
+
+        for (int i = 0; i < 1000; i++) {
+            store.clear();
+        }
+        assertEquals(0, store.getValue("store_test_y"));
+        assertEquals("()", store.getFormattedOutput());
+    }
+
+    @Test
+    void testOutputOfManyNewVariablesIsSortedLikeStrings() {
+        // Names are created in shuffled order, so some requests run before the ranks cover them
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            names.add("store_test_many_" + Integer.toString(i, 36) + (i % 3 == 0 ? "_" : "A"));
+        }
+        Collections.shuffle(names, new Random(21));
+
+        VariableStore store = new VariableStore(symbols);
+        for (int size = 1; size <= names.size(); size *= 3) {
+            List<String> request = names.subList(0, size);
+            store.clear();
+            for (int i = 0; i < request.size(); i++) {
+                store.assign(request.get(i), i);
+                store.assign(symbols.slotOf(SymbolTable.temporaryName(i)), i);
+            }
+
+            List<String> sorted = new ArrayList<>(request);
+            Collections.sort(sorted);
+            StringJoiner expected = new StringJoiner(",", "(", ")");
+            for (String name : sorted) {
+                expected.add(name + "=" + request.indexOf(name));
+            }
+            assertEquals(expected.toString(), store.getFormattedOutput());
+
+            StringBuilder appended = new StringBuilder("Result: ");
+            store.formatTo(appended);
+            assertEquals("Result: " + expected, appended.toString());
+        }
+    }
+}